@@ -0,0 +1,157 @@
+/*
+ * #%L
+ * BroadleafCommerce Open Admin Platform
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.admin.server.service.export;
+
+import org.apache.commons.lang3.StringUtils;
+import org.broadleafcommerce.common.presentation.client.SupportedFieldType;
+import org.broadleafcommerce.common.util.FormatUtil;
+import org.broadleafcommerce.core.order.service.type.OrderStatus;
+import org.broadleafcommerce.openadmin.dto.BasicFieldMetadata;
+import org.broadleafcommerce.openadmin.dto.Property;
+import org.broadleafcommerce.openadmin.server.service.export.AbstractStreamingAdminExporter;
+import org.hibernate.Query;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams every submitted order, optionally limited to a range of submit dates. The query selects scalar values only, so
+ * no entity is loaded while the cursor is open (see {@link AbstractStreamingAdminExporter} regarding MySQL).
+ * <p>
+ * Exporters are not registered out of the box. To make this one available in the admin, add it to the
+ * 'blAdminExporters' list.
+ */
+@Component("blSubmittedOrderStreamingExporter")
+public class SubmittedOrderStreamingExporter extends AbstractStreamingAdminExporter {
+
+    public static final String START_DATE_PARAM = "startDate";
+    public static final String END_DATE_PARAM = "endDate";
+
+    protected static final List<String> COLUMNS = Arrays.asList("id", "orderNumber", "submitDate", "customerId",
+            "emailAddress", "currency", "subTotal", "totalTax", "totalFulfillmentCharges", "total");
+
+    @Override
+    public String getName() {
+        return "submittedOrderStreamingExporter";
+    }
+
+    @Override
+    public String getFriendlyName() {
+        return "Submitted Orders";
+    }
+
+    @Override
+    public String getType() {
+        return "ORDER";
+    }
+
+    @Override
+    protected String getBaseFileName() {
+        return "submitted-orders";
+    }
+
+    @Override
+    public List<Property> getCriteriaFields() {
+        List<Property> criteria = new ArrayList<Property>();
+        criteria.add(buildDateCriteria(START_DATE_PARAM, "Start Date"));
+        criteria.add(buildDateCriteria(END_DATE_PARAM, "End Date"));
+        return criteria;
+    }
+
+    protected Property buildDateCriteria(String name, String friendlyName) {
+        Property property = new Property();
+        property.setName(name);
+        BasicFieldMetadata metadata = new BasicFieldMetadata();
+        metadata.setName(name);
+        metadata.setFriendlyName(friendlyName);
+        metadata.setFieldType(SupportedFieldType.DATE);
+        property.setMetadata(metadata);
+        return property;
+    }
+
+    @Override
+    protected Query createQuery(Session session, Map<String, String> params) {
+        Date startDate = parseDate(params.get(START_DATE_PARAM));
+        Date endDate = parseDate(params.get(END_DATE_PARAM));
+        Long resumeAfterId = getResumeAfterId(params);
+
+        StringBuilder hql = new StringBuilder("SELECT o.id, o.orderNumber, o.submitDate, o.customer.id, o.emailAddress, ")
+                .append("currency.currencyCode, o.subTotal, o.totalTax, o.totalFulfillmentCharges, o.total ")
+                .append("FROM org.broadleafcommerce.core.order.domain.OrderImpl o LEFT JOIN o.currency currency ")
+                .append("WHERE o.status = :status");
+        if (startDate != null) {
+            hql.append(" AND o.submitDate >= :startDate");
+        }
+        if (endDate != null) {
+            hql.append(" AND o.submitDate <= :endDate");
+        }
+        if (resumeAfterId != null) {
+            hql.append(" AND o.id > :resumeAfterId");
+        }
+        hql.append(" ORDER BY o.id");
+
+        Query query = session.createQuery(hql.toString());
+        query.setParameter("status", OrderStatus.SUBMITTED.getType());
+        if (startDate != null) {
+            query.setParameter("startDate", startDate);
+        }
+        if (endDate != null) {
+            query.setParameter("endDate", endDate);
+        }
+        if (resumeAfterId != null) {
+            query.setParameter("resumeAfterId", resumeAfterId);
+        }
+        return query;
+    }
+
+    protected Date parseDate(String value) {
+        if (StringUtils.isBlank(value)) {
+            return null;
+        }
+        try {
+            return new SimpleDateFormat(FormatUtil.DATE_FORMAT).parse(value.trim());
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Unable to parse the export date criteria (" + value + "), expected the format "
+                    + FormatUtil.DATE_FORMAT, e);
+        }
+    }
+
+    @Override
+    protected List<String> getColumnNames(Map<String, String> params) {
+        return COLUMNS;
+    }
+
+    @Override
+    protected List<Object> extractRow(Object result, Map<String, String> params) {
+        return Arrays.asList((Object[]) result);
+    }
+
+    @Override
+    protected Serializable getIdentifier(Object result) {
+        return (Serializable) ((Object[]) result)[0];
+    }
+
+}
@@ -20,6 +20,7 @@ package org.broadleafcommerce.admin.server.service.extension;
 import org.broadleafcommerce.common.exception.ServiceException;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.catalog.domain.Product;
 import org.broadleafcommerce.openadmin.dto.CriteriaTransferObject;
 import org.broadleafcommerce.openadmin.dto.FieldMetadata;
@@ -36,41 +37,49 @@ public abstract class AbstractProductCustomPersistenceHandlerExtensionHandler ex
     implements ProductCustomPersistenceHandlerExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType manageParentCategoryForAdd(PersistencePackage persistencePackage, Product product) throws ServiceException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType manageParentCategoryForUpdate(PersistencePackage persistencePackage, Product product) throws ServiceException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType manageRemove(PersistencePackage persistencePackage, Product product) throws ServiceException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType manageInspect(Map<String, FieldMetadata> metadata) throws ServiceException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType manageFields(PersistencePackage persistencePackage, Product product) throws ServiceException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType initiateFetchState() throws ServiceException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType endFetchState() throws ServiceException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType manageAdditionalFilterMappings(CriteriaTransferObject cto) throws ServiceException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
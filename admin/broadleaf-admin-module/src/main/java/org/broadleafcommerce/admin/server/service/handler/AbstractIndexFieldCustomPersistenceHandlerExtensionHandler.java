@@ -20,6 +20,7 @@ package org.broadleafcommerce.admin.server.service.handler;
 import org.broadleafcommerce.common.exception.ServiceException;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.search.domain.IndexField;
 import org.broadleafcommerce.openadmin.dto.PersistencePackage;
 
@@ -30,6 +31,7 @@ public abstract class AbstractIndexFieldCustomPersistenceHandlerExtensionHandler
         implements IndexFieldCustomPersistenceHandlerExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addtoSearchableFields(PersistencePackage persistencePackage, IndexField searchField) throws ServiceException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -22,6 +22,7 @@ import org.broadleafcommerce.cms.page.domain.Page;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.common.page.dto.PageDTO;
 
 
@@ -32,12 +33,14 @@ public abstract class AbstractPageServiceExtensionHandler extends AbstractExtens
         implements PageServiceExtensionHandler {
     
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType getFieldDefinition(ExtensionResultHolder<FieldDefinition> erh, Page page, 
             String fieldKey) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType overridePageDto(ExtensionResultHolder<PageDTO> erh, PageDTO pageDto, Page page) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
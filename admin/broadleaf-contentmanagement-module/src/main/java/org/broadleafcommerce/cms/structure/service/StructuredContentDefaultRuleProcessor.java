@@ -29,7 +29,8 @@ import java.util.Map;
 /**
  * By default, this rule processor combines all of the rules from
  * {@link org.broadleafcommerce.cms.structure.domain.StructuredContent#getStructuredContentMatchRules()}
- * into a single MVEL expression.
+ * into a single MVEL expression. Results are memoized per request, so a rule shared by many content items is only
+ * evaluated once for a given set of rule inputs.
  *
  * @author bpolster.
  *
@@ -56,7 +57,7 @@ public class StructuredContentDefaultRuleProcessor extends AbstractRuleProcessor
             if (LOG.isTraceEnabled())  {
                 LOG.trace("Processing content rule for StructuredContent with id " + sc.getId() +".   Value = " + ruleExpression);
             }
-            boolean result = executeExpression(ruleExpression, vars);
+            boolean result = executeMemoizedExpression(ruleExpression, vars);
             if (! result) {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("Content failed to pass rule and will not be included for StructuredContent with id " + sc.getId() +".   Value = " + ruleExpression);
@@ -47,6 +47,7 @@ import org.broadleafcommerce.common.locale.service.LocaleService;
 import org.broadleafcommerce.common.locale.util.LocaleUtil;
 import org.broadleafcommerce.common.money.Money;
 import org.broadleafcommerce.common.persistence.EntityConfiguration;
+import org.broadleafcommerce.common.rule.MvelHelper;
 import org.broadleafcommerce.common.rule.RuleProcessor;
 import org.broadleafcommerce.common.sandbox.domain.SandBox;
 import org.broadleafcommerce.common.site.domain.Site;
@@ -598,6 +599,8 @@ public class StructuredContentServiceImpl implements StructuredContentService {
         }
 
         scDTO.setRuleExpression(buildRuleExpression(sc));
+        // compile the rule now, while the DTO is being built for the cache, instead of on the first lookup
+        MvelHelper.compileRule(scDTO.getRuleExpression());
         buildFieldValues(sc, scDTO, secure);
 
         if (qualifyingItemCriteria.size() > 0) {
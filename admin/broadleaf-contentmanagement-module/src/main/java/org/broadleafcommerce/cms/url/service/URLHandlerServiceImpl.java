@@ -24,7 +24,9 @@ import org.broadleafcommerce.cms.url.dao.URLHandlerDao;
 import org.broadleafcommerce.cms.url.domain.NullURLHandler;
 import org.broadleafcommerce.cms.url.domain.URLHandler;
 import org.broadleafcommerce.cms.url.domain.URLHandlerDTO;
+import org.broadleafcommerce.common.cache.PersistentRetrieval;
 import org.broadleafcommerce.common.cache.StatisticsService;
+import org.broadleafcommerce.common.sandbox.service.SandBoxCacheService;
 import org.broadleafcommerce.common.site.domain.Site;
 import org.broadleafcommerce.common.util.EfficientLRUMap;
 import org.broadleafcommerce.common.web.BroadleafRequestContext;
@@ -61,6 +63,9 @@ public class URLHandlerServiceImpl implements URLHandlerService {
     @Resource(name = "blStatisticsService")
     protected StatisticsService statisticsService;
 
+    @Resource(name = "blSandBoxCacheService")
+    protected SandBoxCacheService sandBoxCacheService;
+
     protected Map<String, Pattern> urlPatternMap = new EfficientLRUMap<String, Pattern>(2000);
 
     /**
@@ -90,29 +95,19 @@ public class URLHandlerServiceImpl implements URLHandlerService {
         //See if this is in cache first, but only if we are in production
         if (BroadleafRequestContext.getBroadleafRequestContext().isProductionSandBox()) {
             handler = getUrlHandlerFromCache(key);
-        }
-
-        if (handler == null) {
-            //Check for an exact match in the DB...
-            handler = urlHandlerDao.findURLHandlerByURI(uri);
-
-            if (handler == null) {
-                //Check for a regex match
-                handler = checkForMatches(uri);
-            }
-
             if (handler == null) {
-                //Use the NullURLHandler instance. This will be cached to indicate that 
-                //This URL does not have a match.
-                handler = NULL_URL_HANDLER;
-            } else if (!(URLHandlerDTO.class.isAssignableFrom(handler.getClass()))) {
-                //Create a non-entity instance of the DTO to cache.
-                handler = new URLHandlerDTO(handler.getNewURL(), handler.getUrlRedirectType());
-            }
-
-            if (BroadleafRequestContext.getBroadleafRequestContext().isProductionSandBox()) {
+                handler = lookupURLHandler(uri);
                 getUrlHandlerCache().put(new Element(key, handler));
             }
+        } else {
+            //Sandbox previews use a cache that is scoped to the sandbox and cleared when it changes
+            final String lookupUri = uri;
+            handler = sandBoxCacheService.getCachedObject("urlHandler", key, new PersistentRetrieval<URLHandler>() {
+                @Override
+                public URLHandler retrievePersistentObject() {
+                    return lookupURLHandler(lookupUri);
+                }
+            });
         }
 
         if (handler instanceof NullURLHandler) {
@@ -122,6 +117,32 @@ public class URLHandlerServiceImpl implements URLHandlerService {
         return handler;
     }
 
+    /**
+     * Finds the handler for the URI in the database, checking for an exact match first and then for a regex match.
+     *
+     * @param uri
+     * @return a non-entity {@link URLHandlerDTO}, or {@link #NULL_URL_HANDLER} if there is no match
+     */
+    protected URLHandler lookupURLHandler(String uri) {
+        //Check for an exact match in the DB...
+        URLHandler handler = urlHandlerDao.findURLHandlerByURI(uri);
+
+        if (handler == null) {
+            //Check for a regex match
+            handler = checkForMatches(uri);
+        }
+
+        if (handler == null) {
+            //Use the NullURLHandler instance. This will be cached to indicate that 
+            //This URL does not have a match.
+            handler = NULL_URL_HANDLER;
+        } else if (!(URLHandlerDTO.class.isAssignableFrom(handler.getClass()))) {
+            //Create a non-entity instance of the DTO to cache.
+            handler = new URLHandlerDTO(handler.getNewURL(), handler.getUrlRedirectType());
+        }
+        return handler;
+    }
+
     @Override
     public URLHandler findURLHandlerById(Long id) {
         return urlHandlerDao.findURLHandlerById(id);
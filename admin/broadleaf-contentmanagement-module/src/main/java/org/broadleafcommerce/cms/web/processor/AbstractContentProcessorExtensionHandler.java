@@ -20,6 +20,7 @@ package org.broadleafcommerce.cms.web.processor;
 
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.common.web.deeplink.DeepLink;
 import org.broadleafcommerce.presentation.model.BroadleafTemplateContext;
 
@@ -34,16 +35,19 @@ import java.util.Map;
 public abstract class AbstractContentProcessorExtensionHandler extends AbstractExtensionHandler implements ContentProcessorExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addAdditionalFieldsToModel(String tagName, Map<String, String> tagAttributes, Map<String, Object> newModelVars, BroadleafTemplateContext context) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addExtensionFieldDeepLink(List<DeepLink> links, String tagName, Map<String, String> tagAttributes, BroadleafTemplateContext context) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType postProcessDeepLinks(List<DeepLink> links) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
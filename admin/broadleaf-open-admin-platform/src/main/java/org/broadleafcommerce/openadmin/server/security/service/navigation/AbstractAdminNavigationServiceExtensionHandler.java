@@ -20,6 +20,7 @@ package org.broadleafcommerce.openadmin.server.security.service.navigation;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.openadmin.server.security.domain.AdminSection;
 
 /**
@@ -33,6 +34,7 @@ import org.broadleafcommerce.openadmin.server.security.domain.AdminSection;
 public abstract class AbstractAdminNavigationServiceExtensionHandler extends AbstractExtensionHandler implements AdminNavigationServiceExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType overrideClassNameForSection(ExtensionResultHolder erh, String sectionKey, AdminSection section) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -0,0 +1,227 @@
+/*
+ * #%L
+ * BroadleafCommerce Open Admin Platform
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.openadmin.server.service.export;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.util.DialectHelper;
+import org.broadleafcommerce.common.util.TransactionUtils;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.servlet.ServletOutputStream;
+
+/**
+ * <p>
+ * Base class for exporters that need to write large result sets (e.g. all orders or all customers). Rather than loading
+ * the full result through the dynamic entity services, the query is read with a forward-only Hibernate cursor and rows
+ * are handed to an {@link ExportRowWriter} one at a time. Every {@link #getBatchSize()} rows the writer is flushed to the
+ * client and the persistence context is cleared, so heap usage is bounded by the batch size rather than the row count.
+ * Writing to the servlet stream blocks when the client is slow to read, which in turn stops the cursor from advancing.
+ * </p>
+ * <p>
+ * Implementers provide the HQL query, the columns and the conversion of a result into a row. To support resuming a
+ * failed export, the query should be ordered by identifier and honor the {@link #RESUME_AFTER_PARAM} parameter
+ * (see {@link #getResumeAfterId(Map)}); the last exported identifier is tracked in {@link ExportProgress}.
+ * </p>
+ * <p>
+ * MySQL Connector/J ignores a positive fetch size and reads the whole result into memory unless the connection uses
+ * {@code useCursorFetch=true}. On MySQL the fetch size is therefore {@link Integer#MIN_VALUE}, which makes the driver
+ * stream rows one at a time. No other statement can run on the connection while such a result is open, so
+ * {@link #extractRow(Object, Map)} must not trigger lazy loads; select the needed values in the query instead. Set
+ * 'admin.export.mysql.cursorFetch=true' when the connection is configured for cursor fetching to keep the batch fetch size.
+ * </p>
+ */
+public abstract class AbstractStreamingAdminExporter implements AdminExporter {
+
+    private static final Log LOG = LogFactory.getLog(AbstractStreamingAdminExporter.class);
+
+    public static final String FORMAT_PARAM = "format";
+    public static final String RESUME_AFTER_PARAM = "resumeAfterId";
+    public static final String CSV_FORMAT = "csv";
+    public static final String JSON_FORMAT = "json";
+
+    @PersistenceContext(unitName = "blPU")
+    protected EntityManager em;
+
+    @Resource(name = "blDialectHelper")
+    protected DialectHelper dialectHelper;
+
+    @Value("${admin.export.mysql.cursorFetch:false}")
+    protected boolean mySqlCursorFetch = false;
+
+    protected int batchSize = 500;
+
+    @Override
+    @Transactional(value = TransactionUtils.DEFAULT_TRANSACTION_MANAGER, readOnly = true)
+    public void writeExport(ServletOutputStream out, Map<String, String> params) throws IOException {
+        ExportProgress progress = new ExportProgress(getName());
+        try {
+            writeExport(out, params, progress);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Export failed after writing " + progress.getRowCount() + " rows. It can be resumed by passing "
+                    + RESUME_AFTER_PARAM + "=" + progress.getLastIdentifier(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * The file name for an export in the default format. Use {@link #getFileName(Map)} when the request parameters are
+     * available so that the extension matches the requested {@link #FORMAT_PARAM}.
+     */
+    @Override
+    public String getFileName() {
+        return getFileName(new HashMap<String, String>());
+    }
+
+    /**
+     * The file name for an export with the given parameters: {@link #getBaseFileName()} followed by the extension of the
+     * {@link ExportRowWriter} selected for the requested {@link #FORMAT_PARAM}
+     */
+    public String getFileName(Map<String, String> params) {
+        return getBaseFileName() + "." + createRowWriter(params).getFileExtension();
+    }
+
+    /**
+     * The file name, without an extension, used for the Content-Disposition header. Defaults to {@link #getName()}.
+     */
+    protected String getBaseFileName() {
+        return getName();
+    }
+
+    /**
+     * Stream the export to the given output. This method expects to run inside of a (read only) transaction.
+     *
+     * @param out the destination stream. It is flushed after every batch but is not closed.
+     * @param params the request parameters, including any criteria fields
+     * @param progress updated as rows are written so that the caller can monitor or resume the export
+     * @throws IOException
+     */
+    public void writeExport(OutputStream out, Map<String, String> params, ExportProgress progress) throws IOException {
+        Session session = em.unwrap(Session.class);
+        Query query = createQuery(session, params);
+        query.setReadOnly(true);
+        query.setCacheable(false);
+        query.setFetchSize(getFetchSize());
+
+        ExportRowWriter writer = createRowWriter(params);
+        ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            writer.start(out, getColumnNames(params));
+            int batchCount = 0;
+            while (results.next()) {
+                Object[] result = results.get();
+                Object entity = result.length == 1 ? result[0] : result;
+                writer.writeRow(extractRow(entity, params));
+                progress.recordRow(getIdentifier(entity));
+                if (++batchCount >= getBatchSize()) {
+                    writer.flush();
+                    session.clear();
+                    batchCount = 0;
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(progress.toString());
+                    }
+                }
+            }
+            writer.finish();
+            progress.markComplete();
+        } finally {
+            results.close();
+        }
+    }
+
+    /**
+     * The JDBC fetch size for the export query. This is the batch size, except on MySQL without cursor fetching where
+     * {@link Integer#MIN_VALUE} is the only value that streams the result.
+     */
+    protected int getFetchSize() {
+        if (!mySqlCursorFetch && dialectHelper != null && dialectHelper.isMySql(em)) {
+            return Integer.MIN_VALUE;
+        }
+        return getBatchSize();
+    }
+
+    /**
+     * Create the row writer for the requested {@link #FORMAT_PARAM}. Defaults to CSV.
+     */
+    protected ExportRowWriter createRowWriter(Map<String, String> params) {
+        if (JSON_FORMAT.equalsIgnoreCase(params.get(FORMAT_PARAM))) {
+            return new JsonExportRowWriter();
+        }
+        return new CsvExportRowWriter();
+    }
+
+    /**
+     * The identifier from which a resumed export should continue, or null if this is not a resumed export
+     */
+    protected Long getResumeAfterId(Map<String, String> params) {
+        String resumeAfter = params.get(RESUME_AFTER_PARAM);
+        if (resumeAfter == null || resumeAfter.trim().length() == 0) {
+            return null;
+        }
+        return Long.valueOf(resumeAfter.trim());
+    }
+
+    /**
+     * Build the (HQL) query for this export. Parameters should already be bound. The query should be ordered by identifier
+     * in order to support resuming from {@link #getResumeAfterId(Map)}.
+     */
+    protected abstract Query createQuery(Session session, Map<String, String> params);
+
+    /**
+     * The ordered column names written as the header of the export
+     */
+    protected abstract List<String> getColumnNames(Map<String, String> params);
+
+    /**
+     * Convert a single query result into the column values for a row. The result is either the single selected entity or
+     * the Object[] tuple when the query selects multiple values.
+     */
+    protected abstract List<Object> extractRow(Object result, Map<String, String> params);
+
+    /**
+     * The identifier of a query result, recorded in {@link ExportProgress} to allow a failed export to be resumed.
+     * Returns null by default.
+     */
+    protected Serializable getIdentifier(Object result) {
+        return null;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+}
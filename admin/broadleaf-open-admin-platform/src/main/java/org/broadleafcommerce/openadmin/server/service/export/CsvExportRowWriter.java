@@ -0,0 +1,98 @@
+/*
+ * #%L
+ * BroadleafCommerce Open Admin Platform
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.openadmin.server.service.export;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * {@link ExportRowWriter} that writes RFC 4180 style CSV. Values containing a delimiter, quote or line break are quoted.
+ */
+public class CsvExportRowWriter implements ExportRowWriter {
+
+    protected static final String LINE_SEPARATOR = "\r\n";
+
+    protected Writer writer;
+    protected char delimiter = ',';
+
+    public CsvExportRowWriter() {
+    }
+
+    public CsvExportRowWriter(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    @Override
+    public String getFileExtension() {
+        return "csv";
+    }
+
+    @Override
+    public void start(OutputStream out, List<String> columns) throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(out, "UTF-8"));
+        writeLine(columns);
+    }
+
+    @Override
+    public void writeRow(List<Object> values) throws IOException {
+        writeLine(values);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+
+    protected void writeLine(List<?> values) throws IOException {
+        for (int j = 0; j < values.size(); j++) {
+            if (j > 0) {
+                writer.write(delimiter);
+            }
+            Object value = values.get(j);
+            if (value != null) {
+                writer.write(escape(String.valueOf(value)));
+            }
+        }
+        writer.write(LINE_SEPARATOR);
+    }
+
+    protected String escape(String value) {
+        boolean quote = false;
+        for (int j = 0; j < value.length(); j++) {
+            char c = value.charAt(j);
+            if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+}
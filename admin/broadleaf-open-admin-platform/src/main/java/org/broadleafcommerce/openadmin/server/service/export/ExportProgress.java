@@ -0,0 +1,79 @@
+/*
+ * #%L
+ * BroadleafCommerce Open Admin Platform
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.openadmin.server.service.export;
+
+import java.io.Serializable;
+
+/**
+ * Tracks how far a streaming export has progressed. The last exported identifier can be passed back to the exporter
+ * through the {@link AbstractStreamingAdminExporter#RESUME_AFTER_PARAM} parameter to continue a failed export with a
+ * keyset query instead of starting over.
+ *
+ * @see AbstractStreamingAdminExporter
+ */
+public class ExportProgress implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    protected final String exporterName;
+    protected final long startTime = System.currentTimeMillis();
+    protected volatile long rowCount = 0;
+    protected volatile Serializable lastIdentifier;
+    protected volatile boolean complete = false;
+
+    public ExportProgress(String exporterName) {
+        this.exporterName = exporterName;
+    }
+
+    public void recordRow(Serializable identifier) {
+        rowCount++;
+        if (identifier != null) {
+            lastIdentifier = identifier;
+        }
+    }
+
+    public void markComplete() {
+        complete = true;
+    }
+
+    public String getExporterName() {
+        return exporterName;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public Serializable getLastIdentifier() {
+        return lastIdentifier;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    @Override
+    public String toString() {
+        return "ExportProgress{exporterName='" + exporterName + "', rowCount=" + rowCount + ", lastIdentifier="
+                + lastIdentifier + ", complete=" + complete + ", elapsedMillis=" + getElapsedMillis() + "}";
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * BroadleafCommerce Open Admin Platform
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.openadmin.server.service.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Writes export rows incrementally to an output stream. Implementations must not buffer more than a single row
+ * (plus whatever the underlying stream buffers) so that heap usage stays flat regardless of the size of the export.
+ * A new instance is used for each export.
+ *
+ * @see AbstractStreamingAdminExporter
+ */
+public interface ExportRowWriter {
+
+    /**
+     * Begin the export, writing any header information for the given columns
+     *
+     * @param out the stream that receives the export
+     * @param columns the ordered column names for every subsequent row
+     * @throws IOException
+     */
+    void start(OutputStream out, List<String> columns) throws IOException;
+
+    /**
+     * Write a single row. The values are in the same order as the columns passed to {@link #start(OutputStream, List)}.
+     *
+     * @param values
+     * @throws IOException
+     */
+    void writeRow(List<Object> values) throws IOException;
+
+    /**
+     * Push any buffered content to the underlying stream. Called at the end of every batch, which gives the client
+     * connection a chance to apply backpressure before more rows are read from the database.
+     *
+     * @throws IOException
+     */
+    void flush() throws IOException;
+
+    /**
+     * Complete the export, writing any trailing content. Does not close the underlying stream.
+     *
+     * @throws IOException
+     */
+    void finish() throws IOException;
+
+    /**
+     * The extension, without the leading period, of a file containing this writer's output
+     */
+    String getFileExtension();
+
+}
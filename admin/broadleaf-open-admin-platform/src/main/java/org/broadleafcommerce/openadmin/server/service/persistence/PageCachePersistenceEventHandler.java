@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * BroadleafCommerce Open Admin Platform
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.openadmin.server.service.persistence;
+
+import org.broadleafcommerce.common.cache.PageCacheService;
+import org.broadleafcommerce.common.exception.ServiceException;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.broadleafcommerce.openadmin.dto.Entity;
+import org.broadleafcommerce.openadmin.dto.PersistencePackage;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * Clears the {@link PageCacheService} on every storefront node whenever an entity is added, updated or removed in
+ * production through the admin, since cached storefront pages may render it. Changes made in a non-production sandbox are not visible to
+ * storefront visitors, so they leave the page cache alone.
+ */
+@Component("blPageCachePersistenceEventHandler")
+public class PageCachePersistenceEventHandler extends PersistenceManagerEventHandlerAdapter {
+
+    @Resource(name = "blPageCacheService")
+    protected PageCacheService pageCacheService;
+
+    @Override
+    public PersistenceManagerEventHandlerResponse postAdd(PersistenceManager persistenceManager, Entity entity, PersistencePackage persistencePackage) throws ServiceException {
+        invalidate();
+        return super.postAdd(persistenceManager, entity, persistencePackage);
+    }
+
+    @Override
+    public PersistenceManagerEventHandlerResponse postUpdate(PersistenceManager persistenceManager, Entity entity, PersistencePackage persistencePackage) throws ServiceException {
+        invalidate();
+        return super.postUpdate(persistenceManager, entity, persistencePackage);
+    }
+
+    @Override
+    public PersistenceManagerEventHandlerResponse postRemove(PersistenceManager persistenceManager, PersistencePackage persistencePackage) throws ServiceException {
+        invalidate();
+        return super.postRemove(persistenceManager, persistencePackage);
+    }
+
+    protected void invalidate() {
+        BroadleafRequestContext context = BroadleafRequestContext.getBroadleafRequestContext();
+        if (context == null || context.isProductionSandBox()) {
+            pageCacheService.invalidateAll();
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+
+}
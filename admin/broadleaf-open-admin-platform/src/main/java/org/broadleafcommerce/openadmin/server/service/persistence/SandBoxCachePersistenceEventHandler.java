@@ -0,0 +1,61 @@
+/*
+ * #%L
+ * BroadleafCommerce Open Admin Platform
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.openadmin.server.service.persistence;
+
+import org.broadleafcommerce.common.exception.ServiceException;
+import org.broadleafcommerce.common.sandbox.service.SandBoxCacheService;
+import org.broadleafcommerce.openadmin.dto.Entity;
+import org.broadleafcommerce.openadmin.dto.PersistencePackage;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * Invalidates the {@link SandBoxCacheService} entries for the current sandbox whenever an entity is added, updated or
+ * removed in it through the admin, so that previews of the sandbox reflect the change right away.
+ */
+@Component("blSandBoxCachePersistenceEventHandler")
+public class SandBoxCachePersistenceEventHandler extends PersistenceManagerEventHandlerAdapter {
+
+    @Resource(name = "blSandBoxCacheService")
+    protected SandBoxCacheService sandBoxCacheService;
+
+    @Override
+    public PersistenceManagerEventHandlerResponse postAdd(PersistenceManager persistenceManager, Entity entity, PersistencePackage persistencePackage) throws ServiceException {
+        sandBoxCacheService.invalidateCurrentSandBox();
+        return super.postAdd(persistenceManager, entity, persistencePackage);
+    }
+
+    @Override
+    public PersistenceManagerEventHandlerResponse postUpdate(PersistenceManager persistenceManager, Entity entity, PersistencePackage persistencePackage) throws ServiceException {
+        sandBoxCacheService.invalidateCurrentSandBox();
+        return super.postUpdate(persistenceManager, entity, persistencePackage);
+    }
+
+    @Override
+    public PersistenceManagerEventHandlerResponse postRemove(PersistenceManager persistenceManager, PersistencePackage persistencePackage) throws ServiceException {
+        sandBoxCacheService.invalidateCurrentSandBox();
+        return super.postRemove(persistenceManager, persistencePackage);
+    }
+
+    @Override
+    public int getOrder() {
+        return LOWEST_PRECEDENCE;
+    }
+
+}
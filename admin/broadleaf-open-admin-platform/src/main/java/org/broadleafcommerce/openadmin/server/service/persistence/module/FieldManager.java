@@ -23,7 +23,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.broadleafcommerce.common.persistence.EntityConfiguration;
+import org.broadleafcommerce.common.util.BLCFieldAccessor;
 import org.broadleafcommerce.common.util.BLCFieldUtils;
+import org.broadleafcommerce.common.util.EfficientLRUMap;
 import org.broadleafcommerce.common.util.HibernateUtils;
 import org.broadleafcommerce.common.value.ValueAssignable;
 import org.broadleafcommerce.openadmin.server.dao.DynamicEntityDao;
@@ -42,7 +44,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.StringTokenizer;
 
 import javax.persistence.EntityManager;
 import javax.persistence.metamodel.EntityType;
@@ -58,6 +59,13 @@ public class FieldManager {
 
     public static final String MAPFIELDSEPARATOR = "---";
 
+    /**
+     * Dotted property paths (e.g. "defaultSku.name" or "productAttributes---color") parsed into their segments. The
+     * set of paths is driven by admin metadata, so this stays small, but it is bounded regardless.
+     */
+    protected static final Map<String, PropertyPathSegment[]> PROPERTY_PATH_CACHE =
+            new EfficientLRUMap<String, PropertyPathSegment[]>(10000);
+
     protected EntityConfiguration entityConfiguration;
     protected EntityManager entityManager;
     protected List<SortableValue> middleFields = new ArrayList<SortableValue>(5);
@@ -71,6 +79,15 @@ public class FieldManager {
         return BLCFieldUtils.getSingleField(clazz, fieldName);
     }
 
+    /**
+     * Retrieve a cached accessor for the field on the class. This method will also look in superclasses.
+     *
+     * @see BLCFieldAccessor#getAccessor(Class, String)
+     */
+    public static BLCFieldAccessor getSingleFieldAccessor(Class<?> clazz, String fieldName) throws IllegalStateException {
+        return BLCFieldAccessor.getAccessor(clazz, fieldName);
+    }
+
     public Field getField(Class<?> clazz, String fieldName) throws IllegalStateException {
         DynamicEntityDao dynamicEntityDao = getPersistenceManager(clazz).getDynamicEntityDao();
         SessionFactory sessionFactory = dynamicEntityDao.getDynamicDaoHelper().
@@ -82,23 +99,18 @@ public class FieldManager {
     }
 
     public Object getFieldValue(Object bean, String fieldName) throws IllegalAccessException, FieldNotAvailableException {
-        StringTokenizer tokens = new StringTokenizer(fieldName, ".");
         Class<?> componentClass = bean.getClass();
         Field field = null;
         Object value = HibernateUtils.deproxy(bean);
 
-        while (tokens.hasMoreTokens()) {
-            String fieldNamePart = tokens.nextToken();
-            String mapKey = null;
-            if (fieldNamePart.contains(FieldManager.MAPFIELDSEPARATOR)) {
-                mapKey = fieldNamePart.substring(fieldNamePart.indexOf(FieldManager.MAPFIELDSEPARATOR) + FieldManager.MAPFIELDSEPARATOR.length(), fieldNamePart.length());
-                fieldNamePart = fieldNamePart.substring(0, fieldNamePart.indexOf(FieldManager.MAPFIELDSEPARATOR));
-            }
-            field = getSingleField(componentClass, fieldNamePart);
+        for (PropertyPathSegment segment : getPropertyPathSegments(fieldName)) {
+            String fieldNamePart = segment.getFieldName();
+            String mapKey = segment.getMapKey();
+            BLCFieldAccessor accessor = getSingleFieldAccessor(componentClass, fieldNamePart);
 
-            if (field != null) {
-                field.setAccessible(true);
-                value = field.get(value);
+            if (accessor != null) {
+                field = accessor.getField();
+                value = accessor.get(value);
 
                 if (mapKey != null) {
                     value = handleMapFieldExtraction(bean, fieldName, componentClass, value, fieldNamePart, mapKey);
@@ -123,26 +135,25 @@ public class FieldManager {
     }
 
     public Object setFieldValue(Object bean, String fieldName, Object newValue) throws IllegalAccessException, InstantiationException {
-        StringTokenizer tokens = new StringTokenizer(fieldName, ".");
         Class<?> componentClass = bean.getClass();
         Field field;
         bean = HibernateUtils.deproxy(bean);
         Object value = bean;
         
-        int count = tokens.countTokens();
+        PropertyPathSegment[] segments = getPropertyPathSegments(fieldName);
+        int count = segments.length;
         int j=0;
         StringBuilder sb = new StringBuilder();
-        while (tokens.hasMoreTokens()) {
-            String fieldNamePart = tokens.nextToken();
-            sb.append(fieldNamePart);
-            String mapKey = null;
-            if (fieldNamePart.contains(FieldManager.MAPFIELDSEPARATOR)) {
-                mapKey = fieldNamePart.substring(fieldNamePart.indexOf(FieldManager.MAPFIELDSEPARATOR) + FieldManager.MAPFIELDSEPARATOR.length(), fieldNamePart.length());
-                fieldNamePart = fieldNamePart.substring(0, fieldNamePart.indexOf(FieldManager.MAPFIELDSEPARATOR));
+        for (PropertyPathSegment segment : segments) {
+            sb.append(segment.getToken());
+            String fieldNamePart = segment.getFieldName();
+            String mapKey = segment.getMapKey();
+
+            BLCFieldAccessor accessor = getSingleFieldAccessor(componentClass, fieldNamePart);
+            if (accessor == null) {
+                throw new NullPointerException("Unable to find field (" + fieldNamePart + ") on the class (" + componentClass + ")");
             }
-
-            field = getSingleField(componentClass, fieldNamePart);
-            field.setAccessible(true);
+            field = accessor.getField();
             if (j == count - 1) {
                 if (mapKey != null) {
                     handleMapFieldPopulation(bean, fieldName, newValue, componentClass, field, value, fieldNamePart, mapKey);
@@ -151,10 +162,10 @@ public class FieldManager {
                     if (modifierManager != null) {
                         newValue = modifierManager.getModifiedWriteValue(field, value, newValue, entityManager);
                     }
-                    field.set(value, newValue);
+                    accessor.set(value, newValue);
                 }
             } else {
-                Object myValue = field.get(value);
+                Object myValue = accessor.get(value);
                 if (myValue != null) {
                     componentClass = myValue.getClass();
                     value = myValue;
@@ -165,7 +176,7 @@ public class FieldManager {
                         Object newEntity = entityConfiguration.createEntityInstance(field.getType().getName());
                         SortableValue val = new SortableValue(bean, (Serializable) newEntity, j, sb.toString());
                         middleFields.add(val);
-                        field.set(value, newEntity);
+                        accessor.set(value, newEntity);
                         componentClass = newEntity.getClass();
                         value = newEntity;
                     } catch (Exception e) {
@@ -176,7 +187,7 @@ public class FieldManager {
                             Object newEntity = entities[entities.length-1].newInstance();
                             SortableValue val = new SortableValue(bean, (Serializable) newEntity, j, sb.toString());
                             middleFields.add(val);
-                            field.set(value, newEntity);
+                            accessor.set(value, newEntity);
                             componentClass = newEntity.getClass();
                             value = newEntity;
                             LOG.info("Unable to find a reference to ("+field.getType().getName()+") in the EntityConfigurationManager. " +
@@ -184,7 +195,7 @@ public class FieldManager {
                         } else {
                             //Just use the field type
                             Object newEntity = field.getType().newInstance();
-                            field.set(value, newEntity);
+                            accessor.set(value, newEntity);
                             componentClass = newEntity.getClass();
                             value = newEntity;
                             LOG.info("Unable to find a reference to ("+field.getType().getName()+") in the EntityConfigurationManager. " +
@@ -364,6 +375,53 @@ public class FieldManager {
         }
     }
 
+    protected PropertyPathSegment[] getPropertyPathSegments(String fieldName) {
+        PropertyPathSegment[] segments = PROPERTY_PATH_CACHE.get(fieldName);
+        if (segments == null) {
+            String[] tokens = StringUtils.split(fieldName, '.');
+            segments = new PropertyPathSegment[tokens.length];
+            for (int j = 0; j < tokens.length; j++) {
+                segments[j] = new PropertyPathSegment(tokens[j]);
+            }
+            PROPERTY_PATH_CACHE.put(fieldName, segments);
+        }
+        return segments;
+    }
+
+    /**
+     * A single period-delimited token of a property path, with any map key (see {@link #MAPFIELDSEPARATOR}) split off
+     */
+    protected static class PropertyPathSegment {
+
+        private final String token;
+        private final String fieldName;
+        private final String mapKey;
+
+        public PropertyPathSegment(String token) {
+            this.token = token;
+            int separatorIndex = token.indexOf(FieldManager.MAPFIELDSEPARATOR);
+            if (separatorIndex >= 0) {
+                fieldName = token.substring(0, separatorIndex);
+                mapKey = token.substring(separatorIndex + FieldManager.MAPFIELDSEPARATOR.length());
+            } else {
+                fieldName = token;
+                mapKey = null;
+            }
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public String getFieldName() {
+            return fieldName;
+        }
+
+        public String getMapKey() {
+            return mapKey;
+        }
+    }
+
     private class SortableValue implements Comparable<SortableValue> {
         
         private Integer pos;
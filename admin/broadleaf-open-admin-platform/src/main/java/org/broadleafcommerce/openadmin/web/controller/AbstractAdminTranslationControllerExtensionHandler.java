@@ -19,6 +19,7 @@ package org.broadleafcommerce.openadmin.web.controller;
 
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.openadmin.web.form.TranslationForm;
 
 /**
@@ -29,6 +30,7 @@ public abstract class AbstractAdminTranslationControllerExtensionHandler extends
         implements AdminTranslationControllerExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType applyTransformation(TranslationForm form) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -17,6 +17,7 @@
  */
 package org.broadleafcommerce.openadmin.web.controller;
 
+import org.broadleafcommerce.openadmin.server.service.export.AbstractStreamingAdminExporter;
 import org.broadleafcommerce.openadmin.server.service.export.AdminExporter;
 import org.springframework.web.servlet.ModelAndView;
 
@@ -50,7 +51,12 @@ public class AdminExportController extends AdminAbstractController {
         }
         
         response.setContentType("application/download");
-        String fileName = exporter.getFileName();
+        String fileName;
+        if (exporter instanceof AbstractStreamingAdminExporter) {
+            fileName = ((AbstractStreamingAdminExporter) exporter).getFileName(params);
+        } else {
+            fileName = exporter.getFileName();
+        }
         response.setHeader("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
         
         ServletOutputStream stream = response.getOutputStream();
@@ -19,6 +19,7 @@ package org.broadleafcommerce.openadmin.web.service;
 
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.openadmin.dto.Entity;
 import org.broadleafcommerce.openadmin.web.form.component.ListGrid;
 import org.broadleafcommerce.openadmin.web.form.component.ListGridRecord;
@@ -34,36 +35,43 @@ import org.broadleafcommerce.openadmin.web.form.entity.EntityForm;
 public abstract class AbstractFormBuilderExtensionHandler extends AbstractExtensionHandler implements FormBuilderExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType modifyUnpopulatedEntityForm(EntityForm ef) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType modifyPopulatedEntityForm(EntityForm ef, Entity entity) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType modifyDetailEntityForm(EntityForm ef) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
     
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType modifyListGridRecord(String className, ListGridRecord record, Entity entity) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
     
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addAdditionalFormActions(EntityForm entityForm) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType modifyListGrid(String className, ListGrid listGrid) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addAdditionalAdornedFormActions(EntityForm entityForm) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
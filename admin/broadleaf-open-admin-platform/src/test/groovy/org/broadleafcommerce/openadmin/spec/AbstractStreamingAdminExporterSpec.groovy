@@ -0,0 +1,159 @@
+/*
+ * #%L
+ * BroadleafCommerce Open Admin Platform
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.openadmin.spec
+
+import org.broadleafcommerce.common.util.DialectHelper
+import org.broadleafcommerce.openadmin.dto.Property
+import org.broadleafcommerce.openadmin.server.service.export.AbstractStreamingAdminExporter
+import org.broadleafcommerce.openadmin.server.service.export.ExportProgress
+import org.hibernate.Query
+import org.hibernate.ScrollMode
+import org.hibernate.ScrollableResults
+import org.hibernate.Session
+
+import javax.persistence.EntityManager
+
+import spock.lang.Specification
+
+
+class AbstractStreamingAdminExporterSpec extends Specification {
+
+    Session session = Mock()
+    Query query = Mock()
+    ScrollableResults results = Mock()
+    EntityManager em = Mock()
+    TestExporter exporter
+    ExportProgress progress
+    ByteArrayOutputStream out
+
+    def setup() {
+        em.unwrap(Session) >> session
+        exporter = new TestExporter(query: query)
+        exporter.em = em
+        exporter.batchSize = 2
+        exporter.dialectHelper = new TestDialectHelper(mySql: false)
+        progress = new ExportProgress(exporter.name)
+        out = new ByteArrayOutputStream()
+    }
+
+    def "rows are written as CSV and the session is cleared after every batch"() {
+        setup:
+        results.next() >>> [true, true, true, false]
+        results.get() >>> [[1L, "first"] as Object[], [2L, "second, quoted"] as Object[], [3L, null] as Object[]]
+
+        when:
+        exporter.writeExport(out, [:], progress)
+
+        then:
+        1 * query.scroll(ScrollMode.FORWARD_ONLY) >> results
+        1 * query.setFetchSize(2)
+        1 * session.clear()
+        1 * results.close()
+        out.toString("UTF-8") == "id,name\r\n1,first\r\n2,\"second, quoted\"\r\n3,\r\n"
+        progress.rowCount == 3
+        progress.lastIdentifier == 3L
+        progress.complete
+    }
+
+    def "MySQL streams rows unless cursor fetching is configured"() {
+        setup:
+        results.next() >> false
+        query.scroll(ScrollMode.FORWARD_ONLY) >> results
+        exporter.dialectHelper = new TestDialectHelper(mySql: true)
+
+        when:
+        exporter.writeExport(out, [:], progress)
+
+        then:
+        1 * query.setFetchSize(Integer.MIN_VALUE)
+
+        when:
+        exporter.mySqlCursorFetch = true
+        exporter.writeExport(out, [:], new ExportProgress(exporter.name))
+
+        then:
+        1 * query.setFetchSize(2)
+    }
+
+    def "a failed export closes the cursor and records where to resume"() {
+        setup:
+        query.scroll(ScrollMode.FORWARD_ONLY) >> results
+        results.next() >>> [true, true, true]
+        results.get() >>> [[1L, "first"] as Object[], [2L, "second"] as Object[], [3L, "broken"] as Object[]]
+
+        when:
+        exporter.writeExport(out, [:], progress)
+
+        then:
+        thrown(IllegalStateException)
+        1 * results.close()
+        progress.rowCount == 2
+        progress.lastIdentifier == 2L
+        !progress.complete
+    }
+
+    def "the resume parameter is read as the identifier to continue after"() {
+        expect:
+        exporter.getResumeAfterId([(AbstractStreamingAdminExporter.RESUME_AFTER_PARAM): " 42 "]) == 42L
+        exporter.getResumeAfterId([:]) == null
+    }
+
+    def "the file name extension follows the requested format"() {
+        expect:
+        exporter.fileName == "test.csv"
+        exporter.getFileName([:]) == "test.csv"
+        exporter.getFileName([(AbstractStreamingAdminExporter.FORMAT_PARAM): "JSON"]) == "test.json"
+        exporter.getFileName([(AbstractStreamingAdminExporter.FORMAT_PARAM): "csv"]) == "test.csv"
+    }
+
+    static class TestExporter extends AbstractStreamingAdminExporter {
+
+        Query query
+
+        String getName() { "testExporter" }
+
+        String getFriendlyName() { "Test Exporter" }
+
+        List<Property> getCriteriaFields() { null }
+
+        String getType() { "TEST" }
+
+        protected String getBaseFileName() { "test" }
+
+        protected Query createQuery(Session session, Map<String, String> params) { query }
+
+        protected List<String> getColumnNames(Map<String, String> params) { ["id", "name"] }
+
+        protected List<Object> extractRow(Object result, Map<String, String> params) {
+            Object[] tuple = (Object[]) result
+            if (tuple[1] == "broken") {
+                throw new IllegalStateException("Unable to convert the row")
+            }
+            return tuple as List
+        }
+
+        protected Serializable getIdentifier(Object result) { (Serializable) ((Object[]) result)[0] }
+    }
+
+    static class TestDialectHelper extends DialectHelper {
+
+        boolean mySql
+
+        boolean isMySql(EntityManager em) { mySql }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.cache;
+
+import java.io.Serializable;
+
+/**
+ * A rendered page stored by the {@link PageCacheService}. The body is kept gzipped so that it can be written as is to
+ * clients that accept gzip encoding.
+ */
+public class CachedPage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    protected final byte[] gzippedBody;
+    protected final String contentType;
+    protected final long dateCreated;
+
+    public CachedPage(byte[] gzippedBody, String contentType, long dateCreated) {
+        this.gzippedBody = gzippedBody;
+        this.contentType = contentType;
+        this.dateCreated = dateCreated;
+    }
+
+    public byte[] getGzippedBody() {
+        return gzippedBody;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getDateCreated() {
+        return dateCreated;
+    }
+
+}
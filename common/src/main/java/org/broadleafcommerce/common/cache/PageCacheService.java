@@ -0,0 +1,64 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.cache;
+
+/**
+ * Stores the rendered output of storefront pages that are the same for every anonymous visitor.
+ * 
+ * @see CachedPage
+ */
+public interface PageCacheService {
+
+    /**
+     * Request attribute set while a page is being rendered to be stored in the page cache. Anything that would render
+     * visitor specific content should either defer that content to the client or call {@link #markUncacheable()}.
+     */
+    public static final String RENDERING_FOR_PAGE_CACHE = "blRenderingForPageCache";
+
+    /**
+     * Request attribute that keeps the current page out of the page cache
+     */
+    public static final String PAGE_UNCACHEABLE = "blPageUncacheable";
+
+    public boolean isEnabled();
+
+    /**
+     * @param key the page key, which must include everything the rendered output depends on
+     * @return the cached page, or null
+     */
+    public CachedPage getPage(String key);
+
+    public void putPage(String key, CachedPage page);
+
+    /**
+     * Removes every cached page on every node, e.g. after a change to catalog or content data. Other nodes discard
+     * their pages once the current transaction commits.
+     */
+    public void invalidateAll();
+
+    /**
+     * Keeps the page being rendered in the current request out of the page cache
+     */
+    public void markUncacheable();
+
+    /**
+     * @return whether the page being rendered in the current request will be stored in the page cache
+     */
+    public boolean isRenderingForPageCache();
+
+}
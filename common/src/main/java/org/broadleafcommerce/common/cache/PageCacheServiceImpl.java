@@ -0,0 +1,218 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.cache.dao.CacheVersionDao;
+import org.broadleafcommerce.common.event.ReindexEvent;
+import org.broadleafcommerce.common.time.SystemTime;
+import org.broadleafcommerce.common.util.TransactionUtils;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+
+/**
+ * Stores pages in the "blPageCacheElements" cache region for {@code page.cache.ttl.seconds}. The region is local to
+ * each node, so invalidation goes through a version kept in the database (see {@link CacheVersionDao}): 
+ * {@link #invalidateAll()} clears the local region and increments the version once the current transaction commits,
+ * and every node compares the version with the one it last saw at most every {@code page.cache.version.check.millis},
+ * clearing its region when it has changed. The version is incremented even on nodes that do not use the page cache
+ * themselves (e.g. the admin), since that is where most changes are made.
+ */
+@Service("blPageCacheService")
+public class PageCacheServiceImpl implements PageCacheService, ApplicationListener<ReindexEvent> {
+
+    private static final Log LOG = LogFactory.getLog(PageCacheServiceImpl.class);
+
+    protected static final String CACHE_NAME = "blPageCacheElements";
+
+    @Resource(name = "blStatisticsService")
+    protected StatisticsService statisticsService;
+
+    @Resource(name = "blCacheVersionDao")
+    protected CacheVersionDao cacheVersionDao;
+
+    @Resource(name = "blTransactionManager")
+    protected PlatformTransactionManager transactionManager;
+
+    @Value("${page.cache.enabled:false}")
+    protected boolean enabled = false;
+
+    @Value("${page.cache.ttl.seconds:300}")
+    protected int ttlSeconds = 300;
+
+    @Value("${page.cache.version.check.millis:5000}")
+    protected long versionCheckInterval = 5000L;
+
+    protected Cache cache;
+    protected volatile Long knownVersion;
+    protected final AtomicLong nextVersionCheck = new AtomicLong();
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public CachedPage getPage(String key) {
+        checkVersion();
+        Element element = getCache().get(key);
+        statisticsService.addCacheStat(CacheStatType.PAGE_CACHE_HIT_RATE.toString(), element != null);
+        return element == null ? null : (CachedPage) element.getObjectValue();
+    }
+
+    @Override
+    public void putPage(String key, CachedPage page) {
+        Element element = new Element(key, page);
+        element.setTimeToLive(ttlSeconds);
+        getCache().put(element);
+    }
+
+    @Override
+    public void invalidateAll() {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Invalidating the page cache");
+        }
+        if (enabled) {
+            getCache().removeAll();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            //pages rendered by other nodes before the change commits must be discarded as well
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    incrementVersion();
+                }
+            });
+        } else {
+            incrementVersion();
+        }
+    }
+
+    @Override
+    public void markUncacheable() {
+        HttpServletRequest request = getRequest();
+        if (request != null) {
+            request.setAttribute(PAGE_UNCACHEABLE, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public boolean isRenderingForPageCache() {
+        HttpServletRequest request = getRequest();
+        return request != null && request.getAttribute(RENDERING_FOR_PAGE_CACHE) != null
+                && request.getAttribute(PAGE_UNCACHEABLE) == null;
+    }
+
+    @Override
+    public void onApplicationEvent(ReindexEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Clears the local region if another node has invalidated the page cache since the last check
+     */
+    protected void checkVersion() {
+        long now = SystemTime.asMillis();
+        long nextCheck = nextVersionCheck.get();
+        if (now < nextCheck || !nextVersionCheck.compareAndSet(nextCheck, now + versionCheckInterval)) {
+            return;
+        }
+        Long version = readVersion();
+        if (version != null && !version.equals(knownVersion)) {
+            if (knownVersion != null) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(String.format("The page cache version changed to %d, clearing the page cache", version));
+                }
+                getCache().removeAll();
+            }
+            knownVersion = version;
+        }
+    }
+
+    /**
+     * @return the version from the database, or null if it could not be read
+     */
+    protected Long readVersion() {
+        TransactionStatus status = TransactionUtils.createTransaction("readPageCacheVersion",
+                TransactionDefinition.PROPAGATION_REQUIRED, transactionManager, true);
+        try {
+            Long version = cacheVersionDao.readVersion(CACHE_NAME);
+            TransactionUtils.finalizeTransaction(status, transactionManager, false);
+            return version;
+        } catch (RuntimeException e) {
+            if (!status.isCompleted()) {
+                TransactionUtils.finalizeTransaction(status, transactionManager, true);
+            }
+            LOG.error("Unable to read the page cache version", e);
+            return null;
+        }
+    }
+
+    /**
+     * Retried once, since the first increment inserts the version and may race with another node doing the same
+     */
+    protected void incrementVersion() {
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            TransactionStatus status = TransactionUtils.createTransaction("incrementPageCacheVersion",
+                    TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, false);
+            try {
+                cacheVersionDao.incrementVersion(CACHE_NAME);
+                TransactionUtils.finalizeTransaction(status, transactionManager, false);
+                return;
+            } catch (RuntimeException e) {
+                if (!status.isCompleted()) {
+                    TransactionUtils.finalizeTransaction(status, transactionManager, true);
+                }
+                if (attempt == 2) {
+                    LOG.error("Unable to increment the page cache version. Other nodes will serve their cached pages " +
+                            "until they expire.", e);
+                }
+            }
+        }
+    }
+
+    protected HttpServletRequest getRequest() {
+        BroadleafRequestContext context = BroadleafRequestContext.getBroadleafRequestContext();
+        return context == null ? null : context.getRequest();
+    }
+
+    protected Cache getCache() {
+        if (cache == null) {
+            cache = CacheManager.getInstance().getCache(CACHE_NAME);
+        }
+        return cache;
+    }
+
+}
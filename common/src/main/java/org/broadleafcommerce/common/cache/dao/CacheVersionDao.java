@@ -0,0 +1,35 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.cache.dao;
+
+public interface CacheVersionDao {
+
+    /**
+     * @param cacheName
+     * @return the current version of the cache, or 0 if it has never been incremented
+     */
+    public Long readVersion(String cacheName);
+
+    /**
+     * Increments the version of the cache, creating it if it does not exist yet
+     * 
+     * @param cacheName
+     */
+    public void incrementVersion(String cacheName);
+
+}
@@ -0,0 +1,62 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.cache.dao;
+
+import org.broadleafcommerce.common.cache.domain.CacheVersion;
+import org.broadleafcommerce.common.persistence.EntityConfiguration;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+@Repository("blCacheVersionDao")
+public class CacheVersionDaoImpl implements CacheVersionDao {
+
+    @PersistenceContext(unitName = "blPU")
+    protected EntityManager em;
+
+    @Resource(name = "blEntityConfiguration")
+    protected EntityConfiguration entityConfiguration;
+
+    @Override
+    public Long readVersion(String cacheName) {
+        TypedQuery<Long> query = em.createNamedQuery("BC_READ_CACHE_VERSION", Long.class);
+        query.setParameter("cacheName", cacheName);
+        List<Long> versions = query.getResultList();
+        return versions.isEmpty() || versions.get(0) == null ? 0L : versions.get(0);
+    }
+
+    @Override
+    public void incrementVersion(String cacheName) {
+        Query query = em.createNamedQuery("BC_INCREMENT_CACHE_VERSION");
+        query.setParameter("cacheName", cacheName);
+        if (query.executeUpdate() == 0) {
+            CacheVersion version = (CacheVersion) entityConfiguration.createEntityInstance(CacheVersion.class.getName());
+            version.setCacheName(cacheName);
+            version.setVersion(1L);
+            em.persist(version);
+            em.flush();
+        }
+    }
+
+}
@@ -0,0 +1,36 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.cache.domain;
+
+import java.io.Serializable;
+
+/**
+ * A version number shared by every node through the database, which is incremented whenever the contents of a
+ * node-local cache must be discarded on all nodes
+ */
+public interface CacheVersion extends Serializable {
+
+    public String getCacheName();
+
+    public void setCacheName(String cacheName);
+
+    public Long getVersion();
+
+    public void setVersion(Long version);
+
+}
@@ -20,6 +20,7 @@ package org.broadleafcommerce.common.config.service;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 
 
 /**
@@ -29,6 +30,7 @@ public abstract class AbstractSystemPropertyServiceExtensionHandler extends Abst
         SystemPropertyServiceExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType resolveProperty(String propertyName, ExtensionResultHolder resultHolder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
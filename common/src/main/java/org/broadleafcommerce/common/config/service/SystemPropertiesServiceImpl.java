@@ -19,12 +19,14 @@ package org.broadleafcommerce.common.config.service;
 
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.broadleafcommerce.common.cache.PersistentRetrieval;
 import org.broadleafcommerce.common.classloader.release.ThreadLocalManager;
 import org.broadleafcommerce.common.config.dao.SystemPropertiesDao;
 import org.broadleafcommerce.common.config.domain.SystemProperty;
 import org.broadleafcommerce.common.config.service.type.SystemPropertyFieldType;
 import org.broadleafcommerce.common.extensibility.jpa.SiteDiscriminator;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
+import org.broadleafcommerce.common.sandbox.service.SandBoxCacheService;
 import org.broadleafcommerce.common.web.BroadleafRequestContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -62,6 +64,9 @@ public class SystemPropertiesServiceImpl implements SystemPropertiesService{
     @Resource(name="blSystemPropertiesDao")
     protected SystemPropertiesDao systemPropertiesDao;
 
+    @Resource(name = "blSandBoxCacheService")
+    protected SandBoxCacheService sandBoxCacheService;
+
     @Resource(name = "blSystemPropertyServiceExtensionManager")
     protected SystemPropertyServiceExtensionManager extensionManager;
 
@@ -96,13 +101,34 @@ public class SystemPropertiesServiceImpl implements SystemPropertiesService{
             || BroadleafRequestContext.getBroadleafRequestContext().getSandBox() == null) {
             result = getPropertyFromCache(name);
         } else {
-            result = null;
+            // Sandbox values are kept out of the production cache, but can still be cached for the sandbox itself
+            final String propertyName = name;
+            result = sandBoxCacheService.getCachedObject("systemProperty", buildKey(name), new PersistentRetrieval<String>() {
+                @Override
+                public String retrievePersistentObject() {
+                    return readSystemProperty(propertyName);
+                }
+            });
+            return result.equals(NULL_RESPONSE)?null:result;
         }
 
         if (result != null) {
             return result.equals(NULL_RESPONSE)?null:result;
         }
 
+        result = readSystemProperty(name);
+        addPropertyToCache(name, result);
+        return result.equals(NULL_RESPONSE)?null:result;
+    }
+
+    /**
+     * Read the property from the database, falling back to the Spring Environment if it is not set there.
+     *
+     * @param name the property name
+     * @return the value, or {@link #NULL_RESPONSE} if the property could not be resolved
+     */
+    protected String readSystemProperty(String name) {
+        String result;
         SystemProperty property = systemPropertiesDao.readSystemPropertyByName(name);
         boolean envOrigination = BooleanUtils.isTrue(originatedFromEnvironment.get());
         if (property == null || StringUtils.isEmpty(property.getValue())) {
@@ -125,8 +151,7 @@ public class SystemPropertiesServiceImpl implements SystemPropertiesService{
         if (result == null) {
             result = NULL_RESPONSE;
         }
-        addPropertyToCache(name, result);
-        return result.equals(NULL_RESPONSE)?null:result;
+        return result;
     }
 
     protected void addPropertyToCache(String propertyName, String propertyValue) {
@@ -215,6 +240,7 @@ public class SystemPropertiesServiceImpl implements SystemPropertiesService{
         String key = buildKey(systemProperty);
         getSystemPropertyCache().remove(key);
         systemPropertiesDao.removeFromCache(systemProperty);
+        sandBoxCacheService.invalidateCurrentSandBox();
     }
 
     @Override
@@ -30,9 +30,12 @@ import org.broadleafcommerce.common.util.tenant.IdentityExecutionUtils;
 import org.broadleafcommerce.common.util.tenant.IdentityOperation;
 import org.broadleafcommerce.common.web.BroadleafRequestContext;
 import org.broadleafcommerce.common.web.EnforceEnterpriseCollectionBehaviorState;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 
 import java.lang.reflect.Field;
+import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -44,6 +47,7 @@ import java.util.regex.Matcher;
 
 import javax.annotation.Resource;
 import javax.persistence.Embeddable;
+import javax.persistence.EntityManager;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
@@ -70,6 +74,15 @@ public abstract class MultiTenantCopier implements Ordered {
     @Resource(name="blStreamingTransactionCapableUtil")
     protected StreamingTransactionCapableUtil transUtil;
     
+    /**
+     * The JDBC batch size used by the session while {@link #copyEntitiesOfType(Class, Site, Catalog, MultiTenantCopyContext)}
+     * persists a page, so that the page's inserts are sent in batches without changing the batch size of the persistence unit.
+     * Only applied when the Hibernate session supports a per session batch size (Hibernate 5.2 and later). Otherwise the
+     * copy batches according to hibernate.jdbc.batch_size, if the persistence unit sets it.
+     */
+    @Value("${multi.tenant.copy.jdbc.batch.size:50}")
+    protected int copyJdbcBatchSize = 50;
+
     protected int order = 0;
     
     protected List<Matcher> classExcludeRegexList = new ArrayList<Matcher>();
@@ -96,6 +109,17 @@ public abstract class MultiTenantCopier implements Ordered {
     }
 
     protected <T, G extends Exception> void persistCopyObjectTree(CopyOperation<T,G> copyOperation, Class<T> clazz, T original, MultiTenantCopyContext context) throws G {
+        persistCopyObjectTree(copyOperation, clazz, original, context, true);
+    }
+
+    /**
+     * Clone and persist the object tree for the original entity.
+     *
+     * @param flush whether to flush the persisted tree right away. Callers that copy many trees in the same transaction
+     * can pass false and flush once for the whole batch. Consecutive inserts of the same entity can then be sent as JDBC
+     * batches (see {@link #copyJdbcBatchSize}) rather than one at a time.
+     */
+    protected <T, G extends Exception> void persistCopyObjectTree(CopyOperation<T,G> copyOperation, Class<T> clazz, T original, MultiTenantCopyContext context, boolean flush) throws G {
         try {
             //don't persist if there is already an equivalent present
             if (context.getEquivalentId(clazz.getName(), genericEntityService.getIdentifier(original)) != null) {
@@ -107,7 +131,9 @@ public abstract class MultiTenantCopier implements Ordered {
             Object copy = copyOperation.execute(original);
             BroadleafRequestContext.getBroadleafRequestContext().setEnforceEnterpriseCollectionBehaviorState(EnforceEnterpriseCollectionBehaviorState.FALSE);
             persistCopyObjectTreeInternal(copy, new HashSet<Integer>(), context);
-            genericEntityService.flush();
+            if (flush) {
+                genericEntityService.flush();
+            }
         } catch (Exception e) {
             LOG.error("Unable to persist the copy object tree", e);
             throw ExceptionHelper.refineException(e);
@@ -131,7 +157,6 @@ public abstract class MultiTenantCopier implements Ordered {
                 continue;
             }
             if (!Modifier.isStatic(field.getModifiers())) {
-                field.setAccessible(true);
                 Object newTarget;
                 try {
                     newTarget = field.get(copy);
@@ -218,6 +243,8 @@ public abstract class MultiTenantCopier implements Ordered {
             throws ServiceException, CloneNotSupportedException {
         genericEntityService.flush();
         genericEntityService.clear();
+        final long start = System.currentTimeMillis();
+        final int[] copied = new int[1];
         transUtil.runStreamingTransactionalOperation(new StreamCapableTransactionalOperationAdapter() {
             @Override
             public Object[] retrievePage(int startPos, int pageSize) {
@@ -233,6 +260,7 @@ public abstract class MultiTenantCopier implements Ordered {
 
             @Override
             public void pagedExecute(Object[] param) throws Throwable {
+                Integer previousBatchSize = applyCopyJdbcBatchSize();
                 try {
                     List<T> results = (List<T>) param[0];
                     for (T result : results) {
@@ -241,10 +269,19 @@ public abstract class MultiTenantCopier implements Ordered {
                             public T execute(T original) throws CloneNotSupportedException {
                                 return (T) original.createOrRetrieveCopyInstance(context).getClone();
                             }
-                        }, clazz, result, context);
+                        }, clazz, result, context, false);
                     }
+                    try {
+                        // flush the page as a single batch before the session is cleared
+                        genericEntityService.flush();
+                    } catch (Exception e) {
+                        LOG.error("Unable to persist the copy object trees", e);
+                        throw ExceptionHelper.refineException(e);
+                    }
+                    copied[0] += results.size();
                 } finally {
                     genericEntityService.clear();
+                    restoreJdbcBatchSize(previousBatchSize);
                 }
             }
 
@@ -262,6 +299,58 @@ public abstract class MultiTenantCopier implements Ordered {
                 return true;
             }
         }, RuntimeException.class);
+        logThroughput(clazz, copied[0], System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Applies {@link #copyJdbcBatchSize} to the current session, if it supports a per session batch size.
+     *
+     * @return the batch size to restore once the page is persisted, or null if the session was not changed
+     */
+    protected Integer applyCopyJdbcBatchSize() {
+        Session session = getSession();
+        if (copyJdbcBatchSize <= 0 || session == null) {
+            return null;
+        }
+        try {
+            Method getter = session.getClass().getMethod("getJdbcBatchSize");
+            Method setter = session.getClass().getMethod("setJdbcBatchSize", Integer.class);
+            Integer previous = (Integer) getter.invoke(session);
+            setter.invoke(session, copyJdbcBatchSize);
+            return previous == null ? 0 : previous;
+        } catch (NoSuchMethodException e) {
+            LOG.debug("The session does not support a per session JDBC batch size, using the persistence unit setting");
+            return null;
+        } catch (Exception e) {
+            throw ExceptionHelper.refineException(e);
+        }
+    }
+
+    protected void restoreJdbcBatchSize(Integer previousBatchSize) {
+        Session session = getSession();
+        if (previousBatchSize == null || session == null) {
+            return;
+        }
+        try {
+            // a null batch size makes the session fall back to the persistence unit setting
+            Integer batchSize = previousBatchSize == 0 ? null : previousBatchSize;
+            session.getClass().getMethod("setJdbcBatchSize", Integer.class).invoke(session, batchSize);
+        } catch (Exception e) {
+            throw ExceptionHelper.refineException(e);
+        }
+    }
+
+    protected Session getSession() {
+        EntityManager em = genericEntityService.getEntityManager();
+        return em == null ? null : em.unwrap(Session.class);
+    }
+
+    protected void logThroughput(Class<?> clazz, int count, long elapsedMillis) {
+        if (LOG.isInfoEnabled()) {
+            long perSecond = elapsedMillis > 0 ? count * 1000L / elapsedMillis : count;
+            LOG.info(String.format("Copied %d entities of type %s in %d ms (%d per second)", count, clazz.getName(),
+                    elapsedMillis, perSecond));
+        }
     }
     
     /**
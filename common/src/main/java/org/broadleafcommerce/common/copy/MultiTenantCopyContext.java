@@ -55,6 +55,12 @@ public class MultiTenantCopyContext {
     protected Map<String, Map<Object, Object>> equivalentsMap;
     protected GenericEntityService genericEntityService;
     protected List<DeferredOperation> deferredOperations = new ArrayList<DeferredOperation>();
+    /**
+     * The ceiling implementation class name and the complete field list are needed for every node of every copied
+     * object tree, so they are resolved once per class for the life of the copy
+     */
+    protected Map<String, String> ceilingImplClassNames = new HashMap<String, String>();
+    protected Map<Class<?>, Field[]> allFieldsCache = new HashMap<Class<?>, Field[]>();
     /**
      * hints used to fine tune copying - generally support for hints is included in {@link MultiTenantCloneable#createOrRetrieveCopyInstance(org.broadleafcommerce.common.copy.MultiTenantCopyContext)} implementations.
      */
@@ -90,13 +96,13 @@ public class MultiTenantCopyContext {
 
     
     public Object getEquivalentId(String className, Object fromId) {
-        String ceilingImpl = genericEntityService.getCeilingImplClass(className).getName();
+        String ceilingImpl = getCeilingImplClassName(className);
         Map<Object, Object> keys = equivalentsMap.get(ceilingImpl);
         return keys == null ? null : keys.get(fromId);
     }
 
     public void storeEquivalentMapping(String className, Object fromId, Object toId) {
-        String ceilingImpl = genericEntityService.getCeilingImplClass(className).getName();
+        String ceilingImpl = getCeilingImplClassName(className);
         Map<Object, Object> keys = equivalentsMap.get(ceilingImpl);
         if (keys == null) {
             keys = new HashMap<Object, Object>();
@@ -165,7 +171,39 @@ public class MultiTenantCopyContext {
         return null;
     }
 
+    /**
+     * @param className the entity class name, which may be a subclass or an interface
+     * @return the name of the ceiling implementation class used to key the equivalent mappings
+     */
+    protected String getCeilingImplClassName(String className) {
+        String ceilingImpl = ceilingImplClassNames.get(className);
+        if (ceilingImpl == null) {
+            ceilingImpl = genericEntityService.getCeilingImplClass(className).getName();
+            ceilingImplClassNames.put(className, ceilingImpl);
+        }
+        return ceilingImpl;
+    }
+
+    /**
+     * Returns all the declared fields of the class and its superclasses, already made accessible. The result is cached
+     * for the life of this context and should not be modified.
+     *
+     * @param targetClass
+     * @return
+     */
     public Field[] getAllFields(Class<?> targetClass) {
+        Field[] allFields = allFieldsCache.get(targetClass);
+        if (allFields == null) {
+            allFields = buildAllFields(targetClass);
+            for (Field field : allFields) {
+                field.setAccessible(true);
+            }
+            allFieldsCache.put(targetClass, allFields);
+        }
+        return allFields;
+    }
+
+    protected Field[] buildAllFields(Class<?> targetClass) {
         Field[] allFields = new Field[]{};
         boolean eof = false;
         Class<?> currentClass = targetClass;
@@ -311,7 +349,6 @@ public class MultiTenantCopyContext {
         currentCloneMap.put(System.identityHashCode(response), response);
         try {
             for (Field field : getAllFields(instanceClass)) {
-                field.setAccessible(true);
                 if (field.getType().getAnnotation(Embeddable.class) != null && MultiTenantCloneable.class.isAssignableFrom(field.getType())) {
                     Object embeddable = field.get(instance);
                     if (embeddable != null) {
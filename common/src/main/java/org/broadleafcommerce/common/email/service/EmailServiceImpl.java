@@ -53,6 +53,9 @@ public class EmailServiceImpl implements EmailService {
     @Resource(name = "blEmailReportingDao")
     protected EmailReportingDao emailReportingDao;
 
+    @Resource(name = "blQueuedEmailSender")
+    protected QueuedEmailSender queuedEmailSender;
+
     public boolean sendTemplateEmail(EmailTarget emailTarget, EmailInfo emailInfo, Map<String, Object> props) {
         if (props == null) {
             props = new HashMap<String, Object>();
@@ -95,6 +98,8 @@ public class EmailServiceImpl implements EmailService {
                 throw new EmailException("The property sendEmailReliableAsync on EmailInfo is true, but the EmailService does not have an instance of JMSEmailServiceProducer set.");
             }
             emailServiceProducer.send(props);
+        } else if (queuedEmailSender != null && queuedEmailSender.isEnabled()) {
+            queuedEmailSender.send(props);
         } else {
             messageCreator.sendMessage(props);
         }
@@ -144,6 +149,14 @@ public class EmailServiceImpl implements EmailService {
         this.emailServiceProducer = emailServiceProducer;
     }
 
+    public QueuedEmailSender getQueuedEmailSender() {
+        return queuedEmailSender;
+    }
+
+    public void setQueuedEmailSender(QueuedEmailSender queuedEmailSender) {
+        this.queuedEmailSender = queuedEmailSender;
+    }
+
     /**
      * @return the messageCreator
      */
@@ -0,0 +1,56 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.email.service;
+
+import java.util.Map;
+
+/**
+ * Sends emails from a bounded in-memory queue on a pool of background threads, so that request threads do not wait
+ * on the mail server. The template is merged before the email is queued. Queued emails are lost if the JVM stops before they are sent; use
+ * {@link org.broadleafcommerce.common.email.service.info.EmailInfo#setSendEmailReliableAsync(String)} for emails
+ * that must not be lost.
+ * 
+ * @see EmailServiceImpl
+ */
+public interface QueuedEmailSender {
+
+    public boolean isEnabled();
+
+    /**
+     * Queues the email for sending. If the queue is full, the email is sent in the calling thread instead.
+     * 
+     * @param props the message properties, as passed to {@link org.broadleafcommerce.common.email.service.message.MessageCreator}
+     */
+    public void send(Map<String, Object> props);
+
+    public int getQueueSize();
+
+    public long getQueuedCount();
+
+    public long getSentCount();
+
+    public long getFailedCount();
+
+    /**
+     * @return the number of emails sent in the calling thread because the queue was full
+     */
+    public long getOverflowCount();
+
+    public long getBatchCount();
+
+}
@@ -0,0 +1,289 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.email.service;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.email.service.info.EmailInfo;
+import org.broadleafcommerce.common.email.service.message.EmailPropertyType;
+import org.broadleafcommerce.common.email.service.message.MessageCreator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+/**
+ * The template of each email is merged in the calling thread, and only the rendered message is queued. Each sender
+ * thread drains up to {@code email.async.batch.size} emails from the queue and hands them to
+ * {@link MessageCreator#sendMessages(List)} in one call, so a burst of emails is delivered over a few reused mail
+ * server connections rather than one connection per email. Sending across all threads is limited to
+ * {@code email.async.rate.per.second}, if set.
+ */
+@Service("blQueuedEmailSender")
+public class QueuedEmailSenderImpl implements QueuedEmailSender {
+
+    private static final Log LOG = LogFactory.getLog(QueuedEmailSenderImpl.class);
+
+    @Resource(name = "blMessageCreator")
+    protected MessageCreator messageCreator;
+
+    @Value("${email.async.enabled:false}")
+    protected boolean enabled = false;
+
+    @Value("${email.async.queue.capacity:1000}")
+    protected int queueCapacity = 1000;
+
+    @Value("${email.async.threads:2}")
+    protected int threads = 2;
+
+    @Value("${email.async.batch.size:20}")
+    protected int batchSize = 20;
+
+    @Value("${email.async.rate.per.second:0}")
+    protected int ratePerSecond = 0;
+
+    @Value("${email.async.shutdown.timeout.seconds:30}")
+    protected int shutdownTimeout = 30;
+
+    protected BlockingQueue<Map<String, Object>> queue;
+    protected ExecutorService executor;
+    protected volatile boolean running = false;
+    protected long nextPermitNanos = 0L;
+
+    protected final AtomicLong queuedCount = new AtomicLong();
+    protected final AtomicLong sentCount = new AtomicLong();
+    protected final AtomicLong failedCount = new AtomicLong();
+    protected final AtomicLong overflowCount = new AtomicLong();
+    protected final AtomicLong batchCount = new AtomicLong();
+
+    @PostConstruct
+    public synchronized void init() {
+        if (enabled && executor == null) {
+            queue = new ArrayBlockingQueue<Map<String, Object>>(Math.max(1, queueCapacity));
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("blQueuedEmailSender-");
+            threadFactory.setDaemon(true);
+            executor = Executors.newFixedThreadPool(Math.max(1, threads), threadFactory);
+            running = true;
+            for (int i = 0; i < Math.max(1, threads); i++) {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        processQueue();
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Stops taking new emails and gives the sender threads until the shutdown timeout to send the ones already queued
+     */
+    @PreDestroy
+    public synchronized void destroy() {
+        if (executor != null) {
+            running = false;
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(shutdownTimeout, TimeUnit.SECONDS)) {
+                    LOG.warn(String.format("%d queued emails were not sent before shutdown", queue.size()));
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    @Override
+    public void send(Map<String, Object> props) {
+        Map<String, Object> message = render(props);
+        if (running && queue.offer(message)) {
+            queuedCount.incrementAndGet();
+        } else {
+            overflowCount.incrementAndGet();
+            List<Map<String, Object>> batch = new ArrayList<Map<String, Object>>(1);
+            batch.add(message);
+            sendBatch(batch);
+        }
+    }
+
+    /**
+     * Merges the template in the calling thread, while the template variables (e.g. lazily loaded entities) are still
+     * usable, and keeps only the rendered message and its recipient for the queue
+     * 
+     * @param props the message properties passed to {@link #send(Map)}
+     * @return the properties to queue
+     */
+    protected Map<String, Object> render(Map<String, Object> props) {
+        HashMap<String, Object> message = new HashMap<String, Object>();
+        EmailInfo info = (EmailInfo) props.get(EmailPropertyType.INFO.getType());
+        if (info != null) {
+            EmailInfo renderedInfo = info.clone();
+            if (renderedInfo.getMessageBody() == null) {
+                //copy, since the message creators expect a HashMap
+                renderedInfo.setMessageBody(messageCreator.buildMessageBody(info, new HashMap<String, Object>(props)));
+            }
+            message.put(EmailPropertyType.INFO.getType(), renderedInfo);
+        }
+        message.put(EmailPropertyType.USER.getType(), props.get(EmailPropertyType.USER.getType()));
+        return message;
+    }
+
+    protected void processQueue() {
+        List<Map<String, Object>> batch = new ArrayList<Map<String, Object>>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Map<String, Object> props = queue.poll(1, TimeUnit.SECONDS);
+                if (props == null) {
+                    continue;
+                }
+                batch.add(props);
+                queue.drainTo(batch, Math.max(1, batchSize) - 1);
+                acquirePermits(batch.size());
+                sendBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.error("Unexpected error while sending queued emails", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Sends the batch and records the outcome. If the batch fails and none of its emails are known to have been sent,
+     * the emails are sent one at a time, so that a single bad email does not stop the others. If only some of the
+     * emails failed, they cannot be told apart from the ones that were sent, so they are logged and not retried.
+     */
+    protected void sendBatch(List<Map<String, Object>> batch) {
+        batchCount.incrementAndGet();
+        try {
+            messageCreator.sendMessages(batch);
+            sentCount.addAndGet(batch.size());
+        } catch (MailSendException e) {
+            int failed = e.getFailedMessages().isEmpty() ? batch.size() : e.getFailedMessages().size();
+            if (failed >= batch.size()) {
+                sendIndividually(batch, e);
+            } else {
+                failedCount.addAndGet(failed);
+                sentCount.addAndGet(batch.size() - failed);
+                LOG.error(String.format("Unable to send %d of %d emails", failed, batch.size()), e);
+            }
+        } catch (MailException e) {
+            sendIndividually(batch, e);
+        }
+    }
+
+    protected void sendIndividually(List<Map<String, Object>> batch, MailException batchError) {
+        if (batch.size() > 1 && LOG.isDebugEnabled()) {
+            LOG.debug(String.format("Unable to send %d emails together, sending them individually", batch.size()), batchError);
+        }
+        for (Map<String, Object> props : batch) {
+            try {
+                messageCreator.sendMessage(props);
+                sentCount.incrementAndGet();
+            } catch (MailException e) {
+                failedCount.incrementAndGet();
+                LOG.error("Unable to send email", e);
+            }
+        }
+    }
+
+    /**
+     * Blocks until the given number of emails may be sent without exceeding the configured rate
+     */
+    protected void acquirePermits(int permits) throws InterruptedException {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextPermitNanos);
+            nextPermitNanos = start + permits * TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+            wait = start - now;
+        }
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    public long getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    @Override
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    @Override
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    @Override
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    @Override
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    public MessageCreator getMessageCreator() {
+        return messageCreator;
+    }
+
+    public void setMessageCreator(MessageCreator messageCreator) {
+        this.messageCreator = messageCreator;
+    }
+
+}
@@ -26,6 +26,7 @@ import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.mail.javamail.MimeMessagePreparator;
 
+import java.util.List;
 import java.util.Map;
 
 import javax.mail.internet.MimeMessage;
@@ -44,6 +45,22 @@ public abstract class MessageCreator {
         this.mailSender.send(preparator);
     }
 
+    /**
+     * Sends the messages in a single call to the mail sender, which allows it to deliver them all over one connection
+     * (e.g. {@link org.springframework.mail.javamail.JavaMailSenderImpl} opens a single transport per call).
+     * 
+     * @param propsList the properties of each message
+     * @throws MailException if any of the messages could not be sent. For a
+     * {@link org.springframework.mail.MailSendException}, the messages missing from its failed messages were sent.
+     */
+    public void sendMessages(final List<Map<String, Object>> propsList) throws MailException {
+        MimeMessagePreparator[] preparators = new MimeMessagePreparator[propsList.size()];
+        for (int i = 0; i < preparators.length; i++) {
+            preparators[i] = buildMimeMessagePreparator(propsList.get(i));
+        }
+        this.mailSender.send(preparators);
+    }
+
     public abstract String buildMessageBody(EmailInfo info, Map<String, Object> props);
 
     public MimeMessagePreparator buildMimeMessagePreparator(final Map<String, Object> props) {
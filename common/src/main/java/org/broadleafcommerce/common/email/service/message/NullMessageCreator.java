@@ -23,6 +23,7 @@ import org.broadleafcommerce.common.email.service.info.EmailInfo;
 import org.springframework.mail.MailException;
 import org.springframework.mail.javamail.JavaMailSender;
 
+import java.util.List;
 import java.util.Map;
 
 public class NullMessageCreator extends MessageCreator {
@@ -42,5 +43,10 @@ public class NullMessageCreator extends MessageCreator {
     public void sendMessage(final Map<String,Object> props) throws MailException {
         LOG.warn("NullMessageCreator is defined -- specify a real message creator to send emails");
     }
+
+    @Override
+    public void sendMessages(final List<Map<String, Object>> propsList) throws MailException {
+        LOG.warn("NullMessageCreator is defined -- specify a real message creator to send emails");
+    }
     
 }
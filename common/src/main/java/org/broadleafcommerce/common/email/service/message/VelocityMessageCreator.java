@@ -17,18 +17,28 @@
  */
 package org.broadleafcommerce.common.email.service.message;
 
+import org.apache.velocity.Template;
+import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
 import org.broadleafcommerce.common.email.service.info.EmailInfo;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.ui.velocity.VelocityEngineUtils;
 
+import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Parsed templates are cached by name and encoding, so each template is only loaded and parsed by Velocity once. Set
+ * {@link #setCacheTemplates(boolean)} to false to pick up template changes without a restart.
+ */
 public class VelocityMessageCreator extends MessageCreator {
 
     private VelocityEngine velocityEngine;
     private Map<String, Object> additionalConfigItems;
+    private boolean cacheTemplates = true;
+    private final Map<String, Template> templateCache = new ConcurrentHashMap<String, Template>();
     
     public VelocityMessageCreator(VelocityEngine velocityEngine, JavaMailSender mailSender, Map<String, Object> additionalConfigItems) {
         super(mailSender);
@@ -49,18 +59,42 @@ public class VelocityMessageCreator extends MessageCreator {
             if (additionalConfigItems != null) {
                 propsCopy.putAll(additionalConfigItems);
             }
-            return VelocityEngineUtils.mergeTemplateIntoString(velocityEngine, info.getEmailTemplate(), info.getEncoding(), propsCopy);
+            if (!cacheTemplates) {
+                return VelocityEngineUtils.mergeTemplateIntoString(velocityEngine, info.getEmailTemplate(), info.getEncoding(), propsCopy);
+            }
+            StringWriter writer = new StringWriter();
+            getTemplate(info.getEmailTemplate(), info.getEncoding()).merge(new VelocityContext(propsCopy), writer);
+            return writer.toString();
         }
 
         throw new IllegalArgumentException("Property map must be of type HashMap<String, Object>");
     }
 
+    protected Template getTemplate(String templateName, String encoding) {
+        String key = templateName + "|" + encoding;
+        Template template = templateCache.get(key);
+        if (template == null) {
+            template = velocityEngine.getTemplate(templateName, encoding);
+            templateCache.put(key, template);
+        }
+        return template;
+    }
+
     public VelocityEngine getVelocityEngine() {
         return velocityEngine;
     }
 
     public void setVelocityEngine(VelocityEngine velocityEngine) {
         this.velocityEngine = velocityEngine;
+        templateCache.clear();
+    }
+
+    public boolean isCacheTemplates() {
+        return cacheTemplates;
+    }
+
+    public void setCacheTemplates(boolean cacheTemplates) {
+        this.cacheTemplates = cacheTemplates;
     }
 
     public Map<String, Object> getAdditionalConfigItems() {
@@ -19,6 +19,9 @@ package org.broadleafcommerce.common.event;
 
 import org.springframework.context.ApplicationEvent;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -37,7 +40,7 @@ public abstract class BroadleafApplicationEvent extends ApplicationEvent {
 
 	private static final long serialVersionUID = 1L;
 	
-	protected transient final Map<String, Object> context = Collections.synchronizedMap(new HashMap<String, Object>());
+	protected transient Map<String, Object> context = Collections.synchronizedMap(new HashMap<String, Object>());
 	
 	/**
 	 * Instantiates this with the required source. The asynchronous property is false and the errorHandler is null.
@@ -54,4 +57,28 @@ public abstract class BroadleafApplicationEvent extends ApplicationEvent {
 	public Map<String, Object> getConext() {
 		return context;
 	}
+
+	/**
+	 * Key used to keep the dispatch of durable events for the same entity in order. Events that share a key are
+	 * delivered to a {@link BroadleafDurableApplicationListener} in the order they were published.
+	 * @return
+	 */
+	public String getAggregateKey() {
+		return getClass().getName() + ":" + getSource();
+	}
+
+	/**
+	 * The source is transient in {@link java.util.EventObject}, so it is written explicitly for events that are stored
+	 * in the application event outbox. The source must itself be serializable in that case.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeObject(source);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		source = in.readObject();
+		context = Collections.synchronizedMap(new HashMap<String, Object>());
+	}
 }
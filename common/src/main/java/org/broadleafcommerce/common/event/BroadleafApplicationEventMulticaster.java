@@ -17,6 +17,8 @@
  */
 package org.broadleafcommerce.common.event;
 
+import org.broadleafcommerce.common.event.service.ApplicationEventOutboxService;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -27,6 +29,8 @@ import org.springframework.context.ApplicationListener;
 import org.springframework.context.event.SimpleApplicationEventMulticaster;
 import org.springframework.core.ResolvableType;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 /**
@@ -38,6 +42,9 @@ import java.util.concurrent.Executor;
  * In addition, this implementation does not broadcast or multicast events to systems outside of the 
  * running JVM, although an event listener could be configured to do just that.
  * 
+ * Listeners that need durable delivery should implement {@link BroadleafDurableApplicationListener}. Their events 
+ * are written to the application event outbox in the publishing transaction and delivered after it commits.
+ * 
  * @author Kelly Tisdell
  *
  */
@@ -50,6 +57,8 @@ public class BroadleafApplicationEventMulticaster extends
 
 	protected ApplicationContext ctx;
 
+    protected ApplicationEventOutboxService outboxService;
+
     /**
      * Take care when specifying that event or application listener should be executed asynchronously.  
      * If there is no TaskExecutor configured, this 
@@ -63,7 +72,12 @@ public class BroadleafApplicationEventMulticaster extends
 	@Override
 	public void multicastEvent(final ApplicationEvent event) {
         Executor executor = getTaskExecutor();
+        List<ApplicationListener<?>> durableListeners = new ArrayList<ApplicationListener<?>>();
         for (final ApplicationListener<?> listener : getApplicationListeners(event, ResolvableType.forInstance(event))) {
+            if (isDurable(listener, event)) {
+                durableListeners.add(listener);
+                continue;
+            }
 			boolean isAsynchronous = false;
 			if (executor != null) {
                 if ((BroadleafApplicationListener.class.isAssignableFrom(listener.getClass())
@@ -82,8 +96,67 @@ public class BroadleafApplicationEventMulticaster extends
 				invokeListener(listener, event);
 			}
 		}
+        if (!durableListeners.isEmpty()) {
+            multicastDurableEvent((BroadleafApplicationEvent) event, durableListeners);
+        }
 	}
 
+    /**
+     * Writes the event to the outbox for the given durable listeners. If the event cannot be serialized, the listeners 
+     * are invoked synchronously instead.
+     */
+    protected void multicastDurableEvent(BroadleafApplicationEvent event, List<ApplicationListener<?>> listeners) {
+        List<String> listenerNames = new ArrayList<String>();
+        for (ApplicationListener<?> listener : listeners) {
+            listenerNames.add(getListenerName(listener));
+        }
+        if (!getOutboxService().enqueue(event, listenerNames)) {
+            for (ApplicationListener<?> listener : listeners) {
+                invokeListener(listener, event);
+            }
+        }
+    }
+
+    /**
+     * Invokes the durable listener with the given name for an event read back from the outbox.
+     * 
+     * @param event
+     * @param listenerName
+     * @return false if no durable listener with that name is registered for the event
+     */
+    public boolean invokeDurableListener(ApplicationEvent event, String listenerName) {
+        for (ApplicationListener<?> listener : getApplicationListeners(event, ResolvableType.forInstance(event))) {
+            if (listener instanceof BroadleafDurableApplicationListener && getListenerName(listener).equals(listenerName)) {
+                invokeListener(listener, event);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected boolean isDurable(ApplicationListener<?> listener, ApplicationEvent event) {
+        if (!(listener instanceof BroadleafDurableApplicationListener) || !(event instanceof BroadleafApplicationEvent)) {
+            return false;
+        }
+        ApplicationEventOutboxService service = getOutboxService();
+        return service != null && service.isEnabled();
+    }
+
+    protected String getListenerName(ApplicationListener<?> listener) {
+        return AopUtils.getTargetClass(listener).getName();
+    }
+
+    /**
+     * The outbox service is looked up on first use rather than injected, since the multicaster is initialized before 
+     * the other beans in the context.
+     */
+    protected ApplicationEventOutboxService getOutboxService() {
+        if (outboxService == null && ctx != null && ctx.containsBean("blApplicationEventOutboxService")) {
+            outboxService = ctx.getBean("blApplicationEventOutboxService", ApplicationEventOutboxService.class);
+        }
+        return outboxService;
+    }
+
 	@Override
 	public void setApplicationContext(ApplicationContext applicationContext)
 			throws BeansException {
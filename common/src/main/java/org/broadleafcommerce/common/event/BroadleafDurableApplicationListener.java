@@ -0,0 +1,43 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.event;
+
+/**
+ * A listener whose events are written to the application event outbox in the publishing transaction and delivered
+ * after that transaction commits, rather than being invoked in the publishing thread. Delivery is retried until it
+ * succeeds or the configured number of attempts is exhausted, and events that share an
+ * {@link BroadleafApplicationEvent#getAggregateKey() aggregate key} are delivered in the order they were published.
+ * <p/>
+ * Delivery is at least once, so implementations should be idempotent. The key that identifies a single delivery is
+ * available from the event context under {@link #IDEMPOTENCY_KEY}. The event and its source must be serializable;
+ * if they are not, the listener is invoked synchronously as with any other listener.
+ * <p/>
+ * The outbox is only used when {@code application.event.outbox.enabled} is true. Otherwise durable listeners are invoked
+ * synchronously as well.
+ * <p/>
+ * {@link #isAsynchronous()} is ignored for durable listeners.
+ * 
+ * @see org.broadleafcommerce.common.event.service.ApplicationEventOutboxService
+ * 
+ * @param <E>
+ */
+public interface BroadleafDurableApplicationListener<E extends BroadleafApplicationEvent> extends BroadleafApplicationListener<E> {
+
+    public static final String IDEMPOTENCY_KEY = "blOutboxIdempotencyKey";
+
+}
@@ -48,4 +48,9 @@ public class ItemsFulfilledEvent extends BroadleafApplicationEvent {
     public Map<Long, Integer> getItemsAndQuantitiesFulfilled() {
         return itemsAndQuantitiesFulfilled;
     }
+
+    @Override
+    public String getAggregateKey() {
+        return "FulfillmentGroup:" + getFulfillmentGroupId();
+    }
 }
@@ -42,4 +42,9 @@ public class OrderSubmittedEvent extends BroadleafApplicationEvent {
     public String getOrderNumber() {
         return (String) orderNumber;
     }
+
+    @Override
+    public String getAggregateKey() {
+        return "Order:" + getOrderId();
+    }
 }
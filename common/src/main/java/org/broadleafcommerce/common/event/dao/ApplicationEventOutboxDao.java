@@ -0,0 +1,63 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.event.dao;
+
+import org.broadleafcommerce.common.event.domain.ApplicationEventOutboxEntry;
+
+import java.util.Date;
+import java.util.List;
+
+public interface ApplicationEventOutboxDao {
+
+    public ApplicationEventOutboxEntry create();
+
+    public ApplicationEventOutboxEntry save(ApplicationEventOutboxEntry entry);
+
+    public ApplicationEventOutboxEntry readEntryById(Long id);
+
+    /**
+     * Reads the undelivered entries that are due: pending entries whose next attempt date has passed and entries whose
+     * claim has expired. Only the oldest undelivered entry of each listener and aggregate key is read, so entries
+     * waiting for a retry hold back the later entries of their key, but no others. The entries are ordered by their
+     * next attempt date.
+     * 
+     * @param limit the max number of entries to read
+     * @param currentDate
+     * @return
+     */
+    public List<ApplicationEventOutboxEntry> readUndeliveredEntries(int limit, Date currentDate);
+
+    /**
+     * Marks the entry as being delivered, provided it is pending or its previous claim has expired
+     * 
+     * @param id the entry id
+     * @param currentDate
+     * @param lockExpiration the time after which the claim expires
+     * @return whether or not the entry was claimed
+     */
+    public boolean claimEntry(Long id, Date currentDate, Date lockExpiration);
+
+    /**
+     * Removes the entries that were delivered before the given date
+     * 
+     * @param processedBefore
+     * @return the number of entries removed
+     */
+    public int deleteProcessedEntries(Date processedBefore);
+
+}
@@ -0,0 +1,88 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.event.dao;
+
+import org.broadleafcommerce.common.event.domain.ApplicationEventOutboxEntry;
+import org.broadleafcommerce.common.event.domain.ApplicationEventOutboxEntryImpl;
+import org.broadleafcommerce.common.event.service.type.ApplicationEventOutboxStatusType;
+import org.broadleafcommerce.common.persistence.EntityConfiguration;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+
+@Repository("blApplicationEventOutboxDao")
+public class ApplicationEventOutboxDaoImpl implements ApplicationEventOutboxDao {
+
+    @PersistenceContext(unitName = "blPU")
+    protected EntityManager em;
+
+    @Resource(name = "blEntityConfiguration")
+    protected EntityConfiguration entityConfiguration;
+
+    @Override
+    public ApplicationEventOutboxEntry create() {
+        return (ApplicationEventOutboxEntry) entityConfiguration.createEntityInstance(ApplicationEventOutboxEntry.class.getName());
+    }
+
+    @Override
+    public ApplicationEventOutboxEntry save(ApplicationEventOutboxEntry entry) {
+        return em.merge(entry);
+    }
+
+    @Override
+    public ApplicationEventOutboxEntry readEntryById(Long id) {
+        return em.find(ApplicationEventOutboxEntryImpl.class, id);
+    }
+
+    @Override
+    public List<ApplicationEventOutboxEntry> readUndeliveredEntries(int limit, Date currentDate) {
+        TypedQuery<ApplicationEventOutboxEntry> query = em.createNamedQuery("BC_READ_UNDELIVERED_OUTBOX_ENTRIES", ApplicationEventOutboxEntry.class);
+        query.setParameter("pending", ApplicationEventOutboxStatusType.PENDING.getType());
+        query.setParameter("processing", ApplicationEventOutboxStatusType.PROCESSING.getType());
+        query.setParameter("currentDate", currentDate);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public boolean claimEntry(Long id, Date currentDate, Date lockExpiration) {
+        Query query = em.createNamedQuery("BC_CLAIM_OUTBOX_ENTRY");
+        query.setParameter("id", id);
+        query.setParameter("pending", ApplicationEventOutboxStatusType.PENDING.getType());
+        query.setParameter("processing", ApplicationEventOutboxStatusType.PROCESSING.getType());
+        query.setParameter("currentDate", currentDate);
+        query.setParameter("lockExpiration", lockExpiration);
+        return query.executeUpdate() == 1;
+    }
+
+    @Override
+    public int deleteProcessedEntries(Date processedBefore) {
+        Query query = em.createNamedQuery("BC_DELETE_PROCESSED_OUTBOX_ENTRIES");
+        query.setParameter("processed", ApplicationEventOutboxStatusType.PROCESSED.getType());
+        query.setParameter("processedBefore", processedBefore);
+        return query.executeUpdate();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.event.domain;
+
+import org.broadleafcommerce.common.event.service.type.ApplicationEventOutboxStatusType;
+
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * A serialized {@link org.broadleafcommerce.common.event.BroadleafApplicationEvent} awaiting delivery to a single
+ * {@link org.broadleafcommerce.common.event.BroadleafDurableApplicationListener}
+ */
+public interface ApplicationEventOutboxEntry extends Serializable {
+
+    public Long getId();
+
+    public void setId(Long id);
+
+    public String getEventType();
+
+    public void setEventType(String eventType);
+
+    public String getListenerName();
+
+    public void setListenerName(String listenerName);
+
+    /**
+     * Entries with the same aggregate key and listener are delivered in id order
+     */
+    public String getAggregateKey();
+
+    public void setAggregateKey(String aggregateKey);
+
+    /**
+     * Unique key for this delivery, made available to the listener so that it can ignore redeliveries
+     */
+    public String getIdempotencyKey();
+
+    public void setIdempotencyKey(String idempotencyKey);
+
+    /**
+     * The Base64 encoded, serialized event
+     */
+    public String getPayload();
+
+    public void setPayload(String payload);
+
+    public ApplicationEventOutboxStatusType getStatus();
+
+    public void setStatus(ApplicationEventOutboxStatusType status);
+
+    public Integer getAttempts();
+
+    public void setAttempts(Integer attempts);
+
+    public Date getNextAttemptDate();
+
+    public void setNextAttemptDate(Date nextAttemptDate);
+
+    /**
+     * The time after which an entry in {@link ApplicationEventOutboxStatusType#PROCESSING} is considered abandoned
+     * and may be claimed again
+     */
+    public Date getLockExpiration();
+
+    public void setLockExpiration(Date lockExpiration);
+
+    public String getLastError();
+
+    public void setLastError(String lastError);
+
+    public Date getDateCreated();
+
+    public void setDateCreated(Date dateCreated);
+
+    public Date getDateProcessed();
+
+    public void setDateProcessed(Date dateProcessed);
+
+}
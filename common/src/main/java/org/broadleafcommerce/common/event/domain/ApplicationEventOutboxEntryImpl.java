@@ -0,0 +1,233 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.event.domain;
+
+import org.broadleafcommerce.common.event.service.type.ApplicationEventOutboxStatusType;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Index;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Type;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+import javax.persistence.Inheritance;
+import javax.persistence.InheritanceType;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+@Entity
+@Inheritance(strategy = InheritanceType.JOINED)
+@Table(name = "BLC_APP_EVENT_OUTBOX")
+public class ApplicationEventOutboxEntryImpl implements ApplicationEventOutboxEntry {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(generator = "ApplicationEventOutboxEntryId")
+    @GenericGenerator(
+        name="ApplicationEventOutboxEntryId",
+        strategy="org.broadleafcommerce.common.persistence.IdOverrideTableGenerator",
+        parameters = {
+            @Parameter(name="segment_value", value="ApplicationEventOutboxEntryImpl"),
+            @Parameter(name="entity_name", value="org.broadleafcommerce.common.event.domain.ApplicationEventOutboxEntryImpl")
+        }
+    )
+    @Column(name = "APP_EVENT_OUTBOX_ID")
+    protected Long id;
+
+    @Column(name = "EVENT_TYPE", nullable = false)
+    protected String eventType;
+
+    @Column(name = "LISTENER_NAME", nullable = false)
+    protected String listenerName;
+
+    @Column(name = "AGGREGATE_KEY", nullable = false)
+    @Index(name = "APP_EVENT_OUTBOX_AGG_INDEX", columnNames = { "AGGREGATE_KEY" })
+    protected String aggregateKey;
+
+    @Column(name = "IDEMPOTENCY_KEY", nullable = false, unique = true)
+    protected String idempotencyKey;
+
+    @Column(name = "PAYLOAD", length = Integer.MAX_VALUE - 1, nullable = false)
+    @Lob
+    @Type(type = "org.hibernate.type.StringClobType")
+    protected String payload;
+
+    @Column(name = "STATUS", nullable = false)
+    @Index(name = "APP_EVENT_OUTBOX_STATUS_INDEX", columnNames = { "STATUS" })
+    protected String status;
+
+    @Column(name = "ATTEMPTS", nullable = false)
+    protected Integer attempts = 0;
+
+    @Column(name = "NEXT_ATTEMPT_DATE")
+    @Temporal(TemporalType.TIMESTAMP)
+    protected Date nextAttemptDate;
+
+    @Column(name = "LOCK_EXPIRATION")
+    @Temporal(TemporalType.TIMESTAMP)
+    protected Date lockExpiration;
+
+    @Column(name = "LAST_ERROR", length = 1000)
+    protected String lastError;
+
+    @Column(name = "DATE_CREATED", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    protected Date dateCreated;
+
+    @Column(name = "DATE_PROCESSED")
+    @Temporal(TemporalType.TIMESTAMP)
+    protected Date dateProcessed;
+
+    @Override
+    public Long getId() {
+        return id;
+    }
+
+    @Override
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    @Override
+    public String getEventType() {
+        return eventType;
+    }
+
+    @Override
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    @Override
+    public String getListenerName() {
+        return listenerName;
+    }
+
+    @Override
+    public void setListenerName(String listenerName) {
+        this.listenerName = listenerName;
+    }
+
+    @Override
+    public String getAggregateKey() {
+        return aggregateKey;
+    }
+
+    @Override
+    public void setAggregateKey(String aggregateKey) {
+        this.aggregateKey = aggregateKey;
+    }
+
+    @Override
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    @Override
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    @Override
+    public String getPayload() {
+        return payload;
+    }
+
+    @Override
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    @Override
+    public ApplicationEventOutboxStatusType getStatus() {
+        return ApplicationEventOutboxStatusType.getInstance(status);
+    }
+
+    @Override
+    public void setStatus(ApplicationEventOutboxStatusType status) {
+        this.status = status == null ? null : status.getType();
+    }
+
+    @Override
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    @Override
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    @Override
+    public Date getNextAttemptDate() {
+        return nextAttemptDate;
+    }
+
+    @Override
+    public void setNextAttemptDate(Date nextAttemptDate) {
+        this.nextAttemptDate = nextAttemptDate;
+    }
+
+    @Override
+    public Date getLockExpiration() {
+        return lockExpiration;
+    }
+
+    @Override
+    public void setLockExpiration(Date lockExpiration) {
+        this.lockExpiration = lockExpiration;
+    }
+
+    @Override
+    public String getLastError() {
+        return lastError;
+    }
+
+    @Override
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public Date getDateCreated() {
+        return dateCreated;
+    }
+
+    @Override
+    public void setDateCreated(Date dateCreated) {
+        this.dateCreated = dateCreated;
+    }
+
+    @Override
+    public Date getDateProcessed() {
+        return dateProcessed;
+    }
+
+    @Override
+    public void setDateProcessed(Date dateProcessed) {
+        this.dateProcessed = dateProcessed;
+    }
+
+}
@@ -0,0 +1,57 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.event.service;
+
+import org.broadleafcommerce.common.event.BroadleafApplicationEvent;
+
+import java.util.List;
+
+/**
+ * Durable delivery of {@link BroadleafApplicationEvent}s to
+ * {@link org.broadleafcommerce.common.event.BroadleafDurableApplicationListener}s. Events are serialized into the
+ * outbox table as part of the publishing transaction, so they are kept if and only if that transaction commits, and
+ * are delivered afterwards by a background poller that retries failed deliveries.
+ */
+public interface ApplicationEventOutboxService {
+
+    /**
+     * Whether or not events for durable listeners should be written to the outbox
+     * 
+     * @return
+     */
+    public boolean isEnabled();
+
+    /**
+     * Writes the event to the outbox, once for each listener, in the current transaction. Delivery is requested once
+     * the transaction commits.
+     * 
+     * @param event the event to deliver
+     * @param listenerNames the names of the durable listeners to deliver the event to
+     * @return false if the event could not be serialized, in which case nothing was written
+     */
+    public boolean enqueue(BroadleafApplicationEvent event, List<String> listenerNames);
+
+    /**
+     * Delivers a batch of the pending events that are due. Entries for the same listener and aggregate key are
+     * delivered in order, so an entry that is not due or that fails to be delivered holds back the entries after it.
+     * 
+     * @return the number of entries delivered
+     */
+    public int dispatchPendingEvents();
+
+}
@@ -0,0 +1,399 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.event.service;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.event.BroadleafApplicationEvent;
+import org.broadleafcommerce.common.event.BroadleafApplicationEventMulticaster;
+import org.broadleafcommerce.common.event.BroadleafDurableApplicationListener;
+import org.broadleafcommerce.common.event.dao.ApplicationEventOutboxDao;
+import org.broadleafcommerce.common.event.domain.ApplicationEventOutboxEntry;
+import org.broadleafcommerce.common.event.service.type.ApplicationEventOutboxStatusType;
+import org.broadleafcommerce.common.time.SystemTime;
+import org.broadleafcommerce.common.util.TransactionUtils;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+/**
+ * Delivery happens on a single daemon timer thread per node. Each transaction that writes to the outbox requests a
+ * delivery once it commits, and the timer also polls the outbox at a fixed interval to pick up retries and entries
+ * written by other nodes. An entry is claimed with a conditional update before it is delivered, so several nodes can
+ * poll the same outbox; a claim that is not released (e.g. the node stopped) expires after
+ * {@code application.event.outbox.lock.millis}.
+ */
+@Service("blApplicationEventOutboxService")
+public class ApplicationEventOutboxServiceImpl implements ApplicationEventOutboxService, ApplicationContextAware {
+
+    private static final Log LOG = LogFactory.getLog(ApplicationEventOutboxServiceImpl.class);
+
+    protected static final long PURGE_INTERVAL = 3600000L;
+
+    @Resource(name = "blApplicationEventOutboxDao")
+    protected ApplicationEventOutboxDao outboxDao;
+
+    @Resource(name = "blTransactionManager")
+    protected PlatformTransactionManager transactionManager;
+
+    @Value("${application.event.outbox.enabled:false}")
+    protected boolean enabled = false;
+
+    @Value("${application.event.outbox.poll.interval.millis:5000}")
+    protected long pollInterval = 5000L;
+
+    @Value("${application.event.outbox.batch.size:100}")
+    protected int batchSize = 100;
+
+    @Value("${application.event.outbox.max.attempts:10}")
+    protected int maxAttempts = 10;
+
+    @Value("${application.event.outbox.retry.backoff.millis:30000}")
+    protected long retryBackoff = 30000L;
+
+    @Value("${application.event.outbox.lock.millis:300000}")
+    protected long lockDuration = 300000L;
+
+    @Value("${application.event.outbox.retention.hours:72}")
+    protected int retentionHours = 72;
+
+    protected ApplicationContext applicationContext;
+    protected Timer timer;
+    protected final AtomicBoolean dispatchRequested = new AtomicBoolean(false);
+    protected volatile long lastPurge = 0L;
+
+    @PostConstruct
+    public synchronized void init() {
+        if (enabled && timer == null) {
+            timer = new Timer("ApplicationEventOutboxThread", true);
+            timer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    dispatchSafely();
+                }
+            }, pollInterval, pollInterval);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    @Override
+    public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    @Transactional(TransactionUtils.DEFAULT_TRANSACTION_MANAGER)
+    public boolean enqueue(BroadleafApplicationEvent event, List<String> listenerNames) {
+        String payload;
+        try {
+            payload = serialize(event);
+        } catch (IOException e) {
+            LOG.warn(String.format("Unable to serialize the event (%s) for the outbox. Its durable listeners will be " +
+                    "invoked synchronously.", event.getClass().getName()), e);
+            return false;
+        }
+        String eventId = UUID.randomUUID().toString();
+        Date now = SystemTime.asDate();
+        for (String listenerName : listenerNames) {
+            ApplicationEventOutboxEntry entry = outboxDao.create();
+            entry.setEventType(event.getClass().getName());
+            entry.setListenerName(listenerName);
+            entry.setAggregateKey(event.getAggregateKey());
+            entry.setIdempotencyKey(eventId + ":" + listenerName);
+            entry.setPayload(payload);
+            entry.setStatus(ApplicationEventOutboxStatusType.PENDING);
+            entry.setAttempts(0);
+            entry.setNextAttemptDate(now);
+            entry.setDateCreated(now);
+            outboxDao.save(entry);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    requestDispatch();
+                }
+            });
+        } else {
+            requestDispatch();
+        }
+        return true;
+    }
+
+    @Override
+    public int dispatchPendingEvents() {
+        int delivered = 0;
+        Set<String> heldBack = new HashSet<String>();
+        for (ApplicationEventOutboxEntry entry : readUndeliveredEntries()) {
+            String orderingKey = entry.getListenerName() + "|" + entry.getAggregateKey();
+            if (heldBack.contains(orderingKey)) {
+                continue;
+            }
+            if (!isDue(entry, SystemTime.asDate()) || !dispatch(entry)) {
+                heldBack.add(orderingKey);
+                continue;
+            }
+            delivered++;
+        }
+        purgeProcessedEntries();
+        return delivered;
+    }
+
+    /**
+     * Schedules an immediate delivery on the outbox thread, unless one is already scheduled
+     */
+    protected void requestDispatch() {
+        Timer myTimer = timer;
+        if (myTimer != null && dispatchRequested.compareAndSet(false, true)) {
+            try {
+                myTimer.schedule(new TimerTask() {
+                    @Override
+                    public void run() {
+                        dispatchRequested.set(false);
+                        dispatchSafely();
+                    }
+                }, 0);
+            } catch (IllegalStateException e) {
+                //the timer was cancelled during shutdown - the entries will be delivered by the next poll
+                dispatchRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * Delivers the pending events with a {@link BroadleafRequestContext} in place, since the timer thread has none and
+     * listeners may rely on one. An exception thrown from a timer task stops the timer, so everything is caught here.
+     */
+    protected void dispatchSafely() {
+        BroadleafRequestContext previousContext = BroadleafRequestContext.getBroadleafRequestContext();
+        BroadleafRequestContext.setBroadleafRequestContext(new BroadleafRequestContext());
+        try {
+            int delivered = dispatchPendingEvents();
+            if (delivered > 0 && LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Delivered %d application events from the outbox", delivered));
+            }
+        } catch (Exception e) {
+            LOG.error("Unable to deliver application events from the outbox", e);
+        } finally {
+            BroadleafRequestContext.setBroadleafRequestContext(previousContext);
+        }
+    }
+
+    protected List<ApplicationEventOutboxEntry> readUndeliveredEntries() {
+        TransactionStatus status = TransactionUtils.createTransaction("readUndeliveredOutboxEntries",
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, true);
+        try {
+            List<ApplicationEventOutboxEntry> entries = outboxDao.readUndeliveredEntries(batchSize, SystemTime.asDate());
+            TransactionUtils.finalizeTransaction(status, transactionManager, false);
+            return entries;
+        } catch (RuntimeException e) {
+            if (!status.isCompleted()) {
+                TransactionUtils.finalizeTransaction(status, transactionManager, true);
+            }
+            LOG.error("Unable to read the application event outbox", e);
+            return Collections.emptyList();
+        }
+    }
+
+    protected boolean isDue(ApplicationEventOutboxEntry entry, Date now) {
+        if (ApplicationEventOutboxStatusType.PROCESSING.equals(entry.getStatus())) {
+            return entry.getLockExpiration() == null || entry.getLockExpiration().before(now);
+        }
+        return entry.getNextAttemptDate() == null || !entry.getNextAttemptDate().after(now);
+    }
+
+    /**
+     * Claims the entry and invokes its listener outside of any transaction, then records the outcome
+     * 
+     * @param entry
+     * @return whether or not the listener was invoked successfully
+     */
+    protected boolean dispatch(ApplicationEventOutboxEntry entry) {
+        Date now = SystemTime.asDate();
+        if (!claim(entry.getId(), now, new Date(now.getTime() + lockDuration))) {
+            return false;
+        }
+        Exception error = null;
+        try {
+            BroadleafApplicationEvent event = deserialize(entry.getPayload());
+            event.getConext().put(BroadleafDurableApplicationListener.IDEMPOTENCY_KEY, entry.getIdempotencyKey());
+            if (!getMulticaster().invokeDurableListener(event, entry.getListenerName())) {
+                error = new IllegalStateException(String.format("No durable listener (%s) is registered for the event (%s)",
+                        entry.getListenerName(), entry.getEventType()));
+            }
+        } catch (Exception e) {
+            error = e;
+        }
+        recordOutcome(entry.getId(), error);
+        return error == null;
+    }
+
+    protected boolean claim(Long id, Date now, Date lockExpiration) {
+        TransactionStatus status = TransactionUtils.createTransaction("claimOutboxEntry",
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, false);
+        try {
+            boolean claimed = outboxDao.claimEntry(id, now, lockExpiration);
+            TransactionUtils.finalizeTransaction(status, transactionManager, false);
+            return claimed;
+        } catch (RuntimeException e) {
+            if (!status.isCompleted()) {
+                TransactionUtils.finalizeTransaction(status, transactionManager, true);
+            }
+            LOG.error(String.format("Unable to claim the outbox entry (%s)", id), e);
+            return false;
+        }
+    }
+
+    protected void recordOutcome(Long id, Exception error) {
+        TransactionStatus status = TransactionUtils.createTransaction("recordOutboxEntryOutcome",
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, false);
+        try {
+            ApplicationEventOutboxEntry entry = outboxDao.readEntryById(id);
+            if (entry != null) {
+                Date now = SystemTime.asDate();
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setLockExpiration(null);
+                if (error == null) {
+                    entry.setStatus(ApplicationEventOutboxStatusType.PROCESSED);
+                    entry.setDateProcessed(now);
+                    entry.setLastError(null);
+                } else {
+                    entry.setLastError(StringUtils.abbreviate(String.valueOf(error), 1000));
+                    if (entry.getAttempts() >= maxAttempts) {
+                        entry.setStatus(ApplicationEventOutboxStatusType.FAILED);
+                        LOG.error(String.format("Giving up on delivering the outbox entry (%s) to (%s) after %d attempts",
+                                id, entry.getListenerName(), entry.getAttempts()), error);
+                    } else {
+                        entry.setStatus(ApplicationEventOutboxStatusType.PENDING);
+                        entry.setNextAttemptDate(new Date(now.getTime() + getRetryDelay(entry.getAttempts())));
+                        LOG.warn(String.format("Unable to deliver the outbox entry (%s) to (%s), attempt %d of %d",
+                                id, entry.getListenerName(), entry.getAttempts(), maxAttempts), error);
+                    }
+                }
+                outboxDao.save(entry);
+            }
+            TransactionUtils.finalizeTransaction(status, transactionManager, false);
+        } catch (RuntimeException e) {
+            if (!status.isCompleted()) {
+                TransactionUtils.finalizeTransaction(status, transactionManager, true);
+            }
+            LOG.error(String.format("Unable to record the delivery outcome of the outbox entry (%s)", id), e);
+        }
+    }
+
+    /**
+     * Exponential backoff from {@code application.event.outbox.retry.backoff.millis}
+     * 
+     * @param attempts the number of attempts made so far
+     * @return the delay before the next attempt, in milliseconds
+     */
+    protected long getRetryDelay(int attempts) {
+        return retryBackoff * (1L << Math.min(Math.max(attempts - 1, 0), 10));
+    }
+
+    protected void purgeProcessedEntries() {
+        long now = SystemTime.asMillis();
+        if (now - lastPurge < PURGE_INTERVAL) {
+            return;
+        }
+        lastPurge = now;
+        TransactionStatus status = TransactionUtils.createTransaction("purgeProcessedOutboxEntries",
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, false);
+        try {
+            int count = outboxDao.deleteProcessedEntries(new Date(now - retentionHours * 3600000L));
+            TransactionUtils.finalizeTransaction(status, transactionManager, false);
+            if (count > 0 && LOG.isDebugEnabled()) {
+                LOG.debug(String.format("Removed %d delivered entries from the application event outbox", count));
+            }
+        } catch (RuntimeException e) {
+            if (!status.isCompleted()) {
+                TransactionUtils.finalizeTransaction(status, transactionManager, true);
+            }
+            LOG.error("Unable to remove delivered entries from the application event outbox", e);
+        }
+    }
+
+    protected BroadleafApplicationEventMulticaster getMulticaster() {
+        return applicationContext.getBean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME,
+                BroadleafApplicationEventMulticaster.class);
+    }
+
+    protected String serialize(BroadleafApplicationEvent event) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        try {
+            out.writeObject(event);
+        } finally {
+            out.close();
+        }
+        return Base64.encodeBase64String(bytes.toByteArray());
+    }
+
+    protected BroadleafApplicationEvent deserialize(String payload) throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(Base64.decodeBase64(payload)));
+        try {
+            return (BroadleafApplicationEvent) in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+}
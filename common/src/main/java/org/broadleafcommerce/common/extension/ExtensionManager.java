@@ -19,6 +19,9 @@ package org.broadleafcommerce.common.extension;
 
 import org.apache.commons.beanutils.BeanComparator;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -27,6 +30,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The ExtensionManager pattern is intended for out of box components to be extended by Broadleaf modules.
@@ -37,6 +42,11 @@ import java.util.List;
  * The default extension manager pattern loops through all handlers and examines their {@link ExtensionResultStatusType} 
  * to determine whether or not to continue with other handlers.
  * 
+ * Proxy invocations are dispatched through a table that is computed once per handler interface method. Handlers whose
+ * implementation of a method is marked with {@link NotHandledByDefault} are left out of the table for that method, and
+ * the remaining handlers are invoked through a pre-adapted {@link MethodHandle} rather than {@link Method#invoke}.
+ * The table is rebuilt whenever the list of handlers changes.
+ * 
  * @author bpolster
  *
  * @param <T>
@@ -44,10 +54,24 @@ import java.util.List;
 public abstract class ExtensionManager<T extends ExtensionHandler> implements InvocationHandler {
 
     protected boolean handlersSorted = false;
+
+    /**
+     * @deprecated no longer used, each manager guards its handlers with its own {@link #handlerLock}
+     */
+    @Deprecated
     protected static String LOCK_OBJECT = new String("EM_LOCK");
+
+    /**
+     * Guards changes to {@link #handlers} and the rebuilding of the {@link #dispatchTable}. Managers do not share
+     * handlers, so each has its own lock rather than serializing every manager in the application.
+     */
+    protected final Object handlerLock = new Object();
+    
+    protected static final MethodType DISPATCH_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
     
     protected T extensionHandler;
     protected List<T> handlers = new ArrayList<T>();
+    protected volatile HandlerDispatchTable dispatchTable;
 
     /**
      * Should take in a className that matches the ExtensionHandler interface being managed.
@@ -75,8 +99,9 @@ public abstract class ExtensionManager<T extends ExtensionHandler> implements In
      */
     public List<T> getHandlers() {
         if (!handlersSorted) {
-            synchronized (LOCK_OBJECT) {
+            synchronized (handlerLock) {
                 sortHandlers();
+                dispatchTable = null;
             }
         }
         return handlers;
@@ -103,7 +128,7 @@ public abstract class ExtensionManager<T extends ExtensionHandler> implements In
      * handlers for this manager
      */
     public boolean registerHandler(T handler) {
-        synchronized (LOCK_OBJECT) {
+        synchronized (handlerLock) {
             boolean add = true;
             for (T item : this.handlers) {
                 if (item.getClass().equals(handler.getClass())) {
@@ -113,6 +138,7 @@ public abstract class ExtensionManager<T extends ExtensionHandler> implements In
             if (add) {
                 this.handlers.add(handler);
                 handlersSorted = false;
+                dispatchTable = null;
             }
             
             return add;
@@ -120,7 +146,11 @@ public abstract class ExtensionManager<T extends ExtensionHandler> implements In
     }
 
     public void setHandlers(List<T> handlers) {
-        this.handlers = handlers;
+        synchronized (handlerLock) {
+            this.handlers = handlers;
+            handlersSorted = false;
+            dispatchTable = null;
+        }
     }
     
     /**
@@ -166,20 +196,21 @@ public abstract class ExtensionManager<T extends ExtensionHandler> implements In
 
     @Override
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        List<T> currentHandlers = getHandlers();
+        if (currentHandlers.isEmpty()) {
+            return ExtensionResultStatusType.NOT_HANDLED;
+        }
         boolean notHandled = true;
-        for (ExtensionHandler handler : getHandlers()) {
-            try {
-                if (handler.isEnabled()) {
-                    ExtensionResultStatusType result = (ExtensionResultStatusType) method.invoke(handler, args);
-                    if (!ExtensionResultStatusType.NOT_HANDLED.equals(result)) {
-                        notHandled = false;
-                    }
-                    if (!shouldContinue(result, handler, method, args)) {
-                        break;
-                    }
+        for (HandlerMethod handlerMethod : getDispatchTable(currentHandlers).getHandlerMethods(method)) {
+            ExtensionHandler handler = handlerMethod.getHandler();
+            if (handler.isEnabled()) {
+                ExtensionResultStatusType result = (ExtensionResultStatusType) handlerMethod.invoke(args);
+                if (!ExtensionResultStatusType.NOT_HANDLED.equals(result)) {
+                    notHandled = false;
+                }
+                if (!shouldContinue(result, handler, method, args)) {
+                    break;
                 }
-            } catch (InvocationTargetException e) {
-                throw e.getCause();
             }
         }
         if (notHandled) {
@@ -189,6 +220,25 @@ public abstract class ExtensionManager<T extends ExtensionHandler> implements In
         }
     }
 
+    /**
+     * Returns the dispatch table for the given list of handlers, rebuilding it if the list has been replaced or
+     * modified since the table was last built. The list is compared by identity and size since subclasses may return
+     * a different list from {@link #getHandlers()} depending on context.
+     * 
+     * @param currentHandlers the sorted handlers, as returned by {@link #getHandlers()}
+     * @return the dispatch table for the handlers
+     */
+    protected HandlerDispatchTable getDispatchTable(List<T> currentHandlers) {
+        HandlerDispatchTable table = dispatchTable;
+        if (table == null || !table.isFor(currentHandlers)) {
+            synchronized (handlerLock) {
+                table = new HandlerDispatchTable(currentHandlers);
+            }
+            dispatchTable = table;
+        }
+        return table;
+    }
+
     /**
      * Provides a mechanism for executing multiple extension handler touchpoints without utilizing reflection. This is a reasonable
      * alternative when the ExtensionManager is used in an operation that is very sensitive to the time cost involved in reflection
@@ -217,4 +267,97 @@ public abstract class ExtensionManager<T extends ExtensionHandler> implements In
             return ExtensionResultStatusType.HANDLED;
         }
     }
+
+    /**
+     * The handlers to invoke for each handler interface method, computed lazily from a snapshot of the handler list.
+     */
+    protected static class HandlerDispatchTable {
+
+        protected final List<? extends ExtensionHandler> source;
+        protected final int sourceSize;
+        protected final ExtensionHandler[] handlers;
+        protected final ConcurrentMap<Method, HandlerMethod[]> handlerMethods = new ConcurrentHashMap<Method, HandlerMethod[]>();
+
+        public HandlerDispatchTable(List<? extends ExtensionHandler> source) {
+            this.source = source;
+            this.sourceSize = source.size();
+            this.handlers = source.toArray(new ExtensionHandler[sourceSize]);
+        }
+
+        public boolean isFor(List<? extends ExtensionHandler> currentHandlers) {
+            return source == currentHandlers && sourceSize == currentHandlers.size();
+        }
+
+        public HandlerMethod[] getHandlerMethods(Method method) {
+            HandlerMethod[] response = handlerMethods.get(method);
+            if (response == null) {
+                response = buildHandlerMethods(method);
+                HandlerMethod[] existing = handlerMethods.putIfAbsent(method, response);
+                if (existing != null) {
+                    response = existing;
+                }
+            }
+            return response;
+        }
+
+        protected HandlerMethod[] buildHandlerMethods(Method method) {
+            MethodHandle methodHandle = null;
+            try {
+                methodHandle = MethodHandles.publicLookup().unreflect(method)
+                        .asSpreader(Object[].class, method.getParameterTypes().length)
+                        .asType(DISPATCH_TYPE);
+            } catch (IllegalAccessException e) {
+                //fall back to reflective invocation
+            }
+            List<HandlerMethod> response = new ArrayList<HandlerMethod>(handlers.length);
+            for (ExtensionHandler handler : handlers) {
+                if (!isNotHandledByDefault(handler, method)) {
+                    response.add(new HandlerMethod(handler, method, methodHandle));
+                }
+            }
+            return response.toArray(new HandlerMethod[response.size()]);
+        }
+
+        protected boolean isNotHandledByDefault(ExtensionHandler handler, Method method) {
+            try {
+                Method implementation = handler.getClass().getMethod(method.getName(), method.getParameterTypes());
+                return implementation.isAnnotationPresent(NotHandledByDefault.class);
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * A single handler paired with the handle used to invoke one of its interface methods.
+     */
+    protected static class HandlerMethod {
+
+        protected static final Object[] NO_ARGS = new Object[0];
+
+        protected final ExtensionHandler handler;
+        protected final Method method;
+        protected final MethodHandle methodHandle;
+
+        public HandlerMethod(ExtensionHandler handler, Method method, MethodHandle methodHandle) {
+            this.handler = handler;
+            this.method = method;
+            this.methodHandle = methodHandle;
+        }
+
+        public ExtensionHandler getHandler() {
+            return handler;
+        }
+
+        public Object invoke(Object[] args) throws Throwable {
+            if (methodHandle != null) {
+                return (Object) methodHandle.invokeExact((Object) handler, args == null ? NO_ARGS : args);
+            }
+            try {
+                return method.invoke(handler, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
 }
@@ -0,0 +1,41 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.extension;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an extension handler method implementation that does nothing other than return
+ * {@link ExtensionResultStatusType#NOT_HANDLED}. This is intended for the default implementations in the
+ * Abstract*ExtensionHandler base classes.
+ * <p>
+ * {@link ExtensionManager} skips a handler for a method when the handler's implementation of that method carries this
+ * annotation, so a handler that only overrides a few methods of a large handler interface is not invoked for the rest.
+ * Annotations are not inherited by overriding methods, so a subclass that overrides the method is always invoked.
+ * Do not place this annotation on a method that has any side effect or that delegates to another method.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface NotHandledByDefault {
+
+}
@@ -20,6 +20,7 @@ package org.broadleafcommerce.common.i18n.service;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.cache.PersistentRetrieval;
 import org.broadleafcommerce.common.cache.StatisticsService;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ItemStatus;
@@ -32,6 +33,7 @@ import org.broadleafcommerce.common.i18n.domain.TranslationImpl;
 import org.broadleafcommerce.common.locale.service.LocaleService;
 import org.broadleafcommerce.common.locale.util.LocaleUtil;
 import org.broadleafcommerce.common.sandbox.SandBoxHelper;
+import org.broadleafcommerce.common.sandbox.service.SandBoxCacheService;
 import org.broadleafcommerce.common.web.BroadleafRequestContext;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -62,6 +64,9 @@ public class TranslationServiceImpl implements TranslationService, TranslationSu
 
     @Resource(name="blSandBoxHelper")
     protected SandBoxHelper sandBoxHelper;
+
+    @Resource(name="blSandBoxCacheService")
+    protected SandBoxCacheService sandBoxCacheService;
     
     protected Cache cache;
 
@@ -195,14 +200,15 @@ public class TranslationServiceImpl implements TranslationService, TranslationSu
             extensionManager.getProxy().isValidState(response);
             isValidForCache = response.getResult();
         }
-        if (!BroadleafRequestContext.getBroadleafRequestContext().isProductionSandBox() || !isValidForCache) {
-            Translation translation = dao.readTranslation(entityType, entityId, property, localeCode, localeCountryCode,
-                    ResultType.CATALOG_ONLY);
-            if (translation != null) {
-                return translation.getTranslatedValue();
-            } else {
-                return null;
-            }
+        if (!isValidForCache) {
+            return new TranslatedValueRetrieval(entityType, entityId, property, localeCode, localeCountryCode)
+                    .retrievePersistentObject();
+        }
+        if (!BroadleafRequestContext.getBroadleafRequestContext().isProductionSandBox()) {
+            // Sandbox translations can't go in the production cache, but can be cached for the sandbox being previewed
+            String sandBoxCacheKey = entityType.getFriendlyType() + "|" + entityId + "|" + property + "|" + localeCountryCode;
+            return sandBoxCacheService.getCachedObject("translation", sandBoxCacheKey,
+                    new TranslatedValueRetrieval(entityType, entityId, property, localeCode, localeCountryCode));
         }
 
         return getOverrideTranslatedValue(property, entityType, entityId, localeCode, localeCountryCode);
@@ -210,7 +216,9 @@ public class TranslationServiceImpl implements TranslationService, TranslationSu
 
     @Override
     public void removeTranslationFromCache(Translation translation) {
-        if (BroadleafRequestContext.getBroadleafRequestContext().isProductionSandBox()) {
+        if (!BroadleafRequestContext.getBroadleafRequestContext().isProductionSandBox()) {
+            sandBoxCacheService.invalidateCurrentSandBox();
+        } else {
             ResultType resultType = ResultType.STANDARD;
             if (extensionManager != null) {
                 ExtensionResultHolder<ResultType> response = new ExtensionResultHolder<ResultType>();
@@ -501,4 +509,35 @@ public class TranslationServiceImpl implements TranslationService, TranslationSu
         return false;
     }
 
+    /**
+     * Reads a single translated value directly from the database, bypassing the translation cache
+     */
+    protected class TranslatedValueRetrieval implements PersistentRetrieval<String> {
+
+        protected final TranslatedEntity entityType;
+        protected final String entityId;
+        protected final String property;
+        protected final String localeCode;
+        protected final String localeCountryCode;
+
+        public TranslatedValueRetrieval(TranslatedEntity entityType, String entityId, String property,
+                                        String localeCode, String localeCountryCode) {
+            this.entityType = entityType;
+            this.entityId = entityId;
+            this.property = property;
+            this.localeCode = localeCode;
+            this.localeCountryCode = localeCountryCode;
+        }
+
+        @Override
+        public String retrievePersistentObject() {
+            Translation translation = dao.readTranslation(entityType, entityId, property, localeCode, localeCountryCode,
+                    ResultType.CATALOG_ONLY);
+            if (translation != null) {
+                return translation.getTranslatedValue();
+            } else {
+                return null;
+            }
+        }
+    }
 }
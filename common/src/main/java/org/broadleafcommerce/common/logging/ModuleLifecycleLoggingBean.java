@@ -32,6 +32,7 @@ public class ModuleLifecycleLoggingBean {
 
     private String moduleName;
     private LifeCycleEvent lifeCycleEvent;
+    private String message = "";
     
     public ModuleLifecycleLoggingBean() {
     }
@@ -41,6 +42,11 @@ public class ModuleLifecycleLoggingBean {
         this.lifeCycleEvent = lifeCycleEvent;
     }
 
+    public ModuleLifecycleLoggingBean(String moduleName, LifeCycleEvent lifeCycleEvent, String message) {
+        this(moduleName, lifeCycleEvent);
+        this.message = message;
+    }
+
     /**
      * Initialize the bean and cause the logging message to take place
      */
@@ -50,7 +56,7 @@ public class ModuleLifecycleLoggingBean {
             throw new IllegalArgumentException("Must supply the moduleName and lifeCycleEvent properties!");
         }
         SupportLogger logger = SupportLogManager.getLogger(moduleName, ModuleLifecycleLoggingBean.class);
-        logger.lifecycle(lifeCycleEvent, "");
+        logger.lifecycle(lifeCycleEvent, message == null ? "" : message);
     }
 
     /**
@@ -88,4 +94,22 @@ public class ModuleLifecycleLoggingBean {
     public void setModuleName(String moduleName) {
         this.moduleName = moduleName;
     }
+
+    /**
+     * Additional detail to include in the logging message (e.g. the progress of a long running task)
+     *
+     * @return the detail for this logging message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Set additional detail to include in the logging message
+     *
+     * @param message the detail for this logging message
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
 }
@@ -30,7 +30,9 @@ import org.broadleafcommerce.common.resource.GeneratedResource;
 import org.broadleafcommerce.common.web.BroadleafRequestContext;
 import org.broadleafcommerce.common.web.resource.BroadleafDefaultResourceResolverChain;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
@@ -43,17 +45,29 @@ import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
 import org.springframework.web.servlet.resource.ResourceResolverChain;
 
 import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -62,12 +76,18 @@ import de.jkeylockmanager.manager.KeyLockManagers;
 import de.jkeylockmanager.manager.LockCallback;
 
 /**
+ * The files making up a bundle are resolved on the requesting thread and read concurrently on a pool of
+ * 'bundle.build.threads' threads. Bundles are saved via the {@link BroadleafFileService} with a leading comment holding
+ * the version of the files they were built from. When the copy already saved (e.g. by this node before a restart) has
+ * the current version, it is reused without reading the files or building the bundle again. The number of bundles built and reused, and the time spent, are
+ * available from {@link #getBundlesBuilt()}, {@link #getBundlesReused()} and {@link #getBundleBuildMillis()}.
+ *
  * @see ResourceBundlingService
  * @author Andre Azzolini (apazzolini)
  * @author Brian Polster (bpolster)
  */
 @Service("blResourceBundlingService")
-public class ResourceBundlingServiceImpl implements ResourceBundlingService {
+public class ResourceBundlingServiceImpl implements ResourceBundlingService, DisposableBean {
     protected static final Log LOG = LogFactory.getLog(ResourceBundlingServiceImpl.class);
 
     // Map of known unversioned bundle names ==> additional files that should be included
@@ -97,6 +117,18 @@ public class ResourceBundlingServiceImpl implements ResourceBundlingService {
     private KeyLockManager keyLockManager = KeyLockManagers.newLock();
 
     private ConcurrentHashMap<String, BundledResourceInfo> createdBundles = new ConcurrentHashMap<>();
+
+    /**
+     * The number of threads used to read the files of a bundle. Set to 1 to read them on the requesting thread.
+     */
+    @Value("${bundle.build.threads:4}")
+    protected int bundleBuildThreads = 4;
+
+    protected volatile ExecutorService bundleBuildExecutor;
+
+    protected final AtomicInteger bundlesBuilt = new AtomicInteger();
+    protected final AtomicInteger bundlesReused = new AtomicInteger();
+    protected final AtomicLong bundleBuildMillis = new AtomicLong();
     
     /**
      * Initalize the blJsResources and blCssResources. The reason that we are doing it this way and not via the normal
@@ -235,11 +267,16 @@ public class ResourceBundlingServiceImpl implements ResourceBundlingService {
                 public void doInLock() {
                     Resource bundleResource = getBundledResource(versionedBundleName);
                     if (bundleResource == null || !bundleResource.exists()) {
-                        bundleResource = createBundle(versionedBundleName, filePaths, resolverChain, locations);
-                        if (bundleResource != null) {
-                            saveBundle(bundleResource);
-                        }
+                        long start = System.currentTimeMillis();
+                        List<Resource> resources = resolveBundleFiles(filePaths, resolverChain, locations);
+                        String bundleVersion = getBundleVersion(filePaths, resources);
                         Resource savedResource = readBundle(versionedBundleName);
+                        boolean reused = isSavedBundleCurrent(savedResource, bundleVersion);
+                        if (!reused) {
+                            saveBundle(createBundle(versionedBundleName, filePaths, resources, bundleVersion));
+                            savedResource = readBundle(versionedBundleName);
+                        }
+                        recordBundleBuild(versionedBundleName, filePaths.size(), reused, System.currentTimeMillis() - start);
                         BundledResourceInfo bundledResourceInfo = new BundledResourceInfo(savedResource, versionedBundleName, filePaths);
                         createdBundles.put(versionedBundleName, bundledResourceInfo);
                     }
@@ -250,32 +287,36 @@ public class ResourceBundlingServiceImpl implements ResourceBundlingService {
     
     protected Resource createBundle(String versionedBundleName, List<String> filePaths,
             ResourceResolverChain resolverChain, List<Resource> locations) {
+        List<Resource> resources = resolveBundleFiles(filePaths, resolverChain, locations);
+        return createBundle(versionedBundleName, filePaths, resources, getBundleVersion(filePaths, resources));
+    }
 
-        HttpServletRequest req = BroadleafRequestContext.getBroadleafRequestContext().getRequest();
+    /**
+     * Joins the given resources into a bundle. When a bundle version is given, it is written as a leading comment so that
+     * {@link #isSavedBundleCurrent(Resource, String)} can later tell whether the saved bundle is still current.
+     */
+    protected Resource createBundle(String versionedBundleName, List<String> filePaths, List<Resource> resources,
+            String bundleVersion) {
+        List<byte[]> contents = readBundleFiles(resources);
 
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         byte[] bytes = null;
         
         // Join all of the resources for this bundle together into a byte[]
         try {
-            for (String fileName : filePaths) {
-                Resource r = resolverChain.resolveResource(req, fileName, locations);
-                InputStream is = null;
-                
-                if (r == null) {
+            if (bundleVersion != null) {
+                baos.write(getBundleVersionHeader(bundleVersion).getBytes("UTF-8"));
+                baos.write(System.getProperty("line.separator").getBytes());
+            }
+            for (int j = 0; j < filePaths.size(); j++) {
+                byte[] content = contents.get(j);
+                if (content == null) {
                     LOG.warn(new StringBuilder().append("Could not resolve resource specified in bundle as [")
-                            .append(fileName)
+                            .append(filePaths.get(j))
                             .append("]. Turn on trace logging to determine resolution failure. Skipping file.")
                             .toString());
                 } else {
-                    try {
-                        is = r.getInputStream();
-                        StreamUtils.copy(is, baos);
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    } finally {
-                        IOUtils.closeQuietly(is);
-                    }
+                    baos.write(content);
                     
                     // If we're creating a JavaScript bundle, we'll put a semicolon between each
                     // file to ensure it won't fail to compile.
@@ -296,7 +337,187 @@ public class ResourceBundlingServiceImpl implements ResourceBundlingService {
         GeneratedResource r = new GeneratedResource(bytes, versionedBundleName);
         return r;
     }
+
+    /**
+     * Resolve each file in the bundle, in file order. This is done on the calling thread, as the resolvers may use the
+     * current servlet request, which must not be used from another thread.
+     *
+     * @return the resource for each file, or null for a file that could not be resolved
+     */
+    protected List<Resource> resolveBundleFiles(List<String> filePaths, ResourceResolverChain resolverChain,
+            List<Resource> locations) {
+        BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        HttpServletRequest req = brc == null ? null : brc.getRequest();
+        List<Resource> resources = new ArrayList<>(filePaths.size());
+        for (String fileName : filePaths) {
+            resources.add(resolverChain.resolveResource(req, fileName, locations));
+        }
+        return resources;
+    }
     
+    /**
+     * Read the content of each resolved file in the bundle, in file order. Files are read concurrently on the bundle
+     * build pool. Each worker is given a copy of the calling thread's {@link BroadleafRequestContext}, without the
+     * servlet request and response, so that site and theme aware resources read as they would on the request thread.
+     *
+     * @return the content of each file, or null for a file that could not be resolved
+     */
+    protected List<byte[]> readBundleFiles(List<Resource> resources) {
+        List<byte[]> contents = new ArrayList<>(resources.size());
+        ExecutorService executor = getBundleBuildExecutor();
+        if (executor == null || resources.size() < 2) {
+            for (Resource resource : resources) {
+                contents.add(readBundleFile(resource));
+            }
+            return contents;
+        }
+
+        final BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        List<Future<byte[]>> futures = new ArrayList<>(resources.size());
+        for (final Resource resource : resources) {
+            futures.add(executor.submit(new Callable<byte[]>() {
+
+                @Override
+                public byte[] call() {
+                    BroadleafRequestContext previousBrc = BroadleafRequestContext.getBroadleafRequestContext();
+                    BroadleafRequestContext.setBroadleafRequestContext(brc == null ? new BroadleafRequestContext()
+                            : brc.createLightWeightClone());
+                    try {
+                        return readBundleFile(resource);
+                    } finally {
+                        BroadleafRequestContext.setBroadleafRequestContext(previousBrc);
+                    }
+                }
+            }));
+        }
+        try {
+            for (Future<byte[]> future : futures) {
+                contents.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } finally {
+            for (Future<byte[]> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return contents;
+    }
+
+    protected byte[] readBundleFile(Resource resource) {
+        if (resource == null) {
+            return null;
+        }
+        InputStream is = null;
+        try {
+            is = resource.getInputStream();
+            return StreamUtils.copyToByteArray(is);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    /**
+     * The version of a bundle, computed from the resolved files without reading them (see
+     * {@link #getBundleVersion(LinkedHashMap)}).
+     *
+     * @return the version, or null if it could not be determined, in which case a saved bundle is never reused
+     */
+    protected String getBundleVersion(List<String> filePaths, List<Resource> resources) {
+        LinkedHashMap<String, Resource> foundResources = new LinkedHashMap<>();
+        for (int j = 0; j < filePaths.size(); j++) {
+            if (resources.get(j) != null) {
+                foundResources.put(filePaths.get(j), resources.get(j));
+            }
+        }
+        try {
+            return getBundleVersion(foundResources);
+        } catch (IOException e) {
+            LOG.debug("Unable to determine the version of a bundle, it will always be built", e);
+            return null;
+        }
+    }
+
+    protected String getBundleVersionHeader(String bundleVersion) {
+        return "/* bundle version " + bundleVersion + " */";
+    }
+
+    /**
+     * Whether or not the bundle previously saved via the file service (e.g. by this node before a restart) was built
+     * from the same versions of its files, in which case it is used as is and the files are not read at all. Only the
+     * first line of the saved bundle is read.
+     */
+    protected boolean isSavedBundleCurrent(Resource savedResource, String bundleVersion) {
+        if (bundleVersion == null || savedResource == null || !savedResource.exists()) {
+            return false;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(savedResource.getInputStream(), "UTF-8"));
+            return getBundleVersionHeader(bundleVersion).equals(reader.readLine());
+        } catch (IOException e) {
+            LOG.debug("Unable to read the saved bundle " + savedResource.getDescription() + ", it will be built again", e);
+            return false;
+        } finally {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    protected void recordBundleBuild(String versionedBundleName, int fileCount, boolean reused, long elapsedMillis) {
+        int count = reused ? bundlesReused.incrementAndGet() : bundlesBuilt.incrementAndGet();
+        bundleBuildMillis.addAndGet(elapsedMillis);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(new StringBuilder().append(reused ? "Reused saved bundle " : "Built bundle ")
+                    .append(versionedBundleName).append(" from ").append(fileCount).append(" files in ")
+                    .append(elapsedMillis).append("ms (").append(count).append(reused ? " reused" : " built")
+                    .append(" so far)").toString());
+        }
+    }
+
+    protected ExecutorService getBundleBuildExecutor() {
+        if (bundleBuildThreads < 2) {
+            return null;
+        }
+        if (bundleBuildExecutor == null) {
+            synchronized (this) {
+                if (bundleBuildExecutor == null) {
+                    ThreadPoolExecutor executor = new ThreadPoolExecutor(bundleBuildThreads, bundleBuildThreads, 60L,
+                            TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new BundleBuildThreadFactory());
+                    executor.allowCoreThreadTimeOut(true);
+                    bundleBuildExecutor = executor;
+                }
+            }
+        }
+        return bundleBuildExecutor;
+    }
+
+    @Override
+    public void destroy() {
+        if (bundleBuildExecutor != null) {
+            bundleBuildExecutor.shutdownNow();
+        }
+    }
+
+    public int getBundlesBuilt() {
+        return bundlesBuilt.get();
+    }
+
+    public int getBundlesReused() {
+        return bundlesReused.get();
+    }
+
+    public long getBundleBuildMillis() {
+        return bundleBuildMillis.get();
+    }
+
     protected void saveBundle(Resource resource) {
         FileWorkArea tempWorkArea = fileService.initializeWorkArea();
         String fileToSave = FilenameUtils.separatorsToSystem(getResourcePath(resource.getDescription()));
@@ -404,6 +625,18 @@ public class ResourceBundlingServiceImpl implements ResourceBundlingService {
         return (resourceName != null && resourceName.contains(".css"));
     }
 
+    protected static class BundleBuildThreadFactory implements ThreadFactory {
+
+        protected final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "resource-bundle-build-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
     /**
      * Returns the resource path for the given <b>name</b> in URL-format (meaning, / separators)
      * @param name
@@ -17,8 +17,13 @@
  */
 package org.broadleafcommerce.common.resource.service;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.file.domain.FileWorkArea;
+import org.broadleafcommerce.common.file.service.BroadleafFileService;
 import org.broadleafcommerce.common.resource.GeneratedResource;
 import org.broadleafcommerce.common.util.BLCSystemProperty;
 import org.mozilla.javascript.ErrorReporter;
@@ -27,18 +32,34 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
 
 import com.yahoo.platform.yui.compressor.CssCompressor;
 import com.yahoo.platform.yui.compressor.JavaScriptCompressor;
 
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+
 /**
+ * Minified results are cached in the "blMinifiedResourceElements" cache region, keyed by the file type and a hash of the
+ * original content and the minification settings, so that a resource is only minified again when its content changes.
+ * Results are also saved via the {@link BroadleafFileService} under "minified/" so that they survive a restart and are
+ * shared by the nodes using the same file service; the cache region only holds the most recently used results in memory.
+ *
  * @see ResourceMinificationService 
  * @author Andre Azzolini (apazzolini)
  */
@@ -48,6 +69,10 @@ public class ResourceMinificationServiceImpl implements ResourceMinificationServ
 
     public static String CSS_TYPE = "css";
     public static String JS_TYPE = "js";
+
+    protected static final String CACHE_NAME = "blMinifiedResourceElements";
+
+    protected static final String MINIFIED_RESOURCE_DIRECTORY = "minified";
     
     @Value("${minify.linebreak}")
     protected int linebreak;
@@ -64,6 +89,11 @@ public class ResourceMinificationServiceImpl implements ResourceMinificationServ
     @Value("${minify.disableOptimizations}")
     protected boolean disableOptimizations;
 
+    @javax.annotation.Resource(name = "blFileService")
+    protected BroadleafFileService fileService;
+
+    protected Cache cache;
+
     @Override
     public boolean getEnabled() {
         return BLCSystemProperty.resolveBooleanSystemProperty("minify.enabled");
@@ -117,9 +147,28 @@ public class ResourceMinificationServiceImpl implements ResourceMinificationServ
             return originalResource;
         }
         
+        byte[] originalBytes;
+        try (InputStream is = originalResource.getInputStream()) {
+            originalBytes = StreamUtils.copyToByteArray(is);
+        } catch (Exception e) {
+            LOG.warn("Could not read resource for minification, returned unminified resource", e);
+            return originalResource;
+        }
+        String minifiedResourceName = getMinifiedResourceName(originalBytes, type);
+        Element cached = getCache().get(minifiedResourceName);
+        if (cached != null) {
+            return new GeneratedResource((byte[]) cached.getObjectValue(), filename);
+        }
+
+        byte[] savedBytes = readMinifiedResource(minifiedResourceName);
+        if (savedBytes != null) {
+            getCache().put(new Element(minifiedResourceName, savedBytes));
+            return new GeneratedResource(savedBytes, filename);
+        }
+
         byte[] minifiedBytes = null;
         try (BufferedReader in =
-                new BufferedReader(new InputStreamReader(originalResource.getInputStream(), "utf-8"));
+                new BufferedReader(new InputStreamReader(new ByteArrayInputStream(originalBytes), "utf-8"));
                 ByteArrayOutputStream baos = new ByteArrayOutputStream();
                 BufferedWriter out =
                         new BufferedWriter(new OutputStreamWriter(baos, "utf-8"));) {
@@ -131,9 +180,85 @@ public class ResourceMinificationServiceImpl implements ResourceMinificationServ
             LOG.warn("Could not minify resources, returned unminified bytes", e);
             return originalResource;
         }
-        
+
+        getCache().put(new Element(minifiedResourceName, minifiedBytes));
+        saveMinifiedResource(minifiedResourceName, minifiedBytes);
         return new GeneratedResource(minifiedBytes, filename);
     }
+
+    /**
+     * The name under which the minified result is cached and saved. It changes whenever the original content or any of
+     * the minification settings change.
+     */
+    protected String getMinifiedResourceName(byte[] originalBytes, String type) {
+        String settings = new StringBuilder().append(linebreak).append(munge).append(preserveAllSemiColons)
+                .append(disableOptimizations).toString();
+        String hash = DigestUtils.md5Hex(settings + DigestUtils.md5Hex(originalBytes));
+        return MINIFIED_RESOURCE_DIRECTORY + "/" + hash + "." + type;
+    }
+
+    /**
+     * Reads a result previously saved by {@link #saveMinifiedResource(String, byte[])}, by this or another node.
+     *
+     * @return the minified bytes, or null if the result has not been saved or could not be read
+     */
+    protected byte[] readMinifiedResource(String minifiedResourceName) {
+        if (fileService == null) {
+            return null;
+        }
+        InputStream is = null;
+        try {
+            File file = fileService.getResource("/" + minifiedResourceName);
+            if (file == null || !file.exists()) {
+                return null;
+            }
+            is = new FileInputStream(file);
+            return StreamUtils.copyToByteArray(is);
+        } catch (Exception e) {
+            LOG.debug("Unable to read the saved minified resource " + minifiedResourceName + ", it will be minified again", e);
+            return null;
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    /**
+     * Saves the minified result via the file service. A failure is logged and otherwise ignored, as the result is still
+     * cached in memory.
+     */
+    protected void saveMinifiedResource(String minifiedResourceName, byte[] minifiedBytes) {
+        if (fileService == null) {
+            return;
+        }
+        FileWorkArea tempWorkArea = fileService.initializeWorkArea();
+        OutputStream out = null;
+        try {
+            String tempFilename = FilenameUtils.concat(tempWorkArea.getFilePathLocation(),
+                    FilenameUtils.separatorsToSystem(minifiedResourceName));
+            File tempFile = new File(tempFilename);
+            if (!tempFile.getParentFile().exists() && !tempFile.getParentFile().mkdirs()
+                    && !tempFile.getParentFile().exists()) {
+                throw new IOException("Unable to create parent directories for file: " + tempFilename);
+            }
+            out = new FileOutputStream(tempFile);
+            out.write(minifiedBytes);
+            out.close();
+
+            fileService.addOrUpdateResourceForPath(tempWorkArea, tempFile, true);
+        } catch (Exception e) {
+            LOG.warn("Unable to save the minified resource " + minifiedResourceName, e);
+        } finally {
+            IOUtils.closeQuietly(out);
+            fileService.closeWorkArea(tempWorkArea);
+        }
+    }
+
+    protected Cache getCache() {
+        if (cache == null) {
+            cache = CacheManager.getInstance().getCache(CACHE_NAME);
+        }
+        return cache;
+    }
     
     protected void minify(BufferedReader in, BufferedWriter out, String filename, String type) throws IOException {
         if (JS_TYPE.equals(type)) {
@@ -59,6 +59,25 @@ public abstract class AbstractRuleProcessor<T> implements RuleProcessor<T> {
         return MvelHelper.evaluateRule(expression, vars);
     }
 
+    /**
+     * Same as {@link #executeExpression(String, Map)}, but the result is memoized for the rest of the current request
+     * through {@link RequestRuleResultCache}. Only use this for rules whose inputs do not change during a request, other
+     * than through the saves that clear the cache (e.g. content targeting rules), not for rules evaluated against an
+     * order that is being modified.
+     *
+     * @param expression
+     * @param vars
+     * @return the result of the expression
+     */
+    protected Boolean executeMemoizedExpression(String expression, Map<String, Object> vars) {
+        Boolean result = RequestRuleResultCache.get(expression, vars);
+        if (result == null) {
+            result = executeExpression(expression, vars);
+            RequestRuleResultCache.put(expression, vars, result);
+        }
+        return result;
+    }
+
     /**
      * List of class names to add to the MVEL ParserContext.
      * @see {@link ParserContext}
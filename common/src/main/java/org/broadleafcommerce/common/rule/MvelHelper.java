@@ -143,29 +143,7 @@ public class MvelHelper {
         if (rule == null || "".equals(rule)) {
             return true;
         } else {
-            // MVEL expression compiling can be expensive so let's cache the expression
-            Serializable exp = null;
-            if (expressionCache != null) {
-                exp = expressionCache.get(rule);
-            }
-            if (exp == null) {
-                ParserContext context = new ParserContext();
-                context.addImport("MVEL", MVEL.class);
-                context.addImport("MvelHelper", MvelHelper.class);
-                context.addImport("CollectionUtils", SelectizeCollectionUtils.class);
-                if (MapUtils.isNotEmpty(additionalContextImports)) {
-                    for (Entry<String, Class<?>> entry : additionalContextImports.entrySet()) {
-                        context.addImport(entry.getKey(), entry.getValue());
-                    }
-                }
-                
-                String modifiedRule = modifyExpression(rule, ruleParameters, context);
-
-                synchronized (expressionCache) {
-                    exp = MVEL.compileExpression(modifiedRule, context);
-                    expressionCache.put(rule, exp);
-                }
-            }
+            Serializable exp = getCompiledExpression(rule, ruleParameters, expressionCache, additionalContextImports);
 
             Map<String, Object> mvelParameters = new HashMap<String, Object>();
 
@@ -194,6 +172,57 @@ public class MvelHelper {
         }
     }
     
+    /**
+     * Compiles the passed in rule into the default expression cache ahead of time, so that the first evaluation
+     * of the rule does not have to pay for MVEL compilation. Useful when rules are known in advance (e.g. when
+     * content DTOs are built and cached). A rule that fails to compile is logged and left to fail at evaluation time.
+     *
+     * @param rule
+     */
+    public static void compileRule(String rule) {
+        if (rule != null && !"".equals(rule)) {
+            try {
+                getCompiledExpression(rule, null, DEFAULT_EXPRESSION_CACHE, null);
+            } catch (RuntimeException e) {
+                if (!TEST_MODE && LOG.isWarnEnabled()) {
+                    LOG.warn("Unable to compile the mvel expression (" + StringUtil.sanitize(rule) + ")", e);
+                }
+            }
+        }
+    }
+
+    protected static Serializable getCompiledExpression(String rule, Map<String, Object> ruleParameters,
+            Map<String, Serializable> expressionCache, Map<String, Class<?>> additionalContextImports) {
+        // MVEL expression compiling can be expensive so let's cache the expression
+        Serializable exp = null;
+        if (expressionCache != null) {
+            exp = expressionCache.get(rule);
+        }
+        if (exp == null) {
+            ParserContext context = new ParserContext();
+            context.addImport("MVEL", MVEL.class);
+            context.addImport("MvelHelper", MvelHelper.class);
+            context.addImport("CollectionUtils", SelectizeCollectionUtils.class);
+            if (MapUtils.isNotEmpty(additionalContextImports)) {
+                for (Entry<String, Class<?>> entry : additionalContextImports.entrySet()) {
+                    context.addImport(entry.getKey(), entry.getValue());
+                }
+            }
+
+            String modifiedRule = modifyExpression(rule, ruleParameters, context);
+
+            if (expressionCache != null) {
+                synchronized (expressionCache) {
+                    exp = MVEL.compileExpression(modifiedRule, context);
+                    expressionCache.put(rule, exp);
+                }
+            } else {
+                exp = MVEL.compileExpression(modifiedRule, context);
+            }
+        }
+        return exp;
+    }
+
     /**
      * <p>
      * Provides a hook point to modify the final expression before it's built. By default, this looks for attribute
@@ -0,0 +1,168 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.rule;
+
+import org.broadleafcommerce.common.TimeDTO;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoizes rule evaluation results for the duration of a single web request. A page with many content zones will
+ * typically evaluate the same targeting rules (customer, request and time based) against the same inputs over and over;
+ * with this cache, each distinct rule is evaluated once per distinct set of inputs per request.
+ * <p>
+ * Rule inputs are compared by identity, since the objects in the rule map (customer, cart, request DTO, product) are the
+ * same instances for the life of the request. {@link TimeDTO} inputs are compared by minute, because a new instance is
+ * created for every lookup. Since a mutated cart or customer keeps its identity, the services that save them call
+ * {@link #clear()}, so that rules evaluated later in the request see the changes.
+ * <p>
+ * Results are stored in {@link BroadleafRequestContext#getAdditionalProperties()} and are only memoized when the context
+ * is bound to an actual request, so that long-lived background threads never see stale results.
+ *
+ * @see AbstractRuleProcessor#executeExpression(String, Map)
+ */
+public class RequestRuleResultCache {
+
+    public static final String RULE_RESULT_CACHE_ATTRIBUTE = "blRuleResultCache";
+
+    /**
+     * @return the memoized result for the rule and inputs, or null if the rule has not been evaluated for these inputs
+     * during the current request
+     */
+    public static Boolean get(String rule, Map<String, Object> vars) {
+        Map<RuleResultKey, Boolean> cache = getCache(false);
+        if (cache == null) {
+            return null;
+        }
+        return cache.get(new RuleResultKey(rule, vars));
+    }
+
+    public static void put(String rule, Map<String, Object> vars, Boolean result) {
+        Map<RuleResultKey, Boolean> cache = getCache(true);
+        if (cache != null && result != null) {
+            cache.put(new RuleResultKey(rule, vars), result);
+        }
+    }
+
+    /**
+     * Forgets the results memoized during the current request. Called whenever an input of the memoized rules (such as
+     * the cart or the customer) is modified during the request.
+     */
+    public static void clear() {
+        BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        if (brc != null) {
+            brc.getAdditionalProperties().remove(RULE_RESULT_CACHE_ATTRIBUTE);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    protected static Map<RuleResultKey, Boolean> getCache(boolean create) {
+        BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        if (brc == null || brc.getRequest() == null) {
+            return null;
+        }
+        Map<String, Object> additionalProperties = brc.getAdditionalProperties();
+        Map<RuleResultKey, Boolean> cache = (Map<RuleResultKey, Boolean>) additionalProperties.get(RULE_RESULT_CACHE_ATTRIBUTE);
+        if (cache == null && create) {
+            cache = new ConcurrentHashMap<>();
+            additionalProperties.put(RULE_RESULT_CACHE_ATTRIBUTE, cache);
+        }
+        return cache;
+    }
+
+    protected static class RuleResultKey {
+
+        protected final String rule;
+        protected final String[] names;
+        protected final Object[] values;
+        protected final int hashCode;
+
+        public RuleResultKey(String rule, Map<String, Object> vars) {
+            this.rule = rule;
+            Map<String, Object> sortedVars = vars == null ? new TreeMap<String, Object>() : new TreeMap<>(vars);
+            names = sortedVars.keySet().toArray(new String[sortedVars.size()]);
+            values = new Object[names.length];
+            int hash = rule.hashCode();
+            for (int j = 0; j < names.length; j++) {
+                Object value = sortedVars.get(names[j]);
+                if (value instanceof TimeDTO && ((TimeDTO) value).getDate() != null) {
+                    value = new TimeBucket(((TimeDTO) value).getDate().getTime() / 60000L);
+                }
+                values[j] = value;
+                hash = 31 * hash + names[j].hashCode();
+                hash = 31 * hash + (value instanceof TimeBucket ? value.hashCode() : System.identityHashCode(value));
+            }
+            hashCode = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RuleResultKey)) {
+                return false;
+            }
+            RuleResultKey other = (RuleResultKey) obj;
+            if (hashCode != other.hashCode || !rule.equals(other.rule) || !Arrays.equals(names, other.names)) {
+                return false;
+            }
+            for (int j = 0; j < values.length; j++) {
+                Object value = values[j];
+                Object otherValue = other.values[j];
+                if (value instanceof TimeBucket) {
+                    if (!value.equals(otherValue)) {
+                        return false;
+                    }
+                } else if (value != otherValue) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    protected static class TimeBucket {
+
+        protected final long minute;
+
+        public TimeBucket(long minute) {
+            this.minute = minute;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (minute ^ (minute >>> 32));
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TimeBucket && ((TimeBucket) obj).minute == minute;
+        }
+    }
+
+}
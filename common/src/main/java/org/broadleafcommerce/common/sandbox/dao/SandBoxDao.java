@@ -20,6 +20,7 @@ package org.broadleafcommerce.common.sandbox.dao;
 import org.broadleafcommerce.common.sandbox.domain.SandBox;
 import org.broadleafcommerce.common.sandbox.domain.SandBoxType;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -70,4 +71,21 @@ public interface SandBoxDao {
     List<SandBox> retrieveChildSandBoxesByParentId(Long parentSandBoxId);
 
     SandBox retrieveNamedSandBox(SandBoxType sandBoxType, String sandboxName, Long authorId);
+
+    /**
+     * Reads the cache version of each of the given sandboxes straight from the database, bypassing the second level
+     * cache. Sandboxes that were never invalidated have version 0.
+     * 
+     * @param sandBoxIds
+     * @return the cache version, keyed by sandbox id
+     */
+    Map<Long, Long> readCacheVersions(Collection<Long> sandBoxIds);
+
+    /**
+     * Moves the sandbox to its next cache version. Joins the current transaction, if any, so that the new version is
+     * visible to other nodes no sooner than the change that caused it.
+     * 
+     * @param sandBoxId
+     */
+    void incrementCacheVersion(Long sandBoxId);
 }
@@ -31,6 +31,7 @@ import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionStatus;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -381,4 +382,36 @@ public class SandBoxDaoImpl implements SandBoxDao {
         }
     }
 
+    @Override
+    public Map<Long, Long> readCacheVersions(Collection<Long> sandBoxIds) {
+        Map<Long, Long> versions = new HashMap<Long, Long>();
+        if (sandBoxIds.isEmpty()) {
+            return versions;
+        }
+        Query query = sandBoxEntityManager.createQuery("SELECT sb.id, sb.cacheVersion FROM "
+                + SandBoxImpl.class.getName() + " sb WHERE sb.id IN :ids");
+        query.setParameter("ids", sandBoxIds);
+        for (Object result : query.getResultList()) {
+            Object[] row = (Object[]) result;
+            versions.put((Long) row[0], row[1] == null ? 0L : (Long) row[1]);
+        }
+        return versions;
+    }
+
+    @Override
+    public void incrementCacheVersion(Long sandBoxId) {
+        TransactionStatus status = TransactionUtils.createTransaction("incrementCacheVersion",
+                        TransactionDefinition.PROPAGATION_REQUIRED, transactionManager);
+        try {
+            Query query = sandBoxEntityManager.createQuery("UPDATE " + SandBoxImpl.class.getName()
+                    + " sb SET sb.cacheVersion = COALESCE(sb.cacheVersion, 0) + 1 WHERE sb.id = :id");
+            query.setParameter("id", sandBoxId);
+            query.executeUpdate();
+            TransactionUtils.finalizeTransaction(status, transactionManager, false);
+        } catch (RuntimeException ex) {
+            TransactionUtils.finalizeTransaction(status, transactionManager, true);
+            throw ex;
+        }
+    }
+
 }
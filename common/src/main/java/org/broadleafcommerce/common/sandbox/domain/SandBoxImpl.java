@@ -129,6 +129,14 @@ public class SandBoxImpl implements SandBox, AdminMainEntity {
     @Column(name = "GO_LIVE_DATE")
     protected Date goLiveDate;
 
+    /**
+     * Version of the data cached for this sandbox by SandBoxCacheService. It is kept on the sandbox row, rather than in
+     * a local cache, so that every node sees an invalidation. Maintained through bulk updates in SandBoxDao.
+     */
+    @Column(name = "CACHE_VERSION")
+    @AdminPresentation(excluded = true)
+    protected Long cacheVersion;
+
     @Embedded
     protected ArchiveStatus archiveStatus = new ArchiveStatus();
 
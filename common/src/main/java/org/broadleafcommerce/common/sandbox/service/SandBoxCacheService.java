@@ -0,0 +1,63 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.sandbox.service;
+
+import org.broadleafcommerce.common.cache.PersistentRetrieval;
+
+/**
+ * Caches lookups made while previewing a non-production sandbox. Most caches are bypassed entirely outside of the
+ * production sandbox, since their keys do not account for sandbox changes. Entries in this cache are instead keyed
+ * by the current sandbox, its parent sandboxes and a version for each of them. Invalidating a sandbox moves it to a
+ * new version, so everything cached for it (and for its child sandboxes) stops being used. Production requests never
+ * read from or write to this cache.
+ * <p>
+ * Only values that are safe to share between requests (DTOs, strings, misses) should be cached, never entities.
+ */
+public interface SandBoxCacheService {
+
+    /**
+     * @return whether the current request is in a non-production sandbox and sandbox caching is enabled
+     */
+    boolean isCacheable();
+
+    /**
+     * Retrieve the value for the key from the cache for the current sandbox, or from the retrieval if it is not
+     * cached. Null values are cached as well. If the current request is not cacheable, the retrieval is always used.
+     *
+     * @param cacheName a name for the type of value being cached, which keeps keys of different callers apart
+     * @param key the key for the value, excluding the sandbox and site
+     * @param retrieval the lookup to perform on a cache miss
+     * @param <T> the type of the value
+     * @return the cached or retrieved value
+     */
+    <T> T getCachedObject(String cacheName, String key, PersistentRetrieval<T> retrieval);
+
+    /**
+     * Move the sandbox to a new version, so that nothing previously cached for it, or for any of its child sandboxes,
+     * is used again
+     *
+     * @param sandBoxId the sandbox whose data changed
+     */
+    void invalidate(Long sandBoxId);
+
+    /**
+     * Invalidate the sandbox of the current request, if it is not the production sandbox
+     */
+    void invalidateCurrentSandBox();
+
+}
@@ -0,0 +1,171 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.sandbox.service;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.cache.CacheStatType;
+import org.broadleafcommerce.common.cache.PersistentRetrieval;
+import org.broadleafcommerce.common.cache.StatisticsService;
+import org.broadleafcommerce.common.sandbox.dao.SandBoxDao;
+import org.broadleafcommerce.common.sandbox.domain.SandBox;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Resource;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+
+/**
+ * Stores sandbox scoped entries in the "blSandBoxScopedElements" cache region. The current version of each sandbox is
+ * kept on its BLC_SANDBOX row rather than in a cache, so that an invalidation made in the admin is seen by every preview
+ * and site node, even though the region itself is local to each of them. The versions are read once per request.
+ */
+@Service("blSandBoxCacheService")
+public class SandBoxCacheServiceImpl implements SandBoxCacheService {
+
+    private static final Log LOG = LogFactory.getLog(SandBoxCacheServiceImpl.class);
+
+    protected static final String CACHE_NAME = "blSandBoxScopedElements";
+    protected static final String VERSIONS_REQUEST_PROPERTY = "blSandBoxCacheVersions";
+
+    @Resource(name = "blStatisticsService")
+    protected StatisticsService statisticsService;
+
+    @Resource(name = "blSandBoxDao")
+    protected SandBoxDao sandBoxDao;
+
+    @Value("${sandbox.scoped.cache.enabled:true}")
+    protected boolean enabled = true;
+
+    protected Cache cache;
+
+    @Override
+    public boolean isCacheable() {
+        BroadleafRequestContext context = BroadleafRequestContext.getBroadleafRequestContext();
+        return enabled && context != null && !context.isProductionSandBox();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getCachedObject(String cacheName, String key, PersistentRetrieval<T> retrieval) {
+        if (!isCacheable()) {
+            return retrieval.retrievePersistentObject();
+        }
+        String cacheKey = buildKey(cacheName, key);
+        Element element = getCache().get(cacheKey);
+        if (element != null) {
+            statisticsService.addCacheStat(CacheStatType.SANDBOX_SCOPED_CACHE_HIT_RATE.toString(), true);
+            Object value = element.getObjectValue();
+            return NullValue.INSTANCE == value ? null : (T) value;
+        }
+        statisticsService.addCacheStat(CacheStatType.SANDBOX_SCOPED_CACHE_HIT_RATE.toString(), false);
+        T response = retrieval.retrievePersistentObject();
+        getCache().put(new Element(cacheKey, response == null ? NullValue.INSTANCE : response));
+        return response;
+    }
+
+    @Override
+    public void invalidate(Long sandBoxId) {
+        if (sandBoxId == null) {
+            return;
+        }
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("Invalidating the scoped cache for sandbox " + sandBoxId);
+        }
+        sandBoxDao.incrementCacheVersion(sandBoxId);
+        BroadleafRequestContext context = BroadleafRequestContext.getBroadleafRequestContext();
+        if (context != null) {
+            context.getAdditionalProperties().remove(VERSIONS_REQUEST_PROPERTY);
+        }
+    }
+
+    @Override
+    public void invalidateCurrentSandBox() {
+        BroadleafRequestContext context = BroadleafRequestContext.getBroadleafRequestContext();
+        if (context != null && !context.isProductionSandBox()) {
+            invalidate(context.getSandBoxId());
+        }
+    }
+
+    /**
+     * The key includes the version of the current sandbox and each of its parents, since changes to a parent (e.g. an
+     * approval sandbox) are visible in the child
+     */
+    protected String buildKey(String cacheName, String key) {
+        BroadleafRequestContext context = BroadleafRequestContext.getBroadleafRequestContext();
+        List<Long> sandBoxIds = new ArrayList<Long>();
+        SandBox sandBox = context.getSandBox();
+        while (sandBox != null && sandBoxIds.size() < 10) {
+            sandBoxIds.add(sandBox.getId());
+            sandBox = sandBox.getParentSandBox();
+        }
+        Map<Long, Long> versions = getVersions(context, sandBoxIds);
+        StringBuilder sb = new StringBuilder();
+        for (Long sandBoxId : sandBoxIds) {
+            sb.append(sandBoxId).append(':').append(versions.get(sandBoxId)).append('_');
+        }
+        if (context.getNonPersistentSite() != null) {
+            sb.append(context.getNonPersistentSite().getId());
+        }
+        sb.append('_').append(cacheName).append('_').append(key);
+        return sb.toString();
+    }
+
+    /**
+     * The versions are read from the database once per request and kept on the request context, so a page that makes
+     * many cached lookups costs a single query
+     */
+    @SuppressWarnings("unchecked")
+    protected Map<Long, Long> getVersions(BroadleafRequestContext context, List<Long> sandBoxIds) {
+        Map<Long, Long> versions = (Map<Long, Long>) context.getAdditionalProperties().get(VERSIONS_REQUEST_PROPERTY);
+        if (versions == null || !versions.keySet().containsAll(sandBoxIds)) {
+            versions = sandBoxDao.readCacheVersions(sandBoxIds);
+            for (Long sandBoxId : sandBoxIds) {
+                if (!versions.containsKey(sandBoxId)) {
+                    versions.put(sandBoxId, 0L);
+                }
+            }
+            context.getAdditionalProperties().put(VERSIONS_REQUEST_PROPERTY, versions);
+        }
+        return versions;
+    }
+
+    protected Cache getCache() {
+        if (cache == null) {
+            cache = CacheManager.getInstance().getCache(CACHE_NAME);
+        }
+        return cache;
+    }
+
+    /**
+     * Marker stored for cached null values. An enum so that it keeps its identity if the region is replicated or
+     * overflows to disk.
+     */
+    protected enum NullValue {
+        INSTANCE
+    }
+
+}
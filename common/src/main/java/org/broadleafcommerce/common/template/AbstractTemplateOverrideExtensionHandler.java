@@ -20,6 +20,7 @@ package org.broadleafcommerce.common.template;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 
 
 /**
@@ -28,6 +29,7 @@ import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
 public abstract class AbstractTemplateOverrideExtensionHandler extends AbstractExtensionHandler implements TemplateOverrideExtensionHandler {
     
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType getOverrideTemplate(ExtensionResultHolder<String> erh, Object object) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -0,0 +1,152 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ *
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pre-resolved getter and setter for a single field on a domain class. Instances are cached per declaring class and field
+ * name, so repeated reads and writes (e.g. extracting every cell of an admin list grid) do not have to look up the
+ * {@link Field} in the global {@link BLCFieldUtils#FIELD_CACHE} or call {@link Field#setAccessible(boolean)} again.
+ * <p>
+ * Access goes through {@link MethodHandle}s that are unreflected once and adapted to a generic
+ * {@code (Object)Object} / {@code (Object,Object)void} shape. Error semantics mirror {@link Field#get(Object)} and
+ * {@link Field#set(Object, Object)} so callers can use this as a drop-in replacement. Writes that the adapted handle
+ * cannot take directly, such as a primitive widening conversion, are handed to {@link Field#set(Object, Object)}.
+ * <p>
+ * The cache is a {@link ClassValue}, so the accessors are held by the class they belong to and do not keep a class (or
+ * its class loader) reachable once it is otherwise unloaded, e.g. after a redeploy.
+ */
+public class BLCFieldAccessor {
+
+    protected static final Object NULL_ACCESSOR = new Object();
+    protected static final ClassValue<ConcurrentMap<String, Object>> ACCESSOR_CACHE =
+            new ClassValue<ConcurrentMap<String, Object>>() {
+                @Override
+                protected ConcurrentMap<String, Object> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<String, Object>();
+                }
+            };
+
+    protected static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    protected static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    protected final Field field;
+    protected final MethodHandle getter;
+    protected final MethodHandle setter;
+
+    public BLCFieldAccessor(Field field) {
+        this.field = field;
+        field.setAccessible(true);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        boolean isStatic = Modifier.isStatic(field.getModifiers());
+        try {
+            MethodHandle myGetter = lookup.unreflectGetter(field);
+            if (isStatic) {
+                myGetter = MethodHandles.dropArguments(myGetter, 0, Object.class);
+            }
+            getter = myGetter.asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to create a getter for field (" + field + ")", e);
+        }
+        MethodHandle mySetter = null;
+        if (!Modifier.isFinal(field.getModifiers())) {
+            try {
+                mySetter = lookup.unreflectSetter(field);
+                if (isStatic) {
+                    mySetter = MethodHandles.dropArguments(mySetter, 0, Object.class);
+                }
+                mySetter = mySetter.asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                //fall back to reflective access in set()
+            }
+        }
+        setter = mySetter;
+    }
+
+    /**
+     * Retrieve the cached accessor for the field on the class. Superclasses are searched using the same rules as
+     * {@link BLCFieldUtils#getSingleField(Class, String)}.
+     *
+     * @param clazz the class on which to look for the field
+     * @param fieldName a single (non-dotted) field name
+     * @return the accessor, or null if the field does not exist in the class hierarchy
+     */
+    public static BLCFieldAccessor getAccessor(Class<?> clazz, String fieldName) {
+        ConcurrentMap<String, Object> classAccessors = ACCESSOR_CACHE.get(clazz);
+        Object response = classAccessors.get(fieldName);
+        if (response == null) {
+            Field field = BLCFieldUtils.getSingleField(clazz, fieldName);
+            if (field == null) {
+                response = NULL_ACCESSOR;
+            } else {
+                response = new BLCFieldAccessor(field);
+            }
+            classAccessors.putIfAbsent(fieldName, response);
+        }
+        if (response instanceof BLCFieldAccessor) {
+            return (BLCFieldAccessor) response;
+        }
+        return null;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public Object get(Object bean) throws IllegalAccessException {
+        try {
+            return (Object) getter.invokeExact(bean);
+        } catch (ClassCastException e) {
+            throw new IllegalArgumentException("Unable to read field (" + field + ") from an instance of ("
+                    + (bean == null ? null : bean.getClass().getName()) + ")", e);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void set(Object bean, Object value) throws IllegalAccessException {
+        if (setter == null) {
+            field.set(bean, value);
+            return;
+        }
+        if (value == null && field.getType().isPrimitive()) {
+            throw new IllegalArgumentException("Unable to set the primitive field (" + field + ") to null");
+        }
+        try {
+            setter.invokeExact(bean, value);
+        } catch (ClassCastException e) {
+            // the adapted handle only unboxes to the exact wrapper type, so let Field.set apply the primitive widening
+            // conversions (e.g. an Integer into a long field) or report the incompatible value
+            field.set(bean, value);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
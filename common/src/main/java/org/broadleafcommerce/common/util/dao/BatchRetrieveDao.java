@@ -36,7 +36,7 @@ public class BatchRetrieveDao {
         List<T> response = new ArrayList<T>();
         int start = 0;
         while (start < params.size()) {
-            List<?> batchParams = params.subList(start, params.size() < inClauseBatchSize ? params.size() : inClauseBatchSize);
+            List<?> batchParams = params.subList(start, Math.min(start + inClauseBatchSize, params.size()));
             query.setParameter(parameterName, batchParams);
             response.addAll(query.getResultList());
             start += inClauseBatchSize;
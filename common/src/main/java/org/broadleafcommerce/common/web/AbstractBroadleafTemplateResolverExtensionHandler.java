@@ -20,6 +20,7 @@ package org.broadleafcommerce.common.web;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 
 
 /**
@@ -29,18 +30,21 @@ public abstract class AbstractBroadleafTemplateResolverExtensionHandler extends
         implements BroadleafTemplateViewResolverExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType overrideView(ExtensionResultHolder<String> erh, String originalViewName,
             boolean isAjaxRequest) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType appendCacheKey(ExtensionResultHolder<String> erh, String originalViewName,
             boolean isAjaxRequest) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType provideTemplateWrapper(ExtensionResultHolder<String> erh, String originalViewName,
             boolean isAjaxRequest) {
         return ExtensionResultStatusType.NOT_HANDLED;
@@ -20,6 +20,7 @@ package org.broadleafcommerce.common.web.cache;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.presentation.cache.BroadleafTemplateCacheContext;
 
 /**
@@ -28,11 +29,13 @@ import org.broadleafcommerce.presentation.cache.BroadleafTemplateCacheContext;
 public abstract class AbstractBLCICacheExtensionHandler extends AbstractExtensionHandler implements BLCICacheExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType putCache(Object key, Object value, BroadleafTemplateCacheContext blciCache) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType getCache(Object key, ExtensionResultHolder<Object> erh, BroadleafTemplateCacheContext blciCache) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
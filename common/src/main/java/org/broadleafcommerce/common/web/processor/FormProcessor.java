@@ -17,6 +17,7 @@
  */
 package org.broadleafcommerce.common.web.processor;
 
+import org.broadleafcommerce.common.cache.PageCacheService;
 import org.broadleafcommerce.common.exception.ServiceException;
 import org.broadleafcommerce.common.security.handler.CsrfFilter;
 import org.broadleafcommerce.common.security.service.ExploitProtectionService;
@@ -37,6 +38,11 @@ import javax.annotation.Resource;
 /**
  * Used as a replacement to the HTML {@code <form>} element which adds a CSRF token input field to forms that are submitted
  * via anything but GET. This is required to properly bypass the {@link CsrfFilter}.
+ * <p>
+ * When the page is being rendered to be stored in the {@link PageCacheService}, the tokens of the rendering session must
+ * not end up in a page served to other visitors. The token fields (or query parameters, for multipart forms) are written
+ * with empty values instead, and are filled in on the client from the data requested by the {@code blc:uncacheableData}
+ * script.
  * 
  * @author apazzolini
  * @see {@link CsrfFilter}
@@ -50,6 +56,9 @@ public class FormProcessor extends AbstractBroadleafModelModifierProcessor {
 
     @Resource(name = "blStaleStateProtectionService")
     protected StaleStateProtectionService spps;
+
+    @Resource(name = "blPageCacheService")
+    protected PageCacheService pageCacheService;
     
     @Override
     public String getName() {
@@ -72,10 +81,11 @@ public class FormProcessor extends AbstractBroadleafModelModifierProcessor {
         // We do this instead of checking for a POST because post is default if nothing is specified
         if (!"GET".equalsIgnoreCase(formAttributes.get("method"))) {
             try {
-                String csrfToken = eps.getCSRFToken();
+                boolean renderingForPageCache = pageCacheService.isRenderingForPageCache();
+                String csrfToken = renderingForPageCache ? "" : eps.getCSRFToken();
                 String stateVersionToken = null;
                 if (spps.isEnabled()) {
-                    stateVersionToken = spps.getStateVersionToken();
+                    stateVersionToken = renderingForPageCache ? "" : spps.getStateVersionToken();
                 }
 
                 //detect multipart form
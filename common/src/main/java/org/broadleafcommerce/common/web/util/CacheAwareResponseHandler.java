@@ -37,8 +37,11 @@ import javax.servlet.http.HttpServletResponse;
 public class CacheAwareResponseHandler extends BroadleafResourceHttpRequestHandler {
 
     public void setHeaders(HttpServletResponse response, File targetFile, String mimeType) throws IOException {
+        setHeaders(response, new FileSystemResource(targetFile), mimeType);
+    }
+
+    public void setHeaders(HttpServletResponse response, Resource resource, String mimeType) throws IOException {
         super.prepareResponse(response);
-        Resource resource = new FileSystemResource(targetFile);
         MediaType mediaType = MediaType.parseMediaType(mimeType);
         super.setHeaders(response, resource, mediaType);
     }
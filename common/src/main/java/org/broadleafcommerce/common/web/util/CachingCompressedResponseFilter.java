@@ -32,12 +32,12 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.env.Environment;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.stereotype.Component;
 import org.springframework.util.FastByteArrayOutputStream;
 import org.springframework.util.StreamUtils;
 import org.springframework.web.util.ContentCachingResponseWrapper;
 
-import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -52,6 +52,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.zip.GZIPOutputStream;
 
@@ -80,6 +84,13 @@ import javax.servlet.http.HttpServletResponse;
  * If using static file compression caching, make sure you have enough free hard disk space to accommodate compressed versions
  * of all the interesting static files.
  * </p>
+ * Cached static files are also held in a size bounded, in-memory cache in front of the file system cache (see
+ * 'filter.compression.memory.cache.max.bytes' and 'filter.compression.memory.cache.max.entry.bytes'), and hits are written
+ * straight from memory. Only one request renders and compresses a given URI at a time - concurrent requests for the same
+ * URI wait up to 'filter.compression.single.flight.wait.millis' for that result rather than rendering it again. The
+ * deflate level used for each mime type is set via 'filter.compression.mime.levels', with 'filter.compression.level'
+ * used for anything not listed.
+ * </p>
  * Dynamic compression generally refers to compression requests for dynamic web pages, such a standard HTML page requests,
  * or JSON responses for RESTful endpoints. There is no caching of the compressed response and the response is compressed
  * on every request.
@@ -167,6 +178,41 @@ public class CachingCompressedResponseFilter extends AbstractIgnorableOncePerReq
     @Value("${filter.compression.blacklist.uri.regex:.*\\.jpg,.*\\.jpeg,.*\\.gif,.*\\.png}")
     protected String blackListURIs;
 
+    /**
+     * The total size (in bytes) of compressed static files to hold in memory. 33554432 bytes by default. Set to 0 to
+     * only use the file system cache.
+     */
+    @Value("${filter.compression.memory.cache.max.bytes:33554432}")
+    protected long memoryCacheMaxBytes;
+
+    /**
+     * The largest compressed static file (in bytes) to hold in memory. Larger files are only served from the file system
+     * cache. 1048576 bytes by default.
+     */
+    @Value("${filter.compression.memory.cache.max.entry.bytes:1048576}")
+    protected long memoryCacheMaxEntryBytes;
+
+    /**
+     * How long (in milliseconds) a request waits for another request that is already compressing the same static file.
+     * Should the wait time out, the request falls back to dynamic compression. 30000 milliseconds by default.
+     */
+    @Value("${filter.compression.single.flight.wait.millis:30000}")
+    protected long singleFlightWaitMillis;
+
+    /**
+     * The deflate level (0-9) to use for mime types not listed in 'filter.compression.mime.levels'. 6 by default.
+     */
+    @Value("${filter.compression.level:6}")
+    protected int defaultCompressionLevel;
+
+    /**
+     * Comma delimited mime type to deflate level mapping for cached static files. Text artifacts are compressed once
+     * and served many times, so they get the highest level by default, while already compressed image formats get the
+     * lowest.
+     */
+    @Value("${filter.compression.mime.levels:text/css:9,application/javascript:9,application/json:9,text/xml:9,image/svg+xml:9,application/x-font-opentype:9,image/png:1}")
+    protected String mimeCompressionLevels;
+
     @Value("${resource.versioning.enabled:true}")
     protected Boolean resourceVersioningEnabled;
 
@@ -186,6 +232,12 @@ public class CachingCompressedResponseFilter extends AbstractIgnorableOncePerReq
 
     protected List<Pattern> blackListPatterns = new ArrayList<>();
 
+    protected Map<String, Integer> mimeToCompressionLevel = new HashMap<>();
+
+    protected CompressedArtifactCache memoryCache;
+
+    protected final ConcurrentMap<String, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+
     @Override
     protected void doFilterInternalUnlessIgnored(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
         if (!isDefaultEnvironment || useWhileInDefaultEnvironment) {
@@ -226,6 +278,13 @@ public class CachingCompressedResponseFilter extends AbstractIgnorableOncePerReq
                     blackListPatterns.add(Pattern.compile(rawPattern));
                 }
             }
+            if (!"none".equals(mimeCompressionLevels)) {
+                for (String pair : mimeCompressionLevels.split(",")) {
+                    int pos = pair.lastIndexOf(':');
+                    mimeToCompressionLevel.put(pair.substring(0, pos).trim(), Integer.valueOf(pair.substring(pos + 1).trim()));
+                }
+            }
+            memoryCache = new CompressedArtifactCache(memoryCacheMaxBytes, memoryCacheMaxEntryBytes);
             isDefaultEnvironment = !(ArrayUtils.isNotEmpty(environment.getActiveProfiles()) && Arrays.binarySearch(environment.getActiveProfiles(), "default") < 0);
 
             if (!resourceVersioningEnabled && shouldUseStaticCache()) {
@@ -258,6 +317,11 @@ public class CachingCompressedResponseFilter extends AbstractIgnorableOncePerReq
     protected void processDynamic(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
         ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
         chain.doFilter(request, wrapper);
+        if (response.containsHeader("Content-Encoding")) {
+            //already encoded further down the chain (e.g. a page served gzipped from the page cache)
+            wrapper.copyBodyToResponse();
+            return;
+        }
         FastByteArrayOutputStream baos = new FastByteArrayOutputStream(1024);
         GZIPOutputStream zip = new GZIPOutputStream(baos);
         StreamUtils.copy(wrapper.getContentInputStream(), zip);
@@ -270,21 +334,30 @@ public class CachingCompressedResponseFilter extends AbstractIgnorableOncePerReq
     protected boolean processStatic(HttpServletRequest request, HttpServletResponse response, FilterChain chain, String mimeType) throws IOException, ServletException {
         boolean success = true;
         try {
-            File targetFile = prepareTargetFile(request);
-            if (targetFile.exists() && targetFile.length() == 0L) {
-                //TODO Do something to check the validity of the cached file before returning. This would be an extra layer
-                // of protection against any corruption. I would not expect any corruption given the cache file creation code.
-                // We should not make it into here. Ignoring anything other than non-empty file validation for now.
-                targetFile.delete();
-                success = false;
-            } else {
-                if (!targetFile.exists()) {
-                    cacheStaticCompressedFileInFileSystem(request, response, chain, targetFile);
+            String uriHash = getUriHash(request);
+            if (emitCachedArtifact(request, response, uriHash, mimeType)) {
+                return true;
+            }
+            CountDownLatch latch = new CountDownLatch(1);
+            CountDownLatch existing = inFlight.putIfAbsent(uriHash, latch);
+            if (existing != null) {
+                //another request is already compressing this resource - wait for its result rather than repeating the work
+                if (existing.await(singleFlightWaitMillis, TimeUnit.MILLISECONDS)) {
+                    success = emitCachedArtifact(request, response, uriHash, mimeType);
                 } else {
-                    cacheAwareResponseHandler.setHeaders(response, targetFile, mimeType);
+                    success = false;
+                }
+            } else {
+                try {
+                    cacheStaticCompressedArtifact(request, response, chain, uriHash, mimeType);
+                } finally {
+                    inFlight.remove(uriHash, latch);
+                    latch.countDown();
                 }
-                emitStaticFileToResponse(request, response, targetFile);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            success = false;
         } catch (Exception e) {
             LOG.error(String.format("Unable to send cached static/compressed version of resource %s. Falling back to dynamic compression.", request.getRequestURI()), e);
             success = false;
@@ -292,13 +365,59 @@ public class CachingCompressedResponseFilter extends AbstractIgnorableOncePerReq
         return success;
     }
 
+    /**
+     * Write the compressed artifact for the resource from the memory cache, or failing that, from the file system cache.
+     * Files small enough for the memory cache are promoted into it.
+     *
+     * @return whether or not a cached artifact was found and written
+     */
+    protected boolean emitCachedArtifact(HttpServletRequest request, HttpServletResponse response, String uriHash, String mimeType) throws IOException {
+        byte[] artifact = memoryCache.get(uriHash);
+        if (artifact != null) {
+            cacheAwareResponseHandler.setHeaders(response, new ByteArrayResource(artifact), mimeType);
+            emitStaticArtifactToResponse(response, artifact);
+            return true;
+        }
+        File targetFile = prepareTargetFile(uriHash);
+        if (!targetFile.exists()) {
+            return false;
+        }
+        if (targetFile.length() == 0L) {
+            //TODO Do something to check the validity of the cached file before returning. This would be an extra layer
+            // of protection against any corruption. I would not expect any corruption given the cache file creation code.
+            // We should not make it into here. Ignoring anything other than non-empty file validation for now.
+            targetFile.delete();
+            return false;
+        }
+        cacheAwareResponseHandler.setHeaders(response, targetFile, mimeType);
+        if (memoryCache.accepts(targetFile.length())) {
+            artifact = readFile(targetFile);
+            memoryCache.put(uriHash, artifact);
+            emitStaticArtifactToResponse(response, artifact);
+        } else {
+            emitStaticFileToResponse(request, response, targetFile);
+        }
+        return true;
+    }
+
+    protected void emitStaticArtifactToResponse(HttpServletResponse response, byte[] artifact) throws IOException {
+        response.addHeader("Content-Encoding", "gzip");
+        response.setContentLength(artifact.length);
+        response.getOutputStream().write(artifact);
+    }
+
     protected void emitStaticFileToResponse(HttpServletRequest request, HttpServletResponse response, File targetFile) throws IOException {
         long byteSize = targetFile.length();
         response.addHeader("Content-Encoding", "gzip");
         response.setContentLength(Long.valueOf(byteSize).intValue());
         if (sendFileSize > byteSize || !useSendFile) {
             //don't use sendFile for small files
-            StreamUtils.copy(new FileInputStream(targetFile), response.getOutputStream());
+            FileInputStream in = new FileInputStream(targetFile);
+            try {
+                StreamUtils.copy(in, response.getOutputStream());
+            } finally {
+                IOUtils.closeQuietly(in);
+            }
         } else {
             request.setAttribute("org.apache.tomcat.sendfile.filename", targetFile.getAbsolutePath());
             request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
@@ -306,8 +425,15 @@ public class CachingCompressedResponseFilter extends AbstractIgnorableOncePerReq
         }
     }
 
+    protected String getUriHash(HttpServletRequest request) {
+        return DigestUtils.md5Hex(request.getRequestURI());
+    }
+
     protected File prepareTargetFile(HttpServletRequest request) {
-        String uriHash = DigestUtils.md5Hex(request.getRequestURI());
+        return prepareTargetFile(getUriHash(request));
+    }
+
+    protected File prepareTargetFile(String uriHash) {
         File targetDir;
         if ("none".equals(compressedFileTempDirectory)) {
             targetDir = new File(System.getProperty("java.io.tmpdir"));
@@ -320,20 +446,61 @@ public class CachingCompressedResponseFilter extends AbstractIgnorableOncePerReq
         return new File(targetDir, uriHash + ".gz");
     }
 
-    protected void cacheStaticCompressedFileInFileSystem(HttpServletRequest request, HttpServletResponse response, FilterChain chain, File targetFile) throws IOException, ServletException {
-        String tempRoot = UUID.randomUUID().toString();
-        File tempFile = File.createTempFile(tempRoot, ".tmp");
-        FileSystemResponseWrapper wrapper = new FileSystemResponseWrapper(response, tempFile);
+    /**
+     * Render the resource, compress it at the level configured for its mime type and store the result in the memory and
+     * file system caches, before writing it to the response. Responses other than 200 are passed through uncompressed and
+     * are not cached.
+     */
+    protected void cacheStaticCompressedArtifact(HttpServletRequest request, HttpServletResponse response, FilterChain chain, String uriHash, String mimeType) throws IOException, ServletException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
         chain.doFilter(request, wrapper);
-        wrapper.closeFileOutputStream();
-        File compressedFile = File.createTempFile(tempRoot, ".tmpgz");
-        OutputStream compressedOut = new GZIPOutputStream(new FileOutputStream(compressedFile));
-        StreamUtils.copy(new BufferedInputStream(new FileInputStream(tempFile)), compressedOut);
-        IOUtils.closeQuietly(compressedOut);
-        tempFile.delete();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || response.containsHeader("Content-Encoding")) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        FastByteArrayOutputStream baos = new FastByteArrayOutputStream(Math.max(1024, wrapper.getContentSize() / 2));
+        OutputStream compressedOut = createCompressedStream(baos, getCompressionLevel(mimeType));
+        StreamUtils.copy(wrapper.getContentInputStream(), compressedOut);
+        compressedOut.close();
+        byte[] artifact = baos.toByteArray();
+        writeArtifactToFileSystem(artifact, prepareTargetFile(uriHash));
+        memoryCache.put(uriHash, artifact);
+        emitStaticArtifactToResponse(response, artifact);
+    }
+
+    protected void writeArtifactToFileSystem(byte[] artifact, File targetFile) throws IOException {
+        File compressedFile = File.createTempFile(UUID.randomUUID().toString(), ".tmpgz");
+        FileOutputStream out = new FileOutputStream(compressedFile);
+        try {
+            out.write(artifact);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
         atomicMove.replaceExisting(compressedFile, targetFile);
     }
 
+    protected byte[] readFile(File file) throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            return IOUtils.toByteArray(in, file.length());
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    protected int getCompressionLevel(String mimeType) {
+        Integer level = mimeToCompressionLevel.get(mimeType);
+        return level == null ? defaultCompressionLevel : level;
+    }
+
+    protected OutputStream createCompressedStream(OutputStream out, final int level) throws IOException {
+        return new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
     protected boolean useGzipCompression(HttpServletRequest request, HttpServletResponse response) throws MalformedURLException {
         for (Pattern pattern : blackListPatterns) {
             String uri = request.getRequestURI().toLowerCase();
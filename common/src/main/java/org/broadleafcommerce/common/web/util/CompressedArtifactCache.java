@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.web.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory, least recently used cache of compressed response bodies, bounded by the total number of bytes held rather
+ * than by entry count. Artifacts larger than the per-entry limit are refused, so that a handful of large files can not
+ * evict everything else. Used by {@link CachingCompressedResponseFilter} in front of its file system cache.
+ * </p>
+ * The cached arrays are handed out as is and must not be modified by callers.
+ */
+public class CompressedArtifactCache {
+
+    protected final long maxBytes;
+    protected final long maxEntryBytes;
+    protected final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    protected long currentBytes = 0L;
+
+    public CompressedArtifactCache(long maxBytes, long maxEntryBytes) {
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = Math.min(maxEntryBytes, maxBytes);
+    }
+
+    public synchronized byte[] get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Add the artifact to the cache, evicting the least recently used artifacts until it fits.
+     *
+     * @param key the cache key
+     * @param artifact the compressed bytes
+     * @return whether or not the artifact was small enough to be cached
+     */
+    public synchronized boolean put(String key, byte[] artifact) {
+        if (!accepts(artifact.length)) {
+            return false;
+        }
+        byte[] previous = entries.remove(key);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+        Iterator<Map.Entry<String, byte[]>> itr = entries.entrySet().iterator();
+        while (currentBytes + artifact.length > maxBytes && itr.hasNext()) {
+            currentBytes -= itr.next().getValue().length;
+            itr.remove();
+        }
+        entries.put(key, artifact);
+        currentBytes += artifact.length;
+        return true;
+    }
+
+    public boolean accepts(long size) {
+        return size > 0 && size <= maxEntryBytes;
+    }
+
+    public synchronized void remove(String key) {
+        byte[] previous = entries.remove(key);
+        if (previous != null) {
+            currentBytes -= previous.length;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        currentBytes = 0L;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+}
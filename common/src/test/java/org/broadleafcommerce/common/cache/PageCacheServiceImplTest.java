@@ -0,0 +1,138 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.cache;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.cache.dao.CacheVersionDao;
+import org.broadleafcommerce.common.time.FixedTimeSource;
+import org.broadleafcommerce.common.time.SystemTime;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+
+/**
+ * Simulates an admin node and a storefront node that share a database but each have their own local page cache
+ */
+public class PageCacheServiceImplTest extends TestCase {
+
+    protected static final long NOW = 1000000L;
+
+    protected Map<String, Long> databaseVersions = new HashMap<String, Long>();
+    protected PageCacheServiceImpl adminNode;
+    protected PageCacheServiceImpl siteNode;
+    protected CachedPage page = new CachedPage(new byte[] { 1 }, "text/html", NOW);
+
+    @Override
+    protected void setUp() throws Exception {
+        SystemTime.setGlobalTimeSource(new FixedTimeSource(NOW));
+        CacheVersionDao cacheVersionDao = new CacheVersionDao() {
+            @Override
+            public Long readVersion(String cacheName) {
+                Long version = databaseVersions.get(cacheName);
+                return version == null ? 0L : version;
+            }
+
+            @Override
+            public void incrementVersion(String cacheName) {
+                databaseVersions.put(cacheName, readVersion(cacheName) + 1);
+            }
+        };
+        adminNode = createNode("pageCacheServiceImplTestAdmin", cacheVersionDao);
+        adminNode.enabled = false;
+        siteNode = createNode("pageCacheServiceImplTestSite", cacheVersionDao);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SystemTime.reset();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        CacheManager.getInstance().removeCache("pageCacheServiceImplTestAdmin");
+        CacheManager.getInstance().removeCache("pageCacheServiceImplTestSite");
+    }
+
+    public void testInvalidationOnAdminNodeClearsStorefrontNode() {
+        assertNull(siteNode.getPage("home"));
+        siteNode.putPage("home", page);
+
+        adminNode.invalidateAll();
+
+        assertEquals(Long.valueOf(1L), databaseVersions.get(PageCacheServiceImpl.CACHE_NAME));
+        //the storefront node only checks the version every versionCheckInterval
+        assertSame(page, siteNode.getPage("home"));
+        SystemTime.setGlobalTimeSource(new FixedTimeSource(NOW + siteNode.versionCheckInterval));
+        assertNull(siteNode.getPage("home"));
+    }
+
+    public void testVersionIsIncrementedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        adminNode.invalidateAll();
+
+        assertNull(databaseVersions.get(PageCacheServiceImpl.CACHE_NAME));
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(Long.valueOf(1L), databaseVersions.get(PageCacheServiceImpl.CACHE_NAME));
+    }
+
+    public void testLocalInvalidationIsImmediate() {
+        siteNode.getPage("home");
+        siteNode.putPage("home", page);
+
+        siteNode.invalidateAll();
+
+        assertNull(siteNode.getPage("home"));
+    }
+
+    protected PageCacheServiceImpl createNode(String cacheName, CacheVersionDao cacheVersionDao) {
+        PlatformTransactionManager transactionManager = EasyMock.createNiceMock(PlatformTransactionManager.class);
+        EasyMock.expect(transactionManager.getTransaction(EasyMock.isA(TransactionDefinition.class)))
+                .andAnswer(new IAnswer<TransactionStatus>() {
+                    @Override
+                    public TransactionStatus answer() throws Throwable {
+                        return new SimpleTransactionStatus();
+                    }
+                }).anyTimes();
+        StatisticsService statisticsService = EasyMock.createNiceMock(StatisticsService.class);
+        EasyMock.replay(transactionManager, statisticsService);
+
+        Cache cache = new Cache(cacheName, 1000, false, false, 3600, 3600);
+        CacheManager.getInstance().addCache(cache);
+        PageCacheServiceImpl node = new PageCacheServiceImpl();
+        node.enabled = true;
+        node.cache = cache;
+        node.cacheVersionDao = cacheVersionDao;
+        node.transactionManager = transactionManager;
+        node.statisticsService = statisticsService;
+        return node;
+    }
+
+}
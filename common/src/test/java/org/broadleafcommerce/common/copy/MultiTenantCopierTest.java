@@ -0,0 +1,235 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.copy;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.service.GenericEntityService;
+import org.broadleafcommerce.common.site.domain.Catalog;
+import org.broadleafcommerce.common.site.domain.Site;
+import org.broadleafcommerce.common.util.StreamCapableTransactionalOperation;
+import org.broadleafcommerce.common.util.StreamingTransactionCapableUtil;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.hibernate.Session;
+
+import java.io.Serializable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+public class MultiTenantCopierTest extends TestCase {
+
+    protected List<String> events = new ArrayList<String>();
+    protected List<Widget> originals = new ArrayList<Widget>();
+    protected TestCopier copier;
+    protected MultiTenantCopyContext context;
+
+    @Override
+    protected void setUp() throws Exception {
+        for (long i = 1; i <= 5; i++) {
+            originals.add(new Widget(i));
+        }
+        GenericEntityService genericEntityService = createGenericEntityService();
+        copier = new TestCopier();
+        copier.genericEntityService = genericEntityService;
+        copier.transUtil = new PagingTransactionUtil(2);
+        context = new MultiTenantCopyContext(null, null, null, null, genericEntityService, null);
+        BroadleafRequestContext.setBroadleafRequestContext(new BroadleafRequestContext());
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        BroadleafRequestContext.setBroadleafRequestContext(null);
+    }
+
+    public void testCopyFlushesOncePerPage() throws Exception {
+        copier.copyEntitiesOfType(Widget.class, null, null, context);
+
+        assertEquals(Arrays.asList(
+                "flush", "clear",
+                "persist", "persist", "flush", "clear",
+                "persist", "persist", "flush", "clear",
+                "persist", "flush", "clear"), events);
+    }
+
+    public void testBatchSizeIsScopedToEachPage() throws Exception {
+        copier.session = (Session) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { Session.class, BatchSizeAware.class }, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        if ("setJdbcBatchSize".equals(method.getName())) {
+                            events.add("batch " + args[0]);
+                        }
+                        return null;
+                    }
+                });
+        copier.copyJdbcBatchSize = 25;
+        copier.copyEntitiesOfType(Widget.class, null, null, context);
+
+        assertEquals(Arrays.asList(
+                "flush", "clear",
+                "batch 25", "persist", "persist", "flush", "clear", "batch null",
+                "batch 25", "persist", "persist", "flush", "clear", "batch null",
+                "batch 25", "persist", "flush", "clear", "batch null"), events);
+    }
+
+    public void testSingleTreeFlushesByDefault() throws Exception {
+        copier.persistCopyObjectTree(new WidgetCopyOperation(), Widget.class, originals.get(0), context);
+        assertEquals(Arrays.asList("persist", "flush"), events);
+    }
+
+    public void testDeferredFlushLeavesTreeUnflushed() throws Exception {
+        copier.persistCopyObjectTree(new WidgetCopyOperation(), Widget.class, originals.get(0), context, false);
+        copier.persistCopyObjectTree(new WidgetCopyOperation(), Widget.class, originals.get(1), context, false);
+        assertEquals(Arrays.asList("persist", "persist"), events);
+    }
+
+    protected GenericEntityService createGenericEntityService() {
+        GenericEntityService genericEntityService = EasyMock.createNiceMock(GenericEntityService.class);
+        genericEntityService.flush();
+        EasyMock.expectLastCall().andAnswer(new EventAnswer("flush")).anyTimes();
+        genericEntityService.clear();
+        EasyMock.expectLastCall().andAnswer(new EventAnswer("clear")).anyTimes();
+        EasyMock.expect(genericEntityService.getIdentifier(EasyMock.anyObject())).andAnswer(new IAnswer<Serializable>() {
+            @Override
+            public Serializable answer() throws Throwable {
+                return ((Widget) EasyMock.getCurrentArguments()[0]).id;
+            }
+        }).anyTimes();
+        EasyMock.<Class<?>>expect(genericEntityService.getCeilingImplClass(EasyMock.<String>anyObject())).andReturn(Widget.class).anyTimes();
+        EasyMock.replay(genericEntityService);
+        return genericEntityService;
+    }
+
+    protected class EventAnswer implements IAnswer<Object> {
+
+        protected final String event;
+
+        public EventAnswer(String event) {
+            this.event = event;
+        }
+
+        @Override
+        public Object answer() throws Throwable {
+            events.add(event);
+            return null;
+        }
+
+    }
+
+    /**
+     * The per session batch size accessors of later Hibernate sessions
+     */
+    public interface BatchSizeAware {
+
+        Integer getJdbcBatchSize();
+
+        void setJdbcBatchSize(Integer jdbcBatchSize);
+
+    }
+
+    protected class TestCopier extends MultiTenantCopier {
+
+        protected Session session;
+
+        @Override
+        protected Session getSession() {
+            return session;
+        }
+
+        @Override
+        public void copyEntities(MultiTenantCopyContext context) throws Exception {
+            copyEntitiesOfType(Widget.class, null, null, context);
+        }
+
+        @Override
+        protected void persistCopyObjectTreeInternal(Object copy, Set<Integer> library, MultiTenantCopyContext context) {
+            events.add("persist");
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected <T> List<T> readAll(Class<T> clazz, int limit, int offset, Site site, Catalog catalog) {
+            return (List<T>) new ArrayList<Widget>(originals.subList(Math.min(offset, originals.size()),
+                    Math.min(offset + limit, originals.size())));
+        }
+
+        @Override
+        protected <T> Long readCount(Class<T> clazz, Site site, Catalog catalog) {
+            return (long) originals.size();
+        }
+
+    }
+
+    /**
+     * Runs the pages of a streaming operation in order, without a transaction manager
+     */
+    protected static class PagingTransactionUtil extends StreamingTransactionCapableUtil {
+
+        protected final int size;
+
+        public PagingTransactionUtil(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public <G extends Throwable> void runStreamingTransactionalOperation(StreamCapableTransactionalOperation streamOperation,
+                Class<G> exceptionType) throws G {
+            long totalCount = streamOperation.retrieveTotalCount();
+            try {
+                for (int startPos = 0; startPos < totalCount; startPos += size) {
+                    streamOperation.pagedExecute(streamOperation.retrievePage(startPos, size));
+                }
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+    }
+
+    protected static class WidgetCopyOperation implements CopyOperation<Widget, CloneNotSupportedException> {
+
+        @Override
+        public Widget execute(Widget original) throws CloneNotSupportedException {
+            return new Widget(null);
+        }
+
+    }
+
+    public static class Widget implements MultiTenantCloneable<Widget> {
+
+        protected Long id;
+
+        public Widget(Long id) {
+            this.id = id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <G extends Widget> CreateResponse<G> createOrRetrieveCopyInstance(MultiTenantCopyContext context) {
+            return new CreateResponse<G>((G) new Widget(null), false);
+        }
+
+    }
+
+}
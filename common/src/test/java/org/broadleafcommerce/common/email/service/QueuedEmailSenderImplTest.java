@@ -0,0 +1,171 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.email.service;
+
+import org.broadleafcommerce.common.email.domain.EmailTarget;
+import org.broadleafcommerce.common.email.domain.EmailTargetImpl;
+import org.broadleafcommerce.common.email.service.info.EmailInfo;
+import org.broadleafcommerce.common.email.service.message.EmailPropertyType;
+import org.broadleafcommerce.common.email.service.message.MessageCreator;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+public class QueuedEmailSenderImplTest extends TestCase {
+
+    protected RecordingMessageCreator messageCreator = new RecordingMessageCreator();
+    protected QueuedEmailSenderImpl sender = new QueuedEmailSenderImpl();
+
+    @Override
+    protected void setUp() throws Exception {
+        sender.setMessageCreator(messageCreator);
+        sender.enabled = true;
+        sender.threads = 1;
+        sender.batchSize = 10;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        sender.destroy();
+    }
+
+    public void testQueuedEmailsAreSentInBatches() throws Exception {
+        sender.init();
+        for (int i = 0; i < 25; i++) {
+            sender.send(buildProps(i));
+        }
+        sender.destroy();
+
+        assertEquals(25, sender.getQueuedCount());
+        assertEquals(25, sender.getSentCount());
+        assertEquals(0, sender.getOverflowCount());
+        assertEquals(25, messageCreator.getSentCount());
+        for (Integer size : messageCreator.batchSizes) {
+            assertTrue(size <= 10);
+        }
+    }
+
+    public void testEmailIsSentInCallingThreadWhenQueueIsFull() throws Exception {
+        sender.queueCapacity = 1;
+        sender.init();
+        sender.running = false;
+
+        sender.send(buildProps(1));
+
+        assertEquals(1, sender.getOverflowCount());
+        assertEquals(1, messageCreator.getSentCount());
+    }
+
+    public void testTemplateIsMergedInCallingThreadAndOnlyTheMessageIsQueued() throws Exception {
+        sender.init();
+        Map<String, Object> props = buildProps(1);
+        sender.send(props);
+        props.put("index", 2);
+        sender.destroy();
+
+        assertEquals(Collections.singletonList(Thread.currentThread()), messageCreator.renderThreads);
+        Map<String, Object> sent = messageCreator.sent.get(0);
+        assertEquals("body 1", getInfo(sent).getMessageBody());
+        assertNull(getInfo(props).getMessageBody());
+        assertSame(props.get(EmailPropertyType.USER.getType()), sent.get(EmailPropertyType.USER.getType()));
+        assertFalse(sent.containsKey("index"));
+    }
+
+    public void testFailedBatchIsSentIndividually() throws Exception {
+        messageCreator.failBatches = true;
+        messageCreator.failingBodies.add("body 2");
+        List<Map<String, Object>> batch = new ArrayList<Map<String, Object>>();
+        for (int i = 1; i <= 3; i++) {
+            batch.add(sender.render(buildProps(i)));
+        }
+
+        sender.sendBatch(batch);
+
+        assertEquals(2, sender.getSentCount());
+        assertEquals(1, sender.getFailedCount());
+        assertEquals(2, messageCreator.getSentCount());
+        assertEquals("body 1", getInfo(messageCreator.sent.get(0)).getMessageBody());
+        assertEquals("body 3", getInfo(messageCreator.sent.get(1)).getMessageBody());
+    }
+
+    protected Map<String, Object> buildProps(int index) {
+        EmailInfo info = new EmailInfo();
+        info.setEmailTemplate("template");
+        EmailTarget target = new EmailTargetImpl();
+        target.setEmailAddress("customer" + index + "@example.com");
+        Map<String, Object> props = new HashMap<String, Object>();
+        props.put("index", index);
+        props.put(EmailPropertyType.INFO.getType(), info);
+        props.put(EmailPropertyType.USER.getType(), target);
+        return props;
+    }
+
+    protected EmailInfo getInfo(Map<String, Object> props) {
+        return (EmailInfo) props.get(EmailPropertyType.INFO.getType());
+    }
+
+    protected static class RecordingMessageCreator extends MessageCreator {
+
+        protected List<Map<String, Object>> sent = Collections.synchronizedList(new ArrayList<Map<String, Object>>());
+        protected List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<Integer>());
+        protected List<Thread> renderThreads = Collections.synchronizedList(new ArrayList<Thread>());
+        protected Set<String> failingBodies = new HashSet<String>();
+        protected boolean failBatches = false;
+
+        public RecordingMessageCreator() {
+            super(null);
+        }
+
+        @Override
+        public void sendMessages(List<Map<String, Object>> propsList) throws MailException {
+            if (failBatches) {
+                throw new MailSendException("Unable to connect");
+            }
+            batchSizes.add(propsList.size());
+            sent.addAll(propsList);
+        }
+
+        @Override
+        public void sendMessage(Map<String, Object> props) throws MailException {
+            if (failingBodies.contains(((EmailInfo) props.get(EmailPropertyType.INFO.getType())).getMessageBody())) {
+                throw new MailSendException("Invalid recipient");
+            }
+            sent.add(props);
+        }
+
+        @Override
+        public String buildMessageBody(EmailInfo info, Map<String, Object> props) {
+            renderThreads.add(Thread.currentThread());
+            return "body " + props.get("index");
+        }
+
+        public int getSentCount() {
+            return sent.size();
+        }
+    }
+
+}
@@ -0,0 +1,245 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.event;
+
+import org.broadleafcommerce.common.event.dao.ApplicationEventOutboxDao;
+import org.broadleafcommerce.common.event.domain.ApplicationEventOutboxEntry;
+import org.broadleafcommerce.common.event.domain.ApplicationEventOutboxEntryImpl;
+import org.broadleafcommerce.common.event.service.ApplicationEventOutboxServiceImpl;
+import org.broadleafcommerce.common.event.service.type.ApplicationEventOutboxStatusType;
+import org.broadleafcommerce.common.time.FixedTimeSource;
+import org.broadleafcommerce.common.time.SystemTime;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+public class ApplicationEventOutboxServiceImplTest extends TestCase {
+
+    protected static final long NOW = 1000000L;
+
+    protected TestOutboxService service = new TestOutboxService();
+    protected ApplicationEventOutboxDao outboxDao;
+    protected Map<Long, ApplicationEventOutboxEntry> entries = new LinkedHashMap<Long, ApplicationEventOutboxEntry>();
+    protected Set<Long> unclaimable = new HashSet<Long>();
+
+    @Override
+    protected void setUp() throws Exception {
+        SystemTime.setGlobalTimeSource(new FixedTimeSource(NOW));
+        PlatformTransactionManager transactionManager = EasyMock.createNiceMock(PlatformTransactionManager.class);
+        EasyMock.expect(transactionManager.getTransaction(EasyMock.isA(TransactionDefinition.class)))
+                .andAnswer(new IAnswer<TransactionStatus>() {
+                    @Override
+                    public TransactionStatus answer() throws Throwable {
+                        return new SimpleTransactionStatus();
+                    }
+                }).anyTimes();
+        outboxDao = EasyMock.createNiceMock(ApplicationEventOutboxDao.class);
+        EasyMock.expect(outboxDao.readUndeliveredEntries(EasyMock.eq(100), EasyMock.eq(new Date(NOW))))
+                .andAnswer(new IAnswer<List<ApplicationEventOutboxEntry>>() {
+                    @Override
+                    public List<ApplicationEventOutboxEntry> answer() throws Throwable {
+                        return new ArrayList<ApplicationEventOutboxEntry>(entries.values());
+                    }
+                }).anyTimes();
+        EasyMock.expect(outboxDao.claimEntry(EasyMock.anyLong(), EasyMock.isA(Date.class), EasyMock.isA(Date.class)))
+                .andAnswer(new IAnswer<Boolean>() {
+                    @Override
+                    public Boolean answer() throws Throwable {
+                        return !unclaimable.contains(EasyMock.getCurrentArguments()[0]);
+                    }
+                }).anyTimes();
+        EasyMock.expect(outboxDao.readEntryById(EasyMock.anyLong())).andAnswer(new IAnswer<ApplicationEventOutboxEntry>() {
+            @Override
+            public ApplicationEventOutboxEntry answer() throws Throwable {
+                return entries.get(EasyMock.getCurrentArguments()[0]);
+            }
+        }).anyTimes();
+        EasyMock.replay(transactionManager, outboxDao);
+        service.setOutboxDao(outboxDao);
+        service.setTransactionManager(transactionManager);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        SystemTime.reset();
+        BroadleafRequestContext.setBroadleafRequestContext(null);
+    }
+
+    public void testEventSourceSurvivesSerialization() throws Exception {
+        OrderSubmittedEvent event = new OrderSubmittedEvent(42L, "ORDER-42");
+        event.getConext().put("transient", "value");
+
+        OrderSubmittedEvent copy = (OrderSubmittedEvent) service.roundTrip(event);
+
+        assertEquals(Long.valueOf(42L), copy.getOrderId());
+        assertEquals("ORDER-42", copy.getOrderNumber());
+        assertEquals(event.getTimestamp(), copy.getTimestamp());
+        assertEquals("Order:42", copy.getAggregateKey());
+        assertNotNull(copy.getConext());
+        assertTrue(copy.getConext().isEmpty());
+    }
+
+    public void testFulfilledItemsSurviveSerialization() throws Exception {
+        Map<Long, Integer> fulfilled = new HashMap<Long, Integer>();
+        fulfilled.put(7L, 3);
+        ItemsFulfilledEvent copy = (ItemsFulfilledEvent) service.roundTrip(new ItemsFulfilledEvent(5L, fulfilled));
+
+        assertEquals(Long.valueOf(5L), copy.getFulfillmentGroupId());
+        assertEquals(Integer.valueOf(3), copy.getItemsAndQuantitiesFulfilled().get(7L));
+        assertEquals("FulfillmentGroup:5", copy.getAggregateKey());
+    }
+
+    public void testRetryDelayBacksOffExponentially() {
+        assertEquals(30000L, service.getRetryDelay(1));
+        assertEquals(60000L, service.getRetryDelay(2));
+        assertEquals(120000L, service.getRetryDelay(3));
+        assertEquals(30000L * 1024, service.getRetryDelay(50));
+    }
+
+    public void testDispatchDeliversEntryWithARequestContext() throws Exception {
+        ApplicationEventOutboxEntry entry = addEntry(1L, "Order:1");
+
+        service.dispatch();
+
+        assertEquals(Arrays.asList(1L), service.deliveredIds);
+        assertEquals(ApplicationEventOutboxStatusType.PROCESSED, entry.getStatus());
+        assertEquals(Integer.valueOf(1), entry.getAttempts());
+        assertEquals(new Date(NOW), entry.getDateProcessed());
+        assertNotNull(service.deliveryContext);
+        assertNull(BroadleafRequestContext.getBroadleafRequestContext());
+    }
+
+    public void testFailedDeliveryIsRetriedWithBackoff() throws Exception {
+        ApplicationEventOutboxEntry entry = addEntry(1L, "Order:1");
+        service.failingIds.add(1L);
+
+        assertEquals(0, service.dispatchPendingEvents());
+
+        assertEquals(ApplicationEventOutboxStatusType.PENDING, entry.getStatus());
+        assertEquals(Integer.valueOf(1), entry.getAttempts());
+        assertEquals(new Date(NOW + 30000L), entry.getNextAttemptDate());
+        assertNotNull(entry.getLastError());
+
+        entry.setAttempts(9);
+        entry.setNextAttemptDate(new Date(NOW));
+        service.dispatchPendingEvents();
+
+        assertEquals(ApplicationEventOutboxStatusType.FAILED, entry.getStatus());
+        assertEquals(Integer.valueOf(10), entry.getAttempts());
+    }
+
+    public void testEntryThatIsNotDeliveredHoldsBackOnlyItsOwnKey() throws Exception {
+        addEntry(1L, "Order:1");
+        addEntry(2L, "Order:1");
+        addEntry(3L, "Order:2");
+        addEntry(4L, "Order:3");
+        unclaimable.add(1L);
+        service.failingIds.add(3L);
+
+        assertEquals(1, service.dispatchPendingEvents());
+
+        assertEquals(Arrays.asList(4L), service.deliveredIds);
+        assertEquals(ApplicationEventOutboxStatusType.PENDING, entries.get(2L).getStatus());
+        assertEquals(Integer.valueOf(0), entries.get(2L).getAttempts());
+        assertEquals(Integer.valueOf(1), entries.get(3L).getAttempts());
+    }
+
+    protected ApplicationEventOutboxEntry addEntry(Long id, String aggregateKey) throws Exception {
+        OrderSubmittedEvent event = new OrderSubmittedEvent(id, "ORDER-" + id);
+        ApplicationEventOutboxEntry entry = new ApplicationEventOutboxEntryImpl();
+        entry.setId(id);
+        entry.setEventType(event.getClass().getName());
+        entry.setListenerName("listener");
+        entry.setAggregateKey(aggregateKey);
+        entry.setIdempotencyKey("event" + id + ":listener");
+        entry.setPayload(service.serializeEvent(event));
+        entry.setStatus(ApplicationEventOutboxStatusType.PENDING);
+        entry.setAttempts(0);
+        entry.setNextAttemptDate(new Date(NOW));
+        entries.put(id, entry);
+        return entry;
+    }
+
+    protected static class TestOutboxService extends ApplicationEventOutboxServiceImpl {
+
+        protected List<Long> deliveredIds = new ArrayList<Long>();
+        protected Set<Long> failingIds = new HashSet<Long>();
+        protected BroadleafRequestContext deliveryContext;
+
+        public void setOutboxDao(ApplicationEventOutboxDao outboxDao) {
+            this.outboxDao = outboxDao;
+        }
+
+        public void setTransactionManager(PlatformTransactionManager transactionManager) {
+            this.transactionManager = transactionManager;
+        }
+
+        public String serializeEvent(BroadleafApplicationEvent event) throws Exception {
+            return serialize(event);
+        }
+
+        public void dispatch() {
+            dispatchSafely();
+        }
+
+        @Override
+        protected BroadleafApplicationEventMulticaster getMulticaster() {
+            return new BroadleafApplicationEventMulticaster() {
+                @Override
+                public boolean invokeDurableListener(ApplicationEvent event, String listenerName) {
+                    Long orderId = ((OrderSubmittedEvent) event).getOrderId();
+                    assertEquals("event" + orderId + ":listener",
+                            ((OrderSubmittedEvent) event).getConext().get(BroadleafDurableApplicationListener.IDEMPOTENCY_KEY));
+                    if (failingIds.contains(orderId)) {
+                        throw new IllegalStateException("Unable to handle order " + orderId);
+                    }
+                    deliveryContext = BroadleafRequestContext.getBroadleafRequestContext();
+                    deliveredIds.add(orderId);
+                    return true;
+                }
+            };
+        }
+
+        public BroadleafApplicationEvent roundTrip(BroadleafApplicationEvent event) throws Exception {
+            return deserialize(serialize(event));
+        }
+
+        @Override
+        public long getRetryDelay(int attempts) {
+            return super.getRetryDelay(attempts);
+        }
+    }
+
+}
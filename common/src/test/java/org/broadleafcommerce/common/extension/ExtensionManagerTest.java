@@ -0,0 +1,156 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.extension;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class ExtensionManagerTest extends TestCase {
+
+    protected TestExtensionManager manager;
+    protected List<String> calls;
+
+    @Override
+    protected void setUp() throws Exception {
+        manager = new TestExtensionManager();
+        calls = new ArrayList<String>();
+    }
+
+    public void testNotHandledByDefaultImplementationsAreSkipped() {
+        manager.registerHandler(new DefaultHandler());
+
+        assertEquals(ExtensionResultStatusType.NOT_HANDLED, manager.getProxy().handle(calls));
+        assertTrue(calls.isEmpty());
+    }
+
+    public void testOverridingHandlersAreInvoked() {
+        manager.registerHandler(new DefaultHandler());
+        manager.registerHandler(new OverridingHandler("override", 0));
+
+        assertEquals(ExtensionResultStatusType.HANDLED, manager.getProxy().handle(calls));
+        assertEquals(Arrays.asList("override"), calls);
+    }
+
+    public void testHandlersAreInvokedInPriorityOrder() {
+        manager.registerHandler(new OverridingHandler("last", 30));
+        manager.registerHandler(new OtherOverridingHandler("first", 10));
+        manager.registerHandler(new DisabledHandler("disabled", 20));
+
+        manager.getProxy().handle(calls);
+        assertEquals(Arrays.asList("first", "last"), calls);
+    }
+
+    public void testDispatchIsRebuiltWhenHandlersChange() {
+        manager.registerHandler(new OverridingHandler("override", 10));
+        manager.getProxy().handle(calls);
+        assertEquals(Arrays.asList("override"), calls);
+
+        calls.clear();
+        manager.registerHandler(new OtherOverridingHandler("registered", 0));
+        manager.getProxy().handle(calls);
+        assertEquals(Arrays.asList("registered", "override"), calls);
+
+        calls.clear();
+        List<TestExtensionHandler> handlers = new ArrayList<TestExtensionHandler>();
+        handlers.add(new OtherOverridingHandler("replaced", 0));
+        manager.setHandlers(handlers);
+        manager.getProxy().handle(calls);
+        assertEquals(Arrays.asList("replaced"), calls);
+
+        calls.clear();
+        manager.setHandlers(new ArrayList<TestExtensionHandler>());
+        assertEquals(ExtensionResultStatusType.NOT_HANDLED, manager.getProxy().handle(calls));
+        assertTrue(calls.isEmpty());
+    }
+
+    public void testManagersDoNotShareALock() {
+        assertNotSame(manager.handlerLock, new TestExtensionManager().handlerLock);
+    }
+
+    public interface TestExtensionHandler extends ExtensionHandler {
+
+        ExtensionResultStatusType handle(List<String> calls);
+
+    }
+
+    public static class TestExtensionManager extends ExtensionManager<TestExtensionHandler> {
+
+        public TestExtensionManager() {
+            super(TestExtensionHandler.class);
+        }
+
+        @Override
+        public boolean continueOnHandled() {
+            return true;
+        }
+
+    }
+
+    public abstract static class AbstractTestExtensionHandler extends AbstractExtensionHandler implements TestExtensionHandler {
+
+        @Override
+        @NotHandledByDefault
+        public ExtensionResultStatusType handle(List<String> calls) {
+            calls.add("default");
+            return ExtensionResultStatusType.NOT_HANDLED;
+        }
+
+    }
+
+    public static class DefaultHandler extends AbstractTestExtensionHandler {
+
+    }
+
+    public static class OverridingHandler extends AbstractTestExtensionHandler {
+
+        protected String name;
+
+        public OverridingHandler(String name, int priority) {
+            this.name = name;
+            setPriority(priority);
+        }
+
+        @Override
+        public ExtensionResultStatusType handle(List<String> calls) {
+            calls.add(name);
+            return ExtensionResultStatusType.HANDLED_CONTINUE;
+        }
+
+    }
+
+    public static class OtherOverridingHandler extends OverridingHandler {
+
+        public OtherOverridingHandler(String name, int priority) {
+            super(name, priority);
+        }
+
+    }
+
+    public static class DisabledHandler extends OverridingHandler {
+
+        public DisabledHandler(String name, int priority) {
+            super(name, priority);
+            setEnabled(false);
+        }
+
+    }
+
+}
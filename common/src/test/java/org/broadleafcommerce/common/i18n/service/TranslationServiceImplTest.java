@@ -0,0 +1,110 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.i18n.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.cache.PersistentRetrieval;
+import org.broadleafcommerce.common.extension.ExtensionResultHolder;
+import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.ResultType;
+import org.broadleafcommerce.common.extension.SparselyPopulatedQueryExtensionHandler;
+import org.broadleafcommerce.common.i18n.dao.TranslationDao;
+import org.broadleafcommerce.common.i18n.domain.TranslatedEntity;
+import org.broadleafcommerce.common.i18n.domain.Translation;
+import org.broadleafcommerce.common.i18n.domain.TranslationImpl;
+import org.broadleafcommerce.common.sandbox.domain.SandBox;
+import org.broadleafcommerce.common.sandbox.domain.SandBoxImpl;
+import org.broadleafcommerce.common.sandbox.domain.SandBoxType;
+import org.broadleafcommerce.common.sandbox.service.SandBoxCacheService;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import java.util.Locale;
+
+public class TranslationServiceImplTest extends TestCase {
+
+    protected TranslationServiceImpl translationService;
+    protected SandBoxCacheService sandBoxCacheService;
+    protected Object entity = new Object();
+
+    @Override
+    protected void setUp() throws Exception {
+        Translation translation = new TranslationImpl();
+        translation.setTranslatedValue("Chaussure");
+        TranslationDao dao = EasyMock.createNiceMock(TranslationDao.class);
+        EasyMock.expect(dao.getEntityId(TranslatedEntity.PRODUCT, entity)).andReturn("1").anyTimes();
+        EasyMock.expect(dao.readTranslation(TranslatedEntity.PRODUCT, "1", "name", "fr", "fr_FR", ResultType.CATALOG_ONLY))
+                .andReturn(translation).anyTimes();
+        EasyMock.replay(dao);
+
+        translationService = new TranslationServiceImpl() {
+            @Override
+            protected TranslatedEntity getEntityType(Object entity) {
+                return TranslatedEntity.PRODUCT;
+            }
+        };
+        translationService.dao = dao;
+        translationService.extensionManager = new TranslationServiceExtensionManager();
+        sandBoxCacheService = EasyMock.createMock(SandBoxCacheService.class);
+        translationService.sandBoxCacheService = sandBoxCacheService;
+
+        SandBox sandBox = new SandBoxImpl();
+        sandBox.setId(1L);
+        sandBox.setSandBoxType(SandBoxType.USER);
+        BroadleafRequestContext context = new BroadleafRequestContext();
+        context.setSandBox(sandBox);
+        BroadleafRequestContext.setBroadleafRequestContext(context);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        BroadleafRequestContext.setBroadleafRequestContext(null);
+    }
+
+    public void testSandBoxReadsBypassCacheWhenStateIsNotValidForCache() throws Exception {
+        EasyMock.replay(sandBoxCacheService);
+
+        assertEquals("Chaussure", translationService.getTranslatedValue(entity, "name", Locale.FRANCE));
+        EasyMock.verify(sandBoxCacheService);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testSandBoxReadsAreCachedWhenStateIsValidForCache() throws Exception {
+        SparselyPopulatedQueryExtensionHandler handler = EasyMock.createNiceMock(SparselyPopulatedQueryExtensionHandler.class);
+        EasyMock.expect(handler.isEnabled()).andReturn(true).anyTimes();
+        EasyMock.expect(handler.isValidState(EasyMock.<ExtensionResultHolder<Boolean>>anyObject()))
+                .andAnswer(new IAnswer<ExtensionResultStatusType>() {
+                    @Override
+                    public ExtensionResultStatusType answer() throws Throwable {
+                        ((ExtensionResultHolder<Boolean>) EasyMock.getCurrentArguments()[0]).setResult(true);
+                        return ExtensionResultStatusType.HANDLED;
+                    }
+                }).anyTimes();
+        EasyMock.replay(handler);
+        translationService.extensionManager.registerHandler(handler);
+
+        EasyMock.expect(sandBoxCacheService.getCachedObject(EasyMock.eq("translation"), EasyMock.eq("Product|1|name|fr_FR"),
+                EasyMock.<PersistentRetrieval<String>>anyObject())).andReturn("Chaussure").once();
+        EasyMock.replay(sandBoxCacheService);
+
+        assertEquals("Chaussure", translationService.getTranslatedValue(entity, "name", Locale.FRANCE));
+        EasyMock.verify(sandBoxCacheService);
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.resource.service;
+
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.easymock.EasyMock;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.web.servlet.resource.ResourceResolverChain;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+
+public class ResourceBundlingServiceImplTest extends TestCase {
+
+    protected static final String BUNDLE_NAME = "/js/bundle-123.js";
+
+    protected TestFileService fileService;
+    protected Map<String, TestResource> resources = new HashMap<String, TestResource>();
+    protected List<Thread> resolvingThreads = Collections.synchronizedList(new ArrayList<Thread>());
+    protected List<HttpServletRequest> resolvingRequests = Collections.synchronizedList(new ArrayList<HttpServletRequest>());
+    protected List<String> filePaths = Arrays.asList("/js/a.js", "/js/b.js");
+    protected List<ResourceBundlingServiceImpl> services = new ArrayList<ResourceBundlingServiceImpl>();
+    protected HttpServletRequest request;
+
+    protected ResourceResolverChain resolverChain = new ResourceResolverChain() {
+        @Override
+        public Resource resolveResource(HttpServletRequest request, String requestPath, List<? extends Resource> locations) {
+            resolvingThreads.add(Thread.currentThread());
+            resolvingRequests.add(request);
+            return resources.get(requestPath);
+        }
+
+        @Override
+        public String resolveUrlPath(String resourcePath, List<? extends Resource> locations) {
+            return resourcePath;
+        }
+    };
+
+    @Override
+    protected void setUp() throws Exception {
+        fileService = new TestFileService();
+        resources.put("/js/a.js", new TestResource("var a = 1;", 1000L));
+        resources.put("/js/b.js", new TestResource("var b = 2;", 1000L));
+        request = EasyMock.createNiceMock(HttpServletRequest.class);
+        EasyMock.replay(request);
+        BroadleafRequestContext brc = new BroadleafRequestContext();
+        brc.setRequest(request);
+        brc.setAdminUserId(7L);
+        BroadleafRequestContext.setBroadleafRequestContext(brc);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        for (ResourceBundlingServiceImpl service : services) {
+            service.destroy();
+        }
+        BroadleafRequestContext.setBroadleafRequestContext(null);
+        fileService.delete();
+    }
+
+    public void testFilesAreResolvedOnRequestThreadAndReadWithContextCopy() throws Exception {
+        BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        ResourceBundlingServiceImpl service = createService();
+        service.createBundleIfNeeded(BUNDLE_NAME, filePaths, resolverChain, Collections.<Resource>emptyList());
+
+        assertEquals(Arrays.asList(Thread.currentThread(), Thread.currentThread()), resolvingThreads);
+        assertEquals(Arrays.asList(request, request), resolvingRequests);
+        for (TestResource resource : resources.values()) {
+            assertEquals(1, resource.reads);
+            assertNotSame(Thread.currentThread(), resource.readingThread);
+            assertNotSame(brc, resource.readingContext);
+            assertNull(resource.readingContext.getRequest());
+            assertEquals(Long.valueOf(7L), resource.readingContext.getAdminUserId());
+        }
+        assertSame(brc, BroadleafRequestContext.getBroadleafRequestContext());
+
+        String bundle = readSavedBundle();
+        assertTrue(bundle.indexOf("var a = 1;") < bundle.indexOf("var b = 2;"));
+        assertEquals(1, service.getBundlesBuilt());
+    }
+
+    public void testSavedBundleWithCurrentVersionIsReused() throws Exception {
+        createService().createBundleIfNeeded(BUNDLE_NAME, filePaths, resolverChain, Collections.<Resource>emptyList());
+        assertEquals(1, fileService.getSaves());
+
+        ResourceBundlingServiceImpl restarted = createService();
+        restarted.createBundleIfNeeded(BUNDLE_NAME, filePaths, resolverChain, Collections.<Resource>emptyList());
+
+        assertEquals(1, restarted.getBundlesReused());
+        assertEquals(0, restarted.getBundlesBuilt());
+        assertEquals(1, fileService.getSaves());
+        for (TestResource resource : resources.values()) {
+            assertEquals(1, resource.reads);
+        }
+        assertTrue(restarted.checkForRegisteredBundleFile(BUNDLE_NAME));
+        assertEquals(fileService.getStoredFile("/bundles" + BUNDLE_NAME).getAbsolutePath(),
+                restarted.resolveBundleResource(BUNDLE_NAME).getFile().getAbsolutePath());
+    }
+
+    public void testSavedBundleIsRebuiltWhenAFileChanges() throws Exception {
+        createService().createBundleIfNeeded(BUNDLE_NAME, filePaths, resolverChain, Collections.<Resource>emptyList());
+        resources.put("/js/b.js", new TestResource("var b = 3;", 2000L));
+
+        ResourceBundlingServiceImpl restarted = createService();
+        restarted.createBundleIfNeeded(BUNDLE_NAME, filePaths, resolverChain, Collections.<Resource>emptyList());
+
+        assertEquals(1, restarted.getBundlesBuilt());
+        assertEquals(2, fileService.getSaves());
+        assertTrue(readSavedBundle().contains("var b = 3;"));
+    }
+
+    public void testSingleThreadBuild() throws Exception {
+        ResourceBundlingServiceImpl service = createService();
+        service.bundleBuildThreads = 1;
+        service.createBundleIfNeeded(BUNDLE_NAME, filePaths, resolverChain, Collections.<Resource>emptyList());
+
+        for (TestResource resource : resources.values()) {
+            assertSame(Thread.currentThread(), resource.readingThread);
+        }
+        assertTrue(readSavedBundle().contains("var b = 2;"));
+    }
+
+    protected ResourceBundlingServiceImpl createService() {
+        ResourceBundlingServiceImpl service = new ResourceBundlingServiceImpl();
+        service.fileService = fileService.getFileService();
+        service.bundleBuildThreads = 2;
+        services.add(service);
+        return service;
+    }
+
+    protected String readSavedBundle() throws IOException {
+        return FileUtils.readFileToString(fileService.getStoredFile("/bundles" + BUNDLE_NAME), "UTF-8");
+    }
+
+    /**
+     * Records the thread and request context each read is made with
+     */
+    protected static class TestResource extends AbstractResource {
+
+        protected final String content;
+        protected final long lastModified;
+        protected volatile int reads;
+        protected volatile Thread readingThread;
+        protected volatile BroadleafRequestContext readingContext;
+
+        public TestResource(String content, long lastModified) {
+            this.content = content;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public String getDescription() {
+            return "test resource [" + content + "]";
+        }
+
+        @Override
+        public long lastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            reads++;
+            readingThread = Thread.currentThread();
+            readingContext = BroadleafRequestContext.getBroadleafRequestContext();
+            return new ByteArrayResource(content.getBytes("UTF-8")).getInputStream();
+        }
+    }
+}
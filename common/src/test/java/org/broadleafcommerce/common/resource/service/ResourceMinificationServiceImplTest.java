@@ -0,0 +1,127 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.resource.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.resource.GeneratedResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+
+public class ResourceMinificationServiceImplTest extends TestCase {
+
+    protected static final String TEST_CACHE_NAME = "resourceMinificationServiceImplTest";
+
+    protected TestFileService fileService;
+
+    @Override
+    protected void setUp() throws Exception {
+        fileService = new TestFileService();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        fileService.delete();
+        CacheManager.getInstance().removeCache(TEST_CACHE_NAME);
+    }
+
+    public void testMinifiedResultIsReusedAfterRestart() throws Exception {
+        TestMinificationService service = createService();
+        assertEquals("A=1;", minify(service, "a = 1;"));
+        assertEquals("A=1;", minify(service, "a = 1;"));
+        assertEquals(1, service.minifications.get());
+        assertEquals(1, fileService.getSaves());
+
+        TestMinificationService restarted = createService();
+        assertEquals("A=1;", minify(restarted, "a = 1;"));
+        assertEquals(0, restarted.minifications.get());
+        assertEquals(1, fileService.getSaves());
+    }
+
+    public void testChangedContentIsMinifiedAgain() throws Exception {
+        TestMinificationService service = createService();
+        minify(service, "a = 1;");
+
+        TestMinificationService restarted = createService();
+        assertEquals("A=2;", minify(restarted, "a = 2;"));
+        assertEquals(1, restarted.minifications.get());
+        assertEquals(2, fileService.getSaves());
+    }
+
+    public void testChangedSettingsAreMinifiedAgain() throws Exception {
+        TestMinificationService service = createService();
+        minify(service, "a = 1;");
+
+        TestMinificationService restarted = createService();
+        restarted.munge = !restarted.munge;
+        minify(restarted, "a = 1;");
+        assertEquals(1, restarted.minifications.get());
+    }
+
+    public void testUnsavedResultIsStillReturned() throws Exception {
+        TestMinificationService service = createService();
+        service.fileService = null;
+        assertEquals("A=1;", minify(service, "a = 1;"));
+        assertEquals(0, fileService.getSaves());
+    }
+
+    protected TestMinificationService createService() {
+        TestMinificationService service = new TestMinificationService();
+        service.fileService = fileService.getFileService();
+        // a new, empty cache each time, as after a restart
+        CacheManager.getInstance().removeCache(TEST_CACHE_NAME);
+        CacheManager.getInstance().addCache(new Cache(TEST_CACHE_NAME, 1000, false, false, 3600, 3600));
+        service.cache = CacheManager.getInstance().getCache(TEST_CACHE_NAME);
+        return service;
+    }
+
+    protected String minify(ResourceMinificationServiceImpl service, String content) throws Exception {
+        Resource resource = service.minify(new ByteArrayResource(content.getBytes("UTF-8")), "test.js");
+        assertTrue(resource instanceof GeneratedResource);
+        return new String(((GeneratedResource) resource).getBytes(), "UTF-8");
+    }
+
+    /**
+     * Upper cases the content and removes spaces rather than running the real compressors
+     */
+    protected static class TestMinificationService extends ResourceMinificationServiceImpl {
+
+        protected final AtomicInteger minifications = new AtomicInteger();
+
+        @Override
+        public boolean getEnabled() {
+            return true;
+        }
+
+        @Override
+        protected void minify(BufferedReader in, BufferedWriter out, String filename, String type) throws IOException {
+            minifications.incrementAndGet();
+            String line;
+            while ((line = in.readLine()) != null) {
+                out.write(line.replace(" ", "").toUpperCase());
+            }
+        }
+    }
+}
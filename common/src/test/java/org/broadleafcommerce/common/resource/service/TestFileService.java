@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.resource.service;
+
+import org.apache.commons.io.FileUtils;
+import org.broadleafcommerce.common.file.domain.FileWorkArea;
+import org.broadleafcommerce.common.file.service.BroadleafFileService;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link BroadleafFileService} backed by a temporary directory, which outlives the services using it so that a restart
+ * can be simulated by creating a new service against the same instance
+ */
+public class TestFileService {
+
+    protected final File directory;
+    protected final AtomicInteger saves = new AtomicInteger();
+    protected final AtomicInteger workAreas = new AtomicInteger();
+    protected final BroadleafFileService fileService;
+
+    public TestFileService() throws IOException {
+        directory = Files.createTempDirectory("blTestFileService").toFile();
+        fileService = EasyMock.createNiceMock(BroadleafFileService.class);
+        EasyMock.expect(fileService.initializeWorkArea()).andAnswer(new IAnswer<FileWorkArea>() {
+            @Override
+            public FileWorkArea answer() {
+                File workDirectory = new File(directory, "work" + workAreas.incrementAndGet());
+                workDirectory.mkdirs();
+                FileWorkArea workArea = new FileWorkArea();
+                workArea.setFilePathLocation(workDirectory.getAbsolutePath());
+                return workArea;
+            }
+        }).anyTimes();
+        EasyMock.expect(fileService.addOrUpdateResourceForPath(EasyMock.isA(FileWorkArea.class), EasyMock.isA(File.class),
+                EasyMock.anyBoolean())).andAnswer(new IAnswer<String>() {
+                    @Override
+                    public String answer() throws Throwable {
+                        FileWorkArea workArea = (FileWorkArea) EasyMock.getCurrentArguments()[0];
+                        File file = (File) EasyMock.getCurrentArguments()[1];
+                        String path = file.getAbsolutePath().substring(workArea.getFilePathLocation().length());
+                        FileUtils.copyFile(file, getStoredFile(path));
+                        saves.incrementAndGet();
+                        return path;
+                    }
+                }).anyTimes();
+        EasyMock.expect(fileService.getResource(EasyMock.isA(String.class))).andAnswer(new IAnswer<File>() {
+            @Override
+            public File answer() {
+                return getStoredFile((String) EasyMock.getCurrentArguments()[0]);
+            }
+        }).anyTimes();
+        EasyMock.replay(fileService);
+    }
+
+    public BroadleafFileService getFileService() {
+        return fileService;
+    }
+
+    public int getSaves() {
+        return saves.get();
+    }
+
+    public File getStoredFile(String path) {
+        return new File(new File(directory, "store"), path);
+    }
+
+    public void delete() {
+        FileUtils.deleteQuietly(directory);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.rule;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.TimeDTO;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+public class RequestRuleResultCacheTest extends TestCase {
+
+    protected static final String RULE = "customer.registered == true";
+
+    protected Object customer = new Object();
+    protected Object cart = new Object();
+
+    @Override
+    protected void setUp() throws Exception {
+        BroadleafRequestContext brc = new BroadleafRequestContext();
+        brc.setRequest(new MockHttpServletRequest());
+        BroadleafRequestContext.setBroadleafRequestContext(brc);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        BroadleafRequestContext.setBroadleafRequestContext(null);
+    }
+
+    public void testSameRuleAndInputsHit() {
+        RequestRuleResultCache.put(RULE, buildVars(customer, cart), true);
+
+        assertEquals(Boolean.TRUE, RequestRuleResultCache.get(RULE, buildVars(customer, cart)));
+    }
+
+    public void testTimeInputsWithinTheSameMinuteHit() {
+        Map<String, Object> vars = buildVars(customer, cart);
+        vars.put("time", buildTime(120000L));
+        RequestRuleResultCache.put(RULE, vars, true);
+
+        vars.put("time", buildTime(150000L));
+        assertEquals(Boolean.TRUE, RequestRuleResultCache.get(RULE, vars));
+        vars.put("time", buildTime(180000L));
+        assertNull(RequestRuleResultCache.get(RULE, vars));
+    }
+
+    public void testDifferentRuleOrInputsMiss() {
+        RequestRuleResultCache.put(RULE, buildVars(customer, cart), true);
+
+        assertNull(RequestRuleResultCache.get("customer.registered == false", buildVars(customer, cart)));
+        assertNull(RequestRuleResultCache.get(RULE, buildVars(new Object(), cart)));
+        assertNull(RequestRuleResultCache.get(RULE, buildVars(customer, new Object())));
+
+        Map<String, Object> moreVars = buildVars(customer, cart);
+        moreVars.put("product", new Object());
+        assertNull(RequestRuleResultCache.get(RULE, moreVars));
+    }
+
+    public void testClearInvalidatesResults() {
+        RequestRuleResultCache.put(RULE, buildVars(customer, cart), true);
+
+        RequestRuleResultCache.clear();
+        assertNull(RequestRuleResultCache.get(RULE, buildVars(customer, cart)));
+
+        RequestRuleResultCache.put(RULE, buildVars(customer, cart), false);
+        assertEquals(Boolean.FALSE, RequestRuleResultCache.get(RULE, buildVars(customer, cart)));
+    }
+
+    public void testResultsAreOnlyMemoizedForRequests() {
+        BroadleafRequestContext.setBroadleafRequestContext(new BroadleafRequestContext());
+        RequestRuleResultCache.put(RULE, buildVars(customer, cart), true);
+
+        assertNull(RequestRuleResultCache.get(RULE, buildVars(customer, cart)));
+    }
+
+    protected TimeDTO buildTime(long millis) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(millis);
+        return new TimeDTO(calendar);
+    }
+
+    protected Map<String, Object> buildVars(Object customer, Object cart) {
+        Map<String, Object> vars = new HashMap<String, Object>();
+        vars.put("customer", customer);
+        vars.put("cart", cart);
+        return vars;
+    }
+
+}
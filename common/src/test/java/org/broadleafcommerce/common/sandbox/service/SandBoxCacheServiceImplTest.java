@@ -0,0 +1,174 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.sandbox.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.cache.PersistentRetrieval;
+import org.broadleafcommerce.common.cache.StatisticsService;
+import org.broadleafcommerce.common.sandbox.dao.SandBoxDao;
+import org.broadleafcommerce.common.sandbox.domain.SandBox;
+import org.broadleafcommerce.common.sandbox.domain.SandBoxImpl;
+import org.broadleafcommerce.common.sandbox.domain.SandBoxType;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+
+/**
+ * Simulates an admin node and a preview node that share a database but each have their own local cache region
+ */
+public class SandBoxCacheServiceImplTest extends TestCase {
+
+    protected Map<Long, Long> databaseVersions = new HashMap<Long, Long>();
+    protected AtomicInteger versionReads = new AtomicInteger();
+    protected SandBoxCacheServiceImpl adminNode;
+    protected SandBoxCacheServiceImpl previewNode;
+    protected SandBox approvalSandBox;
+    protected SandBox userSandBox;
+
+    @Override
+    protected void setUp() throws Exception {
+        SandBoxDao sandBoxDao = createSandBoxDao();
+        adminNode = createNode("sandBoxCacheServiceImplTestAdmin", sandBoxDao);
+        previewNode = createNode("sandBoxCacheServiceImplTestPreview", sandBoxDao);
+
+        approvalSandBox = new SandBoxImpl();
+        approvalSandBox.setId(1L);
+        approvalSandBox.setSandBoxType(SandBoxType.APPROVAL);
+        userSandBox = new SandBoxImpl();
+        userSandBox.setId(2L);
+        userSandBox.setSandBoxType(SandBoxType.USER);
+        userSandBox.setParentSandBox(approvalSandBox);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        CacheManager.getInstance().removeCache("sandBoxCacheServiceImplTestAdmin");
+        CacheManager.getInstance().removeCache("sandBoxCacheServiceImplTestPreview");
+        BroadleafRequestContext.setBroadleafRequestContext(null);
+    }
+
+    public void testInvalidationIsSeenByOtherNodes() throws Exception {
+        startRequest(userSandBox);
+        assertEquals("v1", previewNode.getCachedObject("test", "key", new ValueRetrieval("v1")));
+        startRequest(userSandBox);
+        assertEquals("v1", previewNode.getCachedObject("test", "key", new ValueRetrieval("v2")));
+
+        startRequest(userSandBox);
+        adminNode.invalidateCurrentSandBox();
+
+        startRequest(userSandBox);
+        assertEquals("v2", previewNode.getCachedObject("test", "key", new ValueRetrieval("v2")));
+    }
+
+    public void testParentInvalidationIsSeenByChildSandBox() throws Exception {
+        startRequest(userSandBox);
+        assertEquals("v1", previewNode.getCachedObject("test", "key", new ValueRetrieval("v1")));
+
+        adminNode.invalidate(approvalSandBox.getId());
+
+        startRequest(userSandBox);
+        assertEquals("v2", previewNode.getCachedObject("test", "key", new ValueRetrieval("v2")));
+    }
+
+    public void testVersionsAreReadOncePerRequest() throws Exception {
+        startRequest(userSandBox);
+        previewNode.getCachedObject("test", "first", new ValueRetrieval("v1"));
+        previewNode.getCachedObject("test", "second", new ValueRetrieval("v1"));
+        previewNode.getCachedObject("test", "third", new ValueRetrieval("v1"));
+        assertEquals(1, versionReads.get());
+    }
+
+    public void testProductionIsNotCached() throws Exception {
+        startRequest(null);
+        assertFalse(previewNode.isCacheable());
+        assertEquals("v1", previewNode.getCachedObject("test", "key", new ValueRetrieval("v1")));
+        assertEquals("v2", previewNode.getCachedObject("test", "key", new ValueRetrieval("v2")));
+        assertEquals(0, versionReads.get());
+    }
+
+    protected void startRequest(SandBox sandBox) {
+        BroadleafRequestContext context = new BroadleafRequestContext();
+        context.setSandBox(sandBox);
+        BroadleafRequestContext.setBroadleafRequestContext(context);
+    }
+
+    protected SandBoxCacheServiceImpl createNode(String cacheName, SandBoxDao sandBoxDao) {
+        Cache cache = new Cache(cacheName, 1000, false, false, 600, 600);
+        CacheManager.getInstance().addCache(cache);
+        SandBoxCacheServiceImpl node = new SandBoxCacheServiceImpl();
+        node.cache = cache;
+        node.sandBoxDao = sandBoxDao;
+        node.statisticsService = EasyMock.createNiceMock(StatisticsService.class);
+        EasyMock.replay(node.statisticsService);
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected SandBoxDao createSandBoxDao() {
+        SandBoxDao sandBoxDao = EasyMock.createNiceMock(SandBoxDao.class);
+        EasyMock.expect(sandBoxDao.readCacheVersions(EasyMock.<Collection<Long>>anyObject())).andAnswer(new IAnswer<Map<Long, Long>>() {
+            @Override
+            public Map<Long, Long> answer() throws Throwable {
+                versionReads.incrementAndGet();
+                Map<Long, Long> response = new HashMap<Long, Long>();
+                for (Long sandBoxId : (Collection<Long>) EasyMock.getCurrentArguments()[0]) {
+                    if (databaseVersions.containsKey(sandBoxId)) {
+                        response.put(sandBoxId, databaseVersions.get(sandBoxId));
+                    }
+                }
+                return response;
+            }
+        }).anyTimes();
+        sandBoxDao.incrementCacheVersion(EasyMock.<Long>anyObject());
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() throws Throwable {
+                Long sandBoxId = (Long) EasyMock.getCurrentArguments()[0];
+                Long version = databaseVersions.get(sandBoxId);
+                databaseVersions.put(sandBoxId, version == null ? 1L : version + 1);
+                return null;
+            }
+        }).anyTimes();
+        EasyMock.replay(sandBoxDao);
+        return sandBoxDao;
+    }
+
+    protected static class ValueRetrieval implements PersistentRetrieval<String> {
+
+        protected final String value;
+
+        public ValueRetrieval(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String retrievePersistentObject() {
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+
+package org.broadleafcommerce.common.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.reflect.Field;
+
+import junit.framework.TestCase;
+
+public class BLCFieldAccessorTest extends TestCase {
+
+    private static final Log LOG = LogFactory.getLog(BLCFieldAccessorTest.class);
+
+    private static final int ROWS = 500;
+    private static final int COLUMNS = 30;
+    private static final int ITERATIONS = 20;
+
+    public void testReadAndWrite() throws Exception {
+        Row row = new Row();
+        BLCFieldAccessor accessor = BLCFieldAccessor.getAccessor(Row.class, "col3");
+        assertNotNull("An accessor should be found for a declared field", accessor);
+        accessor.set(row, "value3");
+        assertEquals("The value set through the accessor should be readable", "value3", accessor.get(row));
+        assertEquals("The value should have been set on the underlying field", "value3", row.col3);
+
+        assertSame("Accessors should be cached per class and field",
+                accessor, BLCFieldAccessor.getAccessor(Row.class, "col3"));
+        assertNotNull("Fields declared on a superclass should be found", BLCFieldAccessor.getAccessor(Row.class, "id"));
+        assertNull("An unknown field should not have an accessor", BLCFieldAccessor.getAccessor(Row.class, "missing"));
+    }
+
+    public void testAccessorsAreCachedPerClass() throws Exception {
+        BLCFieldAccessor baseAccessor = BLCFieldAccessor.getAccessor(BaseRow.class, "id");
+        BLCFieldAccessor rowAccessor = BLCFieldAccessor.getAccessor(Row.class, "id");
+        assertNotSame("Each class should hold its own accessors", baseAccessor, rowAccessor);
+        assertEquals("Both accessors should resolve the field declared on the superclass",
+                baseAccessor.getField(), rowAccessor.getField());
+        assertSame("The superclass accessor should be cached", baseAccessor, BLCFieldAccessor.getAccessor(BaseRow.class, "id"));
+        assertNull("A field declared on a subclass should not be found on the superclass",
+                BLCFieldAccessor.getAccessor(BaseRow.class, "col0"));
+    }
+
+    public void testPrimitiveAndTypeErrors() throws Exception {
+        Row row = new Row();
+        BLCFieldAccessor idAccessor = BLCFieldAccessor.getAccessor(Row.class, "id");
+        idAccessor.set(row, 5L);
+        assertEquals("Primitive values should be unboxed on write and boxed on read", 5L, idAccessor.get(row));
+        idAccessor.set(row, 7);
+        assertEquals("An Integer should be widened when written to a long field", 7L, idAccessor.get(row));
+        try {
+            idAccessor.set(row, "7");
+            fail("Setting a primitive field with a non-numeric value should fail");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        try {
+            idAccessor.set(row, null);
+            fail("Setting a primitive field to null should fail");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        try {
+            BLCFieldAccessor.getAccessor(Row.class, "col0").set(row, 1);
+            fail("Setting a field with an incompatible type should fail");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    /**
+     * Mirrors the admin list grid extraction: every column of every row is read. This is not a strict performance
+     * assertion, it logs the reflective and accessor based timings for comparison.
+     */
+    public void testListGridExtractionBenchmark() throws Exception {
+        Row[] rows = new Row[ROWS];
+        for (int r = 0; r < ROWS; r++) {
+            rows[r] = new Row();
+            for (int c = 0; c < COLUMNS; c++) {
+                BLCFieldAccessor.getAccessor(Row.class, "col" + c).set(rows[r], r + "-" + c);
+            }
+        }
+        String[] columns = new String[COLUMNS];
+        for (int c = 0; c < COLUMNS; c++) {
+            columns[c] = "col" + c;
+        }
+
+        // warm up both paths
+        extractReflectively(rows, columns);
+        extractWithAccessors(rows, columns);
+
+        long start = System.nanoTime();
+        int reflectiveCount = 0;
+        for (int j = 0; j < ITERATIONS; j++) {
+            reflectiveCount += extractReflectively(rows, columns);
+        }
+        long reflective = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int accessorCount = 0;
+        for (int j = 0; j < ITERATIONS; j++) {
+            accessorCount += extractWithAccessors(rows, columns);
+        }
+        long accessor = System.nanoTime() - start;
+
+        assertEquals("Both extraction paths should read the same cells", reflectiveCount, accessorCount);
+        assertEquals("Every cell should have been read", ROWS * COLUMNS * ITERATIONS, accessorCount);
+        LOG.info(String.format("Extracted %d rows x %d columns %d times: reflective %d ms, accessor %d ms",
+                ROWS, COLUMNS, ITERATIONS, reflective / 1000000, accessor / 1000000));
+    }
+
+    protected int extractReflectively(Row[] rows, String[] columns) throws Exception {
+        int count = 0;
+        for (Row row : rows) {
+            for (String column : columns) {
+                Field field = BLCFieldUtils.getSingleField(row.getClass(), column);
+                field.setAccessible(true);
+                if (field.get(row) != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    protected int extractWithAccessors(Row[] rows, String[] columns) throws Exception {
+        int count = 0;
+        for (Row row : rows) {
+            for (String column : columns) {
+                if (BLCFieldAccessor.getAccessor(row.getClass(), column).get(row) != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public static class BaseRow {
+        protected long id;
+    }
+
+    public static class Row extends BaseRow {
+        protected String col0;
+        protected String col1;
+        protected String col2;
+        protected String col3;
+        protected String col4;
+        protected String col5;
+        protected String col6;
+        protected String col7;
+        protected String col8;
+        protected String col9;
+        protected String col10;
+        protected String col11;
+        protected String col12;
+        protected String col13;
+        protected String col14;
+        protected String col15;
+        protected String col16;
+        protected String col17;
+        protected String col18;
+        protected String col19;
+        protected String col20;
+        protected String col21;
+        protected String col22;
+        protected String col23;
+        protected String col24;
+        protected String col25;
+        protected String col26;
+        protected String col27;
+        protected String col28;
+        protected String col29;
+    }
+}
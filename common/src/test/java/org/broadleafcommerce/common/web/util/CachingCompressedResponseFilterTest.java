@@ -0,0 +1,263 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.web.util;
+
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletResponse;
+
+public class CachingCompressedResponseFilterTest extends TestCase {
+
+    protected static final String CSS = "body { color: red; } body { color: red; } body { color: red; }";
+
+    protected File directory;
+    protected AtomicInteger renders = new AtomicInteger();
+
+    @Override
+    protected void setUp() throws Exception {
+        directory = Files.createTempDirectory("blCompressedResponseFilterTest").toFile();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    public void testConcurrentRequestWaitsForSingleCompression() throws Exception {
+        final CachingCompressedResponseFilter filter = createFilter();
+        final CountDownLatch rendering = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final FilterChain chain = new FilterChain() {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                renders.incrementAndGet();
+                rendering.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                response.getOutputStream().write(CSS.getBytes("UTF-8"));
+            }
+        };
+        final MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        Thread first = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    filter.doFilterInternalUnlessIgnored(buildRequest("/css/site.css"), firstResponse, chain);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        first.start();
+        assertTrue(rendering.await(5, TimeUnit.SECONDS));
+
+        final MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        Thread second = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    filter.doFilterInternalUnlessIgnored(buildRequest("/css/site.css"), secondResponse, chain);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        second.start();
+        Thread.sleep(100L);
+        release.countDown();
+        first.join(5000L);
+        second.join(5000L);
+
+        assertEquals(1, renders.get());
+        assertEquals(CSS, gunzip(firstResponse));
+        assertEquals(CSS, gunzip(secondResponse));
+        assertEquals("text/css", secondResponse.getContentType());
+    }
+
+    public void testMemoryHitAndPromotionFromDisk() throws Exception {
+        CachingCompressedResponseFilter filter = createFilter();
+        FilterChain chain = new RenderingChain(HttpServletResponse.SC_OK, CSS);
+        filter.doFilterInternalUnlessIgnored(buildRequest("/css/site.css"), new MockHttpServletResponse(), chain);
+        String uriHash = filter.getUriHash(buildRequest("/css/site.css"));
+        assertTrue(filter.prepareTargetFile(uriHash).exists());
+
+        MockHttpServletResponse memoryHit = new MockHttpServletResponse();
+        filter.doFilterInternalUnlessIgnored(buildRequest("/css/site.css"), memoryHit, chain);
+        assertEquals(1, renders.get());
+        assertEquals(CSS, gunzip(memoryHit));
+        assertEquals("text/css", memoryHit.getContentType());
+        assertEquals(memoryHit.getContentAsByteArray().length, memoryHit.getContentLength());
+
+        // a new filter, as after a restart, has an empty memory cache and promotes the file written by the first
+        CachingCompressedResponseFilter restarted = createFilter();
+        assertNull(restarted.memoryCache.get(uriHash));
+        MockHttpServletResponse diskHit = new MockHttpServletResponse();
+        restarted.doFilterInternalUnlessIgnored(buildRequest("/css/site.css"), diskHit, chain);
+        assertEquals(1, renders.get());
+        assertEquals(CSS, gunzip(diskHit));
+        assertNotNull(restarted.memoryCache.get(uriHash));
+    }
+
+    public void testLargeArtifactIsServedFromDiskWithoutPromotion() throws Exception {
+        CachingCompressedResponseFilter filter = createFilter();
+        FilterChain chain = new RenderingChain(HttpServletResponse.SC_OK, CSS);
+        filter.doFilterInternalUnlessIgnored(buildRequest("/css/site.css"), new MockHttpServletResponse(), chain);
+
+        CachingCompressedResponseFilter restarted = createFilter();
+        restarted.memoryCache = new CompressedArtifactCache(1024, 1);
+        MockHttpServletResponse diskHit = new MockHttpServletResponse();
+        restarted.doFilterInternalUnlessIgnored(buildRequest("/css/site.css"), diskHit, chain);
+        assertEquals(1, renders.get());
+        assertEquals(CSS, gunzip(diskHit));
+        assertEquals(0, restarted.memoryCache.size());
+    }
+
+    public void testNonOkResponseIsPassedThroughAndNotCached() throws Exception {
+        CachingCompressedResponseFilter filter = createFilter();
+        FilterChain chain = new RenderingChain(HttpServletResponse.SC_NOT_FOUND, "missing");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilterInternalUnlessIgnored(buildRequest("/css/missing.css"), response, chain);
+
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("missing", response.getContentAsString());
+        String uriHash = filter.getUriHash(buildRequest("/css/missing.css"));
+        assertFalse(filter.prepareTargetFile(uriHash).exists());
+        assertNull(filter.memoryCache.get(uriHash));
+
+        filter.doFilterInternalUnlessIgnored(buildRequest("/css/missing.css"), new MockHttpServletResponse(), chain);
+        assertEquals(2, renders.get());
+    }
+
+    public void testUncompressibleResponsesArePassedThrough() throws Exception {
+        CachingCompressedResponseFilter filter = createFilter();
+        FilterChain chain = new RenderingChain(HttpServletResponse.SC_OK, CSS);
+
+        MockHttpServletResponse blacklisted = new MockHttpServletResponse();
+        filter.doFilterInternalUnlessIgnored(buildRequest("/img/logo.jpg"), blacklisted, chain);
+        assertNull(blacklisted.getHeader("Content-Encoding"));
+        assertEquals(CSS, blacklisted.getContentAsString());
+
+        MockHttpServletRequest noGzip = new MockHttpServletRequest("GET", "/css/site.css");
+        MockHttpServletResponse plain = new MockHttpServletResponse();
+        filter.doFilterInternalUnlessIgnored(noGzip, plain, chain);
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals(CSS, plain.getContentAsString());
+
+        assertEquals(2, renders.get());
+        assertFalse(filter.prepareTargetFile(filter.getUriHash(noGzip)).exists());
+    }
+
+    public void testResponseEncodedDownstreamIsPassedThrough() throws Exception {
+        CachingCompressedResponseFilter filter = createFilter();
+        FilterChain chain = new RenderingChain(HttpServletResponse.SC_OK, CSS) {
+            @Override
+            public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+                ((HttpServletResponse) response).addHeader("Content-Encoding", "br");
+                super.doFilter(request, response);
+            }
+        };
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilterInternalUnlessIgnored(buildRequest("/css/site.css"), response, chain);
+
+        assertEquals("br", response.getHeader("Content-Encoding"));
+        assertEquals(CSS, response.getContentAsString());
+        assertFalse(filter.prepareTargetFile(filter.getUriHash(buildRequest("/css/site.css"))).exists());
+    }
+
+    protected CachingCompressedResponseFilter createFilter() throws ServletException {
+        CachingCompressedResponseFilter filter = new CachingCompressedResponseFilter();
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles("production");
+        filter.environment = environment;
+        filter.cacheAwareResponseHandler = new CacheAwareResponseHandler();
+        filter.compressedFileTempDirectory = directory.getAbsolutePath();
+        filter.compressionExtensionToMimeMappings = ".*\\.css:text/css,.*\\.jpg:image/jpeg";
+        filter.blackListURIs = ".*\\.jpg";
+        filter.mimeCompressionLevels = "text/css:9";
+        filter.allowStaticFileCache = true;
+        filter.resourceVersioningEnabled = true;
+        filter.memoryCacheMaxBytes = 1048576L;
+        filter.memoryCacheMaxEntryBytes = 1048576L;
+        filter.singleFlightWaitMillis = 5000L;
+        filter.defaultCompressionLevel = 6;
+        filter.sendFileSize = 49152L;
+        filter.useSendFile = true;
+        filter.initFilterBean();
+        return filter;
+    }
+
+    protected MockHttpServletRequest buildRequest(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        return request;
+    }
+
+    protected String gunzip(MockHttpServletResponse response) throws IOException {
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()));
+        try {
+            return IOUtils.toString(in, "UTF-8");
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Writes the given status and body, counting how many times the resource is rendered
+     */
+    protected class RenderingChain implements FilterChain {
+
+        protected final int status;
+        protected final String body;
+
+        public RenderingChain(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+            renders.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(status);
+            response.getOutputStream().write(body.getBytes("UTF-8"));
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * #%L
+ * BroadleafCommerce Common Libraries
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.web.util;
+
+import junit.framework.TestCase;
+
+public class CompressedArtifactCacheTest extends TestCase {
+
+    public void testEvictsLeastRecentlyUsedToFitNewArtifact() {
+        CompressedArtifactCache cache = new CompressedArtifactCache(10, 10);
+        cache.put("a", new byte[4]);
+        cache.put("b", new byte[4]);
+        cache.get("a");
+        assertTrue(cache.put("c", new byte[4]));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(8L, cache.getCurrentBytes());
+    }
+
+    public void testRefusesArtifactsOverEntryLimit() {
+        CompressedArtifactCache cache = new CompressedArtifactCache(100, 5);
+        cache.put("a", new byte[5]);
+
+        assertFalse(cache.put("b", new byte[6]));
+        assertFalse(cache.put("c", new byte[0]));
+        assertNotNull(cache.get("a"));
+        assertEquals(1, cache.size());
+    }
+
+    public void testReplacingAnEntryReleasesItsBytes() {
+        CompressedArtifactCache cache = new CompressedArtifactCache(10, 10);
+        cache.put("a", new byte[6]);
+        cache.put("a", new byte[3]);
+        assertEquals(3L, cache.getCurrentBytes());
+
+        cache.remove("a");
+        assertEquals(0L, cache.getCurrentBytes());
+        assertEquals(0, cache.size());
+    }
+
+}
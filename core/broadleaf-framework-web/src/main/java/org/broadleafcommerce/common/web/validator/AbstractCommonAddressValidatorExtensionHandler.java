@@ -19,6 +19,7 @@ package org.broadleafcommerce.common.web.validator;
 
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.common.web.form.BroadleafFormType;
 import org.broadleafcommerce.profile.core.domain.Address;
 import org.springframework.validation.Errors;
@@ -30,6 +31,7 @@ public abstract class AbstractCommonAddressValidatorExtensionHandler extends Abs
         implements BroadleafCommonAddressValidatorExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType validate(BroadleafFormType formType, Address address, Errors errors) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -31,6 +31,7 @@ import org.broadleafcommerce.common.web.BroadleafRequestContext;
 import org.broadleafcommerce.core.catalog.domain.Category;
 import org.broadleafcommerce.core.catalog.domain.Product;
 import org.broadleafcommerce.core.catalog.service.CatalogService;
+import org.broadleafcommerce.core.catalog.service.CategoryTreeService;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
@@ -51,6 +52,9 @@ public class CategoryBreadcrumbServiceExtensionHandler extends AbstractBreadcrum
     @Resource(name = "blBreadcrumbServiceExtensionManager")
     protected BreadcrumbServiceExtensionManager extensionManager;
 
+    @Resource(name = "blCategoryTreeService")
+    protected CategoryTreeService categoryTreeService;
+
     @PostConstruct
     public void init() {
         if (isEnabled()) {
@@ -105,7 +109,8 @@ public class CategoryBreadcrumbServiceExtensionHandler extends AbstractBreadcrum
 
     /**
      * Add the parent crumb for the passed in category.    
-     * Recursively call to find all parents.
+     * Recursively call to find all parents. When the category tree snapshot is enabled, all of the parents are
+     * resolved at once instead.
      * 
      * @param parentCrumbs
      * @param category
@@ -115,6 +120,15 @@ public class CategoryBreadcrumbServiceExtensionHandler extends AbstractBreadcrum
     protected void addParentCrumbs(List<BreadcrumbDTO> parentCrumbs, Category category, String url,
             Map<String, String[]> params) {
 
+        if (categoryTreeService.isEnabled()) {
+            List<BreadcrumbDTO> ancestorCrumbs = new ArrayList<BreadcrumbDTO>();
+            for (Category ancestor : categoryTreeService.findAncestorCategories(category)) {
+                ancestorCrumbs.add(buildCrumbForCategory(ancestor, url, params));
+            }
+            parentCrumbs.addAll(0, ancestorCrumbs);
+            return;
+        }
+
         Category parentCategory = category.getParentCategory();
         if (parentCategory != null && !parentCrumbs.contains(parentCategory)) { // prevent recursion
             BreadcrumbDTO dto = buildCrumbForCategory(parentCategory, url, params);
@@ -0,0 +1,278 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework Web
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.web.cache;
+
+import org.apache.commons.lang3.StringUtils;
+import org.broadleafcommerce.common.admin.condition.ConditionalOnNotAdmin;
+import org.broadleafcommerce.common.cache.CachedPage;
+import org.broadleafcommerce.common.cache.PageCacheService;
+import org.broadleafcommerce.common.time.SystemTime;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.broadleafcommerce.common.web.device.WebRequestDeviceType;
+import org.broadleafcommerce.common.web.filter.AbstractIgnorableOncePerRequestFilter;
+import org.broadleafcommerce.common.web.filter.FilterOrdered;
+import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.domain.Sku;
+import org.broadleafcommerce.core.catalog.service.CatalogService;
+import org.broadleafcommerce.core.web.processor.UncacheableDataProcessor;
+import org.broadleafcommerce.core.web.service.CacheKeyResolverExtensionManager;
+import org.broadleafcommerce.profile.core.domain.Customer;
+import org.broadleafcommerce.profile.web.core.CustomerState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.mobile.device.DeviceUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.Resource;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Serves storefront pages to anonymous visitors from the {@link PageCacheService}. The 'page.cache.enabled' property
+ * must be set to true to enable this filter.
+ * </p>
+ * Pages are keyed by site, locale, currency, device type, request URI and query string, plus anything added by the
+ * {@link CacheKeyResolverExtensionManager}. Only successful GET requests for HTML are stored, and only when the visitor
+ * is anonymous, the request is not previewing a sandbox and the URI does not match 'page.cache.excluded.uri.regex'.
+ * Anything rendered during the request can keep the page out of the cache with {@link PageCacheService#markUncacheable()}.
+ * </p>
+ * While a page is rendered for the cache, {@link UncacheableDataProcessor} defers the visitor specific data (cart,
+ * customer name, inventory and CSRF token) to a request for 'page.cache.uncacheable.data.uri', which this filter
+ * answers. Cached pages are stored gzipped and are written as is to clients that accept gzip.
+ */
+@Component("blPageCacheFilter")
+@ConditionalOnProperty("page.cache.enabled")
+@ConditionalOnNotAdmin
+public class PageCacheFilter extends AbstractIgnorableOncePerRequestFilter {
+
+    protected static final int MAX_UNCACHEABLE_DATA_IDS = 200;
+
+    @Resource(name = "blPageCacheService")
+    protected PageCacheService pageCacheService;
+
+    @Resource(name = "blCacheKeyResolverExtensionManager")
+    protected CacheKeyResolverExtensionManager cacheKeyResolverExtensionManager;
+
+    @Resource(name = "blCatalogService")
+    protected CatalogService catalogService;
+
+    @Autowired(required = false)
+    @Qualifier("blUncacheableDataProcessor")
+    protected UncacheableDataProcessor uncacheableDataProcessor;
+
+    @Value("${page.cache.uncacheable.data.uri:/uncacheable-data}")
+    protected String uncacheableDataUri;
+
+    /**
+     * A comma delimited list of URI matching regular expressions for pages that should never be cached
+     */
+    @Value("${page.cache.excluded.uri.regex:/cart.*,/checkout.*,/account.*,/login.*,/register.*,/logout.*,/confirmation.*,/api/.*}")
+    protected String excludedURIs;
+
+    protected List<Pattern> excludedPatterns = new ArrayList<>();
+
+    @Override
+    protected void initFilterBean() throws ServletException {
+        excludedPatterns.clear();
+        if (!"none".equals(excludedURIs)) {
+            for (String rawPattern : excludedURIs.split(",")) {
+                excludedPatterns.add(Pattern.compile(rawPattern.trim()));
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternalUnlessIgnored(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (uncacheableDataUri.equals(path) && uncacheableDataProcessor != null) {
+            writeUncacheableData(request, response);
+            return;
+        }
+        if (!isCacheable(request, path)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String key = buildKey(request);
+        CachedPage page = pageCacheService.getPage(key);
+        if (page != null) {
+            writePage(request, response, page);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        request.setAttribute(PageCacheService.RENDERING_FOR_PAGE_CACHE, Boolean.TRUE);
+        try {
+            chain.doFilter(request, wrapper);
+        } finally {
+            request.removeAttribute(PageCacheService.RENDERING_FOR_PAGE_CACHE);
+        }
+        if (shouldStore(request, wrapper)) {
+            pageCacheService.putPage(key, new CachedPage(gzip(wrapper.getContentAsByteArray()), wrapper.getContentType(),
+                    SystemTime.asMillis()));
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    @Override
+    public int getOrder() {
+        //after the cart and customer state are established, so that the uncacheable data can be built here
+        return FilterOrdered.POST_SECURITY_LOW + 100;
+    }
+
+    protected boolean isCacheable(HttpServletRequest request, String path) {
+        if (!pageCacheService.isEnabled() || !"GET".equals(request.getMethod())) {
+            return false;
+        }
+        BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        if (brc == null || !brc.isProductionSandBox()) {
+            return false;
+        }
+        for (Pattern pattern : excludedPatterns) {
+            if (pattern.matcher(path).matches()) {
+                return false;
+            }
+        }
+        Customer customer = CustomerState.getCustomer();
+        return customer == null || customer.isAnonymous();
+    }
+
+    protected String buildKey(HttpServletRequest request) {
+        BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        StringBuilder sb = new StringBuilder();
+        sb.append(brc.getNonPersistentSite() == null ? "" : brc.getNonPersistentSite().getId()).append('|');
+        sb.append(brc.getLocale() == null ? "" : brc.getLocale().getLocaleCode()).append('|');
+        sb.append(brc.getBroadleafCurrency() == null ? "" : brc.getBroadleafCurrency().getCurrencyCode()).append('|');
+        Object device = brc.getAdditionalProperties().get(DeviceUtils.CURRENT_DEVICE_ATTRIBUTE);
+        sb.append(device instanceof WebRequestDeviceType ? ((WebRequestDeviceType) device).getType() : "").append('|');
+        //ajax requests for the same URI may render a different template
+        sb.append(request.getHeader("X-Requested-With") == null ? "page" : "ajax").append('|');
+        sb.append(request.getRequestURI());
+        if (request.getQueryString() != null) {
+            sb.append('?').append(request.getQueryString());
+        }
+        cacheKeyResolverExtensionManager.getProxy().updateCacheKey(sb, false);
+        return sb.toString();
+    }
+
+    protected boolean shouldStore(HttpServletRequest request, ContentCachingResponseWrapper wrapper) {
+        if (request.getAttribute(PageCacheService.PAGE_UNCACHEABLE) != null
+                || wrapper.getStatus() != HttpServletResponse.SC_OK
+                || wrapper.getContentSize() == 0
+                || wrapper.getContentType() == null
+                || !wrapper.getContentType().startsWith("text/html")) {
+            return false;
+        }
+        String cacheControl = wrapper.getHeader("Cache-Control");
+        return cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private"));
+    }
+
+    protected void writePage(HttpServletRequest request, HttpServletResponse response, CachedPage page) throws IOException {
+        response.setContentType(page.getContentType());
+        response.setHeader("X-Page-Cache", "HIT");
+        response.addHeader("Vary", "Accept-Encoding");
+        byte[] body = page.getGzippedBody();
+        if (acceptsGzip(request) && !response.containsHeader("Content-Encoding")) {
+            response.setHeader("Content-Encoding", "gzip");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        } else {
+            StreamUtils.copy(new GZIPInputStream(new ByteArrayInputStream(body)), response.getOutputStream());
+        }
+    }
+
+    protected void writeUncacheableData(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Set<Product> products = new HashSet<>();
+        for (Long id : parseIds(request.getParameter("productIds"))) {
+            Product product = catalogService.findProductById(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        Set<Sku> skus = new HashSet<>();
+        for (Long id : parseIds(request.getParameter("skuIds"))) {
+            Sku sku = catalogService.findSkuById(id);
+            if (sku != null) {
+                skus.add(sku);
+            }
+        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        response.getWriter().write(uncacheableDataProcessor.buildContentMap(products, skus));
+    }
+
+    /**
+     * Parses up to {@link #MAX_UNCACHEABLE_DATA_IDS} ids from a comma delimited request parameter. Tokens that are not
+     * valid ids (e.g. too large for a long) are skipped.
+     */
+    protected List<Long> parseIds(String param) {
+        List<Long> ids = new ArrayList<>();
+        if (StringUtils.isBlank(param)) {
+            return ids;
+        }
+        for (String id : param.split(",")) {
+            if (ids.size() >= MAX_UNCACHEABLE_DATA_IDS) {
+                break;
+            }
+            try {
+                ids.add(Long.valueOf(id.trim()));
+            } catch (NumberFormatException e) {
+                //not an id - skip it
+            }
+        }
+        return ids;
+    }
+
+    protected boolean acceptsGzip(HttpServletRequest request) {
+        Enumeration<?> e = request.getHeaders("Accept-Encoding");
+        while (e != null && e.hasMoreElements()) {
+            if (((String) e.nextElement()).contains("gzip")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected byte[] gzip(byte[] body) throws IOException {
+        FastByteArrayOutputStream baos = new FastByteArrayOutputStream(1024);
+        GZIPOutputStream zip = new GZIPOutputStream(baos);
+        zip.write(body);
+        zip.close();
+        return baos.toByteArray();
+    }
+
+}
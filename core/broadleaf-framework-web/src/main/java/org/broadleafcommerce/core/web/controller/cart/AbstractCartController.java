@@ -18,6 +18,7 @@
 package org.broadleafcommerce.core.web.controller.cart;
 
 import org.broadleafcommerce.common.web.controller.BroadleafAbstractController;
+import org.broadleafcommerce.core.catalog.service.CatalogBatchFetchService;
 import org.broadleafcommerce.core.catalog.service.CatalogService;
 import org.broadleafcommerce.core.offer.service.OfferService;
 import org.broadleafcommerce.core.order.service.OrderItemService;
@@ -53,4 +54,7 @@ public abstract class AbstractCartController extends BroadleafAbstractController
     @Resource(name = "blOrderToPaymentRequestDTOService")
     protected OrderToPaymentRequestDTOService dtoTranslationService;
 
+    @Resource(name = "blCatalogBatchFetchService")
+    protected CatalogBatchFetchService catalogBatchFetchService;
+
 }
@@ -21,6 +21,7 @@ import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.broadleafcommerce.common.util.BLCMessageUtils;
 import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.domain.Sku;
 import org.broadleafcommerce.core.offer.domain.OfferCode;
 import org.broadleafcommerce.core.offer.service.exception.OfferAlreadyAddedException;
 import org.broadleafcommerce.core.offer.service.exception.OfferException;
@@ -46,6 +47,7 @@ import org.springframework.ui.Model;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -90,10 +92,32 @@ public class BroadleafCartController extends AbstractCartController {
     public String cart(HttpServletRequest request, HttpServletResponse response, Model model) throws PricingException {
         Order cart = CartState.getCart();
         if (cart != null && !(cart instanceof NullOrderImpl)) {
+            batchFetchCartCatalogData(cart);
             model.addAttribute("paymentRequestDTO", dtoTranslationService.translateOrder(CartState.getCart()));
         }
         return getCartView();
     }
+
+    /**
+     * Initializes the catalog data for every item in the cart at once, rather than one item at a time as the cart
+     * template renders them
+     * 
+     * @param cart
+     */
+    protected void batchFetchCartCatalogData(Order cart) {
+        List<Sku> skus = new ArrayList<Sku>();
+        List<Product> products = new ArrayList<Product>();
+        for (DiscreteOrderItem item : cart.getDiscreteOrderItems()) {
+            if (item.getSku() != null) {
+                skus.add(item.getSku());
+            }
+            if (item.getProduct() != null) {
+                products.add(item.getProduct());
+            }
+        }
+        catalogBatchFetchService.batchFetchProducts(products);
+        catalogBatchFetchService.batchFetchSkus(skus);
+    }
     
     /**
      * Takes in an item request, adds the item to the customer's current cart, and returns.
@@ -19,6 +19,7 @@ package org.broadleafcommerce.core.web.controller.checkout;
 
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.springframework.ui.Model;
 
 /**
@@ -28,11 +29,13 @@ public abstract class AbstractCheckoutControllerExtensionHandler extends Abstrac
         implements BroadleafCheckoutControllerExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addAdditionalModelVariables(Model model) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType performAdditionalShippingAction() {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
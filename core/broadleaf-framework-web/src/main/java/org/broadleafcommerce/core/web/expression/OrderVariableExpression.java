@@ -23,6 +23,8 @@ package org.broadleafcommerce.core.web.expression;
 import org.broadleafcommerce.common.web.expression.BroadleafVariableExpression;
 import org.broadleafcommerce.core.order.domain.Order;
 import org.broadleafcommerce.core.order.service.OrderService;
+import org.broadleafcommerce.core.web.order.CartState;
+import org.broadleafcommerce.core.web.order.CartSummary;
 import org.broadleafcommerce.profile.core.domain.Customer;
 import org.broadleafcommerce.profile.web.core.CustomerState;
 
@@ -51,4 +53,12 @@ public class OrderVariableExpression implements BroadleafVariableExpression {
     public Order getNamedOrderForCustomer(String orderName, Customer customer) {
         return orderService.findNamedOrderForCustomer(orderName, customer);
     }
+
+    /**
+     * Returns the item count and subtotal of the current cart without necessarily loading the cart, for use in
+     * headers and mini-carts
+     */
+    public CartSummary getCartSummary() {
+        return CartState.getCartSummary();
+    }
 }
@@ -19,6 +19,7 @@ package org.broadleafcommerce.core.web.linkeddata.generator;
 
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.catalog.domain.Product;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONException;
@@ -32,102 +33,119 @@ import javax.servlet.http.HttpServletRequest;
 public abstract class AbstractLinkedDataGeneratorExtensionHandler extends AbstractExtensionHandler implements LinkedDataGeneratorExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addDefaultData(final HttpServletRequest request, final JSONArray defaultData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addBreadcrumbData(final HttpServletRequest request, final JSONObject breadcrumbData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addBreadcrumbListItemData(final HttpServletRequest request, final JSONObject breadcrumbData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addBreadcrumbItemData(final HttpServletRequest request, final JSONObject breadcrumbData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addHomepageData(final HttpServletRequest request, final JSONArray homepageData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addWebSiteData(final HttpServletRequest request, final JSONObject homepageData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addOrganizationData(final HttpServletRequest request, final JSONObject homepageData) 
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addContactData(final HttpServletRequest request, final JSONObject homepageData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addSocialMediaData(final HttpServletRequest request, final JSONArray homepageData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addPotentialActionsData(final HttpServletRequest request, final JSONObject homepageData) 
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addCategoryData(final HttpServletRequest request, final JSONObject categoryData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addCategoryProductData(final HttpServletRequest request, final JSONObject categoryData) 
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addReviewData(final HttpServletRequest request, final Product product, final JSONObject reviewData) 
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addAggregateReviewData(final HttpServletRequest request, final Product product, final JSONObject reviewData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addProductData(final HttpServletRequest request, final Product product, final JSONObject productData) 
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addSkuData(final HttpServletRequest request, final Product product, final JSONObject skuData) 
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED; 
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addAggregateSkuData(final HttpServletRequest request, final Product product, final JSONObject skuData)
             throws JSONException {
         return ExtensionResultStatusType.NOT_HANDLED;
@@ -17,27 +17,52 @@
  */
 package org.broadleafcommerce.core.web.order;
 
+import org.broadleafcommerce.common.util.BLCRequestUtils;
 import org.broadleafcommerce.common.web.BroadleafRequestContext;
 import org.broadleafcommerce.core.order.domain.Order;
 import org.broadleafcommerce.core.web.order.security.CartStateRequestProcessor;
+import org.broadleafcommerce.profile.core.domain.Customer;
+import org.broadleafcommerce.profile.web.core.CustomerState;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.WebRequest;
 
 @Component("blCartState")
 public class CartState {
 
+    public static final String CART_SUMMARY_SESSION_ATTRIBUTE_NAME = "blCartSummary";
+
     /**
-     * Gets the current cart based on the current request
+     * Gets the current cart based on the current request. If the cart has not been looked up yet for this request (see
+     * {@link LazyCart}), it is looked up now.
      * 
      * @return the current customer's cart
      */
     public static Order getCart() {
-        if (BroadleafRequestContext.getBroadleafRequestContext() == null ||
-                BroadleafRequestContext.getBroadleafRequestContext().getWebRequest() == null) {
+        WebRequest request = getWebRequest();
+        if (request == null) {
             return null;
         }
 
-        WebRequest request = BroadleafRequestContext.getBroadleafRequestContext().getWebRequest();
+        Order cart = (Order) request.getAttribute(CartStateRequestProcessor.getCartRequestAttributeName(), WebRequest.SCOPE_REQUEST);
+        if (cart == null) {
+            LazyCart lazyCart = (LazyCart) request.getAttribute(LazyCart.REQUEST_ATTRIBUTE_NAME, WebRequest.SCOPE_REQUEST);
+            if (lazyCart != null) {
+                cart = lazyCart.resolve();
+            }
+        }
+        return cart;
+    }
+
+    /**
+     * Gets the current cart only if it has already been looked up for this request
+     * 
+     * @return the current customer's cart, or null if it has not been looked up
+     */
+    public static Order getResolvedCart() {
+        WebRequest request = getWebRequest();
+        if (request == null) {
+            return null;
+        }
         return (Order) request.getAttribute(CartStateRequestProcessor.getCartRequestAttributeName(), WebRequest.SCOPE_REQUEST);
     }
     
@@ -49,6 +74,61 @@ public class CartState {
     public static void setCart(Order cart) {
         WebRequest request = BroadleafRequestContext.getBroadleafRequestContext().getWebRequest();
         request.setAttribute(CartStateRequestProcessor.getCartRequestAttributeName(), cart, WebRequest.SCOPE_REQUEST);
+        request.removeAttribute(LazyCart.REQUEST_ATTRIBUTE_NAME, WebRequest.SCOPE_REQUEST);
+    }
+
+    /**
+     * Gets the item count and subtotal of the current cart. The summary is kept in session so that it can be displayed
+     * without loading the cart, and is discarded whenever the cart is persisted (see {@link CartStateRefresher}).
+     * 
+     * @return a summary of the current customer's cart, or null if there is no request
+     */
+    public static CartSummary getCartSummary() {
+        WebRequest request = getWebRequest();
+        if (request == null) {
+            return null;
+        }
+
+        boolean useSession = BLCRequestUtils.isOKtoUseSession(request);
+        Order cart = getResolvedCart();
+        if (cart == null && useSession) {
+            CartSummary summary = (CartSummary) request.getAttribute(CART_SUMMARY_SESSION_ATTRIBUTE_NAME, WebRequest.SCOPE_GLOBAL_SESSION);
+            Customer customer = CustomerState.getCustomer();
+            if (summary != null && customer != null && customer.getId() != null && customer.getId().equals(summary.getCustomerId())) {
+                return summary;
+            }
+        }
+        if (cart == null) {
+            cart = getCart();
+        }
+        if (cart == null) {
+            return null;
+        }
+
+        // a customer without a cart is summarized as well, so that pages without a cart do not look it up every time.
+        // The summary is discarded once the customer's first cart is persisted.
+        CartSummary summary = new CartSummary(cart, CustomerState.getCustomer());
+        if (summary.getCustomerId() != null && useSession) {
+            request.setAttribute(CART_SUMMARY_SESSION_ATTRIBUTE_NAME, summary, WebRequest.SCOPE_GLOBAL_SESSION);
+        }
+        return summary;
+    }
+
+    /**
+     * Discards the cart summary held in session for the current request, if any
+     */
+    public static void clearCartSummary() {
+        WebRequest request = getWebRequest();
+        if (request != null && BLCRequestUtils.isOKtoUseSession(request)) {
+            request.removeAttribute(CART_SUMMARY_SESSION_ATTRIBUTE_NAME, WebRequest.SCOPE_GLOBAL_SESSION);
+        }
+    }
+
+    protected static WebRequest getWebRequest() {
+        if (BroadleafRequestContext.getBroadleafRequestContext() == null) {
+            return null;
+        }
+        return BroadleafRequestContext.getBroadleafRequestContext().getWebRequest();
     }
 
 }
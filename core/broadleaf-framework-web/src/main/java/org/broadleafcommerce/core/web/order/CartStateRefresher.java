@@ -31,7 +31,8 @@ import org.springframework.web.context.request.WebRequest;
 
 
 /**
- * {@link ApplicationListener} responsible for updating {@link CartState} with a new version that was persisted.
+ * {@link ApplicationListener} responsible for updating {@link CartState} with a new version that was persisted. This
+ * also discards the {@link CartSummary} held in session for the cart.
  * 
  * @author Phillip Verheyden (phillipuniverse)
  * 
@@ -55,15 +56,22 @@ public class CartStateRefresher implements ApplicationListener<OrderPersistedEve
         WebRequest request = BroadleafRequestContext.getBroadleafRequestContext().getWebRequest();
         if (request != null) {
              Order dbOrder = event.getOrder();
-            //Update the cart state ONLY IF the IDs of the newly persisted order and whatever is already in CartState match
-            boolean emptyCartState = CartState.getCart() == null || CartState.getCart() instanceof NullOrderImpl;
+            //Any change to one of the active Customer's orders may change the cart summary held in session
+            Customer customer = CustomerState.getCustomer();
+            if (customer != null && dbOrder.getCustomer() != null && customer.getId().equals(dbOrder.getCustomer().getId())) {
+                CartState.clearCartSummary();
+            }
+            //Update the cart state ONLY IF the IDs of the newly persisted order and whatever is already in CartState match.
+            //A cart that has not been looked up yet for this request is treated as empty cart state.
+            Order currentCart = CartState.getResolvedCart();
+            boolean emptyCartState = currentCart == null || currentCart instanceof NullOrderImpl;
             if (emptyCartState) {
                 //If cart state is empty, set it to this newly persisted order if it's the active Customer's cart
                 if (CustomerState.getCustomer() != null && CustomerState.getCustomer().getId().equals(dbOrder.getCustomer().getId())
                         && OrderStatus.IN_PROCESS.equals(dbOrder.getStatus())) {
                     CartState.setCart(dbOrder);
                 }
-            } else if (CartState.getCart().getId().equals(dbOrder.getId())) {
+            } else if (currentCart.getId().equals(dbOrder.getId())) {
                 CartState.setCart(dbOrder);
             }
         }
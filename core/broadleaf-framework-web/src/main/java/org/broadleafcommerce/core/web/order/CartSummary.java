@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework Web
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.web.order;
+
+import org.broadleafcommerce.common.money.Money;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.profile.core.domain.Customer;
+
+import java.io.Serializable;
+
+/**
+ * Lightweight projection of a cart for headers and mini-carts, held in session so that displaying the item count and
+ * subtotal does not require the cart to be loaded.
+ * 
+ * @see {@link CartState#getCartSummary()}
+ */
+public class CartSummary implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    protected Long orderId;
+    protected Long customerId;
+    protected int itemCount;
+    protected Money subTotal;
+
+    public CartSummary(Order cart) {
+        this(cart, null);
+    }
+
+    /**
+     * Summarizes the given cart. When the cart has no customer of its own, as with the
+     * {@link org.broadleafcommerce.core.order.domain.NullOrderImpl} that stands in for a customer without a cart, the
+     * summary is attributed to the given customer.
+     * 
+     * @param cart the cart to summarize
+     * @param customer the customer the cart was looked up for, may be null
+     */
+    public CartSummary(Order cart, Customer customer) {
+        orderId = cart.getId();
+        if (cart.getCustomer() != null) {
+            customerId = cart.getCustomer().getId();
+        } else if (customer != null) {
+            customerId = customer.getId();
+        }
+        itemCount = cart.getItemCount();
+        subTotal = cart.getSubTotal();
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public Money getSubTotal() {
+        return subTotal;
+    }
+
+    /**
+     * @return whether this summarizes the absence of a cart rather than a persisted cart
+     */
+    public boolean isEmptyCart() {
+        return orderId == null;
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework Web
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.web.order;
+
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.web.order.security.CartStateRequestProcessor;
+import org.broadleafcommerce.profile.core.domain.Customer;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Request scoped handle to the current customer's cart that defers the cart lookup until the cart is first requested
+ * through {@link CartState#getCart()}. The cart is resolved at most once per request.
+ * 
+ * @see {@link CartStateRequestProcessor}
+ */
+public class LazyCart {
+
+    public static final String REQUEST_ATTRIBUTE_NAME = "blLazyCart";
+
+    protected final CartStateRequestProcessor cartStateRequestProcessor;
+    protected final WebRequest request;
+    protected final Customer customer;
+    protected boolean resolving = false;
+
+    public LazyCart(CartStateRequestProcessor cartStateRequestProcessor, WebRequest request, Customer customer) {
+        this.cartStateRequestProcessor = cartStateRequestProcessor;
+        this.request = request;
+        this.customer = customer;
+    }
+
+    /**
+     * Resolves the cart and sets it on the request, after which this handle is removed from the request. Returns null
+     * if invoked while the cart is already being resolved (e.g. from a listener notified while the cart is validated),
+     * matching the behavior of {@link CartState#getCart()} while the cart state is being established eagerly.
+     * 
+     * @return the resolved cart
+     */
+    public Order resolve() {
+        if (resolving) {
+            return null;
+        }
+        resolving = true;
+        try {
+            Order cart = cartStateRequestProcessor.resolveCart(request, customer);
+            if (request.getAttribute(REQUEST_ATTRIBUTE_NAME, WebRequest.SCOPE_REQUEST) == this) {
+                //the cart was not replaced through CartState while it was being resolved
+                cartStateRequestProcessor.updateCartRequestAttributes(request, cart);
+                request.removeAttribute(REQUEST_ATTRIBUTE_NAME, WebRequest.SCOPE_REQUEST);
+            }
+            return CartState.getResolvedCart();
+        } finally {
+            resolving = false;
+        }
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+}
@@ -20,6 +20,7 @@ package org.broadleafcommerce.core.web.order.security;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.order.domain.Order;
 import org.broadleafcommerce.profile.core.domain.Customer;
 import org.springframework.web.context.request.WebRequest;
@@ -38,6 +39,7 @@ public abstract class AbstractCartStateRequestProcessorExtensionHandler extends
      * @return
      */
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType lookupOrCreateCart(WebRequest request, Customer customer, ExtensionResultHolder<Order> resultHolder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -31,12 +31,15 @@ import org.broadleafcommerce.core.order.service.call.MergeCartResponse;
 import org.broadleafcommerce.core.order.service.exception.RemoveFromCartException;
 import org.broadleafcommerce.core.order.service.type.OrderStatus;
 import org.broadleafcommerce.core.pricing.service.exception.PricingException;
+import org.broadleafcommerce.core.web.order.CartState;
+import org.broadleafcommerce.core.web.order.LazyCart;
 import org.broadleafcommerce.core.web.service.UpdateCartService;
 import org.broadleafcommerce.profile.core.domain.Customer;
 import org.broadleafcommerce.profile.web.core.CustomerState;
 import org.broadleafcommerce.profile.web.core.security.CustomerStateRequestProcessor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
@@ -92,6 +95,13 @@ public class CartStateRequestProcessor extends AbstractBroadleafWebRequestProces
     @Qualifier("blCrossAppAuthService")
     protected CrossAppAuthService crossAppAuthService;
 
+    /**
+     * When true, the cart is not looked up until it is first requested through {@link CartState#getCart()}, so that
+     * requests which never use the cart do not pay for loading it
+     */
+    @Value("${cart.state.lazy.resolution:false}")
+    protected boolean lazyCartResolution = false;
+
     protected static String cartRequestAttributeName = "cart";
     
     protected static String anonymousCartSessionAttributeName = "anonymousCart";
@@ -108,6 +118,38 @@ public class CartStateRequestProcessor extends AbstractBroadleafWebRequestProces
             return;
         }
 
+        if (isLazyCartResolutionAllowed(request, customer)) {
+            request.setAttribute(LazyCart.REQUEST_ATTRIBUTE_NAME, new LazyCart(this, request, customer), WebRequest.SCOPE_REQUEST);
+            return;
+        }
+
+        Order cart = resolveCart(request, customer);
+        updateCartRequestAttributes(request, cart);
+    }
+
+    /**
+     * Whether the cart lookup may be deferred until the cart is first requested through {@link CartState#getCart()}.
+     * Cart merges after login are always performed eagerly.
+     * <p>
+     * Note that while the lookup is deferred, the cart is not available to content rules or as a request attribute
+     * until something asks {@link CartState} for it.
+     * 
+     * @param request
+     * @param customer
+     * @return true if the cart lookup may be deferred
+     */
+    protected boolean isLazyCartResolutionAllowed(WebRequest request, Customer customer) {
+        return lazyCartResolution && !mergeCartNeeded(customer, request);
+    }
+
+    /**
+     * Looks up, or merges, the cart for the given customer and validates it
+     * 
+     * @param request
+     * @param customer
+     * @return the customer's cart, or the null order if the customer does not have one
+     */
+    public Order resolveCart(WebRequest request, Customer customer) {
         ExtensionResultHolder<Order> erh = new ExtensionResultHolder<Order>();
         extensionManager.getProxy().lookupOrCreateCart(request, customer, erh);
 
@@ -132,11 +174,10 @@ public class CartStateRequestProcessor extends AbstractBroadleafWebRequestProces
             }
         }
 
-        updateCartRequestAttributes(request, cart);
-
+        return cart;
     }
 
-    protected void updateCartRequestAttributes(WebRequest request, Order cart) {
+    public void updateCartRequestAttributes(WebRequest request, Order cart) {
         request.setAttribute(cartRequestAttributeName, cart, WebRequest.SCOPE_REQUEST);
 
         // Setup cart for content rule processing
@@ -24,6 +24,7 @@ import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
 import org.broadleafcommerce.core.catalog.domain.Category;
 import org.broadleafcommerce.core.catalog.domain.CategoryXref;
 import org.broadleafcommerce.core.catalog.service.CatalogService;
+import org.broadleafcommerce.core.catalog.service.CategoryTreeService;
 import org.broadleafcommerce.presentation.condition.ConditionalOnTemplating;
 import org.broadleafcommerce.presentation.dialect.AbstractBroadleafVariableModifierProcessor;
 import org.broadleafcommerce.presentation.model.BroadleafTemplateContext;
@@ -58,6 +59,9 @@ public class CategoriesProcessor extends AbstractBroadleafVariableModifierProces
     @Resource(name = "blCategoriesProcessorExtensionManager")
     protected CategoriesProcessorExtensionManager extensionManager;
 
+    @Resource(name = "blCategoryTreeService")
+    protected CategoryTreeService categoryTreeService;
+
     @Override
     public String getName() {
         return "categories";
@@ -87,7 +91,10 @@ public class CategoriesProcessor extends AbstractBroadleafVariableModifierProces
         // TODO: Potentially write an algorithm that will pick the minimum depth category
         // instead of the first category in the list
         List<Category> categories = catalogService.findCategoriesByName(parentCategory);
-        if (categories != null && categories.size() > 0) {
+        if (categories != null && categories.size() > 0 && categoryTreeService.isEnabled()) {
+            int maxResults = StringUtils.isNotEmpty(unparsedMaxResults) ? Integer.parseInt(unparsedMaxResults) : -1;
+            newModelVars.put(resultVar, categoryTreeService.findActiveChildCategories(categories.get(0), maxResults));
+        } else if (categories != null && categories.size() > 0) {
             // gets child categories in order ONLY if they are in the xref table and active
             List<CategoryXref> subcategories = categories.get(0).getChildCategoryXrefs();
             List<Category> results = Collections.emptyList();
@@ -18,11 +18,15 @@
 package org.broadleafcommerce.core.web.processor;
 
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringEscapeUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.broadleafcommerce.common.cache.PageCacheService;
 import org.broadleafcommerce.common.exception.ServiceException;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.security.service.ExploitProtectionService;
+import org.broadleafcommerce.common.security.service.StaleStateProtectionService;
 import org.broadleafcommerce.common.util.StringUtil;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
 import org.broadleafcommerce.core.catalog.domain.Product;
 import org.broadleafcommerce.core.catalog.domain.ProductOptionXref;
 import org.broadleafcommerce.core.catalog.domain.Sku;
@@ -52,6 +56,7 @@ import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
 
 /**
  * This processor outputs a SCRIPT tag with JSON data that can be used to update a mostly cached page followed by
@@ -70,6 +75,12 @@ import javax.annotation.Resource;
  *      <blc:uncacheableData />  
  *  }
  * </pre>
+ * 
+ * When the page is rendered to be stored in the {@link PageCacheService}, the data is not written to the page. Instead,
+ * the SCRIPT requests it from {@code page.cache.uncacheable.data.uri} once the page loads and then calls the same
+ * function, so that every visitor served the cached page gets their own data. Before calling the function, the SCRIPT
+ * fills in the CSRF and state version tokens that {@link org.broadleafcommerce.common.web.processor.FormProcessor} left
+ * empty in the cached page's forms.
  * @author bpolster
  */
 @Component("blUncacheableDataProcessor")
@@ -85,12 +96,21 @@ public class UncacheableDataProcessor extends AbstractBroadleafTagReplacementPro
     @Resource(name = "blExploitProtectionService")
     protected ExploitProtectionService eps;
 
+    @Resource(name = "blStaleStateProtectionService")
+    protected StaleStateProtectionService spps;
+
     @Resource(name = "blUncacheableDataProcessorExtensionManager")
     protected UncacheableDataProcessorExtensionManager extensionManager;
 
     @Resource(name = "blInventoryServiceExtensionManager"   )
     protected InventoryServiceExtensionManager inventoryServiceExtensionManager;
 
+    @Resource(name = "blPageCacheService")
+    protected PageCacheService pageCacheService;
+
+    @Value("${page.cache.uncacheable.data.uri:/uncacheable-data}")
+    protected String uncacheableDataUri;
+
     private String defaultCallbackFunction = "updateUncacheableData(params);\n";
 
     @Override
@@ -107,9 +127,13 @@ public class UncacheableDataProcessor extends AbstractBroadleafTagReplacementPro
     public BroadleafTemplateModel getReplacementModel(String tagName, Map<String, String> tagAttributes, BroadleafTemplateContext context) {
         StringBuffer sb = new StringBuffer();
         sb.append("<SCRIPT>\n");
-        sb.append("  var params = \n  ");
-        sb.append(buildContentMap(context)).append(";\n  ");
-        sb.append(getUncacheableDataFunction(context, tagAttributes));
+        if (pageCacheService.isRenderingForPageCache()) {
+            sb.append(buildDeferredContentScript(context, tagAttributes));
+        } else {
+            sb.append("  var params = \n  ");
+            sb.append(buildContentMap(context)).append(";\n  ");
+            sb.append(getUncacheableDataFunction(context, tagAttributes));
+        }
         sb.append("</SCRIPT>");
                 
         // Add contentNode to the document
@@ -124,24 +148,130 @@ public class UncacheableDataProcessor extends AbstractBroadleafTagReplacementPro
         addCartData(attrMap);
         addCustomerData(attrMap);
         addProductInventoryData(attrMap, context);
+        addTokenData(attrMap);
+        return StringUtil.getMapAsJson(attrMap);
+    }
+
+    /**
+     * Builds the same data as {@link #buildContentMap(BroadleafTemplateContext)} for a page served from the page cache,
+     * given the products and skus displayed on that page
+     * 
+     * @param products
+     * @param skus
+     * @return the data as JSON
+     */
+    public String buildContentMap(Set<Product> products, Set<Sku> skus) {
+        Map<String, Object> attrMap = new HashMap<>();
+        addCartData(attrMap);
+        addCustomerData(attrMap);
+        addProductInventoryData(attrMap, products, skus, null);
+        addTokenData(attrMap);
+        return StringUtil.getMapAsJson(attrMap);
+    }
 
+    protected void addTokenData(Map<String, Object> attrMap) {
         try {
             attrMap.put("csrfToken", eps.getCSRFToken());
             attrMap.put("csrfTokenParameter", eps.getCsrfTokenParameter());
+            if (spps.isEnabled()) {
+                attrMap.put("stateVersionToken", spps.getStateVersionToken());
+                attrMap.put("stateVersionTokenParameter", spps.getStateVersionTokenParameter());
+            }
         } catch (ServiceException e) {
             throw new RuntimeException("Could not get a CSRF token for this session", e);
         }
-        return StringUtil.getMapAsJson(attrMap);
+    }
+
+    /**
+     * Builds a script that requests the data for the products and skus displayed on the page from
+     * {@code page.cache.uncacheable.data.uri} and passes it to the callback as "params"
+     */
+    protected String buildDeferredContentScript(BroadleafTemplateContext context, Map<String, String> tagAttributes) {
+        StringBuilder url = new StringBuilder();
+        BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        HttpServletRequest request = brc == null ? null : brc.getRequest();
+        if (request != null) {
+            url.append(request.getContextPath());
+        }
+        url.append(uncacheableDataUri);
+        url.append("?productIds=").append(joinProductIds((Set<Product>) context.getVariable("blcAllDisplayedProducts")));
+        url.append("&skuIds=").append(joinSkuIds((Set<Sku>) context.getVariable("blcAllDisplayedSkus")));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("  (function() {\n");
+        sb.append("    var xhr = new XMLHttpRequest();\n");
+        sb.append("    xhr.open('GET', '").append(StringEscapeUtils.escapeEcmaScript(url.toString())).append("', true);\n");
+        sb.append("    xhr.onload = function() {\n");
+        sb.append("      if (xhr.status !== 200) {\n        return;\n      }\n");
+        sb.append("      var params = JSON.parse(xhr.responseText);\n");
+        sb.append(buildFillTokensScript());
+        sb.append("      ");
+        sb.append(getUncacheableDataFunction(context, tagAttributes));
+        sb.append("    };\n");
+        sb.append("    xhr.send();\n");
+        sb.append("  })();\n");
+        return sb.toString();
+    }
+
+    /**
+     * Fills the token fields, and the token query parameters of multipart form actions, that were left empty when the
+     * page was rendered for the page cache
+     */
+    protected String buildFillTokensScript() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("      var fillToken = function(name, value) {\n");
+        sb.append("        if (!name || value === undefined || value === null) {\n          return;\n        }\n");
+        sb.append("        var inputs = document.querySelectorAll('input[name=\"' + name + '\"]');\n");
+        sb.append("        for (var i = 0; i < inputs.length; i++) {\n          inputs[i].value = value;\n        }\n");
+        sb.append("        var pattern = new RegExp('([?&]' + name + '=)[^&]*');\n");
+        sb.append("        var forms = document.getElementsByTagName('form');\n");
+        sb.append("        for (var j = 0; j < forms.length; j++) {\n");
+        sb.append("          var action = forms[j].getAttribute('action');\n");
+        sb.append("          if (action && pattern.test(action)) {\n");
+        sb.append("            forms[j].setAttribute('action', action.replace(pattern, '$1' + encodeURIComponent(value)));\n");
+        sb.append("          }\n");
+        sb.append("        }\n");
+        sb.append("      };\n");
+        sb.append("      fillToken(params.csrfTokenParameter, params.csrfToken);\n");
+        sb.append("      fillToken(params.stateVersionTokenParameter, params.stateVersionToken);\n");
+        return sb.toString();
+    }
+
+    protected String joinProductIds(Set<Product> products) {
+        List<Long> ids = new ArrayList<>();
+        if (products != null) {
+            for (Product product : products) {
+                ids.add(product.getId());
+            }
+        }
+        return StringUtils.join(ids, ',');
+    }
+
+    protected String joinSkuIds(Set<Sku> skus) {
+        List<Long> ids = new ArrayList<>();
+        if (skus != null) {
+            for (Sku sku : skus) {
+                ids.add(sku.getId());
+            }
+        }
+        return StringUtils.join(ids, ',');
     }
 
     protected void addProductInventoryData(Map<String, Object> attrMap, BroadleafTemplateContext context) {
+        Set<Product> products = (Set<Product>) context.getVariable("blcAllDisplayedProducts");
+        Set<Sku> skus = (Set<Sku>) context.getVariable("blcAllDisplayedSkus");
+        addProductInventoryData(attrMap, products, skus, context);
+    }
+
+    /**
+     * @param context the template context, or null when the data is requested by a page served from the page cache
+     */
+    protected void addProductInventoryData(Map<String, Object> attrMap, Set<Product> products, Set<Sku> skus, BroadleafTemplateContext context) {
         List<Long> outOfStockProducts = new ArrayList<>();
         List<Long> outOfStockSkus = new ArrayList<>();
 
         Set<Product> allProducts = new HashSet<>();
         Set<Sku> allSkus = new HashSet<>();
-        Set<Product> products = (Set<Product>) context.getVariable("blcAllDisplayedProducts");
-        Set<Sku> skus = (Set<Sku>) context.getVariable("blcAllDisplayedSkus");
         if (!CollectionUtils.isEmpty(products)) {
             allProducts.addAll(products);
         }
@@ -149,7 +279,9 @@ public class UncacheableDataProcessor extends AbstractBroadleafTagReplacementPro
             allSkus.addAll(skus);
         }
 
-        extensionManager.getProxy().modifyProductListForInventoryCheck(context, allProducts, allSkus);
+        if (context != null) {
+            extensionManager.getProxy().modifyProductListForInventoryCheck(context, allProducts, allSkus);
+        }
 
         if (!allProducts.isEmpty()) {
             for (Product product : allProducts) {
@@ -20,6 +20,7 @@ package org.broadleafcommerce.core.web.service;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.order.domain.Order;
 import org.broadleafcommerce.core.order.service.call.OrderItemRequestDTO;
 
@@ -38,11 +39,13 @@ public abstract class AbstractUpdateCartServiceExtensionHandler extends Abstract
      * @return
      */
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType updateAndValidateCart(Order cart, ExtensionResultHolder resultHolder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
     
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType validateAddToCartItem(OrderItemRequestDTO itemRequest, Order cart) throws IllegalArgumentException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -0,0 +1,455 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework Web
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.web.cache;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.cache.CachedPage;
+import org.broadleafcommerce.common.cache.PageCacheService;
+import org.broadleafcommerce.common.currency.domain.BroadleafCurrency;
+import org.broadleafcommerce.common.currency.domain.BroadleafCurrencyImpl;
+import org.broadleafcommerce.common.locale.domain.Locale;
+import org.broadleafcommerce.common.locale.domain.LocaleImpl;
+import org.broadleafcommerce.common.security.service.ExploitProtectionService;
+import org.broadleafcommerce.common.security.service.StaleStateProtectionService;
+import org.broadleafcommerce.common.site.domain.Site;
+import org.broadleafcommerce.common.site.domain.SiteImpl;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.broadleafcommerce.common.web.processor.FormProcessor;
+import org.broadleafcommerce.core.web.service.CacheKeyResolverExtensionManager;
+import org.broadleafcommerce.presentation.model.BroadleafTemplateContext;
+import org.broadleafcommerce.presentation.model.BroadleafTemplateElement;
+import org.broadleafcommerce.presentation.model.BroadleafTemplateModel;
+import org.broadleafcommerce.presentation.model.BroadleafTemplateModelModifierDTO;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+public class PageCacheFilterTest extends TestCase {
+
+    protected PageCacheFilter filter;
+    protected InMemoryPageCacheService pageCacheService;
+    protected int renderCount = 0;
+
+    @Override
+    protected void setUp() throws Exception {
+        pageCacheService = new InMemoryPageCacheService();
+        filter = new PageCacheFilter();
+        filter.pageCacheService = pageCacheService;
+        filter.cacheKeyResolverExtensionManager = new CacheKeyResolverExtensionManager();
+        filter.uncacheableDataUri = "/uncacheable-data";
+        filter.excludedURIs = "/cart.*,/checkout.*,/account.*,/login.*,/register.*,/logout.*,/confirmation.*,/api/.*";
+        filter.initFilterBean();
+
+        Site site = new SiteImpl();
+        site.setId(1L);
+        BroadleafRequestContext context = new BroadleafRequestContext();
+        context.setNonPersistentSite(site);
+        context.setLocale(buildLocale("en_US"));
+        context.setBroadleafCurrency(buildCurrency("USD"));
+        BroadleafRequestContext.setBroadleafRequestContext(context);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        BroadleafRequestContext.setBroadleafRequestContext(null);
+    }
+
+    public void testParseIdsSkipsInvalidTokens() {
+        assertEquals(Arrays.asList(1L, 3L), filter.parseIds("1, x,99999999999999999999,,3"));
+        assertTrue(filter.parseIds(null).isEmpty());
+
+        StringBuilder ids = new StringBuilder();
+        for (int i = 0; i < PageCacheFilter.MAX_UNCACHEABLE_DATA_IDS + 50; i++) {
+            ids.append(i).append(',');
+        }
+        assertEquals(PageCacheFilter.MAX_UNCACHEABLE_DATA_IDS, filter.parseIds(ids.toString()).size());
+    }
+
+    public void testExcludedUrisAreNotCacheable() {
+        assertFalse(filter.isCacheable(new TestRequest("/cart", null), "/cart"));
+        assertFalse(filter.isCacheable(new TestRequest("/checkout/payment", null), "/checkout/payment"));
+        assertFalse(filter.isCacheable(new TestRequest("/account/orders", null), "/account/orders"));
+        assertFalse(filter.isCacheable(new TestRequest("/api/v1/catalog", null), "/api/v1/catalog"));
+        assertTrue(filter.isCacheable(new TestRequest("/", null), "/"));
+        assertTrue(filter.isCacheable(new TestRequest("/hot-sauces/cart-wheels", null), "/hot-sauces/cart-wheels"));
+
+        TestRequest post = new TestRequest("/", null);
+        post.method = "POST";
+        assertFalse(filter.isCacheable(post, "/"));
+    }
+
+    public void testKeyVariesWithTheRenderedVariant() {
+        String key = filter.buildKey(new TestRequest("/hot-sauces", "page=2"));
+        assertEquals(key, filter.buildKey(new TestRequest("/hot-sauces", "page=2")));
+        assertFalse(key.equals(filter.buildKey(new TestRequest("/hot-sauces", "page=3"))));
+        assertFalse(key.equals(filter.buildKey(new TestRequest("/hot-sauces", null))));
+
+        TestRequest ajax = new TestRequest("/hot-sauces", "page=2");
+        ajax.headers.put("X-Requested-With", "XMLHttpRequest");
+        assertFalse(key.equals(filter.buildKey(ajax)));
+
+        BroadleafRequestContext.getBroadleafRequestContext().setLocale(buildLocale("es_MX"));
+        assertFalse(key.equals(filter.buildKey(new TestRequest("/hot-sauces", "page=2"))));
+        BroadleafRequestContext.getBroadleafRequestContext().setLocale(buildLocale("en_US"));
+        BroadleafRequestContext.getBroadleafRequestContext().setBroadleafCurrency(buildCurrency("EUR"));
+        assertFalse(key.equals(filter.buildKey(new TestRequest("/hot-sauces", "page=2"))));
+    }
+
+    public void testSecondRequestIsServedFromTheCache() throws Exception {
+        TestResponse first = new TestResponse();
+        filter.doFilterInternalUnlessIgnored(new TestRequest("/hot-sauces", null), first, new RenderingChain());
+        TestResponse second = new TestResponse();
+        filter.doFilterInternalUnlessIgnored(new TestRequest("/hot-sauces", null), second, new RenderingChain());
+
+        assertEquals(1, renderCount);
+        assertEquals(1, pageCacheService.pages.size());
+        assertEquals("<html>page</html>", first.getBody());
+        assertEquals("<html>page</html>", second.getBody());
+        assertNull(first.headers.get("X-Page-Cache"));
+        assertEquals("HIT", second.headers.get("X-Page-Cache"));
+    }
+
+    public void testUncacheablePageIsNotStored() throws Exception {
+        RenderingChain chain = new RenderingChain();
+        chain.markUncacheable = true;
+        filter.doFilterInternalUnlessIgnored(new TestRequest("/hot-sauces", null), new TestResponse(), chain);
+
+        assertTrue(pageCacheService.pages.isEmpty());
+    }
+
+    public void testSessionTokensAreNotStoredInTheCachedPage() throws Exception {
+        FormRenderingChain chain = new FormRenderingChain(new TestFormProcessor(pageCacheService));
+        filter.doFilterInternalUnlessIgnored(new TestRequest("/hot-sauces", null), new TestResponse(), chain);
+
+        assertEquals(1, pageCacheService.pages.size());
+        String body = gunzip(pageCacheService.pages.values().iterator().next().getGzippedBody());
+        assertTrue(body.contains("name=\"csrfToken\""));
+        assertTrue(body.contains("name=\"stateVersionToken\""));
+        assertTrue(body.contains("/upload?csrfToken=&stateVersionToken="));
+        assertFalse(body.contains("SESSION-CSRF"));
+        assertFalse(body.contains("SESSION-STATE"));
+
+        // Outside of a page cache render the tokens are written as usual
+        TestResponse response = new TestResponse();
+        chain.doFilter(new TestRequest("/cart", null), response);
+        assertTrue(response.getBody().contains("SESSION-CSRF"));
+        assertTrue(response.getBody().contains("SESSION-STATE"));
+    }
+
+    protected String gunzip(byte[] gzipped) throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toString("UTF-8");
+    }
+
+    protected Locale buildLocale(String code) {
+        Locale locale = new LocaleImpl();
+        locale.setLocaleCode(code);
+        return locale;
+    }
+
+    protected BroadleafCurrency buildCurrency(String code) {
+        BroadleafCurrency currency = new BroadleafCurrencyImpl();
+        currency.setCurrencyCode(code);
+        return currency;
+    }
+
+    protected class RenderingChain implements FilterChain {
+
+        protected boolean markUncacheable = false;
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            renderCount++;
+            if (markUncacheable) {
+                request.setAttribute(PageCacheService.PAGE_UNCACHEABLE, Boolean.TRUE);
+            }
+            response.setContentType("text/html;charset=UTF-8");
+            response.getOutputStream().write("<html>page</html>".getBytes("UTF-8"));
+        }
+    }
+
+    /**
+     * Renders a POST form and a multipart form through the {@link FormProcessor}, the way the template engine would
+     */
+    protected class FormRenderingChain implements FilterChain {
+
+        protected FormProcessor formProcessor;
+
+        public FormRenderingChain(FormProcessor formProcessor) {
+            this.formProcessor = formProcessor;
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            renderCount++;
+            pageCacheService.renderingRequest = request;
+            try {
+                StringBuilder html = new StringBuilder("<html>");
+                html.append(renderForm(Collections.singletonMap("action", "/cart/add")));
+                Map<String, String> multipart = new HashMap<String, String>();
+                multipart.put("action", "/upload");
+                multipart.put("enctype", "multipart/form-data");
+                html.append(renderForm(multipart));
+                html.append("</html>");
+                response.setContentType("text/html;charset=UTF-8");
+                response.getOutputStream().write(html.toString().getBytes("UTF-8"));
+            } finally {
+                pageCacheService.renderingRequest = null;
+            }
+        }
+
+        protected String renderForm(Map<String, String> attributes) {
+            final StringBuilder inputs = new StringBuilder();
+            BroadleafTemplateContext context = EasyMock.createNiceMock(BroadleafTemplateContext.class);
+            EasyMock.expect(context.createModel()).andReturn(EasyMock.createNiceMock(BroadleafTemplateModel.class)).anyTimes();
+            EasyMock.expect(context.createStandaloneElement(EasyMock.isA(String.class), EasyMock.<Map<String, String>>anyObject(),
+                    EasyMock.anyBoolean())).andAnswer(new IAnswer<BroadleafTemplateElement>() {
+                        @Override
+                        @SuppressWarnings("unchecked")
+                        public BroadleafTemplateElement answer() throws Throwable {
+                            inputs.append(toTag("input", (Map<String, String>) EasyMock.getCurrentArguments()[1])).append("/>");
+                            return EasyMock.createNiceMock(BroadleafTemplateElement.class);
+                        }
+                    }).anyTimes();
+            EasyMock.replay(context);
+
+            BroadleafTemplateModelModifierDTO dto = formProcessor.getInjectedModelAndTagAttributes("form", attributes, context);
+            return toTag("form", dto.getFormParameters()) + ">" + inputs + "</form>";
+        }
+
+        protected String toTag(String name, Map<String, String> attributes) {
+            StringBuilder tag = new StringBuilder("<").append(name);
+            for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+                tag.append(' ').append(attribute.getKey()).append("=\"").append(attribute.getValue()).append('"');
+            }
+            return tag.toString();
+        }
+    }
+
+    protected static class TestFormProcessor extends FormProcessor {
+
+        public TestFormProcessor(PageCacheService pageCacheService) throws Exception {
+            this.pageCacheService = pageCacheService;
+
+            eps = EasyMock.createNiceMock(ExploitProtectionService.class);
+            EasyMock.expect(eps.getCSRFToken()).andReturn("SESSION-CSRF").anyTimes();
+            EasyMock.expect(eps.getCsrfTokenParameter()).andReturn("csrfToken").anyTimes();
+            EasyMock.replay(eps);
+
+            spps = EasyMock.createNiceMock(StaleStateProtectionService.class);
+            EasyMock.expect(spps.isEnabled()).andReturn(true).anyTimes();
+            EasyMock.expect(spps.getStateVersionToken()).andReturn("SESSION-STATE").anyTimes();
+            EasyMock.expect(spps.getStateVersionTokenParameter()).andReturn("stateVersionToken").anyTimes();
+            EasyMock.replay(spps);
+        }
+    }
+
+    protected static class InMemoryPageCacheService implements PageCacheService {
+
+        protected Map<String, CachedPage> pages = new HashMap<String, CachedPage>();
+        protected ServletRequest renderingRequest;
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public CachedPage getPage(String key) {
+            return pages.get(key);
+        }
+
+        @Override
+        public void putPage(String key, CachedPage page) {
+            pages.put(key, page);
+        }
+
+        @Override
+        public void invalidateAll() {
+            pages.clear();
+        }
+
+        @Override
+        public void markUncacheable() {
+        }
+
+        @Override
+        public boolean isRenderingForPageCache() {
+            return renderingRequest != null && renderingRequest.getAttribute(RENDERING_FOR_PAGE_CACHE) != null
+                    && renderingRequest.getAttribute(PAGE_UNCACHEABLE) == null;
+        }
+    }
+
+    protected static class TestRequest extends HttpServletRequestWrapper {
+
+        protected String uri;
+        protected String queryString;
+        protected String method = "GET";
+        protected Map<String, String> headers = new HashMap<String, String>();
+        protected Map<String, Object> attributes = new HashMap<String, Object>();
+
+        public TestRequest(String uri, String queryString) {
+            super(EasyMock.createNiceMock(HttpServletRequest.class));
+            this.uri = uri;
+            this.queryString = queryString;
+        }
+
+        @Override
+        public String getRequestURI() {
+            return uri;
+        }
+
+        @Override
+        public String getContextPath() {
+            return "";
+        }
+
+        @Override
+        public String getQueryString() {
+            return queryString;
+        }
+
+        @Override
+        public String getMethod() {
+            return method;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            List<String> values = new ArrayList<String>();
+            if (headers.containsKey(name)) {
+                values.add(headers.get(name));
+            }
+            return Collections.enumeration(values);
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object value) {
+            attributes.put(name, value);
+        }
+
+        @Override
+        public void removeAttribute(String name) {
+            attributes.remove(name);
+        }
+    }
+
+    protected static class TestResponse extends HttpServletResponseWrapper {
+
+        protected ByteArrayOutputStream body = new ByteArrayOutputStream();
+        protected Map<String, String> headers = new HashMap<String, String>();
+        protected String contentType;
+        protected int status = HttpServletResponse.SC_OK;
+
+        public TestResponse() {
+            super(EasyMock.createNiceMock(HttpServletResponse.class));
+        }
+
+        public String getBody() throws IOException {
+            return body.toString("UTF-8");
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return new ServletOutputStream() {
+                @Override
+                public void write(int b) {
+                    body.write(b);
+                }
+            };
+        }
+
+        @Override
+        public void setContentType(String contentType) {
+            this.contentType = contentType;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public void setStatus(int status) {
+            this.status = status;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            headers.put(name, value);
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            headers.put(name, value);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public boolean containsHeader(String name) {
+            return headers.containsKey(name);
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework Web
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.web.order;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.broadleafcommerce.common.web.BroadleafRequestCustomerResolverImpl;
+import org.broadleafcommerce.core.order.domain.NullOrderImpl;
+import org.broadleafcommerce.core.web.order.security.CartStateRequestProcessor;
+import org.broadleafcommerce.profile.core.domain.Customer;
+import org.broadleafcommerce.profile.core.domain.CustomerImpl;
+import org.easymock.EasyMock;
+import org.springframework.context.ApplicationContext;
+import org.springframework.web.context.request.WebRequest;
+
+public class CartStateTest extends TestCase {
+
+    protected WebRequest request;
+    protected Customer customer;
+
+    @Override
+    protected void setUp() throws Exception {
+        ApplicationContext applicationContext = EasyMock.createMock(ApplicationContext.class);
+        EasyMock.expect(applicationContext.getBean("blRequestCustomerResolver")).andReturn(new BroadleafRequestCustomerResolverImpl()).anyTimes();
+        EasyMock.replay(applicationContext);
+        new BroadleafRequestCustomerResolverImpl().setApplicationContext(applicationContext);
+
+        customer = new CustomerImpl();
+        customer.setId(1L);
+        request = EasyMock.createNiceMock(WebRequest.class);
+        BroadleafRequestContext context = new BroadleafRequestContext();
+        context.setWebRequest(request);
+        BroadleafRequestContext.setBroadleafRequestContext(context);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        BroadleafRequestContext.setBroadleafRequestContext(null);
+    }
+
+    public void testNoCartSummaryIsKeptInSession() throws Exception {
+        EasyMock.expect(request.getAttribute("customer", WebRequest.SCOPE_REQUEST)).andReturn(customer).anyTimes();
+        EasyMock.expect(request.getAttribute(CartStateRequestProcessor.getCartRequestAttributeName(), WebRequest.SCOPE_REQUEST))
+                .andReturn(new NullOrderImpl()).anyTimes();
+        request.setAttribute(EasyMock.eq(CartState.CART_SUMMARY_SESSION_ATTRIBUTE_NAME), EasyMock.anyObject(),
+                EasyMock.eq(WebRequest.SCOPE_GLOBAL_SESSION));
+        EasyMock.expectLastCall().once();
+        EasyMock.replay(request);
+
+        CartSummary summary = CartState.getCartSummary();
+        assertTrue(summary.isEmptyCart());
+        assertEquals(customer.getId(), summary.getCustomerId());
+        assertEquals(0, summary.getItemCount());
+        EasyMock.verify(request);
+    }
+
+    public void testNoCartSummaryIsServedFromSession() throws Exception {
+        CartSummary cached = new CartSummary(new NullOrderImpl(), customer);
+        EasyMock.expect(request.getAttribute("customer", WebRequest.SCOPE_REQUEST)).andReturn(customer).anyTimes();
+        EasyMock.expect(request.getAttribute(CartState.CART_SUMMARY_SESSION_ATTRIBUTE_NAME, WebRequest.SCOPE_GLOBAL_SESSION))
+                .andReturn(cached).anyTimes();
+        // the cart must not be looked up while the summary is current
+        EasyMock.expect(request.getAttribute(LazyCart.REQUEST_ATTRIBUTE_NAME, WebRequest.SCOPE_REQUEST)).andThrow(new AssertionError()).anyTimes();
+        EasyMock.replay(request);
+
+        assertSame(cached, CartState.getCartSummary());
+    }
+
+    public void testNoCartSummaryIsNotServedToAnotherCustomer() throws Exception {
+        Customer other = new CustomerImpl();
+        other.setId(2L);
+        CartSummary cached = new CartSummary(new NullOrderImpl(), other);
+        EasyMock.expect(request.getAttribute("customer", WebRequest.SCOPE_REQUEST)).andReturn(customer).anyTimes();
+        EasyMock.expect(request.getAttribute(CartState.CART_SUMMARY_SESSION_ATTRIBUTE_NAME, WebRequest.SCOPE_GLOBAL_SESSION))
+                .andReturn(cached).anyTimes();
+        EasyMock.expect(request.getAttribute(CartStateRequestProcessor.getCartRequestAttributeName(), WebRequest.SCOPE_REQUEST))
+                .andReturn(new NullOrderImpl()).anyTimes();
+        EasyMock.replay(request);
+
+        CartSummary summary = CartState.getCartSummary();
+        assertNotSame(cached, summary);
+        assertEquals(customer.getId(), summary.getCustomerId());
+    }
+
+}
@@ -20,6 +20,7 @@ package org.broadleafcommerce.core.catalog.dao;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 
 /**
  * @author Nick Crum ncrum
@@ -28,6 +29,7 @@ public abstract class AbstractCategoryDaoExtensionHandler extends AbstractExtens
         implements CategoryDaoExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType findCategoryByURI(String uri, ExtensionResultHolder resultHolder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
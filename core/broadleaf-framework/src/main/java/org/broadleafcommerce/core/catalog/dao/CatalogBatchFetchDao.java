@@ -0,0 +1,44 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.dao;
+
+import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.domain.Sku;
+
+import java.util.List;
+
+/**
+ * Initializes lazy associations for a whole list of catalog entities at once. Each association is loaded with one
+ * IN-batched fetch join query across all of the entities, rather than one query per entity as they are touched.
+ * The entities must be managed by the current persistence context so that the fetched data is attached to them.
+ */
+public interface CatalogBatchFetchDao {
+
+    /**
+     * @param products the managed products to initialize
+     * @param associations the names of the {@link Product} associations to initialize (e.g. "allParentCategoryXrefs")
+     */
+    void fetchProductAssociations(List<Product> products, List<String> associations);
+
+    /**
+     * @param skus the managed skus to initialize
+     * @param associations the names of the {@link Sku} associations to initialize (e.g. "skuMedia")
+     */
+    void fetchSkuAssociations(List<Sku> skus, List<String> associations);
+
+}
@@ -0,0 +1,118 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.util.dao.BatchRetrieveDao;
+import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.domain.Sku;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Query;
+
+@Repository("blCatalogBatchFetchDao")
+public class CatalogBatchFetchDaoImpl extends BatchRetrieveDao implements CatalogBatchFetchDao {
+
+    private static final Log LOG = LogFactory.getLog(CatalogBatchFetchDaoImpl.class);
+
+    @PersistenceContext(unitName = "blPU")
+    protected EntityManager em;
+
+    @Override
+    public void fetchProductAssociations(List<Product> products, List<String> associations) {
+        for (String association : associations) {
+            Set<Long> ids = new LinkedHashSet<Long>();
+            for (Product product : products) {
+                if (product != null && product.getId() != null && !isLoaded(product, association)
+                        && !isCached(product, product.getId(), association)) {
+                    ids.add(product.getId());
+                }
+            }
+            fetchAssociation(Product.class, association, ids);
+        }
+    }
+
+    @Override
+    public void fetchSkuAssociations(List<Sku> skus, List<String> associations) {
+        for (String association : associations) {
+            Set<Long> ids = new LinkedHashSet<Long>();
+            for (Sku sku : skus) {
+                if (sku != null && sku.getId() != null && !isLoaded(sku, association)
+                        && !isCached(sku, sku.getId(), association)) {
+                    ids.add(sku.getId());
+                }
+            }
+            fetchAssociation(Sku.class, association, ids);
+        }
+    }
+
+    protected boolean isLoaded(Object entity, String association) {
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        return util.isLoaded(entity, association);
+    }
+
+    /**
+     * Whether the association is a collection held in the second level cache for this entity. Such collections
+     * initialize from the cache without a query, so batch fetching them would only replace cache hits with a database
+     * round trip.
+     */
+    protected boolean isCached(Object entity, Long id, String association) {
+        try {
+            Session session = em.unwrap(Session.class);
+            SessionFactory sessionFactory = session.getSessionFactory();
+            String role = session.getEntityName(entity) + "." + association;
+            if (sessionFactory.getCollectionMetadata(role) == null) {
+                return false;
+            }
+            return sessionFactory.getCache().containsCollection(role, id);
+        } catch (HibernateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Run a fetch join for the association over the given ids. The results are not needed, since loading them is what
+     * initializes the association on the entities already in the persistence context.
+     */
+    protected void fetchAssociation(Class<?> entityType, String association, Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            Query query = em.createQuery("SELECT entity FROM " + entityType.getName() + " entity "
+                    + "LEFT JOIN FETCH entity." + association + " WHERE entity.id IN :ids");
+            batchExecuteReadQuery(query, new ArrayList<Long>(ids), "ids");
+        } catch (IllegalArgumentException | PersistenceException e) {
+            LOG.warn("Unable to batch fetch the " + association + " association for " + entityType.getSimpleName(), e);
+        }
+    }
+
+}
@@ -206,6 +206,17 @@ public interface CategoryDao {
 
     public Category findCategoryByURI(String uri);
 
+    /**
+     * Reads every parent/child relationship in the catalog in a single query, along with the url, active dates and
+     * archived flag of both categories. Each row is, in order: parent id, parent url, parent active start date, parent
+     * active end date, parent archived flag, child id, child url, child active start date, child active end date, child
+     * archived flag, display order and default reference.
+     *
+     * @return one row per {@link org.broadleafcommerce.core.catalog.domain.CategoryXref}
+     */
+    @Nonnull
+    public List<Object[]> readCategoryTreeRows();
+
     /**
      * Returns the number of milliseconds that the current date/time will be cached for queries before refreshing.
      * This aids in query caching, otherwise every query that utilized current date would be different and caching
@@ -252,6 +252,17 @@ public class CategoryDaoImpl implements CategoryDao {
         return query.getResultList();
     }
 
+    @Override
+    public List<Object[]> readCategoryTreeRows() {
+        TypedQuery<Object[]> query = em.createQuery("SELECT parent.id, parent.url, parent.activeStartDate, "
+                + "parent.activeEndDate, parent.archiveStatus.archived, child.id, child.url, child.activeStartDate, "
+                + "child.activeEndDate, child.archiveStatus.archived, xref.displayOrder, xref.defaultReference "
+                + "FROM org.broadleafcommerce.core.catalog.domain.CategoryXref xref "
+                + "JOIN xref.category parent JOIN xref.subCategory child", Object[].class);
+
+        return query.getResultList();
+    }
+
     @Override
     public Long getCurrentDateResolution() {
         return currentDateResolution;
@@ -0,0 +1,52 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.domain;
+
+import org.broadleafcommerce.common.util.ApplicationContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Publishes a {@link CategoryPersistedEvent} once a transaction that changed a {@link Category} or a
+ * {@link CategoryXref} commits, so that in-memory views of the category hierarchy can be refreshed.
+ *
+ * @see org.broadleafcommerce.core.catalog.service.CategoryTreeService
+ */
+public class CategoryPersistedEntityListener {
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void categoryUpdated(final Object entity) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    if (ApplicationContextHolder.getApplicationContext() != null) {
+                        ApplicationContextHolder.getApplicationContext().publishEvent(new CategoryPersistedEvent(entity));
+                    }
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,47 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.domain;
+
+import org.broadleafcommerce.common.event.BroadleafApplicationEvent;
+
+/**
+ * An event for whenever a {@link CategoryImpl} or {@link CategoryXrefImpl} has been persisted, updated or removed
+ *
+ * @see CategoryPersistedEntityListener
+ */
+public class CategoryPersistedEvent extends BroadleafApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param entity the changed {@link Category} or {@link CategoryXref}
+     */
+    public CategoryPersistedEvent(Object entity) {
+        super(entity);
+    }
+
+    /**
+     * Gets the changed entity, either a {@link Category} or a {@link CategoryXref}
+     *
+     * @return the changed entity
+     */
+    public Object getEntity() {
+        return source;
+    }
+
+}
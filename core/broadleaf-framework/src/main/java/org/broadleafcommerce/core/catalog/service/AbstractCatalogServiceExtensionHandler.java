@@ -20,6 +20,7 @@ package org.broadleafcommerce.core.catalog.service;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 
 /**
  * @author Nick Crum ncrum
@@ -28,16 +29,19 @@ public abstract class AbstractCatalogServiceExtensionHandler extends AbstractExt
         implements CatalogServiceExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType findCategoryByURI(String uri, ExtensionResultHolder resultHolder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType findProductByURI(String uri, ExtensionResultHolder resultHolder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType findSkuByURI(String uri, ExtensionResultHolder resultHolder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -0,0 +1,54 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.domain.Sku;
+
+import java.util.List;
+
+/**
+ * Initializes the catalog data that is typically rendered for a list of products or skus (e.g. a category or search
+ * results page, related products or the cart) in a handful of batched queries, instead of letting each template
+ * expression lazily load its own association.
+ *
+ * @see org.broadleafcommerce.core.catalog.dao.CatalogBatchFetchDao
+ */
+public interface CatalogBatchFetchService {
+
+    /**
+     * @return whether batch fetching is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Initialize the configured product associations, and the configured sku associations of each product's default
+     * sku, for all of the given products
+     *
+     * @param products the products that are about to be rendered
+     */
+    void batchFetchProducts(List<Product> products);
+
+    /**
+     * Initialize the configured sku associations for all of the given skus
+     *
+     * @param skus the skus that are about to be rendered
+     */
+    void batchFetchSkus(List<Sku> skus);
+
+}
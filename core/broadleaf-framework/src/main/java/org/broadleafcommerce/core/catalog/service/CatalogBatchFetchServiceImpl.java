@@ -0,0 +1,87 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.broadleafcommerce.core.catalog.dao.CatalogBatchFetchDao;
+import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.domain.Sku;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Resource;
+
+@Service("blCatalogBatchFetchService")
+public class CatalogBatchFetchServiceImpl implements CatalogBatchFetchService {
+
+    @Resource(name = "blCatalogBatchFetchDao")
+    protected CatalogBatchFetchDao catalogBatchFetchDao;
+
+    @Value("${catalog.batch.fetch.enabled:false}")
+    protected boolean enabled = false;
+
+    @Value("${catalog.batch.fetch.product.associations:defaultSku,allParentCategoryXrefs,productOptions}")
+    protected String productAssociations = "defaultSku,allParentCategoryXrefs,productOptions";
+
+    @Value("${catalog.batch.fetch.sku.associations:skuMedia}")
+    protected String skuAssociations = "skuMedia";
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void batchFetchProducts(List<Product> products) {
+        if (!enabled || CollectionUtils.isEmpty(products)) {
+            return;
+        }
+        catalogBatchFetchDao.fetchProductAssociations(products, getAssociations(productAssociations));
+
+        List<Sku> defaultSkus = new ArrayList<Sku>(products.size());
+        for (Product product : products) {
+            if (product != null && product.getDefaultSku() != null) {
+                defaultSkus.add(product.getDefaultSku());
+            }
+        }
+        batchFetchSkus(defaultSkus);
+    }
+
+    @Override
+    public void batchFetchSkus(List<Sku> skus) {
+        if (!enabled || CollectionUtils.isEmpty(skus)) {
+            return;
+        }
+        catalogBatchFetchDao.fetchSkuAssociations(skus, getAssociations(skuAssociations));
+    }
+
+    protected List<String> getAssociations(String configured) {
+        List<String> response = new ArrayList<String>();
+        for (String association : StringUtils.split(configured, ',')) {
+            if (StringUtils.isNotBlank(association)) {
+                response.add(association.trim());
+            }
+        }
+        return response;
+    }
+
+}
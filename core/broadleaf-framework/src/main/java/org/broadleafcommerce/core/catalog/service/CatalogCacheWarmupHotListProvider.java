@@ -0,0 +1,38 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import java.util.List;
+
+/**
+ * Optional source of the products that are most frequently requested on the site (for example, derived from access
+ * logs or analytics). When a bean of this type is registered as "blCatalogCacheWarmupHotListProvider",
+ * {@link CatalogCacheWarmupService} loads these products first and only starts the general top-N pass once they are
+ * cached.
+ */
+public interface CatalogCacheWarmupHotListProvider {
+
+    /**
+     * Retrieve the ids of the hottest products, ordered from most to least frequently requested
+     *
+     * @param limit the maximum number of ids to return
+     * @return the product ids
+     */
+    List<Long> getHotProductIds(int limit);
+
+}
@@ -0,0 +1,41 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+/**
+ * Preloads frequently accessed catalog entities (products, categories, skus and their url mappings) into the
+ * second-level cache so that the first requests served by a freshly started node do not pay for cold cache misses.
+ *
+ * @see CatalogCacheWarmupHotListProvider
+ */
+public interface CatalogCacheWarmupService {
+
+    /**
+     * Whether or not warm-up should run when the application context is refreshed
+     *
+     * @return whether warm-up is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Load the configured catalog entities into the cache. Failures are logged and do not propagate, since a node
+     * with a cold cache is still able to serve traffic.
+     */
+    void warmUp();
+
+}
@@ -0,0 +1,388 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.logging.LifeCycleEvent;
+import org.broadleafcommerce.common.logging.ModuleLifecycleLoggingBean;
+import org.broadleafcommerce.common.util.TransactionUtils;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.broadleafcommerce.core.catalog.dao.ProductDao;
+import org.broadleafcommerce.core.catalog.dao.SkuDao;
+import org.broadleafcommerce.core.catalog.domain.Category;
+import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.domain.Sku;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Resource;
+
+/**
+ * Warms the catalog caches when the application context is refreshed. Since the context is refreshed before the
+ * servlet container starts dispatching requests, the warm-up completes before the node accepts traffic.
+ * <p>
+ * Products and skus are read with keyset paging ({@link ProductDao#readAllActiveProducts(Integer, Long)} and
+ * {@link SkuDao#readAllActiveSkus(Integer, Long)}) so that deep pages are as cheap as the first one. Categories are
+ * read through {@link CatalogService#findAllCategories(int, int)}. Products from the
+ * {@link CatalogCacheWarmupHotListProvider}, if there is one, are loaded first on the calling thread. The remaining
+ * kinds of entity are then each loaded on their own thread. Each batch runs in its own read-only transaction, so the
+ * persistence context never grows beyond one batch.
+ * <p>
+ * Warm-up is disabled by default and is controlled through the catalog.cache.warmup.* properties.
+ */
+@Service("blCatalogCacheWarmupService")
+public class CatalogCacheWarmupServiceImpl implements CatalogCacheWarmupService, ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Log LOG = LogFactory.getLog(CatalogCacheWarmupServiceImpl.class);
+
+    protected static final String MODULE_NAME = "Catalog Cache Warm-up";
+
+    @Resource(name = "blProductDao")
+    protected ProductDao productDao;
+
+    @Resource(name = "blSkuDao")
+    protected SkuDao skuDao;
+
+    @Resource(name = "blCatalogService")
+    protected CatalogService catalogService;
+
+    @Resource(name = "blTransactionManager")
+    protected PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    @Qualifier("blCatalogCacheWarmupHotListProvider")
+    protected CatalogCacheWarmupHotListProvider hotListProvider;
+
+    @Value("${catalog.cache.warmup.enabled:false}")
+    protected boolean enabled = false;
+
+    @Value("${catalog.cache.warmup.product.limit:1000}")
+    protected int productLimit = 1000;
+
+    @Value("${catalog.cache.warmup.category.limit:1000}")
+    protected int categoryLimit = 1000;
+
+    @Value("${catalog.cache.warmup.sku.limit:1000}")
+    protected int skuLimit = 1000;
+
+    @Value("${catalog.cache.warmup.batch.size:100}")
+    protected int batchSize = 100;
+
+    @Value("${catalog.cache.warmup.threads:3}")
+    protected int threads = 3;
+
+    @Value("${catalog.cache.warmup.urls:true}")
+    protected boolean warmUrls = true;
+
+    protected final AtomicBoolean warmedUp = new AtomicBoolean(false);
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        // Refresh events are also published by child (e.g. servlet) contexts, only warm the caches once
+        if (isEnabled() && warmedUp.compareAndSet(false, true)) {
+            warmUp();
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        new ModuleLifecycleLoggingBean(MODULE_NAME, LifeCycleEvent.START, "products: " + productLimit
+                + ", categories: " + categoryLimit + ", skus: " + skuLimit).init();
+
+        int total = 0;
+        if (hotListProvider != null) {
+            // The hot products must be cached before anything else competes for the cache and the connection pool
+            total += new WarmupTask("hot products") {
+                @Override
+                protected int load() {
+                    return warmHotProducts();
+                }
+            }.call();
+        }
+
+        List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+        if (productLimit > 0) {
+            tasks.add(new WarmupTask("products") {
+                @Override
+                protected int load() {
+                    return warmProducts();
+                }
+            });
+        }
+        if (categoryLimit > 0) {
+            tasks.add(new WarmupTask("categories") {
+                @Override
+                protected int load() {
+                    return warmCategories();
+                }
+            });
+        }
+        if (skuLimit > 0) {
+            tasks.add(new WarmupTask("skus") {
+                @Override
+                protected int load() {
+                    return warmSkus();
+                }
+            });
+        }
+
+        if (!tasks.isEmpty()) {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())),
+                    new WarmupThreadFactory());
+            try {
+                for (Future<Integer> future : executor.invokeAll(tasks)) {
+                    try {
+                        total += future.get();
+                    } catch (Exception e) {
+                        LOG.warn("Unable to complete a catalog cache warm-up task", e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.warn("Catalog cache warm-up was interrupted");
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        new ModuleLifecycleLoggingBean(MODULE_NAME, LifeCycleEvent.END, "loaded " + total + " entities in "
+                + (System.currentTimeMillis() - start) + "ms").init();
+    }
+
+    protected int warmHotProducts() {
+        List<Long> productIds = hotListProvider.getHotProductIds(productLimit);
+        if (CollectionUtils.isEmpty(productIds)) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0; i < productIds.size(); i += batchSize) {
+            final List<Long> batch = productIds.subList(i, Math.min(i + batchSize, productIds.size()));
+            count += runInTransaction(new BatchLoader() {
+                @Override
+                public int load() {
+                    List<Product> products = productDao.readProductsByIds(batch);
+                    warmProductUrls(products);
+                    return products.size();
+                }
+            });
+            reportProgress("hot products", count, productIds.size());
+        }
+        return count;
+    }
+
+    protected int warmProducts() {
+        int count = 0;
+        Long lastId = null;
+        while (count < productLimit) {
+            final Long fromId = lastId;
+            final int pageSize = Math.min(batchSize, productLimit - count);
+            final List<Product> products = new ArrayList<Product>();
+            runInTransaction(new BatchLoader() {
+                @Override
+                public int load() {
+                    products.addAll(productDao.readAllActiveProducts(pageSize, fromId));
+                    warmProductUrls(products);
+                    return products.size();
+                }
+            });
+            if (products.isEmpty()) {
+                break;
+            }
+            count += products.size();
+            lastId = products.get(products.size() - 1).getId();
+            reportProgress("products", count, productLimit);
+            if (products.size() < pageSize) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    protected int warmSkus() {
+        int count = 0;
+        Long lastId = null;
+        while (count < skuLimit) {
+            final Long fromId = lastId;
+            final int pageSize = Math.min(batchSize, skuLimit - count);
+            final List<Sku> skus = new ArrayList<Sku>();
+            runInTransaction(new BatchLoader() {
+                @Override
+                public int load() {
+                    skus.addAll(skuDao.readAllActiveSkus(pageSize, fromId));
+                    return skus.size();
+                }
+            });
+            if (skus.isEmpty()) {
+                break;
+            }
+            count += skus.size();
+            lastId = skus.get(skus.size() - 1).getId();
+            reportProgress("skus", count, skuLimit);
+            if (skus.size() < pageSize) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    protected int warmCategories() {
+        int count = 0;
+        while (count < categoryLimit) {
+            final int offset = count;
+            final int pageSize = Math.min(batchSize, categoryLimit - count);
+            int loaded = runInTransaction(new BatchLoader() {
+                @Override
+                public int load() {
+                    List<Category> categories = catalogService.findAllCategories(pageSize, offset);
+                    if (warmUrls) {
+                        for (Category category : categories) {
+                            if (StringUtils.isNotEmpty(category.getUrl())) {
+                                catalogService.findCategoryByURI(category.getUrl());
+                            }
+                        }
+                    }
+                    return categories.size();
+                }
+            });
+            count += loaded;
+            reportProgress("categories", count, categoryLimit);
+            if (loaded < pageSize) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Resolve each product by its url so that the url lookup queries are cached along with the entities
+     */
+    protected void warmProductUrls(List<Product> products) {
+        if (!warmUrls) {
+            return;
+        }
+        for (Product product : products) {
+            if (StringUtils.isNotEmpty(product.getUrl())) {
+                catalogService.findProductByURI(product.getUrl());
+            }
+        }
+    }
+
+    protected int runInTransaction(BatchLoader loader) {
+        TransactionStatus status = TransactionUtils.createTransaction("catalogCacheWarmup",
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, true);
+        boolean isError = false;
+        try {
+            return loader.load();
+        } catch (RuntimeException e) {
+            isError = true;
+            throw e;
+        } finally {
+            TransactionUtils.finalizeTransaction(status, transactionManager, isError);
+        }
+    }
+
+    protected void reportProgress(String type, int count, int limit) {
+        new ModuleLifecycleLoggingBean(MODULE_NAME, LifeCycleEvent.LOADING, type + ": " + count + "/" + limit).init();
+    }
+
+    /**
+     * A single batch of entities to load within a transaction
+     */
+    protected interface BatchLoader {
+
+        int load();
+
+    }
+
+    /**
+     * Loads one kind of entity on a worker thread. The worker has no request, so a request context that ignores
+     * the site is established for the duration of the task. Failures are logged rather than thrown so that a
+     * problem warming the cache never prevents the node from starting.
+     */
+    protected abstract class WarmupTask implements Callable<Integer> {
+
+        protected final String name;
+
+        public WarmupTask(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Integer call() {
+            boolean contextCreated = false;
+            if (BroadleafRequestContext.getBroadleafRequestContext() == null) {
+                BroadleafRequestContext context = new BroadleafRequestContext();
+                context.setIgnoreSite(true);
+                BroadleafRequestContext.setBroadleafRequestContext(context);
+                contextCreated = true;
+            }
+            try {
+                return load();
+            } catch (RuntimeException e) {
+                LOG.warn("Unable to warm the cache for " + name, e);
+                return 0;
+            } finally {
+                if (contextCreated) {
+                    BroadleafRequestContext.setBroadleafRequestContext(null);
+                }
+            }
+        }
+
+        protected abstract int load();
+
+    }
+
+    protected static class WarmupThreadFactory implements ThreadFactory {
+
+        protected final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "catalog-cache-warmup-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
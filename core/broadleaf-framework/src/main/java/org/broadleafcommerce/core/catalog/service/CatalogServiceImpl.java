@@ -64,6 +64,9 @@ public class CatalogServiceImpl implements CatalogService {
     @Resource(name = "blCatalogServiceExtensionManager")
     protected CatalogServiceExtensionManager extensionManager;
 
+    @Resource(name = "blCategoryTreeService")
+    protected CategoryTreeService categoryTreeService;
+
     @Override
     public Product findProductById(Long productId) {
         return productDao.readProductById(productId);
@@ -218,11 +221,21 @@ public class CatalogServiceImpl implements CatalogService {
 
     @Override
     public List<Category> findActiveSubCategoriesByCategory(Category category) {
+        if (categoryTreeService.isEnabled()) {
+            return categoryTreeService.findActiveChildCategories(category, -1);
+        }
         return categoryDao.readActiveSubCategoriesByCategory(category);
     }
 
     @Override
     public List<Category> findActiveSubCategoriesByCategory(Category category, int limit, int offset) {
+        if (categoryTreeService.isEnabled()) {
+            List<Category> categories = categoryTreeService.findActiveChildCategories(category, offset + limit);
+            if (offset >= categories.size()) {
+                return Collections.emptyList();
+            }
+            return categories.subList(offset, categories.size());
+        }
         return categoryDao.readActiveSubCategoriesByCategory(category, limit, offset);
     }
 
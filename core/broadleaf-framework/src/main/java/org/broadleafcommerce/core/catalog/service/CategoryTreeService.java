@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import org.broadleafcommerce.core.catalog.domain.Category;
+
+import java.util.List;
+
+/**
+ * Answers navigation questions about the category hierarchy (children, ancestors, urls, active state) from an
+ * in-memory {@link CategoryTreeSnapshot} instead of walking the lazily loaded
+ * {@link org.broadleafcommerce.core.catalog.domain.CategoryXref} collections one level at a time.
+ * <p>
+ * A snapshot is kept per site and sandbox. It is rebuilt when a category or category xref changes and after a
+ * configurable time to live, so that changes made on other nodes are eventually picked up.
+ */
+public interface CategoryTreeService {
+
+    /**
+     * Whether or not callers should use this service for navigation lookups
+     *
+     * @return whether the category tree snapshot is enabled
+     */
+    boolean isEnabled();
+
+    /**
+     * Retrieve the snapshot for the site and sandbox of the current request, building it if necessary
+     *
+     * @return the snapshot for the current site and sandbox
+     */
+    CategoryTreeSnapshot getSnapshot();
+
+    /**
+     * Retrieve the active child categories of the category, in display order
+     *
+     * @param category the parent category
+     * @param limit the maximum number of categories to return, or a negative number for no limit
+     * @return the active child categories
+     */
+    List<Category> findActiveChildCategories(Category category, int limit);
+
+    /**
+     * Retrieve the parent categories of the category, following the default parent at each level
+     *
+     * @param category the category
+     * @return the ancestors of the category, starting with the root-most category
+     */
+    List<Category> findAncestorCategories(Category category);
+
+    /**
+     * Mark every snapshot as stale, so that it is rebuilt on next use
+     */
+    void invalidate();
+
+}
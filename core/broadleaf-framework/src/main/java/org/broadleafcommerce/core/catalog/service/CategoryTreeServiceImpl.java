@@ -0,0 +1,165 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.time.SystemTime;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.broadleafcommerce.core.catalog.dao.CategoryDao;
+import org.broadleafcommerce.core.catalog.domain.Category;
+import org.broadleafcommerce.core.catalog.domain.CategoryPersistedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Resource;
+
+/**
+ * Keeps one {@link CategoryTreeSnapshot} per site and sandbox. Snapshots are immutable, so a rebuild simply replaces
+ * the map entry and requests that are already using the old snapshot are unaffected. While a stale snapshot is being
+ * rebuilt, other requests continue to use it rather than waiting or rebuilding it themselves.
+ */
+@Service("blCategoryTreeService")
+public class CategoryTreeServiceImpl implements CategoryTreeService, ApplicationListener<CategoryPersistedEvent> {
+
+    private static final Log LOG = LogFactory.getLog(CategoryTreeServiceImpl.class);
+
+    @Resource(name = "blCategoryDao")
+    protected CategoryDao categoryDao;
+
+    @Value("${category.tree.snapshot.enabled:false}")
+    protected boolean enabled = false;
+
+    @Value("${category.tree.snapshot.ttl.seconds:300}")
+    protected long ttlSeconds = 300;
+
+    protected final Map<String, CategoryTreeSnapshot> snapshots = new ConcurrentHashMap<String, CategoryTreeSnapshot>();
+    protected final Set<String> rebuilding = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    protected volatile long invalidatedTime = 0L;
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public CategoryTreeSnapshot getSnapshot() {
+        String key = getSnapshotKey();
+        CategoryTreeSnapshot snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            snapshot = buildSnapshot(key);
+        } else if (isStale(snapshot) && rebuilding.add(key)) {
+            try {
+                snapshot = buildSnapshot(key);
+            } finally {
+                rebuilding.remove(key);
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    public List<Category> findActiveChildCategories(Category category, int limit) {
+        List<Long> childIds = getSnapshot().getActiveChildCategoryIds(category.getId(), SystemTime.asMillis(true));
+        if (limit >= 0 && childIds.size() > limit) {
+            childIds = childIds.subList(0, limit);
+        }
+        return readCategoriesInOrder(childIds);
+    }
+
+    @Override
+    public List<Category> findAncestorCategories(Category category) {
+        return readCategoriesInOrder(getSnapshot().getAncestorCategoryIds(category.getId(), SystemTime.asMillis(true)));
+    }
+
+    @Override
+    public void invalidate() {
+        invalidatedTime = SystemTime.asMillis();
+    }
+
+    @Override
+    public void onApplicationEvent(CategoryPersistedEvent event) {
+        invalidate();
+    }
+
+    protected CategoryTreeSnapshot buildSnapshot(String key) {
+        long start = SystemTime.asMillis();
+        CategoryTreeSnapshot snapshot = new CategoryTreeSnapshot(categoryDao.readCategoryTreeRows(), start);
+        snapshots.put(key, snapshot);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Built category tree snapshot for " + key + " with " + snapshot.size() + " categories in "
+                    + (SystemTime.asMillis() - start) + "ms");
+        }
+        return snapshot;
+    }
+
+    protected boolean isStale(CategoryTreeSnapshot snapshot) {
+        return snapshot.getCreatedTime() <= invalidatedTime
+                || snapshot.getCreatedTime() + ttlSeconds * 1000L < SystemTime.asMillis();
+    }
+
+    /**
+     * The snapshot reflects whatever the site and sandbox filters of the current request allow the query to see, so
+     * a separate snapshot is kept for each combination
+     */
+    protected String getSnapshotKey() {
+        Long siteId = null;
+        Long sandBoxId = null;
+        BroadleafRequestContext context = BroadleafRequestContext.getBroadleafRequestContext();
+        if (context != null) {
+            if (context.getNonPersistentSite() != null) {
+                siteId = context.getNonPersistentSite().getId();
+            }
+            if (context.getSandBox() != null) {
+                sandBoxId = context.getSandBox().getId();
+            }
+        }
+        return siteId + "|" + sandBoxId;
+    }
+
+    /**
+     * Load the categories in one query and return them in the order of the given ids
+     */
+    protected List<Category> readCategoriesInOrder(List<Long> categoryIds) {
+        if (categoryIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Category> categoriesById = new HashMap<Long, Category>();
+        for (Category category : categoryDao.readCategoriesByIds(categoryIds)) {
+            categoriesById.put(category.getId(), category);
+        }
+        List<Category> response = new ArrayList<Category>(categoryIds.size());
+        for (Long categoryId : categoryIds) {
+            Category category = categoriesById.get(categoryId);
+            if (category != null) {
+                response.add(category);
+            }
+        }
+        return response;
+    }
+
+}
@@ -0,0 +1,310 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, in-memory view of the category hierarchy for a single site and sandbox. Categories are stored as sorted
+ * primitive arrays and relationships as offset/index arrays, so answering children, ancestors, urls or active state
+ * never touches the database.
+ * <p>
+ * Only categories that take part in at least one parent/child relationship are known to the snapshot. A category that
+ * has neither children nor parents is reported as having neither.
+ *
+ * @see CategoryTreeService
+ * @see org.broadleafcommerce.core.catalog.dao.CategoryDao#readCategoryTreeRows()
+ */
+public class CategoryTreeSnapshot {
+
+    protected static final BigDecimal DEFAULT_DISPLAY_ORDER = new BigDecimal(999999);
+
+    protected final long createdTime;
+
+    protected final long[] ids;
+    protected final String[] urls;
+    protected final long[] activeStartDates;
+    protected final long[] activeEndDates;
+    protected final boolean[] archived;
+
+    protected final int[] childOffsets;
+    protected final int[] children;
+
+    protected final int[] parentOffsets;
+    protected final int[] parents;
+    protected final boolean[] defaultParents;
+
+    protected final Map<String, Integer> urlIndex;
+
+    /**
+     * @param rows the rows returned by {@link org.broadleafcommerce.core.catalog.dao.CategoryDao#readCategoryTreeRows()}
+     * @param createdTime the time at which the rows started being read
+     */
+    public CategoryTreeSnapshot(List<Object[]> rows, long createdTime) {
+        this.createdTime = createdTime;
+
+        Map<Long, Object[]> nodes = new HashMap<Long, Object[]>();
+        for (Object[] row : rows) {
+            nodes.put((Long) row[0], Arrays.copyOfRange(row, 0, 5));
+            nodes.put((Long) row[5], Arrays.copyOfRange(row, 5, 10));
+        }
+        int size = nodes.size();
+        ids = new long[size];
+        int pos = 0;
+        for (Long id : nodes.keySet()) {
+            ids[pos++] = id;
+        }
+        Arrays.sort(ids);
+
+        urls = new String[size];
+        activeStartDates = new long[size];
+        activeEndDates = new long[size];
+        archived = new boolean[size];
+        urlIndex = new HashMap<String, Integer>(size);
+        for (int i = 0; i < size; i++) {
+            Object[] node = nodes.get(ids[i]);
+            urls[i] = (String) node[1];
+            // a category without a start date is never active, mirroring DateUtil.isActive
+            activeStartDates[i] = node[2] == null ? Long.MAX_VALUE : ((Date) node[2]).getTime();
+            activeEndDates[i] = node[3] == null ? Long.MAX_VALUE : ((Date) node[3]).getTime();
+            archived[i] = node[4] != null && 'Y' == (Character) node[4];
+            if (urls[i] != null && !urlIndex.containsKey(urls[i])) {
+                urlIndex.put(urls[i], i);
+            }
+        }
+
+        List<Object[]> sortedRows = new ArrayList<Object[]>(rows);
+        Collections.sort(sortedRows, new DisplayOrderComparator(0));
+        childOffsets = new int[size + 1];
+        children = new int[sortedRows.size()];
+        buildRelationships(sortedRows, 0, 5, childOffsets, children, null);
+
+        Collections.sort(sortedRows, new DisplayOrderComparator(5));
+        parentOffsets = new int[size + 1];
+        parents = new int[sortedRows.size()];
+        defaultParents = new boolean[sortedRows.size()];
+        buildRelationships(sortedRows, 5, 0, parentOffsets, parents, defaultParents);
+    }
+
+    /**
+     * Fills in the offset/index arrays for one direction of the relationship. The rows must already be ordered by the
+     * owning side, so that each category's related categories are contiguous.
+     */
+    protected void buildRelationships(List<Object[]> sortedRows, int ownerColumn, int relatedColumn, int[] offsets,
+            int[] related, boolean[] defaultReferences) {
+        int[] counts = new int[ids.length];
+        for (int i = 0; i < sortedRows.size(); i++) {
+            Object[] row = sortedRows.get(i);
+            counts[indexOf((Long) row[ownerColumn])]++;
+            related[i] = indexOf((Long) row[relatedColumn]);
+            if (defaultReferences != null) {
+                defaultReferences[i] = Boolean.TRUE.equals(row[11]);
+            }
+        }
+        for (int i = 0; i < ids.length; i++) {
+            offsets[i + 1] = offsets[i] + counts[i];
+        }
+    }
+
+    protected int indexOf(Long categoryId) {
+        if (categoryId == null) {
+            return -1;
+        }
+        int index = Arrays.binarySearch(ids, categoryId);
+        return index < 0 ? -1 : index;
+    }
+
+    /**
+     * @return the time at which the data for this snapshot started being read
+     */
+    public long getCreatedTime() {
+        return createdTime;
+    }
+
+    /**
+     * @return the number of categories in the snapshot
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(Long categoryId) {
+        return indexOf(categoryId) >= 0;
+    }
+
+    /**
+     * @param categoryId the category
+     * @return the url of the category, or null if the category is not part of the snapshot
+     */
+    public String getUrl(Long categoryId) {
+        int index = indexOf(categoryId);
+        return index < 0 ? null : urls[index];
+    }
+
+    /**
+     * @param url the category url
+     * @return the id of a category with the given url, or null if none is part of the snapshot
+     */
+    public Long getCategoryIdByUrl(String url) {
+        Integer index = urlIndex.get(url);
+        return index == null ? null : ids[index];
+    }
+
+    /**
+     * Determine whether the category is active using the same rules as {@link org.broadleafcommerce.core.catalog.domain.CategoryImpl#isActive()}
+     *
+     * @param categoryId the category
+     * @param currentTime the time to evaluate the active dates against
+     * @return whether the category is active, false if the category is not part of the snapshot
+     */
+    public boolean isActive(Long categoryId, long currentTime) {
+        int index = indexOf(categoryId);
+        return index >= 0 && isActive(index, currentTime);
+    }
+
+    protected boolean isActive(int index, long currentTime) {
+        return !archived[index] && activeStartDates[index] < currentTime && activeEndDates[index] >= currentTime;
+    }
+
+    /**
+     * @param categoryId the parent category
+     * @param currentTime the time to evaluate the active dates against
+     * @return the ids of the active child categories, in display order
+     */
+    public List<Long> getActiveChildCategoryIds(Long categoryId, long currentTime) {
+        int index = indexOf(categoryId);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        List<Long> response = new ArrayList<Long>(childOffsets[index + 1] - childOffsets[index]);
+        for (int i = childOffsets[index]; i < childOffsets[index + 1]; i++) {
+            if (isActive(children[i], currentTime)) {
+                response.add(ids[children[i]]);
+            }
+        }
+        return response;
+    }
+
+    /**
+     * @param categoryId the parent category
+     * @return the ids of all child categories, regardless of their active state, in display order
+     */
+    public List<Long> getAllChildCategoryIds(Long categoryId) {
+        int index = indexOf(categoryId);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        List<Long> response = new ArrayList<Long>(childOffsets[index + 1] - childOffsets[index]);
+        for (int i = childOffsets[index]; i < childOffsets[index + 1]; i++) {
+            response.add(ids[children[i]]);
+        }
+        return response;
+    }
+
+    /**
+     * Determine the parent of the category using the same rules as
+     * {@link org.broadleafcommerce.core.catalog.domain.CategoryImpl#getParentCategoryXref()}: the active default
+     * parent if there is one, otherwise the first active parent.
+     *
+     * @param categoryId the child category
+     * @param currentTime the time to evaluate the active dates against
+     * @return the id of the parent category, or null if there is no active parent
+     */
+    public Long getParentCategoryId(Long categoryId, long currentTime) {
+        int index = indexOf(categoryId);
+        if (index < 0) {
+            return null;
+        }
+        int parent = getParentIndex(index, currentTime);
+        return parent < 0 ? null : ids[parent];
+    }
+
+    protected int getParentIndex(int index, long currentTime) {
+        int firstActive = -1;
+        for (int i = parentOffsets[index]; i < parentOffsets[index + 1]; i++) {
+            if (isActive(parents[i], currentTime)) {
+                if (defaultParents[i]) {
+                    return parents[i];
+                }
+                if (firstActive < 0) {
+                    firstActive = parents[i];
+                }
+            }
+        }
+        return firstActive;
+    }
+
+    /**
+     * Walk up the hierarchy from the category following {@link #getParentCategoryId(Long, long)}
+     *
+     * @param categoryId the category
+     * @param currentTime the time to evaluate the active dates against
+     * @return the ids of the ancestors of the category, starting with the root-most category
+     */
+    public List<Long> getAncestorCategoryIds(Long categoryId, long currentTime) {
+        int index = indexOf(categoryId);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        List<Long> response = new ArrayList<Long>();
+        boolean[] visited = new boolean[ids.length];
+        visited[index] = true;
+        int parent = getParentIndex(index, currentTime);
+        while (parent >= 0 && !visited[parent]) {
+            visited[parent] = true;
+            response.add(0, ids[parent]);
+            parent = getParentIndex(parent, currentTime);
+        }
+        return response;
+    }
+
+    /**
+     * Orders rows by one of the category id columns, then by display order. Rows without a display order sort last,
+     * as they do in the BC_READ_ACTIVE_SUBCATEGORIES_BY_CATEGORY query.
+     */
+    protected static class DisplayOrderComparator implements Comparator<Object[]> {
+
+        protected final int idColumn;
+
+        public DisplayOrderComparator(int idColumn) {
+            this.idColumn = idColumn;
+        }
+
+        @Override
+        public int compare(Object[] o1, Object[] o2) {
+            int response = ((Long) o1[idColumn]).compareTo((Long) o2[idColumn]);
+            if (response == 0) {
+                response = getDisplayOrder(o1).compareTo(getDisplayOrder(o2));
+            }
+            return response;
+        }
+
+        protected BigDecimal getDisplayOrder(Object[] row) {
+            return row[10] == null ? DEFAULT_DISPLAY_ORDER : (BigDecimal) row[10];
+        }
+    }
+
+}
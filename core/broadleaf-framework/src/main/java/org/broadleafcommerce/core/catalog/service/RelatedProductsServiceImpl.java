@@ -49,20 +49,42 @@ public class RelatedProductsServiceImpl implements RelatedProductsService {
     @Resource(name="blCatalogService")
     protected CatalogService catalogService;
 
+    @Resource(name = "blCatalogBatchFetchService")
+    protected CatalogBatchFetchService catalogBatchFetchService;
+
     @Override
     public List<? extends PromotableProduct> findRelatedProducts(RelatedProductDTO relatedProductDTO) {
         Product product = lookupProduct(relatedProductDTO);
         Category category = lookupCategory(relatedProductDTO);      
         
+        List<? extends PromotableProduct> relatedProducts;
         if (RelatedProductTypeEnum.FEATURED.equals(relatedProductDTO.getType())) {
-            return buildFeaturedProductsList(product, category, relatedProductDTO);
+            relatedProducts = buildFeaturedProductsList(product, category, relatedProductDTO);
         } else if (RelatedProductTypeEnum.CROSS_SALE.equals(relatedProductDTO.getType())) {
-            return buildCrossSaleProductsList(product, category, relatedProductDTO);
+            relatedProducts = buildCrossSaleProductsList(product, category, relatedProductDTO);
         } else if (RelatedProductTypeEnum.UP_SALE.equals(relatedProductDTO.getType())) {
-            return buildUpSaleProductsList(product, category, relatedProductDTO);
+            relatedProducts = buildUpSaleProductsList(product, category, relatedProductDTO);
         } else {
             throw new IllegalArgumentException("RelatedProductType " + relatedProductDTO.getType() + " not supported.");
-        }       
+        }
+        batchFetchRelatedProducts(relatedProducts);
+        return relatedProducts;
+    }
+
+    /**
+     * Initialize the catalog data of all of the related products at once, since they are typically rendered together
+     * @param relatedProducts
+     */
+    protected void batchFetchRelatedProducts(List<? extends PromotableProduct> relatedProducts) {
+        if (relatedProducts != null && !relatedProducts.isEmpty()) {
+            List<Product> products = new ArrayList<Product>(relatedProducts.size());
+            for (PromotableProduct relatedProduct : relatedProducts) {
+                if (relatedProduct.getRelatedProduct() != null) {
+                    products.add(relatedProduct.getRelatedProduct());
+                }
+            }
+            catalogBatchFetchService.batchFetchProducts(products);
+        }
     }
     
     /**
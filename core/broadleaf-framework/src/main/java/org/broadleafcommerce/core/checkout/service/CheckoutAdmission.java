@@ -0,0 +1,102 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.checkout.service;
+
+import org.broadleafcommerce.core.checkout.service.exception.CheckoutException;
+import org.broadleafcommerce.core.checkout.service.workflow.CheckoutResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of {@link CheckoutAdmissionService#admit(org.broadleafcommerce.core.order.domain.Order, String)}. Either the
+ * caller has been admitted and must run the checkout and then call {@link CheckoutAdmissionService#complete}, or the
+ * request was a duplicate of a submission with the same idempotency token, in which case {@link #getResponse()} holds the
+ * response of that submission and no checkout should be run.
+ */
+public class CheckoutAdmission {
+
+    protected final Long orderId;
+    protected final String idempotencyToken;
+    protected final boolean duplicate;
+    protected final CountDownLatch completed = new CountDownLatch(1);
+
+    protected boolean leaseHeld = false;
+    protected volatile CheckoutResponse response;
+    protected volatile CheckoutException failure;
+
+    public CheckoutAdmission(Long orderId, String idempotencyToken) {
+        this(orderId, idempotencyToken, false);
+    }
+
+    protected CheckoutAdmission(Long orderId, String idempotencyToken, boolean duplicate) {
+        this.orderId = orderId;
+        this.idempotencyToken = idempotencyToken;
+        this.duplicate = duplicate;
+    }
+
+    public static CheckoutAdmission duplicateOf(Long orderId, String idempotencyToken, CheckoutResponse response) {
+        CheckoutAdmission admission = new CheckoutAdmission(orderId, idempotencyToken, true);
+        admission.complete(response, null);
+        return admission;
+    }
+
+    public void complete(CheckoutResponse response, CheckoutException failure) {
+        this.response = response;
+        this.failure = failure;
+        completed.countDown();
+    }
+
+    /**
+     * Wait for the admitted checkout to complete
+     *
+     * @return whether or not the checkout completed within the timeout
+     */
+    public boolean await(long timeoutMillis) throws InterruptedException {
+        return completed.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getIdempotencyToken() {
+        return idempotencyToken;
+    }
+
+    public boolean isDuplicate() {
+        return duplicate;
+    }
+
+    public boolean isLeaseHeld() {
+        return leaseHeld;
+    }
+
+    public void setLeaseHeld(boolean leaseHeld) {
+        this.leaseHeld = leaseHeld;
+    }
+
+    public CheckoutResponse getResponse() {
+        return response;
+    }
+
+    public CheckoutException getFailure() {
+        return failure;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.checkout.service;
+
+import org.broadleafcommerce.core.checkout.service.exception.CheckoutException;
+import org.broadleafcommerce.core.checkout.service.workflow.CheckoutResponse;
+import org.broadleafcommerce.core.order.domain.Order;
+
+/**
+ * Decides whether a checkout attempt for an order may proceed, so that double submits are turned away before any
+ * payment or inventory activity runs. Only one checkout of an order is admitted at a time on this node and, when the
+ * lease is enabled, across the cluster.
+ */
+public interface CheckoutAdmissionService {
+
+    /**
+     * The order attribute in which the idempotency token of the admitted submission is stored
+     */
+    public static final String IDEMPOTENCY_TOKEN_ATTRIBUTE = "checkoutIdempotencyToken";
+
+    /**
+     * Admit a checkout attempt for the order. A duplicate of an in flight or completed submission with the same
+     * idempotency token is answered with the response of that submission instead of being admitted.
+     *
+     * @param order the order to be checked out
+     * @param idempotencyToken identifies the submission, may be null
+     * @return the admission, which must be passed to {@link #complete} unless it is a duplicate
+     * @throws CheckoutException if the order has already been submitted or cancelled, or a
+     * {@link org.broadleafcommerce.core.checkout.service.exception.CheckoutInProgressException} if another checkout of
+     * the order is in progress
+     */
+    public CheckoutAdmission admit(Order order, String idempotencyToken) throws CheckoutException;
+
+    /**
+     * Record the outcome of an admitted checkout and allow the next checkout of the order to be admitted
+     *
+     * @param admission the admission returned by {@link #admit(Order, String)}
+     * @param response the checkout response, or null if the checkout failed
+     * @param failure the checkout failure, if any
+     */
+    public void complete(CheckoutAdmission admission, CheckoutResponse response, CheckoutException failure);
+
+    /**
+     * Register a checkout of the order as in flight on this node, without any of the other checks made by
+     * {@link #admit(Order, String)}
+     *
+     * @return the checkout already in flight, or null if there was none and the order has been registered
+     */
+    public CheckoutAdmission putInFlight(Long orderId);
+
+    /**
+     * Remove the checkout of the order registered as in flight on this node, if any
+     */
+    public void removeInFlight(Long orderId);
+
+    /**
+     * Whether or not the order has already been through the checkout workflow, i.e. is submitted or cancelled
+     */
+    public boolean hasOrderBeenCompleted(Order order);
+
+}
@@ -0,0 +1,215 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.checkout.service;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.util.TransactionUtils;
+import org.broadleafcommerce.core.checkout.service.exception.CheckoutException;
+import org.broadleafcommerce.core.checkout.service.exception.CheckoutInProgressException;
+import org.broadleafcommerce.core.checkout.service.workflow.CheckoutResponse;
+import org.broadleafcommerce.core.checkout.service.workflow.CheckoutSeed;
+import org.broadleafcommerce.core.order.dao.OrderDao;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.order.domain.OrderAttribute;
+import org.broadleafcommerce.core.order.domain.OrderAttributeImpl;
+import org.broadleafcommerce.core.order.service.type.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Resource;
+
+/**
+ * Admits checkouts through an in memory map of in flight orders and, when 'checkout.admission.lease.enabled' is true,
+ * a lease on the order kept in the {@link org.broadleafcommerce.core.order.domain.OrderLock} table under the
+ * {@link #CHECKOUT_LEASE_KEY} key. The lease expires after 'checkout.admission.lease.ttl.ms' so that a node dying mid
+ * checkout does not block the order forever.
+ * </p>
+ * A submission made while another checkout of the order is in flight on this node is rejected straight away with a
+ * {@link CheckoutInProgressException}, so that no request thread is held waiting. A duplicate with the same idempotency
+ * token is given the response of the in flight checkout if it has completed by then, or completes within
+ * 'checkout.admission.duplicate.wait.ms' (0 by default, keep it short when set as the request thread is parked). A
+ * duplicate of a checkout in flight on another node can not be answered with its response, and is rejected.
+ */
+@Service("blCheckoutAdmissionService")
+public class CheckoutAdmissionServiceImpl implements CheckoutAdmissionService {
+
+    protected static final Log LOG = LogFactory.getLog(CheckoutAdmissionServiceImpl.class);
+
+    public static final String CHECKOUT_LEASE_KEY = "CHECKOUT";
+
+    @Resource(name = "blOrderDao")
+    protected OrderDao orderDao;
+
+    @Resource(name = "blTransactionManager")
+    protected PlatformTransactionManager transactionManager;
+
+    @Value("${checkout.admission.lease.enabled:false}")
+    protected boolean leaseEnabled = false;
+
+    @Value("${checkout.admission.lease.ttl.ms:300000}")
+    protected long leaseTtlMillis = 300000L;
+
+    @Value("${checkout.admission.duplicate.wait.ms:0}")
+    protected long duplicateWaitMillis = 0L;
+
+    /**
+     * Map of the checkouts in progress on this node, by order id
+     */
+    protected final ConcurrentMap<Long, CheckoutAdmission> inFlightCheckouts = new ConcurrentHashMap<>();
+
+    @Override
+    public CheckoutAdmission admit(Order order, String idempotencyToken) throws CheckoutException {
+        CheckoutAdmission admission = new CheckoutAdmission(order.getId(), idempotencyToken);
+        CheckoutAdmission inFlight = inFlightCheckouts.putIfAbsent(order.getId(), admission);
+        if (inFlight != null) {
+            return admitDuplicate(order, inFlight, idempotencyToken);
+        }
+
+        boolean admitted = false;
+        try {
+            if (hasOrderBeenCompleted(order)) {
+                if (isSameSubmission(order, idempotencyToken)) {
+                    return CheckoutAdmission.duplicateOf(order.getId(), idempotencyToken, buildSeed(order));
+                }
+                throw new CheckoutException("This order has already been submitted or cancelled, unable to checkout order -- id: " + order.getId(), buildSeed(order));
+            }
+            if (leaseEnabled) {
+                if (!acquireLease(order.getId())) {
+                    throw new CheckoutInProgressException("This order is already in the process of being submitted on another node, unable to checkout order -- id: " + order.getId(), buildSeed(order));
+                }
+                admission.setLeaseHeld(true);
+            }
+            if (idempotencyToken != null) {
+                recordIdempotencyToken(order, idempotencyToken);
+            }
+            admitted = true;
+            return admission;
+        } finally {
+            if (!admitted) {
+                inFlightCheckouts.remove(order.getId(), admission);
+                admission.complete(null, null);
+            }
+        }
+    }
+
+    @Override
+    public void complete(CheckoutAdmission admission, CheckoutResponse response, CheckoutException failure) {
+        if (admission.isDuplicate()) {
+            return;
+        }
+        try {
+            if (admission.isLeaseHeld()) {
+                orderDao.releaseLock(admission.getOrderId(), CHECKOUT_LEASE_KEY);
+            }
+        } finally {
+            inFlightCheckouts.remove(admission.getOrderId(), admission);
+            admission.complete(response, failure);
+        }
+    }
+
+    @Override
+    public CheckoutAdmission putInFlight(Long orderId) {
+        return inFlightCheckouts.putIfAbsent(orderId, new CheckoutAdmission(orderId, null));
+    }
+
+    @Override
+    public void removeInFlight(Long orderId) {
+        CheckoutAdmission admission = inFlightCheckouts.remove(orderId);
+        if (admission != null) {
+            admission.complete(null, null);
+        }
+    }
+
+    @Override
+    public boolean hasOrderBeenCompleted(Order order) {
+        return (OrderStatus.SUBMITTED.equals(order.getStatus()) || OrderStatus.CANCELLED.equals(order.getStatus()));
+    }
+
+    protected CheckoutAdmission admitDuplicate(Order order, CheckoutAdmission inFlight, String idempotencyToken) throws CheckoutException {
+        if (idempotencyToken != null && idempotencyToken.equals(inFlight.getIdempotencyToken())) {
+            try {
+                if (inFlight.await(Math.max(duplicateWaitMillis, 0L))) {
+                    if (inFlight.getFailure() != null) {
+                        throw new CheckoutException("The original submission of this order failed, unable to checkout order -- id: " + order.getId(), inFlight.getFailure(), buildSeed(order));
+                    }
+                    if (inFlight.getResponse() != null) {
+                        return CheckoutAdmission.duplicateOf(order.getId(), idempotencyToken, inFlight.getResponse());
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        throw new CheckoutInProgressException("This order is already in the process of being submitted, unable to checkout order -- id: " + order.getId(), buildSeed(order));
+    }
+
+    /**
+     * Acquire the cluster wide lease on the order in its own transaction, so that it is visible to other nodes
+     * immediately. Should another node create the lease row at the same moment, the commit fails and the lease is not
+     * acquired.
+     */
+    protected boolean acquireLease(Long orderId) {
+        TransactionStatus status = TransactionUtils.createTransaction("acquireCheckoutLease",
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, false);
+        boolean acquired = false;
+        try {
+            acquired = orderDao.acquireLock(orderId, CHECKOUT_LEASE_KEY, leaseTtlMillis);
+        } catch (RuntimeException e) {
+            LOG.debug("Unable to acquire the checkout lease for order " + orderId, e);
+        }
+        try {
+            TransactionUtils.finalizeTransaction(status, transactionManager, !acquired);
+        } catch (RuntimeException e) {
+            LOG.debug("Unable to acquire the checkout lease for order " + orderId, e);
+            return false;
+        }
+        return acquired;
+    }
+
+    protected boolean isSameSubmission(Order order, String idempotencyToken) {
+        if (idempotencyToken == null || order.getOrderAttributes() == null) {
+            return false;
+        }
+        OrderAttribute attribute = order.getOrderAttributes().get(IDEMPOTENCY_TOKEN_ATTRIBUTE);
+        return attribute != null && idempotencyToken.equals(attribute.getValue());
+    }
+
+    protected void recordIdempotencyToken(Order order, String idempotencyToken) {
+        OrderAttribute attribute = order.getOrderAttributes().get(IDEMPOTENCY_TOKEN_ATTRIBUTE);
+        if (attribute == null) {
+            attribute = new OrderAttributeImpl();
+            attribute.setName(IDEMPOTENCY_TOKEN_ATTRIBUTE);
+            attribute.setOrder(order);
+            order.getOrderAttributes().put(IDEMPOTENCY_TOKEN_ATTRIBUTE, attribute);
+        }
+        attribute.setValue(idempotencyToken);
+    }
+
+    protected CheckoutSeed buildSeed(Order order) {
+        return new CheckoutSeed(order, new HashMap<String, Object>());
+    }
+
+}
@@ -37,5 +37,17 @@ public interface CheckoutService {
      * checked out (in Broadleaf terms this means the <b>order</b> has already been changed to {@link OrderStatus#SUBMITTED})
      */
     public CheckoutResponse performCheckout(Order order) throws CheckoutException;
+
+    /**
+     * <p>Same as {@link #performCheckout(Order)}, but identifies the submission with an idempotency token. A repeat of a
+     * submission with the same token, such as a double click or a client retry, is given the response of the original
+     * submission rather than being rejected, and does not run the workflow again.</p>
+     * 
+     * @param order the order to be checked out
+     * @param idempotencyToken identifies the submission, may be null
+     * @return
+     * @throws CheckoutException see {@link #performCheckout(Order)}
+     */
+    public CheckoutResponse performCheckout(Order order, String idempotencyToken) throws CheckoutException;
     
 }
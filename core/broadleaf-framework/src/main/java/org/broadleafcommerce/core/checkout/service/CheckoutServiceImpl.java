@@ -17,13 +17,14 @@
  */
 package org.broadleafcommerce.core.checkout.service;
 
+import org.apache.commons.lang3.StringUtils;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
 import org.broadleafcommerce.core.checkout.service.exception.CheckoutException;
 import org.broadleafcommerce.core.checkout.service.workflow.CheckoutResponse;
 import org.broadleafcommerce.core.checkout.service.workflow.CheckoutSeed;
 import org.broadleafcommerce.core.order.domain.Order;
 import org.broadleafcommerce.core.order.service.OrderService;
 import org.broadleafcommerce.core.order.service.exception.RequiredAttributeNotProvidedException;
-import org.broadleafcommerce.core.order.service.type.OrderStatus;
 import org.broadleafcommerce.core.pricing.service.exception.PricingException;
 import org.broadleafcommerce.core.workflow.ActivityMessages;
 import org.broadleafcommerce.core.workflow.ProcessContext;
@@ -36,36 +37,48 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
 
 @Service("blCheckoutService")
 public class CheckoutServiceImpl implements CheckoutService {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     @Resource(name="blCheckoutWorkflow")
     protected Processor<CheckoutSeed, CheckoutSeed> checkoutWorkflow;
 
     @Resource(name="blOrderService")
     protected OrderService orderService;
-    
+
+    @Resource(name="blCheckoutAdmissionService")
+    protected CheckoutAdmissionService checkoutAdmissionService;
+
     /**
      * Map of locks for given order ids. This lock map ensures that only a single request can handle a particular order
      * at a time
+     *
+     * @deprecated no longer consulted, the checkouts in flight are tracked by {@link CheckoutAdmissionService}. Use
+     * {@link #putLock(Long)} and {@link #removeLock(Long)} instead.
      */
+    @Deprecated
     protected static ConcurrentMap<Long, Object> lockMap = new ConcurrentHashMap<>();
 
     @Override
     public CheckoutResponse performCheckout(Order order) throws CheckoutException {
-        //Immediately fail if another thread is currently attempting to check out the order
-        Object lockObject = putLock(order.getId());
-        if (lockObject != null) {
-            throw new CheckoutException("This order is already in the process of being submitted, unable to checkout order -- id: " + order.getId(), new CheckoutSeed(order, new HashMap<String, Object>()));
-        }
+        return performCheckout(order, getIdempotencyToken());
+    }
 
-        // Immediately fail if this order has already been checked out previously
-        if (hasOrderBeenCompleted(order)) {
-            throw new CheckoutException("This order has already been submitted or cancelled, unable to checkout order -- id: " + order.getId(), new CheckoutSeed(order, new HashMap<String, Object>()));
+    @Override
+    public CheckoutResponse performCheckout(Order order, String idempotencyToken) throws CheckoutException {
+        // Immediately fail if another thread is currently attempting to check out the order, or if this order has
+        // already been checked out previously. A repeat of the same submission is given the original response.
+        CheckoutAdmission admission = checkoutAdmissionService.admit(order, idempotencyToken);
+        if (admission.isDuplicate()) {
+            return admission.getResponse();
         }
-        
+
         CheckoutSeed seed = null;
+        CheckoutException failure = null;
         try {
             // Do a final save of the order before going through with the checkout workflow
             order = orderService.save(order, false);
@@ -80,25 +93,41 @@ public class CheckoutServiceImpl implements CheckoutService {
 
             return seed;
         } catch (PricingException e) {
-            throw new CheckoutException("Unable to checkout order -- id: " + order.getId(), e, seed);
+            failure = new CheckoutException("Unable to checkout order -- id: " + order.getId(), e, seed);
+            throw failure;
         } catch (WorkflowException e) {
-            throw new CheckoutException("Unable to checkout order -- id: " + order.getId(), e.getRootCause(), seed);
+            failure = new CheckoutException("Unable to checkout order -- id: " + order.getId(), e.getRootCause(), seed);
+            throw failure;
         } catch (RequiredAttributeNotProvidedException e) {
-            throw new CheckoutException("Unable to checkout order -- id: " + order.getId(), e.getCause(), seed);
+            failure = new CheckoutException("Unable to checkout order -- id: " + order.getId(), e.getCause(), seed);
+            throw failure;
         } finally {
-            // The order has completed processing, remove the order from the processing map
-            removeLock(order.getId());
+            // The order has completed processing, allow the next checkout of the order to be admitted
+            checkoutAdmissionService.complete(admission, failure == null ? seed : null, failure);
         }
     }
-    
+
+    /**
+     * Reads the idempotency token for the current submission from the {@link #IDEMPOTENCY_KEY_HEADER} request header
+     * 
+     * @return the token, or null if there is no request or the header was not sent
+     */
+    protected String getIdempotencyToken() {
+        BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        HttpServletRequest request = brc == null ? null : brc.getRequest();
+        return request == null ? null : StringUtils.trimToNull(request.getHeader(IDEMPOTENCY_KEY_HEADER));
+    }
+
     /**
      * Checks if the <b>order</b> has already been gone through the checkout workflow.
      * 
      * @param order
      * @return
+     * @deprecated use {@link CheckoutAdmissionService#hasOrderBeenCompleted(Order)}
      */
+    @Deprecated
     protected boolean hasOrderBeenCompleted(Order order) {
-        return (OrderStatus.SUBMITTED.equals(order.getStatus()) || OrderStatus.CANCELLED.equals(order.getStatus()));
+        return checkoutAdmissionService.hasOrderBeenCompleted(order);
     }
 
     /**
@@ -107,18 +136,22 @@ public class CheckoutServiceImpl implements CheckoutService {
     * @param orderId
     * @return null if there was not already a lock object available. If an object was already in the map, this will return
     * that object, which means that there is already a thread attempting to go through the checkout workflow
+    * @deprecated use {@link CheckoutAdmissionService#putInFlight(Long)}
     */
+    @Deprecated
     protected Object putLock(Long orderId) {
-        return lockMap.putIfAbsent(orderId, new Object());
+        return checkoutAdmissionService.putInFlight(orderId);
     }
     
     /**
      * Done with processing the given orderId, remove the lock from the map
      * 
      * @param orderId
+     * @deprecated use {@link CheckoutAdmissionService#removeInFlight(Long)}
      */
+    @Deprecated
     protected void removeLock(Long orderId) {
-        lockMap.remove(orderId);
+        checkoutAdmissionService.removeInFlight(orderId);
     }
-    
+
 }
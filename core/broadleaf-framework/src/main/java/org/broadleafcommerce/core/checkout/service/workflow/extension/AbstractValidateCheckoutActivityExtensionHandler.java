@@ -20,6 +20,7 @@ package org.broadleafcommerce.core.checkout.service.workflow.extension;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.checkout.service.workflow.CheckoutSeed;
 
 /**
@@ -29,6 +30,7 @@ public abstract class AbstractValidateCheckoutActivityExtensionHandler extends A
         implements ValidateCheckoutActivityExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType validateCheckout(CheckoutSeed request, ExtensionResultHolder<Exception> resultHolder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
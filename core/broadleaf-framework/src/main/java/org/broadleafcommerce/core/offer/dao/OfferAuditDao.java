@@ -19,6 +19,7 @@ package org.broadleafcommerce.core.offer.dao;
 
 import org.broadleafcommerce.core.offer.domain.OfferAudit;
 import org.broadleafcommerce.core.offer.domain.OfferCode;
+import org.broadleafcommerce.core.offer.domain.OfferUsageCounter;
 import org.broadleafcommerce.core.offer.service.OfferService;
 import org.broadleafcommerce.core.offer.service.workflow.RecordOfferUsageActivity;
 import org.broadleafcommerce.core.offer.service.workflow.VerifyCustomerMaxOfferUsesActivity;
@@ -103,4 +104,47 @@ public interface OfferAuditDao {
      */
     List<OfferAudit> readOfferAuditsByOrderId(Long orderId);
 
+    /**
+     * Reads the usage counter with the given key
+     * @param counterKey
+     * @return the counter, or null if no use has been counted against the key yet
+     */
+    OfferUsageCounter readUsageCounter(String counterKey);
+
+    /**
+     * Creates a usage counter starting from the given count. Must be called within a transaction, and should another
+     * transaction create the same counter first, committing will fail.
+     * @param counterKey
+     * @param useCount
+     */
+    void createUsageCounter(String counterKey, Long useCount);
+
+    /**
+     * Atomically increments the usage counter, provided it is below the maximum
+     * @param counterKey
+     * @param maxUses
+     * @return true if a use was reserved, false if the counter does not exist or has reached the maximum
+     */
+    boolean reserveUsage(String counterKey, Long maxUses);
+
+    /**
+     * Atomically decrements the usage counter, giving back a use reserved with {@link #reserveUsage(String, Long)}
+     * @param counterKey
+     */
+    void releaseUsage(String counterKey);
+
+    /**
+     * Sets the usage counter to the given count, e.g. the number of {@link OfferAudit}s recorded against it
+     * @param counterKey
+     * @param useCount
+     * @return whether or not the counter exists and was updated
+     */
+    boolean updateUsageCounter(String counterKey, Long useCount);
+
+    /**
+     * Reads the keys of all of the usage counters
+     * @return
+     */
+    List<String> readUsageCounterKeys();
+
 }
@@ -23,6 +23,8 @@ import org.broadleafcommerce.common.persistence.EntityConfiguration;
 import org.broadleafcommerce.common.util.dao.TypedQueryBuilder;
 import org.broadleafcommerce.core.offer.domain.OfferAudit;
 import org.broadleafcommerce.core.offer.domain.OfferAuditImpl;
+import org.broadleafcommerce.core.offer.domain.OfferUsageCounter;
+import org.broadleafcommerce.core.offer.domain.OfferUsageCounterImpl;
 import org.broadleafcommerce.core.order.domain.Order;
 import org.springframework.stereotype.Repository;
 
@@ -32,6 +34,7 @@ import java.util.List;
 import javax.annotation.Resource;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -166,4 +169,46 @@ public class OfferAuditDaoImpl implements OfferAuditDao {
         return query.getResultList();
     }
 
+    @Override
+    public OfferUsageCounter readUsageCounter(String counterKey) {
+        return em.find(OfferUsageCounterImpl.class, counterKey);
+    }
+
+    @Override
+    public void createUsageCounter(String counterKey, Long useCount) {
+        OfferUsageCounter counter = (OfferUsageCounter) entityConfiguration.createEntityInstance(OfferUsageCounter.class.getName());
+        counter.setCounterKey(counterKey);
+        counter.setUseCount(useCount);
+        em.persist(counter);
+    }
+
+    @Override
+    public boolean reserveUsage(String counterKey, Long maxUses) {
+        Query query = em.createNamedQuery("BC_RESERVE_OFFER_USAGE");
+        query.setParameter("counterKey", counterKey);
+        query.setParameter("maxUses", maxUses);
+        return query.executeUpdate() == 1;
+    }
+
+    @Override
+    public void releaseUsage(String counterKey) {
+        Query query = em.createNamedQuery("BC_RELEASE_OFFER_USAGE");
+        query.setParameter("counterKey", counterKey);
+        query.executeUpdate();
+    }
+
+    @Override
+    public boolean updateUsageCounter(String counterKey, Long useCount) {
+        Query query = em.createNamedQuery("BC_UPDATE_OFFER_USAGE_COUNT");
+        query.setParameter("counterKey", counterKey);
+        query.setParameter("useCount", useCount);
+        return query.executeUpdate() == 1;
+    }
+
+    @Override
+    public List<String> readUsageCounterKeys() {
+        TypedQuery<String> query = em.createNamedQuery("BC_READ_OFFER_USAGE_COUNTER_KEYS", String.class);
+        return query.getResultList();
+    }
+
 }
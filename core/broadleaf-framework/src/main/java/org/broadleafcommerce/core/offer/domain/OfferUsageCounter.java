@@ -0,0 +1,46 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.offer.domain;
+
+import java.io.Serializable;
+
+/**
+ * A running count of the uses of a limited use offer or offer code, maintained alongside the {@link OfferAudit}s so that
+ * max use checks do not have to count audits.
+ *
+ * @see org.broadleafcommerce.core.offer.service.OfferUsageLedgerService
+ */
+public interface OfferUsageCounter extends Serializable {
+
+    /**
+     * Identifies what is being counted, e.g. the uses of an offer by a particular customer
+     * @return
+     */
+    public String getCounterKey();
+
+    public void setCounterKey(String counterKey);
+
+    /**
+     * The number of uses reserved against this counter
+     * @return
+     */
+    public Long getUseCount();
+
+    public void setUseCount(Long useCount);
+
+}
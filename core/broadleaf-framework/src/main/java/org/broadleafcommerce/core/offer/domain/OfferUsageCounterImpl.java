@@ -0,0 +1,61 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.offer.domain;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Inheritance;
+import javax.persistence.InheritanceType;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "BLC_OFFER_USAGE_COUNTER")
+@Inheritance(strategy = InheritanceType.JOINED)
+public class OfferUsageCounterImpl implements OfferUsageCounter {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "COUNTER_KEY", length = 100)
+    protected String counterKey;
+
+    @Column(name = "USE_COUNT", nullable = false)
+    protected Long useCount = 0L;
+
+    @Override
+    public String getCounterKey() {
+        return counterKey;
+    }
+
+    @Override
+    public void setCounterKey(String counterKey) {
+        this.counterKey = counterKey;
+    }
+
+    @Override
+    public Long getUseCount() {
+        return useCount;
+    }
+
+    @Override
+    public void setUseCount(Long useCount) {
+        this.useCount = useCount;
+    }
+
+}
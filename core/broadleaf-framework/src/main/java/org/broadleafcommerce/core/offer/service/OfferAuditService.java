@@ -39,6 +39,11 @@ public interface OfferAuditService {
      * Persists an audit record to the database
      */
     OfferAudit save(OfferAudit offerAudit);
+
+    /**
+     * Persists all of the audit records to the database in a single transaction
+     */
+    List<OfferAudit> saveAll(List<OfferAudit> offerAudits);
     
     void delete(OfferAudit offerAudit);
 
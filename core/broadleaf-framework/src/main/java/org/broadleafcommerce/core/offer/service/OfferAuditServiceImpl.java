@@ -24,6 +24,7 @@ import org.broadleafcommerce.core.order.domain.Order;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Resource;
 
@@ -49,6 +50,16 @@ public class OfferAuditServiceImpl implements OfferAuditService {
         return offerAuditDao.save(offerAudit);
     }
     
+    @Override
+    @Transactional(TransactionUtils.DEFAULT_TRANSACTION_MANAGER)
+    public List<OfferAudit> saveAll(List<OfferAudit> offerAudits) {
+        List<OfferAudit> saved = new ArrayList<>(offerAudits.size());
+        for (OfferAudit offerAudit : offerAudits) {
+            saved.add(offerAuditDao.save(offerAudit));
+        }
+        return saved;
+    }
+    
     @Override
     @Transactional(TransactionUtils.DEFAULT_TRANSACTION_MANAGER)
     public void delete(OfferAudit offerAudit) {
@@ -0,0 +1,80 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.offer.service;
+
+import org.broadleafcommerce.core.offer.domain.Offer;
+import org.broadleafcommerce.core.offer.domain.OfferCode;
+import org.broadleafcommerce.core.offer.service.exception.OfferMaxUseExceededException;
+import org.broadleafcommerce.core.order.domain.Order;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Enforces max uses per customer for {@link Offer}s and max uses for {@link OfferCode}s with pre-aggregated usage
+ * counters, rather than by counting {@link org.broadleafcommerce.core.offer.domain.OfferAudit}s. A use is reserved with
+ * an atomic, conditional increment of the counter in a short transaction of its own, so checkouts using the same offer
+ * do not wait on each other for the rest of the checkout.
+ *
+ * @see org.broadleafcommerce.core.offer.service.workflow.VerifyCustomerMaxOfferUsesActivity
+ * @see org.broadleafcommerce.core.offer.service.workflow.RecordOfferUsageRollbackHandler
+ */
+public interface OfferUsageLedgerService {
+
+    /**
+     * Reserves a use of each limited use offer and offer code on the order. Uses already recorded for this order (e.g.
+     * a CSR resubmitting an order) are not reserved again. Should any limit be reached, the uses reserved so far are
+     * released.
+     *
+     * @param order the order being checked out
+     * @param offers the offers applied to the order
+     * @param offerCodes the offer codes added to the order
+     * @return the keys of the counters a use was reserved against, to be passed to {@link #release(List)} should the
+     * checkout fail
+     * @throws OfferMaxUseExceededException if the customer has reached the max uses of an offer, or an offer code has
+     * reached its max uses
+     */
+    List<String> reserve(Order order, Set<Offer> offers, Collection<OfferCode> offerCodes) throws OfferMaxUseExceededException;
+
+    /**
+     * Gives back the uses returned by {@link #reserve(Order, Set, Collection)}
+     *
+     * @param counterKeys
+     */
+    void release(List<String> counterKeys);
+
+    /**
+     * Resets the counter to the number of {@link org.broadleafcommerce.core.offer.domain.OfferAudit}s recorded against
+     * it. A counter can drift above the recorded uses, for example when a node stops between reserving a use and
+     * recording or releasing it, or when audits are deleted outside of checkout. Uses reserved by checkouts still in
+     * flight are not counted, so this is best run when the offer is not being redeemed.
+     *
+     * @param counterKey the key of the counter
+     * @return the recorded number of uses the counter was set to, or null if there is no such counter
+     */
+    Long reconcile(String counterKey);
+
+    /**
+     * {@link #reconcile(String)}s every counter. A counter that can not be reconciled is logged and skipped.
+     *
+     * @return the number of counters whose count changed
+     */
+    int reconcileAll();
+
+}
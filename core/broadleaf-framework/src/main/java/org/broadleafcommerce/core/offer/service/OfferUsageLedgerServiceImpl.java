@@ -0,0 +1,258 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.offer.service;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.util.TransactionUtils;
+import org.broadleafcommerce.core.offer.dao.OfferAuditDao;
+import org.broadleafcommerce.core.offer.domain.Offer;
+import org.broadleafcommerce.core.offer.domain.OfferAudit;
+import org.broadleafcommerce.core.offer.domain.OfferCode;
+import org.broadleafcommerce.core.offer.domain.OfferUsageCounter;
+import org.broadleafcommerce.core.offer.service.exception.OfferMaxUseExceededException;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Resource;
+
+/**
+ * Counters are kept in BLC_OFFER_USAGE_COUNTER. A counter is created the first time it is needed, starting from the
+ * number of {@link OfferAudit}s already recorded, so the ledger can be turned on for a site with existing usage. A
+ * counter that has drifted from the audits is set back to their count by {@link #reconcile(String)}.
+ */
+@Service("blOfferUsageLedgerService")
+public class OfferUsageLedgerServiceImpl implements OfferUsageLedgerService {
+
+    protected static final Log LOG = LogFactory.getLog(OfferUsageLedgerServiceImpl.class);
+
+    protected static final int MAX_RESERVE_ATTEMPTS = 3;
+
+    protected static final String CUSTOMER_OFFER_KEY_PREFIX = "CUSTOMER_OFFER:";
+
+    protected static final String OFFER_CODE_KEY_PREFIX = "OFFER_CODE:";
+
+    @Resource(name = "blOfferAuditDao")
+    protected OfferAuditDao offerAuditDao;
+
+    @Resource(name = "blTransactionManager")
+    protected PlatformTransactionManager transactionManager;
+
+    @Override
+    public List<String> reserve(Order order, Set<Offer> offers, Collection<OfferCode> offerCodes) throws OfferMaxUseExceededException {
+        Set<String> recordedKeys = getRecordedCounterKeys(order);
+        List<String> reserved = new ArrayList<>();
+        boolean success = false;
+        try {
+            Long customerId = order.getCustomer().getId();
+            for (Offer offer : offers) {
+                if (offer.isLimitedUsePerCustomer()) {
+                    String key = getCustomerOfferKey(customerId, offer.getId());
+                    if (!recordedKeys.contains(key)) {
+                        if (!reserveUse(key, offer.getMaxUsesPerCustomer(), order, customerId, offer.getId(), null)) {
+                            throw new OfferMaxUseExceededException("The customer has used this offer more than the maximum allowed number of times.");
+                        }
+                        reserved.add(key);
+                    }
+                }
+            }
+            for (OfferCode code : offerCodes) {
+                if (code.isLimitedUse()) {
+                    String key = getOfferCodeKey(code.getId());
+                    if (!recordedKeys.contains(key)) {
+                        if (!reserveUse(key, Long.valueOf(code.getMaxUses()), order, null, null, code.getId())) {
+                            throw new OfferMaxUseExceededException("Offer code " + code.getOfferCode() + " with id " + code.getId()
+                                    + " has been used more than the maximum allowed number of times.");
+                        }
+                        reserved.add(key);
+                    }
+                }
+            }
+            success = true;
+            return reserved;
+        } finally {
+            if (!success) {
+                release(reserved);
+            }
+        }
+    }
+
+    @Override
+    public void release(List<String> counterKeys) {
+        for (String counterKey : counterKeys) {
+            TransactionStatus status = TransactionUtils.createTransaction("releaseOfferUsage",
+                    TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, false);
+            boolean isError = false;
+            try {
+                offerAuditDao.releaseUsage(counterKey);
+            } catch (RuntimeException e) {
+                isError = true;
+                LOG.error("Unable to release the offer use reserved against " + counterKey, e);
+            } finally {
+                TransactionUtils.finalizeTransaction(status, transactionManager, isError);
+            }
+        }
+    }
+
+    @Override
+    public Long reconcile(String counterKey) {
+        TransactionStatus status = TransactionUtils.createTransaction("reconcileOfferUsage",
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, false);
+        boolean isError = false;
+        try {
+            Long recordedUses = countRecordedUses(counterKey);
+            return offerAuditDao.updateUsageCounter(counterKey, recordedUses) ? recordedUses : null;
+        } catch (RuntimeException e) {
+            isError = true;
+            throw e;
+        } finally {
+            TransactionUtils.finalizeTransaction(status, transactionManager, isError);
+        }
+    }
+
+    @Override
+    public int reconcileAll() {
+        int changed = 0;
+        for (String counterKey : offerAuditDao.readUsageCounterKeys()) {
+            try {
+                OfferUsageCounter counter = offerAuditDao.readUsageCounter(counterKey);
+                Long previousUses = counter == null ? null : counter.getUseCount();
+                Long recordedUses = reconcile(counterKey);
+                if (recordedUses != null && !recordedUses.equals(previousUses)) {
+                    LOG.info("Reconciled offer usage counter " + counterKey + " from " + previousUses + " to "
+                            + recordedUses + " uses");
+                    changed++;
+                }
+            } catch (RuntimeException e) {
+                LOG.error("Unable to reconcile offer usage counter " + counterKey, e);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Reserves a use against the counter in its own transaction, creating the counter first if this is the first time it
+     * is used.
+     *
+     * @return whether or not a use could be reserved without exceeding the max uses
+     */
+    protected boolean reserveUse(String counterKey, Long maxUses, Order order, Long customerId, Long offerId, Long offerCodeId) {
+        for (int attempt = 0; attempt < MAX_RESERVE_ATTEMPTS; attempt++) {
+            Boolean reserved = null;
+            boolean created = false;
+            boolean isError = false;
+            TransactionStatus status = TransactionUtils.createTransaction("reserveOfferUsage",
+                    TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, false);
+            try {
+                if (offerAuditDao.reserveUsage(counterKey, maxUses)) {
+                    reserved = true;
+                } else if (offerAuditDao.readUsageCounter(counterKey) != null) {
+                    reserved = false;
+                } else {
+                    offerAuditDao.createUsageCounter(counterKey, countRecordedUses(order, customerId, offerId, offerCodeId));
+                    created = true;
+                }
+            } catch (RuntimeException e) {
+                isError = true;
+                throw e;
+            } finally {
+                try {
+                    TransactionUtils.finalizeTransaction(status, transactionManager, isError);
+                } catch (RuntimeException e) {
+                    if (!created) {
+                        throw e;
+                    }
+                    // another checkout created the counter first, try the reservation again
+                    LOG.debug("Offer usage counter " + counterKey + " was created concurrently", e);
+                }
+            }
+            if (reserved != null) {
+                return reserved;
+            }
+        }
+        throw new IllegalStateException("Unable to reserve an offer use against " + counterKey);
+    }
+
+    protected Long countRecordedUses(Order order, Long customerId, Long offerId, Long offerCodeId) {
+        Long count;
+        if (offerCodeId != null) {
+            count = offerAuditDao.countOfferCodeUses(order, offerCodeId);
+        } else {
+            count = offerAuditDao.countUsesByCustomer(order, customerId, offerId);
+        }
+        if (count == null) {
+            throw new IllegalStateException("Unable to count the recorded offer uses for " + (offerCodeId != null ?
+                    getOfferCodeKey(offerCodeId) : getCustomerOfferKey(customerId, offerId)));
+        }
+        return count;
+    }
+
+    /**
+     * Counts all of the {@link OfferAudit}s recorded against the counter, including those of every order
+     */
+    @SuppressWarnings("deprecation")
+    protected Long countRecordedUses(String counterKey) {
+        String[] parts = counterKey.split(":");
+        Long count;
+        if (parts.length == 2 && counterKey.startsWith(OFFER_CODE_KEY_PREFIX)) {
+            count = offerAuditDao.countOfferCodeUses(Long.valueOf(parts[1]));
+        } else if (parts.length == 3 && counterKey.startsWith(CUSTOMER_OFFER_KEY_PREFIX)) {
+            count = offerAuditDao.countUsesByCustomer(Long.valueOf(parts[1]), Long.valueOf(parts[2]));
+        } else {
+            throw new IllegalArgumentException("Unknown offer usage counter key " + counterKey);
+        }
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * The counters that already include a use by this order, according to the audits recorded for it
+     */
+    protected Set<String> getRecordedCounterKeys(Order order) {
+        Set<String> keys = new HashSet<>();
+        if (order.getId() == null) {
+            return keys;
+        }
+        for (OfferAudit audit : offerAuditDao.readOfferAuditsByOrderId(order.getId())) {
+            if (audit.getCustomerId() != null && audit.getOfferId() != null) {
+                keys.add(getCustomerOfferKey(audit.getCustomerId(), audit.getOfferId()));
+            }
+            if (audit.getOfferCodeId() != null) {
+                keys.add(getOfferCodeKey(audit.getOfferCodeId()));
+            }
+        }
+        return keys;
+    }
+
+    protected String getCustomerOfferKey(Long customerId, Long offerId) {
+        return CUSTOMER_OFFER_KEY_PREFIX + customerId + ":" + offerId;
+    }
+
+    protected String getOfferCodeKey(Long offerCodeId) {
+        return OFFER_CODE_KEY_PREFIX + offerCodeId;
+    }
+
+}
@@ -17,6 +17,7 @@
  */
 package org.broadleafcommerce.core.offer.service.processor;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.logging.Log;
@@ -41,8 +42,10 @@ import org.broadleafcommerce.core.offer.service.type.OfferRuleType;
 import org.broadleafcommerce.core.offer.service.type.OfferType;
 import org.broadleafcommerce.core.order.domain.OrderItem;
 import org.broadleafcommerce.core.order.service.type.FulfillmentType;
+import org.broadleafcommerce.core.pricing.service.PricingFingerprintService;
 import org.broadleafcommerce.profile.core.domain.Customer;
 import org.joda.time.LocalDateTime;
+import org.springframework.beans.factory.annotation.Value;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -54,9 +57,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.TreeMap;
 
 import javax.annotation.Resource;
 
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+
 /**
  * 
  * @author jfischer
@@ -67,12 +75,32 @@ public abstract class AbstractBaseProcessor implements BaseProcessor {
     private static final Log LOG = LogFactory.getLog(AbstractBaseProcessor.class);
     private static final Map EXPRESSION_CACHE = new LRUMap(1000);
 
+    /**
+     * The ehcache region holding remembered item criteria match outcomes, see {@link #incrementalItemCriteriaMatching}
+     */
+    public static final String ITEM_CRITERIA_MATCH_CACHE_NAME = "blOfferItemCriteriaMatchElements";
+
     @Resource(name = "blOfferTimeZoneProcessor")
     protected OfferTimeZoneProcessor offerTimeZoneProcessor;
     
     @Resource(name = "blOfferServiceExtensionManager")
     protected OfferServiceExtensionManager extensionManager;
 
+    @Resource(name = "blPricingFingerprintService")
+    protected PricingFingerprintService pricingFingerprintService;
+
+    /**
+     * When true, the outcome of an item criteria match rule is remembered per rule text, order item state and rule
+     * variables so that repricing a large cart only evaluates the rules against the items that changed. The order item
+     * is compared by the ids and values fingerprinted by {@link PricingFingerprintService#buildOrderItemFingerprint(OrderItem)}
+     * (its sku, product and category ids, attributes, quantity and price), so only enable this when item criteria rules
+     * do not read other properties of those entities that can change while the outcome is remembered.
+     */
+    @Value("${pricing.incremental.item.criteria.matching:false}")
+    protected boolean incrementalItemCriteriaMatching = false;
+
+    protected Cache itemCriteriaMatchCache;
+
     protected CandidatePromotionItems couldOfferApplyToOrderItems(Offer offer, List<PromotableOrderItem> promotableOrderItems) {
         CandidatePromotionItems candidates = new CandidatePromotionItems();
         if (offer.getQualifyingItemCriteriaXref() == null || offer.getQualifyingItemCriteriaXref().size() == 0) {
@@ -242,17 +270,75 @@ public abstract class AbstractBaseProcessor implements BaseProcessor {
                 extensionManager.applyAdditionalRuleVariablesForItemOfferEvaluation(orderItem, vars);
             }
 
+            String matchKey = buildItemCriteriaMatchKey(criteria, orderItem, vars);
+            if (matchKey != null) {
+                Element cachedOutcome = getItemCriteriaMatchCache().get(matchKey);
+                if (cachedOutcome != null) {
+                    return (Boolean) cachedOutcome.getObjectValue();
+                }
+            }
+
             Boolean expressionOutcome = executeExpression(criteria.getMatchRule(), vars);
             if (expressionOutcome != null && expressionOutcome) {
                 appliesToItem = true;
             }
+            if (matchKey != null) {
+                getItemCriteriaMatchCache().put(new Element(matchKey, appliesToItem));
+            }
         } else {
             appliesToItem = true;
         }
 
         return appliesToItem;
     }
+
+    /**
+     * Builds the key under which the outcome of the criteria's match rule against the given item is remembered, or
+     * null if the outcome should not be remembered. The key changes whenever the rule text, the state of the item or
+     * any of the rule variables changes, so an edited offer never reuses an outcome of its previous rule; such outdated
+     * entries simply age out of the region.
+     * 
+     * @param criteria
+     * @param orderItem
+     * @param vars the variables the rule is evaluated with
+     * @return the key, or null if incremental matching does not apply
+     */
+    protected String buildItemCriteriaMatchKey(OfferItemCriteria criteria, PromotableOrderItem orderItem, Map<String, Object> vars) {
+        if (!incrementalItemCriteriaMatching || pricingFingerprintService == null || criteria.getId() == null
+                || orderItem.getOrderItem().getId() == null || getItemCriteriaMatchCache() == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("rule:").append(criteria.getMatchRule());
+        sb.append("|item:").append(pricingFingerprintService.buildOrderItemFingerprint(orderItem.getOrderItem()));
+        for (Map.Entry<String, Object> var : new TreeMap<String, Object>(vars).entrySet()) {
+            sb.append('|').append(var.getKey()).append('=').append(getRuleVariableIdentity(var.getValue(), orderItem));
+        }
+        return criteria.getId() + "|" + DigestUtils.sha1Hex(sb.toString());
+    }
+
+    /**
+     * The identity of a rule variable's value for {@link #buildItemCriteriaMatchKey(OfferItemCriteria, PromotableOrderItem, Map)}.
+     * The order item itself is already part of the key through its fingerprint, which also lets the outcome be reused
+     * once the item is read again in a later request. Any other value is identified by its instance.
+     */
+    protected String getRuleVariableIdentity(Object value, PromotableOrderItem orderItem) {
+        if (value == null) {
+            return "null";
+        }
+        if (value == orderItem.getOrderItem()) {
+            return "orderItem";
+        }
+        return value.getClass().getName() + "@" + System.identityHashCode(value);
+    }
     
+    protected Cache getItemCriteriaMatchCache() {
+        if (itemCriteriaMatchCache == null) {
+            itemCriteriaMatchCache = CacheManager.getInstance().getCache(ITEM_CRITERIA_MATCH_CACHE_NAME);
+        }
+        return itemCriteriaMatchCache;
+    }
+
     /**
      * Private method used by couldOfferApplyToOrder to execute the MVEL expression in the
      * appliesToOrderRules to determine if this offer can be applied.
@@ -89,7 +89,7 @@ public class RecordOfferUsageActivity extends BaseActivity<ProcessContext<Checko
     }
     
     /**
-     * Persists each of the offers to the database as {@link OfferAudit}s.
+     * Persists each of the offers to the database as {@link OfferAudit}s, in a single transaction.
      * 
      * @return the {@link OfferAudit}s that were persisted
      */
@@ -108,11 +108,10 @@ public class RecordOfferUsageActivity extends BaseActivity<ProcessContext<Checko
             }
             
             audit.setRedeemedDate(SystemTime.asDate());
-            audit = offerAuditService.save(audit);
             audits.add(audit);
         }
         
-        return audits;
+        return audits.isEmpty() ? audits : offerAuditService.saveAll(audits);
     }
         
 }
@@ -20,6 +20,7 @@ package org.broadleafcommerce.core.offer.service.workflow;
 import org.broadleafcommerce.core.checkout.service.workflow.CheckoutSeed;
 import org.broadleafcommerce.core.offer.domain.OfferAudit;
 import org.broadleafcommerce.core.offer.service.OfferAuditService;
+import org.broadleafcommerce.core.offer.service.OfferUsageLedgerService;
 import org.broadleafcommerce.core.workflow.Activity;
 import org.broadleafcommerce.core.workflow.ProcessContext;
 import org.broadleafcommerce.core.workflow.state.RollbackFailureException;
@@ -33,7 +34,8 @@ import javax.annotation.Resource;
 
 
 /**
- * Rolls back audits that were saved in the database from {@link RecordOfferUsageActivity}.
+ * Rolls back audits that were saved in the database from {@link RecordOfferUsageActivity}, and gives back offer uses
+ * reserved through the {@link OfferUsageLedgerService} by {@link VerifyCustomerMaxOfferUsesActivity}.
  *
  * @author Phillip Verheyden (phillipuniverse)
  * @see {@link RecordOfferUsageActivity}
@@ -41,15 +43,29 @@ import javax.annotation.Resource;
 @Component("blRecordOfferUsageRollbackHandler")
 public class RecordOfferUsageRollbackHandler implements RollbackHandler<ProcessContext<CheckoutSeed>> {
 
+    /**
+     * Key to retrieve the keys of the usage counters that a use was reserved against
+     */
+    public static final String RESERVED_USAGES = "reservedUsages";
+
     @Resource(name = "blOfferAuditService")
     protected OfferAuditService offerAuditService;
+
+    @Resource(name = "blOfferUsageLedgerService")
+    protected OfferUsageLedgerService offerUsageLedgerService;
     
     @Override
     public void rollbackState(Activity<ProcessContext<CheckoutSeed>> activity, ProcessContext<CheckoutSeed> processContext, Map<String, Object> stateConfiguration) throws RollbackFailureException {
         List<OfferAudit> audits = (List<OfferAudit>) stateConfiguration.get(RecordOfferUsageActivity.SAVED_AUDITS);
-        
-        for (OfferAudit audit : audits) {
-            offerAuditService.delete(audit);
+        if (audits != null) {
+            for (OfferAudit audit : audits) {
+                offerAuditService.delete(audit);
+            }
+        }
+
+        List<String> reservedUsages = (List<String>) stateConfiguration.get(RESERVED_USAGES);
+        if (reservedUsages != null) {
+            offerUsageLedgerService.release(reservedUsages);
         }
     }
     
@@ -22,12 +22,18 @@ import org.broadleafcommerce.core.offer.domain.Offer;
 import org.broadleafcommerce.core.offer.domain.OfferCode;
 import org.broadleafcommerce.core.offer.service.OfferAuditService;
 import org.broadleafcommerce.core.offer.service.OfferService;
+import org.broadleafcommerce.core.offer.service.OfferUsageLedgerService;
 import org.broadleafcommerce.core.offer.service.exception.OfferMaxUseExceededException;
 import org.broadleafcommerce.core.order.domain.Order;
 import org.broadleafcommerce.core.workflow.BaseActivity;
 import org.broadleafcommerce.core.workflow.ProcessContext;
+import org.broadleafcommerce.core.workflow.state.ActivityStateManagerImpl;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Resource;
@@ -38,6 +44,10 @@ import javax.annotation.Resource;
  * 
  * This will also verify that max uses for any {@link OfferCode}s that were used to retrieve the {@link Offer}s.
  * 
+ * When 'offer.usage.ledger.enabled' is true, a use of each limited offer and offer code is reserved through the
+ * {@link OfferUsageLedgerService} instead of counting audits, and the reservation is given back by the
+ * {@link RecordOfferUsageRollbackHandler} should the checkout fail.
+ * 
  * @author Phillip Verheyden (phillipuniverse)
  */
 @Component("blVerifyCustomerMaxOfferUsesActivity")
@@ -51,6 +61,15 @@ public class VerifyCustomerMaxOfferUsesActivity extends BaseActivity<ProcessCont
     @Resource(name = "blOfferService")
     protected OfferService offerService;
 
+    @Resource(name = "blOfferUsageLedgerService")
+    protected OfferUsageLedgerService offerUsageLedgerService;
+
+    @Resource(name = "blRecordOfferUsageRollbackHandler")
+    protected RecordOfferUsageRollbackHandler recordOfferUsageRollbackHandler;
+
+    @Value("${offer.usage.ledger.enabled:false}")
+    protected boolean useUsageLedger = false;
+
     public VerifyCustomerMaxOfferUsesActivity() {
         setOrder(ORDER);
     }
@@ -59,6 +78,16 @@ public class VerifyCustomerMaxOfferUsesActivity extends BaseActivity<ProcessCont
     public ProcessContext<CheckoutSeed> execute(ProcessContext<CheckoutSeed> context) throws Exception {
         Order order = context.getSeedData().getOrder();
         Set<Offer> appliedOffers = offerService.getUniqueOffersFromOrder(order);
+
+        if (useUsageLedger) {
+            List<String> reserved = offerUsageLedgerService.reserve(order, appliedOffers, order.getAddedOfferCodes());
+            if (!reserved.isEmpty()) {
+                Map<String, Object> state = new HashMap<>();
+                state.put(RecordOfferUsageRollbackHandler.RESERVED_USAGES, reserved);
+                ActivityStateManagerImpl.getStateManager().registerState(this, context, recordOfferUsageRollbackHandler, state);
+            }
+            return context;
+        }
         
         for (Offer offer : appliedOffers) {
             if (offer.isLimitedUsePerCustomer()) {
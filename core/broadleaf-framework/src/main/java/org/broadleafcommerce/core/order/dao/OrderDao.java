@@ -93,6 +93,27 @@ public interface OrderDao {
      */
     public boolean releaseLock(Order order);
 
+    /**
+     * Same as {@link #acquireLock(Order)}, but for an arbitrary lock key rather than the key used for cart locking. This
+     * allows other processes, such as checkout, to keep their own lock on an order in the {@link OrderLock} table.
+     * 
+     * @param orderId the id of the order to lock
+     * @param lockKey the key distinguishing this lock from other locks on the same order
+     * @param timeToLive the number of milliseconds after which an unreleased lock may be taken over, or -1 to never
+     * take over an unreleased lock
+     * @return true if the lock was acquired, false otherwise
+     */
+    public boolean acquireLock(Long orderId, String lockKey, Long timeToLive);
+
+    /**
+     * Same as {@link #releaseLock(Order)}, but for an arbitrary lock key
+     * 
+     * @param orderId the id of the locked order
+     * @param lockKey the key passed to {@link #acquireLock(Long, String, Long)}
+     * @return true if the lock was successfully released, false otherwise
+     */
+    public boolean releaseLock(Long orderId, String lockKey);
+
     List<Order> readOrdersByEmail(String email);
 
     public Long readNumberOfOrders();
@@ -374,11 +374,15 @@ public class OrderDaoImpl implements OrderDao {
 
     @Override
     public boolean acquireLock(Order order) {
-        String orderLockKey = getOrderLockKey();
+        return acquireLock(order.getId(), getOrderLockKey(), getDatabaseOrderLockTimeToLive());
+    }
+
+    @Override
+    public boolean acquireLock(Long orderId, String lockKey, Long timeToLive) {
         // First, we'll see if there's a record of a lock for this order
         Query q = em.createNamedQuery("BC_ORDER_LOCK_READ");
-        q.setParameter("orderId", order.getId());
-        q.setParameter("key", orderLockKey);
+        q.setParameter("orderId", orderId);
+        q.setParameter("key", lockKey);
         q.setHint(QueryHints.HINT_CACHEABLE, false);
         Long count = (Long) q.getSingleResult();
         
@@ -388,9 +392,9 @@ public class OrderDaoImpl implements OrderDao {
             // successfully inserted a record, that means that we are the owner of the lock right now.
             try {
                 OrderLock ol = (OrderLock) entityConfiguration.createEntityInstance(OrderLock.class.getName());
-                ol.setOrderId(order.getId());
+                ol.setOrderId(orderId);
                 ol.setLocked(true);
-                ol.setKey(orderLockKey);
+                ol.setKey(lockKey);
                 ol.setLastUpdated(System.currentTimeMillis());
                 em.persist(ol);
                 return true;
@@ -403,11 +407,10 @@ public class OrderDaoImpl implements OrderDao {
         // for this order. We'll attempt to update the status from unlocked to locked. If that is successful,
         // we acquired the lock. 
         q = em.createNamedQuery("BC_ORDER_LOCK_ACQUIRE");
-        q.setParameter("orderId", order.getId());
+        q.setParameter("orderId", orderId);
         q.setParameter("currentTime", System.currentTimeMillis());
-        q.setParameter("key", orderLockKey);
-        Long orderLockTimeToLive = getDatabaseOrderLockTimeToLive();
-        q.setParameter("timeout", orderLockTimeToLive==-1L?orderLockTimeToLive:System.currentTimeMillis() - orderLockTimeToLive);
+        q.setParameter("key", lockKey);
+        q.setParameter("timeout", timeToLive==-1L?timeToLive:System.currentTimeMillis() - timeToLive);
         q.setHint(QueryHints.HINT_CACHEABLE, false);
         int rowsAffected = q.executeUpdate();
 
@@ -416,14 +419,19 @@ public class OrderDaoImpl implements OrderDao {
 
     @Override
     public boolean releaseLock(final Order order) {
+        return releaseLock(order.getId(), getOrderLockKey());
+    }
+
+    @Override
+    public boolean releaseLock(final Long orderId, final String lockKey) {
         final boolean[] response = {false};
         try {
             transUtil.runTransactionalOperation(new StreamCapableTransactionalOperationAdapter() {
                 @Override
                 public void execute() throws Throwable {
                     Query q = em.createNamedQuery("BC_ORDER_LOCK_RELEASE");
-                    q.setParameter("orderId", order.getId());
-                    q.setParameter("key", getOrderLockKey());
+                    q.setParameter("orderId", orderId);
+                    q.setParameter("key", lockKey);
                     q.setHint(QueryHints.HINT_CACHEABLE, false);
                     int rowsAffected = q.executeUpdate();
                     response[0] = rowsAffected == 1;
@@ -435,7 +443,7 @@ public class OrderDaoImpl implements OrderDao {
                 }
             }, RuntimeException.class);
         } catch (RuntimeException e) {
-            LOG.error(String.format("Could not release order lock (%s)", order.getId()), e);
+            LOG.error(String.format("Could not release order lock (%s)", orderId), e);
         }
         return response[0];
     }
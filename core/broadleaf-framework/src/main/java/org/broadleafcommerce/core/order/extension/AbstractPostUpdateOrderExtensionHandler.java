@@ -19,6 +19,7 @@ package org.broadleafcommerce.core.order.extension;
 
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.order.domain.Order;
 
 import java.util.List;
@@ -29,21 +30,25 @@ public abstract class AbstractPostUpdateOrderExtensionHandler
     protected static final int DEFAULT_PRIORITY = 500;
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType postUpdate(long orderId) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType postUpdate(Order order) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType postUpdateAll(List<Order> orders) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType postUpdateAllByIds(List<Long> orderIds) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
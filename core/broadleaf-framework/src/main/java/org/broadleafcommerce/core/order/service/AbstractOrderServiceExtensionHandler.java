@@ -20,6 +20,7 @@ package org.broadleafcommerce.core.order.service;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.offer.domain.OfferCode;
 import org.broadleafcommerce.core.order.domain.Order;
 import org.broadleafcommerce.core.order.service.call.OrderItemRequestDTO;
@@ -34,37 +35,44 @@ public abstract class AbstractOrderServiceExtensionHandler extends AbstractExten
         OrderServiceExtensionHandler {
     
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType attachAdditionalDataToNewNamedCart(Customer customer, Order cart) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType preValidateCartOperation(Order cart, ExtensionResultHolder erh) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType preValidateUpdateQuantityOperation(Order cart, OrderItemRequestDTO dto, 
             ExtensionResultHolder erh) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
     
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType attachAdditionalDataToOrder(Order order, boolean priceOrder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addOfferCodes(Order order, List<OfferCode> offerCodes, boolean priceOrder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType findCartForCustomerWithEnhancements(Customer customer, ExtensionResultHolder erh) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType findCartForCustomerWithEnhancements(Customer customer, Order candidateCart, ExtensionResultHolder erh) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
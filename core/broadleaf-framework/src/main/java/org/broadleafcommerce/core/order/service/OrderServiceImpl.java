@@ -20,9 +20,12 @@ package org.broadleafcommerce.core.order.service;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.common.cache.CacheStatType;
+import org.broadleafcommerce.common.cache.StatisticsService;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
 import org.broadleafcommerce.common.payment.PaymentType;
+import org.broadleafcommerce.common.rule.RequestRuleResultCache;
 import org.broadleafcommerce.common.util.BLCSystemProperty;
 import org.broadleafcommerce.common.util.TableCreator;
 import org.broadleafcommerce.common.util.TransactionUtils;
@@ -61,6 +64,7 @@ import org.broadleafcommerce.core.payment.dao.OrderPaymentDao;
 import org.broadleafcommerce.core.payment.domain.OrderPayment;
 import org.broadleafcommerce.core.payment.domain.secure.Referenced;
 import org.broadleafcommerce.core.payment.service.SecureOrderPaymentService;
+import org.broadleafcommerce.core.pricing.service.PricingFingerprintService;
 import org.broadleafcommerce.core.pricing.service.PricingService;
 import org.broadleafcommerce.core.pricing.service.exception.PricingException;
 import org.broadleafcommerce.core.workflow.ActivityMessages;
@@ -79,6 +83,8 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.Date;
@@ -116,6 +122,12 @@ public class OrderServiceImpl implements OrderService {
     /* Services */
     @Resource(name = "blPricingService")
     protected PricingService pricingService;
+
+    @Resource(name = "blPricingFingerprintService")
+    protected PricingFingerprintService pricingFingerprintService;
+
+    @Resource(name = "blStatisticsService")
+    protected StatisticsService statisticsService;
     
     @Resource(name = "blOrderItemService")
     protected OrderItemService orderItemService;
@@ -311,6 +323,9 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public Order save(Order order, Boolean priceOrder) throws PricingException {
+        // rules memoized earlier in the request may have been evaluated against the cart before this change
+        RequestRuleResultCache.clear();
+
         //persist the order first
         TransactionStatus status = TransactionUtils.createTransaction("saveOrder",
                     TransactionDefinition.PROPAGATION_REQUIRED, transactionManager);
@@ -325,7 +340,9 @@ public class OrderServiceImpl implements OrderService {
         //make any pricing changes - possibly retrying with the persisted state if there's a lock failure
         if (priceOrder) {
             int retryCount = 0;
-            boolean isValid = false;
+            //skip the pricing workflow entirely if nothing that affects price has changed since the last pricing
+            boolean pricingCurrent = isPricingCurrent(order);
+            boolean isValid = pricingCurrent;
             while (!isValid) {
                 Session session = em.unwrap(Session.class);
                 FlushMode current = session.getFlushMode();
@@ -407,6 +424,9 @@ public class OrderServiceImpl implements OrderService {
                 if (!autoFlushSaveCart) {
                     session.setFlushMode(current);
                 }
+                if (!pricingCurrent) {
+                    recordPricedOrderOnCommit(order);
+                }
                 TransactionUtils.finalizeTransaction(status, transactionManager, false);
             } catch (RuntimeException ex) {
                 TransactionUtils.finalizeTransaction(status, transactionManager, true);
@@ -420,7 +440,46 @@ public class OrderServiceImpl implements OrderService {
 
         return order;
     }
+
+    /**
+     * Determines whether the pricing workflow can be skipped because the pricing inputs of the order are unchanged
+     * since it was last priced. A stale fingerprint is discarded so that a failed pricing attempt cannot be mistaken
+     * for a successful one.
+     * 
+     * @param order
+     * @return true if the order is already priced for its current state
+     */
+    protected boolean isPricingCurrent(Order order) {
+        if (pricingFingerprintService == null || !pricingFingerprintService.isEnabled()) {
+            return false;
+        }
+        boolean pricingCurrent = pricingFingerprintService.isPricingCurrent(order);
+        statisticsService.addCacheStat(CacheStatType.PRICING_FINGERPRINT_HIT_RATE.toString(), pricingCurrent);
+        if (!pricingCurrent) {
+            pricingFingerprintService.invalidate(order);
+        }
+        return pricingCurrent;
+    }
     
+    /**
+     * Records the pricing fingerprint of the saved order once the transaction it was saved in commits, so that a save
+     * that is rolled back (including by an enclosing transaction) never marks its pricing as current.
+     * 
+     * @param order the priced and saved order
+     */
+    protected void recordPricedOrderOnCommit(final Order order) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    pricingFingerprintService.recordPricedOrder(order);
+                }
+            });
+        } else {
+            pricingFingerprintService.recordPricedOrder(order);
+        }
+    }
+
     // This method exists to provide OrderService methods the ability to save an order
     // without having to worry about a PricingException being thrown.
     protected Order persist(Order order) {
@@ -19,6 +19,7 @@ package org.broadleafcommerce.core.order.service.extension;
 
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.order.domain.OrderItem;
 import org.broadleafcommerce.core.order.service.call.ConfigurableOrderItemRequest;
 
@@ -29,21 +30,25 @@ public abstract class AbstractOrderItemServiceExtensionHandler extends AbstractE
         implements OrderItemServiceExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType modifyOrderItemPrices(OrderItem item) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType applyAdditionalOrderItemProperties(OrderItem orderItem) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType modifyOrderItemRequest(ConfigurableOrderItemRequest configurableOrderItem) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType mergeOrderItemRequest(ConfigurableOrderItemRequest itemRequest, OrderItem orderItem) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -20,6 +20,7 @@ package org.broadleafcommerce.core.order.service.workflow.add.extension;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultHolder;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.core.order.service.workflow.CartOperationRequest;
 
 /**
@@ -29,6 +30,7 @@ public abstract class AbstractValidateAddRequestActivityExtensionHandler extends
         implements ValidateAddRequestActivityExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType validate(CartOperationRequest request, ExtensionResultHolder<Exception> resultHolder) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -20,18 +20,26 @@ package org.broadleafcommerce.core.pricing.service;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.broadleafcommerce.common.money.Money;
+import org.broadleafcommerce.common.time.SystemTime;
+import org.broadleafcommerce.common.util.EfficientLRUMap;
 import org.broadleafcommerce.common.vendor.service.exception.FulfillmentPriceException;
 import org.broadleafcommerce.core.order.domain.FulfillmentGroup;
 import org.broadleafcommerce.core.order.domain.FulfillmentOption;
 import org.broadleafcommerce.core.order.service.FulfillmentGroupService;
+import org.broadleafcommerce.core.pricing.service.fulfillment.provider.CacheableFulfillmentPricingProvider;
 import org.broadleafcommerce.core.pricing.service.fulfillment.provider.FulfillmentEstimationResponse;
 import org.broadleafcommerce.core.pricing.service.fulfillment.provider.FulfillmentPricingProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service("blFulfillmentPricingService")
 public class FulfillmentPricingServiceImpl implements FulfillmentPricingService {
@@ -44,6 +52,31 @@ public class FulfillmentPricingServiceImpl implements FulfillmentPricingService
     @Resource(name = "blFulfillmentGroupService")
     protected FulfillmentGroupService fulfillmentGroupService;
 
+    @Resource(name = "blPricingFingerprintService")
+    protected PricingFingerprintService pricingFingerprintService;
+
+    /**
+     * The number of seconds an estimate is reused for providers that do not implement
+     * {@link CacheableFulfillmentPricingProvider}. A value of 0 or less, the default, disables caching for those
+     * providers.
+     */
+    @Value("${fulfillment.estimate.cache.ttl.seconds:0}")
+    protected long estimateCacheTtlSeconds = 0L;
+
+    @Value("${fulfillment.estimate.cache.size:5000}")
+    protected int estimateCacheSize = 5000;
+
+    /**
+     * Cached estimates keyed by fulfillment group id. An entry is replaced as soon as the contents of its fulfillment
+     * group change.
+     */
+    protected Map<Long, FulfillmentEstimateCacheEntry> estimateCache;
+
+    @PostConstruct
+    public void init() {
+        estimateCache = new EfficientLRUMap<Long, FulfillmentEstimateCacheEntry>(estimateCacheSize);
+    }
+
     @Override
     public FulfillmentGroup calculateCostForFulfillmentGroup(FulfillmentGroup fulfillmentGroup) throws FulfillmentPriceException {
 
@@ -71,11 +104,15 @@ public class FulfillmentPricingServiceImpl implements FulfillmentPricingService
         FulfillmentEstimationResponse response = new FulfillmentEstimationResponse();
         HashMap<FulfillmentOption, Money> prices = new HashMap<FulfillmentOption, Money>();
         response.setFulfillmentOptionPrices(prices);
-        for (FulfillmentPricingProvider provider : providers) {
+        FulfillmentEstimateCacheEntry cacheEntry = getEstimateCacheEntry(fulfillmentGroup);
+        String optionsKey = buildOptionsKey(options);
+        for (int i = 0; i < providers.size(); i++) {
+            FulfillmentPricingProvider provider = providers.get(i);
             //Leave it up to the providers to determine if they can respond to a pricing estimate.  If they can't, or if one or more of the options that are passed in can't be responded
             //to, then the response from the pricing provider should not include the options that it could not respond to.
             try {
-                FulfillmentEstimationResponse processorResponse = provider.estimateCostForFulfillmentGroup(fulfillmentGroup, options);
+                FulfillmentEstimationResponse processorResponse = estimateCostForFulfillmentGroup(provider, fulfillmentGroup,
+                        options, cacheEntry, buildProviderKey(provider, i), optionsKey);
                 if (processorResponse != null
                         && processorResponse.getFulfillmentOptionPrices() != null
                         && processorResponse.getFulfillmentOptionPrices().size() > 0) {
@@ -94,6 +131,83 @@ public class FulfillmentPricingServiceImpl implements FulfillmentPricingService
         return response;
     }
 
+    /**
+     * Retrieves the estimate from the given provider, reusing a previous estimate for the same fulfillment group
+     * contents and options if it has not yet expired.
+     */
+    protected FulfillmentEstimationResponse estimateCostForFulfillmentGroup(FulfillmentPricingProvider provider,
+            FulfillmentGroup fulfillmentGroup, Set<FulfillmentOption> options, FulfillmentEstimateCacheEntry cacheEntry,
+            String providerKey, String optionsKey) throws FulfillmentPriceException {
+        long ttlSeconds = getEstimateCacheTtlSeconds(provider);
+        if (cacheEntry == null || optionsKey == null || ttlSeconds <= 0) {
+            return provider.estimateCostForFulfillmentGroup(fulfillmentGroup, options);
+        }
+        String estimateKey = providerKey + "|" + optionsKey;
+        CachedEstimate cached = cacheEntry.getEstimates().get(estimateKey);
+        if (cached != null && cached.getExpiration() > SystemTime.asMillis()) {
+            return cached.buildResponse(options);
+        }
+        FulfillmentEstimationResponse processorResponse = provider.estimateCostForFulfillmentGroup(fulfillmentGroup, options);
+        cacheEntry.getEstimates().put(estimateKey, new CachedEstimate(processorResponse,
+                SystemTime.asMillis() + ttlSeconds * 1000L));
+        return processorResponse;
+    }
+
+    protected long getEstimateCacheTtlSeconds(FulfillmentPricingProvider provider) {
+        if (provider instanceof CacheableFulfillmentPricingProvider) {
+            return ((CacheableFulfillmentPricingProvider) provider).getEstimateCacheTtlSeconds();
+        }
+        return estimateCacheTtlSeconds;
+    }
+
+    /**
+     * Builds a key identifying the provider at the given position in {@link #providers}. The position keeps two
+     * instances of the same class apart, and a {@link CacheableFulfillmentPricingProvider} adds its own configuration
+     * key so that its estimates are dropped once that configuration changes.
+     */
+    protected String buildProviderKey(FulfillmentPricingProvider provider, int index) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(index).append(':').append(provider.getClass().getName());
+        if (provider instanceof CacheableFulfillmentPricingProvider) {
+            sb.append(':').append(((CacheableFulfillmentPricingProvider) provider).getEstimateCacheKey());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the cache entry for the fulfillment group, replacing any existing entry that was built for different
+     * fulfillment group contents. Returns null if the fulfillment group cannot be cached.
+     */
+    protected FulfillmentEstimateCacheEntry getEstimateCacheEntry(FulfillmentGroup fulfillmentGroup) {
+        if (estimateCache == null || pricingFingerprintService == null || fulfillmentGroup.getId() == null) {
+            return null;
+        }
+        String fingerprint = pricingFingerprintService.buildFulfillmentGroupFingerprint(fulfillmentGroup);
+        FulfillmentEstimateCacheEntry cacheEntry = estimateCache.get(fulfillmentGroup.getId());
+        if (cacheEntry == null || !cacheEntry.getFingerprint().equals(fingerprint)) {
+            cacheEntry = new FulfillmentEstimateCacheEntry(fingerprint);
+            estimateCache.put(fulfillmentGroup.getId(), cacheEntry);
+        }
+        return cacheEntry;
+    }
+
+    /**
+     * Builds a key for the set of options, or null if any of the options has not been persisted
+     */
+    protected String buildOptionsKey(Set<FulfillmentOption> options) {
+        if (options == null) {
+            return null;
+        }
+        Set<Long> optionIds = new TreeSet<Long>();
+        for (FulfillmentOption option : options) {
+            if (option == null || option.getId() == null) {
+                return null;
+            }
+            optionIds.add(option.getId());
+        }
+        return optionIds.toString();
+    }
+
     @Override
     public List<FulfillmentPricingProvider> getProviders() {
         return providers;
@@ -101,6 +215,67 @@ public class FulfillmentPricingServiceImpl implements FulfillmentPricingService
 
     public void setProviders(List<FulfillmentPricingProvider> providers) {
         this.providers = providers;
+        if (estimateCache != null) {
+            // provider keys are positional, so estimates made with the previous providers no longer apply
+            estimateCache.clear();
+        }
+    }
+
+    /**
+     * The estimates for a single fulfillment group, valid only while the group's fingerprint is unchanged
+     */
+    protected static class FulfillmentEstimateCacheEntry {
+
+        protected final String fingerprint;
+        protected final Map<String, CachedEstimate> estimates = new ConcurrentHashMap<String, CachedEstimate>();
+
+        public FulfillmentEstimateCacheEntry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public Map<String, CachedEstimate> getEstimates() {
+            return estimates;
+        }
+    }
+
+    /**
+     * A single provider's estimate. Prices are held by option id so that the response can be rebuilt with the option
+     * instances of the current request.
+     */
+    protected static class CachedEstimate {
+
+        protected final Map<Long, Money> pricesByOptionId = new HashMap<Long, Money>();
+        protected final long expiration;
+
+        public CachedEstimate(FulfillmentEstimationResponse response, long expiration) {
+            this.expiration = expiration;
+            if (response != null && response.getFulfillmentOptionPrices() != null) {
+                for (Map.Entry<? extends FulfillmentOption, Money> entry : response.getFulfillmentOptionPrices().entrySet()) {
+                    pricesByOptionId.put(entry.getKey().getId(), entry.getValue());
+                }
+            }
+        }
+
+        public long getExpiration() {
+            return expiration;
+        }
+
+        public FulfillmentEstimationResponse buildResponse(Set<FulfillmentOption> options) {
+            HashMap<FulfillmentOption, Money> prices = new HashMap<FulfillmentOption, Money>();
+            for (FulfillmentOption option : options) {
+                Money price = pricesByOptionId.get(option.getId());
+                if (price != null) {
+                    prices.put(option, price);
+                }
+            }
+            FulfillmentEstimationResponse response = new FulfillmentEstimationResponse();
+            response.setFulfillmentOptionPrices(prices);
+            return response;
+        }
     }
 
 }
@@ -0,0 +1,89 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.pricing.service;
+
+import org.broadleafcommerce.core.order.domain.FulfillmentGroup;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.order.domain.OrderItem;
+
+/**
+ * Tracks a fingerprint of the pricing inputs of an order so that cart operations can skip the pricing workflow when
+ * nothing that affects the price of the order has changed since it was last priced.
+ * <p>
+ * The fingerprint covers the order items (sku, quantity, prices and attributes), the added offer codes, the fulfillment
+ * groups (address, fulfillment option and items), the currency, the customer and a time bucket. The time bucket bounds
+ * how long a price change made outside of the order (e.g. in the catalog or to an offer) can go unnoticed by a cart.
+ */
+public interface PricingFingerprintService {
+
+    /**
+     * @return whether or not pricing may be skipped for orders whose fingerprint is unchanged
+     */
+    public boolean isEnabled();
+
+    /**
+     * Builds the fingerprint for the current pricing inputs of the given order
+     * 
+     * @param order
+     * @return a hash of the pricing inputs of the order
+     */
+    public String buildFingerprint(Order order);
+
+    /**
+     * Builds a fingerprint for a single order item and its children. This covers the same item state as
+     * {@link #buildFingerprint(Order)} plus the product and category of the item, and allows results that depend only
+     * on the item (e.g. whether it matches an offer's item criteria) to be reused while the item is unchanged.
+     * 
+     * @param orderItem
+     * @return a hash of the state of the order item
+     */
+    public String buildOrderItemFingerprint(OrderItem orderItem);
+
+    /**
+     * Builds a fingerprint of the contents of a fulfillment group: its destination and the state of
+     * each of its items, including their adjusted prices. The selected fulfillment option is left out since estimates
+     * are computed for every option. Unlike {@link #buildFingerprint(Order)}, this does not include a time bucket.
+     * 
+     * @param fulfillmentGroup
+     * @return a hash of the contents of the fulfillment group
+     */
+    public String buildFulfillmentGroupFingerprint(FulfillmentGroup fulfillmentGroup);
+
+    /**
+     * Determines whether the given order has been priced with exactly its current pricing inputs
+     * 
+     * @param order
+     * @return true if the pricing workflow may be skipped for the order
+     */
+    public boolean isPricingCurrent(Order order);
+
+    /**
+     * Records the fingerprint of an order that has just been priced
+     * 
+     * @param order the priced order
+     */
+    public void recordPricedOrder(Order order);
+
+    /**
+     * Forgets the recorded fingerprint for the order, forcing the next save with pricing to run the pricing workflow
+     * 
+     * @param order
+     */
+    public void invalidate(Order order);
+
+}
@@ -0,0 +1,221 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.pricing.service;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.broadleafcommerce.common.money.Money;
+import org.broadleafcommerce.common.time.SystemTime;
+import org.broadleafcommerce.common.util.EfficientLRUMap;
+import org.broadleafcommerce.common.value.ValueAssignable;
+import org.broadleafcommerce.core.offer.domain.OfferCode;
+import org.broadleafcommerce.core.order.domain.BundleOrderItem;
+import org.broadleafcommerce.core.order.domain.DiscreteOrderItem;
+import org.broadleafcommerce.core.order.domain.FulfillmentGroup;
+import org.broadleafcommerce.core.order.domain.FulfillmentGroupItem;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.order.domain.OrderItem;
+import org.broadleafcommerce.profile.core.domain.Address;
+import org.broadleafcommerce.profile.core.domain.Customer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * Default implementation of {@link PricingFingerprintService}. Fingerprints are kept in a bounded in-memory map keyed
+ * by order id. Since the fingerprint is derived entirely from the state of the order, a fingerprint recorded on one
+ * node remains correct even if the order is later modified on another node - the fingerprint will simply no longer
+ * match and the order will be priced again.
+ */
+@Service("blPricingFingerprintService")
+public class PricingFingerprintServiceImpl implements PricingFingerprintService {
+
+    @Value("${pricing.fingerprint.enabled:false}")
+    protected boolean enabled = false;
+
+    /**
+     * The number of seconds a fingerprint remains valid, regardless of changes to the order
+     */
+    @Value("${pricing.fingerprint.time.bucket.seconds:300}")
+    protected long timeBucketSeconds = 300L;
+
+    @Value("${pricing.fingerprint.cache.size:10000}")
+    protected int cacheSize = 10000;
+
+    protected Map<Long, String> fingerprints;
+
+    @PostConstruct
+    public void init() {
+        fingerprints = new EfficientLRUMap<Long, String>(cacheSize);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public boolean isPricingCurrent(Order order) {
+        if (!enabled || order == null || order.getId() == null) {
+            return false;
+        }
+        String recorded = fingerprints.get(order.getId());
+        return recorded != null && recorded.equals(buildFingerprint(order));
+    }
+
+    @Override
+    public void recordPricedOrder(Order order) {
+        if (enabled && order != null && order.getId() != null) {
+            fingerprints.put(order.getId(), buildFingerprint(order));
+        }
+    }
+
+    @Override
+    public void invalidate(Order order) {
+        if (order != null && order.getId() != null) {
+            fingerprints.remove(order.getId());
+        }
+    }
+
+    @Override
+    public String buildFingerprint(Order order) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("order:").append(order.getId());
+        sb.append("|currency:").append(order.getCurrency() == null ? null : order.getCurrency().getCurrencyCode());
+        sb.append("|time:").append(getTimeBucket());
+        appendCustomer(sb, order.getCustomer());
+        for (OrderItem item : order.getOrderItems()) {
+            appendOrderItem(sb, item);
+        }
+        for (OfferCode offerCode : order.getAddedOfferCodes()) {
+            sb.append("|offerCode:").append(offerCode.getId()).append(':').append(offerCode.getOfferCode());
+        }
+        for (FulfillmentGroup fulfillmentGroup : order.getFulfillmentGroups()) {
+            appendFulfillmentGroup(sb, fulfillmentGroup);
+        }
+        return DigestUtils.md5Hex(sb.toString());
+    }
+
+    @Override
+    public String buildOrderItemFingerprint(OrderItem orderItem) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("time:").append(getTimeBucket());
+        appendOrderItem(sb, orderItem);
+        return DigestUtils.md5Hex(sb.toString());
+    }
+
+    @Override
+    public String buildFulfillmentGroupFingerprint(FulfillmentGroup fulfillmentGroup) {
+        StringBuilder sb = new StringBuilder();
+        Order order = fulfillmentGroup.getOrder();
+        sb.append("currency:").append(order == null || order.getCurrency() == null ? null : order.getCurrency().getCurrencyCode());
+        // estimates cover every option, so the selected option is left out of the key
+        appendFulfillmentGroupContents(sb, fulfillmentGroup);
+        for (FulfillmentGroupItem fgItem : fulfillmentGroup.getFulfillmentGroupItems()) {
+            sb.append(":amount:").append(getAmount(fgItem.getTotalItemAmount()));
+            if (fgItem.getOrderItem() != null) {
+                appendOrderItem(sb, fgItem.getOrderItem());
+                // banded pricing falls back to the price after item adjustments
+                sb.append(":adjusted:").append(getAmount(fgItem.getOrderItem().getTotalPrice()));
+            }
+        }
+        return DigestUtils.md5Hex(sb.toString());
+    }
+
+    protected long getTimeBucket() {
+        if (timeBucketSeconds <= 0) {
+            return SystemTime.asMillis();
+        }
+        return SystemTime.asMillis() / (timeBucketSeconds * 1000L);
+    }
+
+    protected void appendCustomer(StringBuilder sb, Customer customer) {
+        if (customer == null) {
+            sb.append("|customer:null");
+            return;
+        }
+        sb.append("|customer:").append(customer.getId()).append(':').append(customer.isRegistered());
+        appendAttributes(sb, customer.getCustomerAttributes());
+    }
+
+    protected void appendOrderItem(StringBuilder sb, OrderItem item) {
+        sb.append("|item:").append(item.getId());
+        sb.append(':').append(item.getClass().getName());
+        sb.append(':').append(item.getQuantity());
+        sb.append(':').append(getAmount(item.getRetailPrice())).append(':').append(item.isRetailPriceOverride());
+        sb.append(':').append(getAmount(item.getSalePrice())).append(':').append(item.isSalePriceOverride());
+        sb.append(':').append(item.isDiscountingAllowed());
+        if (item instanceof DiscreteOrderItem) {
+            DiscreteOrderItem discreteItem = (DiscreteOrderItem) item;
+            sb.append(":sku:").append(discreteItem.getSku() == null ? null : discreteItem.getSku().getId());
+            sb.append(":product:").append(discreteItem.getProduct() == null ? null : discreteItem.getProduct().getId());
+        }
+        sb.append(":category:").append(item.getCategory() == null ? null : item.getCategory().getId());
+        appendAttributes(sb, item.getOrderItemAttributes());
+        if (item instanceof BundleOrderItem) {
+            for (DiscreteOrderItem bundledItem : ((BundleOrderItem) item).getDiscreteOrderItems()) {
+                appendOrderItem(sb, bundledItem);
+            }
+        }
+        for (OrderItem childItem : item.getChildOrderItems()) {
+            appendOrderItem(sb, childItem);
+        }
+    }
+
+    protected void appendFulfillmentGroup(StringBuilder sb, FulfillmentGroup fulfillmentGroup) {
+        appendFulfillmentGroupContents(sb, fulfillmentGroup);
+        sb.append(":option:").append(fulfillmentGroup.getFulfillmentOption() == null ? null : fulfillmentGroup.getFulfillmentOption().getId());
+    }
+
+    protected void appendFulfillmentGroupContents(StringBuilder sb, FulfillmentGroup fulfillmentGroup) {
+        sb.append("|fg:").append(fulfillmentGroup.getId());
+        sb.append(':').append(fulfillmentGroup.getType());
+        Address address = fulfillmentGroup.getAddress();
+        if (address != null) {
+            sb.append(":address:").append(address.getId());
+            sb.append(':').append(address.getPostalCode());
+            sb.append(':').append(address.getCity());
+            sb.append(':').append(address.getStateProvinceRegion());
+            sb.append(':').append(address.getIsoCountrySubdivision());
+            sb.append(':').append(address.getIsoCountryAlpha2() == null ? null : address.getIsoCountryAlpha2().getAlpha2());
+        }
+        for (FulfillmentGroupItem fgItem : fulfillmentGroup.getFulfillmentGroupItems()) {
+            sb.append(":fgItem:").append(fgItem.getOrderItem() == null ? null : fgItem.getOrderItem().getId());
+            sb.append(':').append(fgItem.getQuantity());
+        }
+    }
+
+    protected void appendAttributes(StringBuilder sb, Map<String, ? extends ValueAssignable<String>> attributes) {
+        if (attributes == null || attributes.isEmpty()) {
+            return;
+        }
+        Map<String, String> sorted = new TreeMap<String, String>();
+        for (Map.Entry<String, ? extends ValueAssignable<String>> entry : attributes.entrySet()) {
+            sorted.put(entry.getKey(), entry.getValue() == null ? null : entry.getValue().getValue());
+        }
+        sb.append(":attributes:").append(sorted);
+    }
+
+    protected Object getAmount(Money money) {
+        return money == null ? null : money.getAmount();
+    }
+
+}
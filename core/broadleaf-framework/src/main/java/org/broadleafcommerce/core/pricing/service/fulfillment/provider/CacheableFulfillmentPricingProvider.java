@@ -0,0 +1,45 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.pricing.service.fulfillment.provider;
+
+import org.broadleafcommerce.core.pricing.service.FulfillmentPricingService;
+
+/**
+ * Optional extension of {@link FulfillmentPricingProvider} that allows a provider to control how long its estimates are
+ * cached by {@link FulfillmentPricingService#estimateCostForFulfillmentGroup(org.broadleafcommerce.core.order.domain.FulfillmentGroup, java.util.Set)}.
+ * Providers that do not implement this interface use the default TTL given by the
+ * <b>fulfillment.estimate.cache.ttl.seconds</b> property, which is 0 (no caching) unless configured.
+ * 
+ * @see {@link FulfillmentPricingService}
+ */
+public interface CacheableFulfillmentPricingProvider extends FulfillmentPricingProvider {
+
+    /**
+     * @return the number of seconds an estimate from this provider may be reused for an unchanged fulfillment group and
+     * set of options. A value of 0 or less disables caching for this provider.
+     */
+    public long getEstimateCacheTtlSeconds();
+
+    /**
+     * @return a value identifying the configuration this provider prices with (for example the carrier account and
+     * rate table it uses), or null if it has none. Estimates are only shared between requests that see the same key, so
+     * two instances of the same provider class configured differently must return different values.
+     */
+    public String getEstimateCacheKey();
+
+}
@@ -19,21 +19,47 @@ package org.broadleafcommerce.core.pricing.service.workflow;
 
 import org.broadleafcommerce.common.currency.util.BroadleafCurrencyUtils;
 import org.broadleafcommerce.common.money.Money;
+import org.broadleafcommerce.core.catalog.domain.Sku;
+import org.broadleafcommerce.core.order.domain.BundleOrderItem;
+import org.broadleafcommerce.core.order.domain.DiscreteOrderItem;
 import org.broadleafcommerce.core.order.domain.FulfillmentGroup;
+import org.broadleafcommerce.core.order.domain.FulfillmentGroupItem;
+import org.broadleafcommerce.core.order.domain.FulfillmentOption;
 import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.order.domain.OrderItem;
+import org.broadleafcommerce.core.order.fulfillment.domain.BandedPriceFulfillmentOption;
+import org.broadleafcommerce.core.order.fulfillment.domain.BandedWeightFulfillmentOption;
 import org.broadleafcommerce.core.pricing.service.FulfillmentPricingService;
 import org.broadleafcommerce.core.workflow.BaseActivity;
+import org.broadleafcommerce.core.workflow.ConcurrentWorkflowUtils;
 import org.broadleafcommerce.core.workflow.ProcessContext;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Resource;
 
 /**
  * Called during the pricing workflow to compute all of the fulfillment costs
  * for all of the FulfillmentGroups on an Order and updates Order with the
- * total price of all of the FufillmentGroups
+ * total price of all of the FufillmentGroups.
+ * <p>
+ * When the "blWorkflowTaskExecutor" is enabled (see {@link org.broadleafcommerce.core.workflow.WorkflowTaskExecutor}),
+ * the fulfillment groups of a multi-ship order are priced concurrently, so an order with several groups priced by a
+ * remote rate provider takes as long as the slowest group instead of the sum of all of them. Orders with a single group
+ * to price are always priced on the workflow thread. Since the Hibernate session of the workflow thread is not thread safe, the
+ * state read by the out of box providers (address, option and bands, items with their skus, weights, flat rates and
+ * average prices, and the order currency) is loaded beforehand on the workflow thread by
+ * {@link #initializeForConcurrentPricing(FulfillmentGroup)}. Custom providers that read other entity state should
+ * extend that method, or leave the executor disabled.
  * 
  * @author Phillip Verheyden
  * @see {@link FulfillmentGroup}, {@link Order}
@@ -46,6 +72,13 @@ public class FulfillmentGroupPricingActivity extends BaseActivity<ProcessContext
     @Resource(name = "blFulfillmentPricingService")
     private FulfillmentPricingService fulfillmentPricingService;
 
+    @Autowired(required = false)
+    @Qualifier("blWorkflowTaskExecutor")
+    protected Executor taskExecutor;
+
+    @Resource(name = "blTransactionManager")
+    protected PlatformTransactionManager transactionManager;
+
     public FulfillmentGroupPricingActivity() {
         setOrder(ORDER);
     }
@@ -64,21 +97,93 @@ public class FulfillmentGroupPricingActivity extends BaseActivity<ProcessContext
          * 3. add FG back to order
          */
 
-        Money totalFulfillmentCharges = BroadleafCurrencyUtils.getMoney(BigDecimal.ZERO, order.getCurrency());
-        for (FulfillmentGroup fulfillmentGroup : order.getFulfillmentGroups()) {
+        boolean concurrent = ConcurrentWorkflowUtils.isConcurrent(taskExecutor) && countGroupsToPrice(order) > 1;
+        List<Callable<FulfillmentGroup>> pricingTasks = new ArrayList<>();
+        for (final FulfillmentGroup fulfillmentGroup : order.getFulfillmentGroups()) {
             if (fulfillmentGroup != null) {
-                if (!fulfillmentGroup.getShippingOverride()) {
-                    fulfillmentGroup = fulfillmentPricingService.calculateCostForFulfillmentGroup(fulfillmentGroup);
-                }
-                if (fulfillmentGroup.getFulfillmentPrice() != null) {
-                    totalFulfillmentCharges = totalFulfillmentCharges.add(fulfillmentGroup.getFulfillmentPrice());
+                if (fulfillmentGroup.getShippingOverride()) {
+                    pricingTasks.add(new Callable<FulfillmentGroup>() {
+                        @Override
+                        public FulfillmentGroup call() {
+                            return fulfillmentGroup;
+                        }
+                    });
+                } else {
+                    if (concurrent) {
+                        initializeForConcurrentPricing(fulfillmentGroup);
+                    }
+                    pricingTasks.add(new Callable<FulfillmentGroup>() {
+                        @Override
+                        public FulfillmentGroup call() throws Exception {
+                            return fulfillmentPricingService.calculateCostForFulfillmentGroup(fulfillmentGroup);
+                        }
+                    });
                 }
             }
         }
+
+        Money totalFulfillmentCharges = BroadleafCurrencyUtils.getMoney(BigDecimal.ZERO, order.getCurrency());
+        for (FulfillmentGroup fulfillmentGroup : ConcurrentWorkflowUtils.invokeAll(concurrent ? taskExecutor : null,
+                transactionManager, pricingTasks)) {
+            if (fulfillmentGroup.getFulfillmentPrice() != null) {
+                totalFulfillmentCharges = totalFulfillmentCharges.add(fulfillmentGroup.getFulfillmentPrice());
+            }
+        }
         order.setTotalFulfillmentCharges(totalFulfillmentCharges);
         context.setSeedData(order);
 
         return context;
     }
 
+    protected int countGroupsToPrice(Order order) {
+        int count = 0;
+        for (FulfillmentGroup fulfillmentGroup : order.getFulfillmentGroups()) {
+            if (fulfillmentGroup != null && !fulfillmentGroup.getShippingOverride()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Initialize the state of the fulfillment group that pricing providers read, so that pricing on another thread does
+     * not lazily load through the (non thread safe) session of the workflow thread
+     */
+    protected void initializeForConcurrentPricing(FulfillmentGroup fulfillmentGroup) {
+        Hibernate.initialize(fulfillmentGroup.getAddress());
+        Hibernate.initialize(fulfillmentGroup.getOrder().getCurrency());
+        FulfillmentOption option = fulfillmentGroup.getFulfillmentOption();
+        Hibernate.initialize(option);
+        if (option instanceof BandedPriceFulfillmentOption) {
+            Hibernate.initialize(((BandedPriceFulfillmentOption) option).getBands());
+        } else if (option instanceof BandedWeightFulfillmentOption) {
+            Hibernate.initialize(((BandedWeightFulfillmentOption) option).getBands());
+        }
+        for (FulfillmentGroupItem fulfillmentGroupItem : fulfillmentGroup.getFulfillmentGroupItems()) {
+            OrderItem orderItem = fulfillmentGroupItem.getOrderItem();
+            Hibernate.initialize(orderItem);
+            // reads the price details and adjustments that banded pricing falls back to
+            orderItem.getAveragePrice();
+            Sku sku = null;
+            if (orderItem instanceof DiscreteOrderItem) {
+                sku = ((DiscreteOrderItem) orderItem).getSku();
+            } else if (orderItem instanceof BundleOrderItem) {
+                sku = ((BundleOrderItem) orderItem).getSku();
+            }
+            if (sku != null) {
+                // may be resolved through the default sku of the product
+                sku.getWeight();
+                Hibernate.initialize(sku.getFulfillmentFlatRates());
+            }
+        }
+    }
+
+    public void setTaskExecutor(Executor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
 }
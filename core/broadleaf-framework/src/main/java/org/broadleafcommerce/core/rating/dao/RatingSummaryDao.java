@@ -38,6 +38,30 @@ public interface RatingSummaryDao {
     
     RatingSummary readRatingSummary(String itemId, RatingType type);
     List<RatingSummary> readRatingSummaries(List<String> itemIds, RatingType type);
+    RatingSummary readRatingSummaryById(Long ratingSummaryId);
+
+    /**
+     * Reload the summary from the database while taking a write lock on its row, so that its running totals can be
+     * updated without losing concurrent changes
+     *
+     * @param summary a persisted summary
+     * @return the locked, managed summary
+     */
+    RatingSummary lockRatingSummary(RatingSummary summary);
+
+    /**
+     * @return the ids of every rating summary, in ascending order
+     */
+    List<Long> readAllRatingSummaryIds();
+
+    /**
+     * Compute the number and the sum of the ratings for each of the summaries from the rating details. Summaries
+     * without any ratings are not included.
+     *
+     * @param ratingSummaryIds
+     * @return rows of rating summary id, number of ratings and sum of the ratings
+     */
+    List<Object[]> readRatingTotals(List<Long> ratingSummaryIds);
     RatingSummary saveRatingSummary(RatingSummary summary);
     void deleteRatingSummary(RatingSummary summary);
 
@@ -33,6 +33,7 @@ import java.util.List;
 
 import javax.annotation.Resource;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
@@ -100,6 +101,35 @@ public class RatingSummaryDaoImpl extends BatchRetrieveDao implements RatingSumm
         return ratings;
     }
 
+    @Override
+    public RatingSummary readRatingSummaryById(Long ratingSummaryId) {
+        return em.find(RatingSummaryImpl.class, ratingSummaryId);
+    }
+
+    @Override
+    public RatingSummary lockRatingSummary(RatingSummary summary) {
+        if (!em.contains(summary)) {
+            return em.find(RatingSummaryImpl.class, summary.getId(), LockModeType.PESSIMISTIC_WRITE);
+        }
+        em.refresh(summary, LockModeType.PESSIMISTIC_WRITE);
+        return summary;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> readAllRatingSummaryIds() {
+        Query query = em.createNamedQuery("BC_READ_ALL_RATING_SUMMARY_IDS");
+        return query.getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Object[]> readRatingTotals(List<Long> ratingSummaryIds) {
+        Query query = em.createNamedQuery("BC_READ_RATING_TOTALS_BY_RATING_SUMMARY_IDS");
+        query.setParameter("ratingSummaryIds", ratingSummaryIds);
+        return query.getResultList();
+    }
+
     @Override
     public RatingSummary readRatingSummary(final String itemId, final RatingType type) {
         final Query query = em.createNamedQuery("BC_READ_RATING_SUMMARY_BY_ITEM_ID_AND_TYPE");
@@ -41,8 +41,33 @@ public interface RatingSummary {
     
     public Double getAverageRating();
     
+    /**
+     * Recompute the number of ratings, their total and the average from the full ratings collection
+     */
     public void resetAverageRating();
 
+    /**
+     * Set the running number of ratings and their total, and recompute the average from them
+     *
+     * @param numberOfRatings
+     * @param ratingTotal the sum of all the ratings
+     */
+    public void resetRatingTotals(int numberOfRatings, double ratingTotal);
+
+    /**
+     * Update the running totals and the average for a single new or changed rating, without loading the ratings
+     * collection. The caller should hold a lock on the summary so that concurrent changes are not lost.
+     *
+     * @param previousRating the value the customer's rating had before, or null if this is a new rating
+     * @param newRating the new value of the rating
+     */
+    public void applyRatingChange(Double previousRating, Double newRating);
+
+    /**
+     * @return the sum of all the ratings, or null if the running totals have not been computed for this summary yet
+     */
+    public Double getRatingTotal();
+
     public List<ReviewDetail> getReviews();
     
     public void setReviews(List<ReviewDetail> reviews);
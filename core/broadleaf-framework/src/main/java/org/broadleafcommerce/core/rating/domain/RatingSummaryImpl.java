@@ -18,6 +18,8 @@
 package org.broadleafcommerce.core.rating.domain;
 
 import org.broadleafcommerce.core.rating.service.type.RatingType;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
 import org.hibernate.annotations.Index;
 import org.hibernate.annotations.Parameter;
@@ -38,6 +40,7 @@ import javax.persistence.Table;
 @Entity
 @Inheritance(strategy = InheritanceType.JOINED)
 @Table(name = "BLC_RATING_SUMMARY")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "blStandardElements")
 public class RatingSummaryImpl implements RatingSummary {
 
     @Id
@@ -64,6 +67,20 @@ public class RatingSummaryImpl implements RatingSummary {
     @Column(name = "AVERAGE_RATING", nullable = false)
     protected Double averageRating = new Double(0);
 
+    /**
+     * Running count of the ratings, maintained by {@link #applyRatingChange(Double, Double)} so that the ratings
+     * collection does not have to be loaded. Null for summaries created before the column was added, until they are
+     * reset.
+     */
+    @Column(name = "RATING_COUNT")
+    protected Integer ratingCount;
+
+    /**
+     * Running sum of the ratings, maintained along with {@link #ratingCount}
+     */
+    @Column(name = "RATING_TOTAL")
+    protected Double ratingTotal;
+
     @OneToMany(mappedBy = "ratingSummary", targetEntity = RatingDetailImpl.class, cascade = {CascadeType.ALL})
     protected List<RatingDetail> ratings = new ArrayList<RatingDetail>();
 
@@ -90,16 +107,39 @@ public class RatingSummaryImpl implements RatingSummary {
     
     @Override
     public void resetAverageRating() {
-        if (ratings == null || ratings.isEmpty()) {
-            this.averageRating = new Double(0);
-        } else {
-            double sum = 0;
-            for (RatingDetail detail : ratings) {
-                sum += detail.getRating();
-            }
+        double sum = 0;
+        List<RatingDetail> details = getRatings();
+        for (RatingDetail detail : details) {
+            sum += detail.getRating();
+        }
+        resetRatingTotals(details.size(), sum);
+    }
 
-            this.averageRating = new Double(sum / ratings.size());
+    @Override
+    public void resetRatingTotals(int numberOfRatings, double ratingTotal) {
+        this.ratingCount = numberOfRatings;
+        this.ratingTotal = ratingTotal;
+        this.averageRating = numberOfRatings == 0 ? new Double(0) : new Double(ratingTotal / numberOfRatings);
+    }
+
+    @Override
+    public void applyRatingChange(Double previousRating, Double newRating) {
+        if (ratingCount == null || ratingTotal == null) {
+            resetAverageRating();
+            return;
+        }
+        if (previousRating == null) {
+            ratingCount++;
+        } else {
+            ratingTotal -= previousRating;
         }
+        ratingTotal += newRating;
+        averageRating = ratingCount == 0 ? new Double(0) : new Double(ratingTotal / ratingCount);
+    }
+
+    @Override
+    public Double getRatingTotal() {
+        return ratingTotal;
     }
 
     @Override
@@ -114,6 +154,9 @@ public class RatingSummaryImpl implements RatingSummary {
 
     @Override
     public Integer getNumberOfRatings() {
+        if (ratingCount != null) {
+            return ratingCount;
+        }
         return getRatings().size();
     }
 
@@ -46,4 +46,13 @@ public interface RatingService {
      */
     public ReviewDetail readReviewByCustomerAndItem(Customer customer, String itemId);
 
+    /**
+     * Recompute the running rating totals of every rating summary from its rating details, correcting any that have
+     * drifted. This is intended to be run periodically (e.g. from a scheduled job), since ratings normally only update
+     * the totals incrementally.
+     *
+     * @return the number of summaries that were corrected
+     */
+    public int reconcileRatingSummaries();
+
 }
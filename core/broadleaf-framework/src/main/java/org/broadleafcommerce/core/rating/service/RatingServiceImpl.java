@@ -18,7 +18,10 @@
 package org.broadleafcommerce.core.rating.service;
 
 import org.apache.commons.beanutils.BeanComparator;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.broadleafcommerce.common.time.SystemTime;
+import org.broadleafcommerce.common.util.TransactionUtils;
 import org.broadleafcommerce.core.rating.dao.RatingSummaryDao;
 import org.broadleafcommerce.core.rating.dao.ReviewDetailDao;
 import org.broadleafcommerce.core.rating.domain.RatingDetail;
@@ -29,8 +32,14 @@ import org.broadleafcommerce.core.rating.domain.ReviewFeedback;
 import org.broadleafcommerce.core.rating.service.type.RatingSortType;
 import org.broadleafcommerce.core.rating.service.type.RatingType;
 import org.broadleafcommerce.profile.core.domain.Customer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -38,19 +47,46 @@ import java.util.List;
 import java.util.Map;
 import javax.annotation.Resource;
 
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+
 @Service("blRatingService")
 public class RatingServiceImpl implements RatingService {
 
+    private static final Log LOG = LogFactory.getLog(RatingServiceImpl.class);
+
+    /**
+     * Cached in place of a rating summary id for items that do not have a rating summary
+     */
+    protected static final Long NO_RATING_SUMMARY = -1L;
+
     @Resource(name="blRatingSummaryDao")
     protected RatingSummaryDao ratingSummaryDao;
 
     @Resource(name="blReviewDetailDao")
     protected ReviewDetailDao reviewDetailDao;
 
+    @Resource(name="blTransactionManager")
+    protected PlatformTransactionManager transactionManager;
+
+    @Value("${rating.summary.reconcile.batch.size:500}")
+    protected int reconcileBatchSize = 500;
+
+    /**
+     * How long the absence of a rating summary is cached. Summaries are created by the first rating, which clears the
+     * entry only on the node that handled it, so this bounds how long other nodes can keep hiding a new summary.
+     */
+    @Value("${rating.summary.missing.cache.ttl.seconds:60}")
+    protected int missingSummaryCacheTtlSeconds = 60;
+
+    protected Cache ratingSummaryIdCache;
+
     @Override
     @Transactional("blTransactionManager")
     public void deleteRatingSummary(RatingSummary ratingSummary) {
         ratingSummaryDao.deleteRatingSummary(ratingSummary);
+        removeRatingSummaryIdFromCache(ratingSummary.getItemId(), ratingSummary.getRatingType());
     }
 
     @Override
@@ -72,22 +108,52 @@ public class RatingServiceImpl implements RatingService {
     @Override
     @Transactional("blTransactionManager")
     public void rateItem(String itemId, RatingType type, Customer customer, Double rating) {
+        RatingSummary ratingSummary = readRatingSummaryForUpdate(itemId, type);
+        applyRating(ratingSummary, customer, rating);
+    }
+
+    /**
+     * Read the rating summary for the item with a write lock on it, creating it if it does not exist yet
+     *
+     * @param itemId
+     * @param type
+     * @return the managed summary
+     */
+    protected RatingSummary readRatingSummaryForUpdate(String itemId, RatingType type) {
         RatingSummary ratingSummary = this.readRatingSummary(itemId, type);
 
         if (ratingSummary == null) {
-            ratingSummary = ratingSummaryDao.createSummary(itemId, type);
+            ratingSummary = ratingSummaryDao.saveRatingSummary(ratingSummaryDao.createSummary(itemId, type));
+            removeRatingSummaryIdFromCache(itemId, type);
+            return ratingSummary;
         }
 
+        return ratingSummaryDao.lockRatingSummary(ratingSummary);
+    }
+
+    /**
+     * Add or change the customer's rating and update the running totals of the summary. The ratings collection is
+     * inverse, so a new rating is added to it without loading the existing ratings.
+     *
+     * @param ratingSummary a summary locked by {@link #readRatingSummaryForUpdate(String, RatingType)}
+     * @param customer
+     * @param rating
+     * @return the customer's rating
+     */
+    protected RatingDetail applyRating(RatingSummary ratingSummary, Customer customer, Double rating) {
         RatingDetail ratingDetail = ratingSummaryDao.readRating(customer.getId(), ratingSummary.getId());
+        Double previousRating = null;
 
         if (ratingDetail == null) {
             ratingDetail = ratingSummaryDao.createDetail(ratingSummary, rating, SystemTime.asDate(), customer);
+            ratingSummary.getRatings().add(ratingDetail);
+        } else {
+            previousRating = ratingDetail.getRating();
+            ratingDetail.setRating(rating);
         }
 
-        ratingDetail.setRating(rating);
-
-        ratingSummary.getRatings().add(ratingDetail);
-        ratingSummaryDao.saveRatingSummary(ratingSummary);
+        ratingSummary.applyRatingChange(previousRating, rating);
+        return ratingDetail;
     }
 
     @Override
@@ -95,13 +161,42 @@ public class RatingServiceImpl implements RatingService {
         return ratingSummaryDao.readRatingSummary(itemId, type);
     }
 
+    /**
+     * The rating summary id for each item is cached (including the absence of a summary), so that listing pages can
+     * read summaries from the second level cache and only query for the items that have not been seen before.
+     */
     @Override
     public Map<String, RatingSummary> readRatingSummaries(List<String> itemIds, RatingType type) {
-        List<RatingSummary> ratings = ratingSummaryDao.readRatingSummaries(itemIds, type);
         Map<String, RatingSummary> ratingsMap = new HashMap<String, RatingSummary>();
+        List<String> uncachedItemIds = new ArrayList<String>();
+
+        for (String itemId : itemIds) {
+            Element element = getRatingSummaryIdCache().get(buildRatingSummaryIdKey(itemId, type));
+            if (element == null) {
+                uncachedItemIds.add(itemId);
+            } else if (!NO_RATING_SUMMARY.equals(element.getObjectValue())) {
+                RatingSummary ratingSummary = ratingSummaryDao.readRatingSummaryById((Long) element.getObjectValue());
+                if (ratingSummary == null) {
+                    uncachedItemIds.add(itemId);
+                } else {
+                    ratingsMap.put(itemId, ratingSummary);
+                }
+            }
+        }
 
-        for (RatingSummary ratingSummary : ratings) {
-            ratingsMap.put(ratingSummary.getItemId(), ratingSummary);
+        if (!uncachedItemIds.isEmpty()) {
+            for (RatingSummary ratingSummary : ratingSummaryDao.readRatingSummaries(uncachedItemIds, type)) {
+                ratingsMap.put(ratingSummary.getItemId(), ratingSummary);
+                getRatingSummaryIdCache().put(new Element(buildRatingSummaryIdKey(ratingSummary.getItemId(), type),
+                        ratingSummary.getId()));
+            }
+            for (String itemId : uncachedItemIds) {
+                if (!ratingsMap.containsKey(itemId)) {
+                    Element element = new Element(buildRatingSummaryIdKey(itemId, type), NO_RATING_SUMMARY);
+                    element.setTimeToLive(missingSummaryCacheTtlSeconds);
+                    getRatingSummaryIdCache().put(element);
+                }
+            }
         }
 
         return ratingsMap;
@@ -149,20 +244,8 @@ public class RatingServiceImpl implements RatingService {
     @Override
     @Transactional("blTransactionManager")
     public void reviewItem(String itemId, RatingType type, Customer customer, Double rating, String reviewText) {
-        RatingSummary ratingSummary = this.readRatingSummary(itemId, type);
-
-        if (ratingSummary == null) {
-            ratingSummary = ratingSummaryDao.createSummary(itemId, type);
-        }
-
-        RatingDetail ratingDetail = ratingSummaryDao.readRating(customer.getId(), ratingSummary.getId());
-
-        if (ratingDetail == null) {
-            ratingDetail = ratingSummaryDao.createDetail(ratingSummary, rating, SystemTime.asDate(), customer);
-            ratingSummary.getRatings().add(ratingDetail);
-        } else {
-            ratingDetail.setRating(rating);         
-        }
+        RatingSummary ratingSummary = readRatingSummaryForUpdate(itemId, type);
+        RatingDetail ratingDetail = applyRating(ratingSummary, customer, rating);
 
         ReviewDetail reviewDetail = ratingSummaryDao.readReview(customer.getId(), ratingSummary.getId());
 
@@ -172,10 +255,6 @@ public class RatingServiceImpl implements RatingService {
         } else {
             reviewDetail.setReviewText(reviewText);         
         }
-
-        // load reviews
-        ratingSummary.getReviews().size();
-        ratingSummaryDao.saveRatingSummary(ratingSummary);
     }
     
     @Override
@@ -183,4 +262,103 @@ public class RatingServiceImpl implements RatingService {
         return reviewDetailDao.readReviewByCustomerAndItem(customer, itemId);
     }
 
+    @Override
+    public int reconcileRatingSummaries() {
+        List<Long> ratingSummaryIds = ratingSummaryDao.readAllRatingSummaryIds();
+        int corrected = 0;
+        for (int i = 0; i < ratingSummaryIds.size(); i += reconcileBatchSize) {
+            List<Long> batch = ratingSummaryIds.subList(i, Math.min(i + reconcileBatchSize, ratingSummaryIds.size()));
+            TransactionStatus status = TransactionUtils.createTransaction("reconcileRatingSummaries",
+                    TransactionDefinition.PROPAGATION_REQUIRES_NEW, transactionManager, false);
+            boolean isError = false;
+            try {
+                corrected += reconcileRatingSummaries(batch);
+            } catch (RuntimeException e) {
+                isError = true;
+                throw e;
+            } finally {
+                TransactionUtils.finalizeTransaction(status, transactionManager, isError);
+            }
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Reconciled " + ratingSummaryIds.size() + " rating summaries, " + corrected + " were corrected");
+        }
+        return corrected;
+    }
+
+    /**
+     * Compare the running totals of the summaries to their rating details. Summaries that don't match are locked and
+     * checked again before being corrected, since they may have been rated in the meantime.
+     *
+     * @param ratingSummaryIds
+     * @return the number of summaries that were corrected
+     */
+    protected int reconcileRatingSummaries(List<Long> ratingSummaryIds) {
+        Map<Long, Object[]> totals = readRatingTotals(ratingSummaryIds);
+        int corrected = 0;
+        for (Long ratingSummaryId : ratingSummaryIds) {
+            RatingSummary ratingSummary = ratingSummaryDao.readRatingSummaryById(ratingSummaryId);
+            if (ratingSummary == null || isReconciled(ratingSummary, totals.get(ratingSummaryId))) {
+                continue;
+            }
+            ratingSummary = ratingSummaryDao.lockRatingSummary(ratingSummary);
+            Object[] lockedTotals = readRatingTotals(Collections.singletonList(ratingSummaryId)).get(ratingSummaryId);
+            if (!isReconciled(ratingSummary, lockedTotals)) {
+                ratingSummary.resetRatingTotals(getRatingCount(lockedTotals), getRatingTotal(lockedTotals));
+                corrected++;
+            }
+        }
+        return corrected;
+    }
+
+    protected Map<Long, Object[]> readRatingTotals(List<Long> ratingSummaryIds) {
+        Map<Long, Object[]> totals = new HashMap<Long, Object[]>();
+        for (Object[] row : ratingSummaryDao.readRatingTotals(ratingSummaryIds)) {
+            totals.put((Long) row[0], row);
+        }
+        return totals;
+    }
+
+    protected boolean isReconciled(RatingSummary ratingSummary, Object[] totals) {
+        return ratingSummary.getRatingTotal() != null
+                && ratingSummary.getNumberOfRatings() == getRatingCount(totals)
+                && Math.abs(ratingSummary.getRatingTotal() - getRatingTotal(totals)) < 0.000001d;
+    }
+
+    protected int getRatingCount(Object[] totals) {
+        return totals == null ? 0 : ((Number) totals[1]).intValue();
+    }
+
+    protected double getRatingTotal(Object[] totals) {
+        return totals == null || totals[2] == null ? 0 : ((Number) totals[2]).doubleValue();
+    }
+
+    protected String buildRatingSummaryIdKey(String itemId, RatingType type) {
+        return (type == null ? null : type.getType()) + "_" + itemId;
+    }
+
+    /**
+     * Remove the cached rating summary id for the item once the current transaction commits, so that a summary that
+     * was just created or deleted is picked up by {@link #readRatingSummaries(List, RatingType)}
+     */
+    protected void removeRatingSummaryIdFromCache(String itemId, RatingType type) {
+        final String key = buildRatingSummaryIdKey(itemId, type);
+        getRatingSummaryIdCache().remove(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    getRatingSummaryIdCache().remove(key);
+                }
+            });
+        }
+    }
+
+    protected Cache getRatingSummaryIdCache() {
+        if (ratingSummaryIdCache == null) {
+            ratingSummaryIdCache = CacheManager.getInstance().getCache("blRatingSummaryElements");
+        }
+        return ratingSummaryIdCache;
+    }
+
 }
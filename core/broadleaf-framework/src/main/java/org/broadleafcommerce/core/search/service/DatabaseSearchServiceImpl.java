@@ -21,6 +21,7 @@ import org.apache.commons.lang.StringUtils;
 import org.broadleafcommerce.common.exception.ServiceException;
 import org.broadleafcommerce.core.catalog.domain.Category;
 import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.service.CatalogBatchFetchService;
 import org.broadleafcommerce.core.catalog.service.CatalogService;
 import org.broadleafcommerce.core.search.dao.FieldDao;
 import org.broadleafcommerce.core.search.dao.SearchFacetDao;
@@ -57,6 +58,9 @@ public class DatabaseSearchServiceImpl implements SearchService {
     
     @Resource(name = "blCatalogService")
     protected CatalogService catalogService;
+
+    @Resource(name = "blCatalogBatchFetchService")
+    protected CatalogBatchFetchService catalogBatchFetchService;
     
     @Resource(name = "blSearchFacetDao")
     protected SearchFacetDao searchFacetDao;
@@ -83,6 +87,7 @@ public class DatabaseSearchServiceImpl implements SearchService {
         SearchResult result = new SearchResult();
         setQualifiedKeys(searchCriteria);
         List<Product> products = catalogService.findFilteredActiveProductsByCategory(category, searchCriteria);
+        catalogBatchFetchService.batchFetchProducts(products);
         List<SearchFacetDTO> facets = getCategoryFacets(category);
         setActiveFacets(facets, searchCriteria);
         result.setProducts(products);
@@ -98,6 +103,7 @@ public class DatabaseSearchServiceImpl implements SearchService {
         SearchResult result = new SearchResult();
         setQualifiedKeys(searchCriteria);
         List<Product> products = catalogService.findFilteredActiveProductsByQuery(query, searchCriteria);
+        catalogBatchFetchService.batchFetchProducts(products);
         List<SearchFacetDTO> facets = getSearchFacets();
         setActiveFacets(facets, searchCriteria);
         result.setProducts(products);
@@ -37,6 +37,7 @@ import org.broadleafcommerce.core.catalog.dao.SkuDao;
 import org.broadleafcommerce.core.catalog.domain.Category;
 import org.broadleafcommerce.core.catalog.domain.Product;
 import org.broadleafcommerce.core.catalog.domain.Sku;
+import org.broadleafcommerce.core.catalog.service.CatalogBatchFetchService;
 import org.broadleafcommerce.core.search.dao.FieldDao;
 import org.broadleafcommerce.core.search.dao.IndexFieldDao;
 import org.broadleafcommerce.core.search.dao.SearchFacetDao;
@@ -110,6 +111,9 @@ public class SolrSearchServiceImpl implements SearchService, DisposableBean {
     @Resource(name = "blSolrSearchServiceExtensionManager")
     protected SolrSearchServiceExtensionManager extensionManager;
 
+    @Resource(name = "blCatalogBatchFetchService")
+    protected CatalogBatchFetchService catalogBatchFetchService;
+
     @Autowired
     protected Environment environment;
 
@@ -563,7 +567,10 @@ public class SolrSearchServiceImpl implements SearchService, DisposableBean {
 
         List<Product> products = productDao.readProductsByIds(productIds);
 
-        extensionManager.getProxy().batchFetchCatalogData(products);
+        ExtensionResultStatusType batchFetchResult = extensionManager.getProxy().batchFetchCatalogData(products);
+        if (ExtensionResultStatusType.NOT_HANDLED.equals(batchFetchResult)) {
+            catalogBatchFetchService.batchFetchProducts(products);
+        }
 
         // We have to sort the products list by the order of the productIds list to maintain sortability in the UI
         if (products != null) {
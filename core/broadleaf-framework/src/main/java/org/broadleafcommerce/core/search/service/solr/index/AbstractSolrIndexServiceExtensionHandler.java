@@ -20,6 +20,7 @@ package org.broadleafcommerce.core.search.service.solr.index;
 import org.apache.solr.common.SolrInputDocument;
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.common.locale.domain.Locale;
 import org.broadleafcommerce.core.catalog.domain.Indexable;
 import org.broadleafcommerce.core.search.domain.Field;
@@ -44,12 +45,14 @@ public abstract class AbstractSolrIndexServiceExtensionHandler extends AbstractE
         implements SolrIndexServiceExtensionHandler {
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType addPropertyValues(Indexable indexable, Field field, FieldType fieldType,
             Map<String, Object> values, String propertyName, List<Locale> locales) throws IllegalAccessException, InvocationTargetException, NoSuchMethodException {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType attachAdditionalBasicFields(Indexable indexable, SolrInputDocument document, SolrHelperService shs) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -63,31 +66,37 @@ public abstract class AbstractSolrIndexServiceExtensionHandler extends AbstractE
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType attachChildDocuments(Indexable indexable, SolrInputDocument document, List<IndexField> fields, List<Locale> locales) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType modifyBuiltDocuments(Collection<SolrInputDocument> documents, List<? extends Indexable> products, List<IndexField> fields, List<Locale> locales) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType startBatchEvent(List<? extends Indexable> products) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType endBatchEvent(List<? extends Indexable> products) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
     
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType getIndexableId(Indexable indexable, Long[] returnContainer) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
     
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType getCategoryId(Long category, Long[] returnContainer) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
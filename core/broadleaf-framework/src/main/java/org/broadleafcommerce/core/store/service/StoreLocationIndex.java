@@ -0,0 +1,265 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.store.service;
+
+import org.broadleafcommerce.common.time.SystemTime;
+import org.broadleafcommerce.core.store.domain.Store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable in-memory index of store locations, used to answer store locator queries without reading and measuring
+ * every store. Stores are bucketed into a grid of one degree latitude/longitude cells, so a radius query only measures
+ * the stores in the cells that overlap the bounding box of the search circle. Distances are great-circle distances in
+ * miles, computed with the haversine formula.
+ * <p>
+ * Stores without a latitude or longitude are not indexed. Instances are safe to share between threads.
+ */
+public class StoreLocationIndex {
+
+    public static final double EARTH_RADIUS_MILES = 3959;
+
+    /**
+     * Half of the earth's circumference; no two points are further apart than this
+     */
+    protected static final double MAX_DISTANCE_MILES = Math.PI * EARTH_RADIUS_MILES;
+
+    /**
+     * The minimum length of one degree of latitude, and the length of one degree of longitude at the equator, rounded
+     * down so that bounding boxes err on the side of including too many cells
+     */
+    protected static final double MILES_PER_DEGREE = 69;
+
+    protected static final double CELL_SIZE_DEGREES = 1;
+    protected static final int LATITUDE_CELLS = (int) (180 / CELL_SIZE_DEGREES) + 1;
+    protected static final int LONGITUDE_CELLS = (int) (360 / CELL_SIZE_DEGREES);
+
+    protected static final double INITIAL_NEAREST_RADIUS_MILES = 25;
+
+    protected final long[] storeIds;
+    protected final double[] latitudes;
+    protected final double[] longitudes;
+    protected final Map<Integer, int[]> cells;
+    protected final long createdTime = SystemTime.asMillis();
+
+    /**
+     * @param storeIds the store ids
+     * @param latitudes the latitude of each store, in degrees
+     * @param longitudes the longitude of each store, in degrees
+     */
+    public StoreLocationIndex(long[] storeIds, double[] latitudes, double[] longitudes) {
+        if (storeIds.length != latitudes.length || storeIds.length != longitudes.length) {
+            throw new IllegalArgumentException("The store id, latitude and longitude arrays must be the same length");
+        }
+        this.storeIds = storeIds;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        Map<Integer, List<Integer>> buckets = new HashMap<Integer, List<Integer>>();
+        for (int i = 0; i < storeIds.length; i++) {
+            Integer cell = getCell(getLatitudeCell(latitudes[i]), getLongitudeCell(longitudes[i]));
+            List<Integer> bucket = buckets.get(cell);
+            if (bucket == null) {
+                bucket = new ArrayList<Integer>();
+                buckets.put(cell, bucket);
+            }
+            bucket.add(i);
+        }
+        cells = new HashMap<Integer, int[]>(buckets.size() * 2);
+        for (Map.Entry<Integer, List<Integer>> entry : buckets.entrySet()) {
+            int[] members = new int[entry.getValue().size()];
+            for (int i = 0; i < members.length; i++) {
+                members[i] = entry.getValue().get(i);
+            }
+            cells.put(entry.getKey(), members);
+        }
+    }
+
+    /**
+     * Build an index over the given stores, skipping any that are not located
+     *
+     * @param stores
+     * @return the index
+     */
+    public static StoreLocationIndex build(List<Store> stores) {
+        long[] ids = new long[stores.size()];
+        double[] lats = new double[stores.size()];
+        double[] lngs = new double[stores.size()];
+        int count = 0;
+        for (Store store : stores) {
+            if (store.getId() == null || store.getLatitude() == null || store.getLongitude() == null) {
+                continue;
+            }
+            ids[count] = store.getId();
+            lats[count] = store.getLatitude();
+            lngs[count] = store.getLongitude();
+            count++;
+        }
+        return new StoreLocationIndex(Arrays.copyOf(ids, count), Arrays.copyOf(lats, count), Arrays.copyOf(lngs, count));
+    }
+
+    /**
+     * Find the stores within the distance of the given point
+     *
+     * @param latitude the latitude of the search location, in degrees
+     * @param longitude the longitude of the search location, in degrees
+     * @param distance the maximum distance, in miles
+     * @return the matching store ids mapped to their distance, ordered from nearest to furthest
+     */
+    public Map<Long, Double> findWithinDistance(double latitude, double longitude, double distance) {
+        List<Match> matches = new ArrayList<Match>();
+        double latitudeRadius = distance / MILES_PER_DEGREE;
+        double minLatitude = latitude - latitudeRadius;
+        double maxLatitude = latitude + latitudeRadius;
+        int minLatitudeCell = getLatitudeCell(Math.max(minLatitude, -90));
+        int maxLatitudeCell = getLatitudeCell(Math.min(maxLatitude, 90));
+        int longitudeCellSpan = LONGITUDE_CELLS;
+        if (minLatitude > -90 && maxLatitude < 90) {
+            double widestLatitude = Math.max(Math.abs(minLatitude), Math.abs(maxLatitude));
+            double longitudeRadius = distance / (MILES_PER_DEGREE * Math.cos(Math.toRadians(widestLatitude)));
+            if (longitudeRadius < 180) {
+                longitudeCellSpan = (int) (2 * longitudeRadius / CELL_SIZE_DEGREES) + 2;
+            }
+        }
+        int cellCount = (maxLatitudeCell - minLatitudeCell + 1) * Math.min(longitudeCellSpan, LONGITUDE_CELLS);
+        if (cellCount >= storeIds.length || longitudeCellSpan >= LONGITUDE_CELLS) {
+            // visiting the cells would cost more than measuring every store
+            for (int i = 0; i < storeIds.length; i++) {
+                addIfWithinDistance(i, latitude, longitude, distance, matches);
+            }
+        } else {
+            int firstLongitudeCell = getLongitudeCell(longitude) - longitudeCellSpan / 2;
+            for (int latitudeCell = minLatitudeCell; latitudeCell <= maxLatitudeCell; latitudeCell++) {
+                for (int offset = 0; offset <= longitudeCellSpan; offset++) {
+                    int longitudeCell = ((firstLongitudeCell + offset) % LONGITUDE_CELLS + LONGITUDE_CELLS) % LONGITUDE_CELLS;
+                    int[] members = cells.get(getCell(latitudeCell, longitudeCell));
+                    if (members != null) {
+                        for (int member : members) {
+                            addIfWithinDistance(member, latitude, longitude, distance, matches);
+                        }
+                    }
+                }
+            }
+        }
+        Collections.sort(matches);
+        Map<Long, Double> response = new LinkedHashMap<Long, Double>(matches.size() * 2);
+        for (Match match : matches) {
+            response.put(storeIds[match.index], match.distance);
+        }
+        return response;
+    }
+
+    /**
+     * Find the stores nearest to the given point
+     *
+     * @param latitude the latitude of the search location, in degrees
+     * @param longitude the longitude of the search location, in degrees
+     * @param limit the maximum number of stores to return
+     * @return up to limit store ids mapped to their distance, ordered from nearest to furthest
+     */
+    public Map<Long, Double> findNearest(double latitude, double longitude, int limit) {
+        Map<Long, Double> matches = Collections.emptyMap();
+        if (limit <= 0 || storeIds.length == 0) {
+            return matches;
+        }
+        // every store within the radius is found, so once there are enough of them the nearest are among them
+        double radius = INITIAL_NEAREST_RADIUS_MILES;
+        while (true) {
+            matches = findWithinDistance(latitude, longitude, radius);
+            if (matches.size() >= limit || radius >= MAX_DISTANCE_MILES) {
+                break;
+            }
+            radius = Math.min(radius * 4, MAX_DISTANCE_MILES);
+        }
+        Map<Long, Double> response = new LinkedHashMap<Long, Double>(limit * 2);
+        for (Map.Entry<Long, Double> entry : matches.entrySet()) {
+            if (response.size() >= limit) {
+                break;
+            }
+            response.put(entry.getKey(), entry.getValue());
+        }
+        return response;
+    }
+
+    /**
+     * @return the great-circle distance between the two points in miles, using the haversine formula
+     */
+    public static double getDistance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeDelta = Math.toRadians(latitude2 - latitude1);
+        double longitudeDelta = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(latitudeDelta / 2) * Math.sin(latitudeDelta / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(longitudeDelta / 2) * Math.sin(longitudeDelta / 2);
+        return 2 * EARTH_RADIUS_MILES * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public int size() {
+        return storeIds.length;
+    }
+
+    public long getCreatedTime() {
+        return createdTime;
+    }
+
+    protected void addIfWithinDistance(int index, double latitude, double longitude, double distance, List<Match> matches) {
+        double storeDistance = getDistance(latitude, longitude, latitudes[index], longitudes[index]);
+        if (storeDistance <= distance) {
+            matches.add(new Match(index, storeDistance));
+        }
+    }
+
+    protected int getLatitudeCell(double latitude) {
+        return (int) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / CELL_SIZE_DEGREES);
+    }
+
+    protected int getLongitudeCell(double longitude) {
+        int cell = (int) Math.floor((longitude + 180) / CELL_SIZE_DEGREES);
+        return (cell % LONGITUDE_CELLS + LONGITUDE_CELLS) % LONGITUDE_CELLS;
+    }
+
+    protected Integer getCell(int latitudeCell, int longitudeCell) {
+        return latitudeCell * LONGITUDE_CELLS + longitudeCell;
+    }
+
+    /**
+     * A store within the search distance. Only matches are allocated, so the cost of a query does not grow with the
+     * size of the index.
+     */
+    protected static class Match implements Comparable<Match> {
+
+        protected final int index;
+        protected final double distance;
+
+        public Match(int index, double distance) {
+            this.index = index;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            return Double.compare(distance, other.distance);
+        }
+
+    }
+
+}
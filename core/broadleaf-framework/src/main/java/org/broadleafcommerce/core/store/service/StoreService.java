@@ -40,8 +40,24 @@ public interface StoreService {
 
     public Store saveStore(Store store);
 
+    /**
+     * Find the stores within the given distance of the postal code of the search address
+     *
+     * @param searchAddress
+     * @param distance the maximum distance, in miles
+     * @return the matching stores mapped to their distance in miles, ordered from nearest to furthest
+     */
     public Map<Store,Double> findStoresByAddress(Address searchAddress, double distance);
 
+    /**
+     * Find the stores nearest to the postal code of the search address
+     *
+     * @param searchAddress
+     * @param limit the maximum number of stores to return
+     * @return up to limit stores mapped to their distance in miles, ordered from nearest to furthest
+     */
+    public Map<Store,Double> findNearestStores(Address searchAddress, int limit);
+
     public List<Store> readAllStores();
 
     public List<Store> readAllStoresByState(String state);
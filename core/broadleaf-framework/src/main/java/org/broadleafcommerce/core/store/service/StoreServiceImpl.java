@@ -17,18 +17,22 @@
  */
 package org.broadleafcommerce.core.store.service;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Resource;
 
+import org.broadleafcommerce.common.time.SystemTime;
 import org.broadleafcommerce.core.store.dao.StoreDao;
 import org.broadleafcommerce.core.store.domain.Store;
 import org.broadleafcommerce.core.store.domain.ZipCode;
 import org.broadleafcommerce.profile.core.domain.Address;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 @Service("blStoreService")
 public class StoreServiceImpl implements StoreService {
@@ -40,6 +44,15 @@ public class StoreServiceImpl implements StoreService {
     @Resource(name = "blZipCodeService")
     private ZipCodeService zipCodeService;
 
+    /**
+     * How long the store location index is used before it is rebuilt, to pick up stores that were changed without
+     * going through {@link #saveStore(Store)}
+     */
+    @Value("${store.location.index.ttl.seconds:300}")
+    protected long storeLocationIndexTtlSeconds = 300;
+
+    protected volatile StoreLocationIndex storeLocationIndex;
+
     public Store readStoreById(Long id) {
         return storeDao.readStoreById(id);
     }
@@ -63,30 +76,76 @@ public class StoreServiceImpl implements StoreService {
     @Override
     @Transactional("blTransactionManager")
     public Store saveStore(Store store) {
-        return storeDao.save(store);
+        Store response = storeDao.save(store);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    storeLocationIndex = null;
+                }
+            });
+        } else {
+            storeLocationIndex = null;
+        }
+        return response;
     }
 
     public Map<Store, Double> findStoresByAddress(Address searchAddress, double distance) {
-        Map<Store, Double> matchingStores = new HashMap<Store, Double>();
-        for (Store store : readAllStores()) {
-            Double storeDistance = findStoreDistance(store, Integer.parseInt(searchAddress.getPostalCode()));
-            if (storeDistance != null && storeDistance <= distance) {
-                matchingStores.put(store, storeDistance);
-            }
+        ZipCode zipCode = findZipCode(searchAddress);
+        if (zipCode == null) {
+            return new LinkedHashMap<Store, Double>();
         }
+        return readStores(getStoreLocationIndex().findWithinDistance(zipCode.getZipLatitude(), zipCode.getZipLongitude(),
+                distance));
+    }
 
+    @Override
+    public Map<Store, Double> findNearestStores(Address searchAddress, int limit) {
+        ZipCode zipCode = findZipCode(searchAddress);
+        if (zipCode == null) {
+            return new LinkedHashMap<Store, Double>();
+        }
+        return readStores(getStoreLocationIndex().findNearest(zipCode.getZipLatitude(), zipCode.getZipLongitude(), limit));
+    }
+
+    protected ZipCode findZipCode(Address searchAddress) {
+        return zipCodeService.findZipCodeByZipCode(Integer.parseInt(searchAddress.getPostalCode()));
+    }
+
+    protected Map<Store, Double> readStores(Map<Long, Double> storeDistances) {
+        Map<Store, Double> matchingStores = new LinkedHashMap<Store, Double>(storeDistances.size() * 2);
+        for (Map.Entry<Long, Double> entry : storeDistances.entrySet()) {
+            // stores are in the second level cache, so this does not normally go to the database
+            Store store = readStoreById(entry.getKey());
+            if (store != null && store.isActive()) {
+                matchingStores.put(store, entry.getValue());
+            }
+        }
         return matchingStores;
     }
 
-    private Double findStoreDistance(Store store, Integer zip) {
-        ZipCode zipCode = zipCodeService.findZipCodeByZipCode(zip);
-        if (zipCode == null) {
-            return null;
+    /**
+     * Returns the current store location index, rebuilding it from {@link #readAllStores()} if a store was saved
+     * since it was built or it has expired
+     *
+     * @return the index
+     */
+    protected StoreLocationIndex getStoreLocationIndex() {
+        StoreLocationIndex index = storeLocationIndex;
+        if (index == null || isExpired(index)) {
+            synchronized (this) {
+                index = storeLocationIndex;
+                if (index == null || isExpired(index)) {
+                    index = StoreLocationIndex.build(readAllStores());
+                    storeLocationIndex = index;
+                }
+            }
         }
-        // A constant used to convert from degrees to radians.
-        double degreesToRadians = 57.3;
-        double storeDistance = 3959 * Math.acos((Math.sin(zipCode.getZipLatitude() / degreesToRadians) * Math.sin(store.getLatitude() / degreesToRadians))
-                + (Math.cos(zipCode.getZipLatitude() / degreesToRadians) * Math.cos(store.getLatitude() / degreesToRadians) * Math.cos((store.getLongitude() / degreesToRadians) - (zipCode.getZipLongitude() / degreesToRadians))));
-        return storeDistance;
+        return index;
+    }
+
+    protected boolean isExpired(StoreLocationIndex index) {
+        return storeLocationIndexTtlSeconds >= 0
+                && SystemTime.asMillis() - index.getCreatedTime() > storeLocationIndexTtlSeconds * 1000;
     }
 }
@@ -123,4 +123,30 @@ public interface ResourcePurgeDao {
      * @return the count of found customers
      */
     Long findCustomersCount(Date dateCreatedMinThreshold, Boolean registered, Boolean deactivated, Boolean isPreview, List<Long> excludedIds);
+
+    /**
+     * Finds the ids of carts qualifying for a purge, in ascending order, using the same criteria as
+     * {@link #findCarts(String[], OrderStatus[], Date, Boolean, List)}. Pages are read by keyset, so that reading a
+     * page does not get slower as the purge progresses.
+     *
+     * @param afterId only ids greater than this are returned, typically the last id of the previous page. Can be null.
+     * @param length the max number of ids to return
+     * @param partitionCount the number of partitions the ids are split into (by id modulo the count). Values below 2
+     *                       disable partitioning.
+     * @param partitionIndex the partition to return ids from, from 0 to partitionCount - 1
+     * @return the list of cart ids
+     */
+    List<Long> findCartIds(String[] names, OrderStatus[] statuses, Date dateCreatedMinThreshold, Boolean isPreview,
+            Long afterId, int length, List<Long> excludedIds, int partitionCount, int partitionIndex);
+
+    /**
+     * Finds the ids of customers qualifying for a purge, in ascending order, using the same criteria as
+     * {@link #findCustomers(Date, Boolean, Boolean, Boolean, List)}.
+     *
+     * @see #findCartIds(String[], OrderStatus[], Date, Boolean, Long, int, List, int, int)
+     * @return the list of customer ids
+     */
+    List<Long> findCustomerIds(Date dateCreatedMinThreshold, Boolean registered, Boolean deactivated, Boolean isPreview,
+            Long afterId, int length, List<Long> excludedIds, int partitionCount, int partitionIndex);
+
 }
@@ -107,6 +107,15 @@ public class ResourcePurgeDaoImpl implements ResourcePurgeDao {
             criteria.select((Selection<? extends T>) root);
         }
 
+        List<Predicate> restrictions = buildCustomerRestrictions(builder, criteria, root, dateCreatedMinThreshold,
+                registered, deactivated, isPreview, excludedIds);
+        criteria.where(restrictions.toArray(new Predicate[restrictions.size()]));
+        return em.createQuery(criteria);
+    }
+
+    protected List<Predicate> buildCustomerRestrictions(CriteriaBuilder builder, CriteriaQuery<?> criteria,
+            Root<CustomerImpl> root, Date dateCreatedMinThreshold, Boolean registered, Boolean deactivated,
+            Boolean isPreview, List<Long> excludedIds) {
         //find only customers that do not have any orders, otherwise a purge would fail because of referential integrity
         Subquery<Long> subquery = criteria.subquery(Long.class);
         Root orderRoot = subquery.from(OrderImpl.class);
@@ -145,8 +154,7 @@ public class ResourcePurgeDaoImpl implements ResourcePurgeDao {
         if (excludedIds != null && excludedIds.size() > 0) {
                 applyLimitedInClause(excludedIds, builder, root, restrictions);
         }
-        criteria.where(restrictions.toArray(new Predicate[restrictions.size()]));
-        return em.createQuery(criteria);
+        return restrictions;
     }
 
     protected <T> void applyLimitedInClause(List<Long> ids, CriteriaBuilder builder, Root<T> root, List<Predicate> restrictions) {
@@ -158,6 +166,53 @@ public class ResourcePurgeDaoImpl implements ResourcePurgeDao {
         restrictions.add(builder.and(inRestrictions.toArray(new Predicate[inRestrictions.size()])));
     }
     
+    @Override
+    public List<Long> findCartIds(String[] names, OrderStatus[] statuses, Date dateCreatedMinThreshold, Boolean isPreview,
+            Long afterId, int length, List<Long> excludedIds, int partitionCount, int partitionIndex) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+        Root<OrderImpl> root = criteria.from(OrderImpl.class);
+        criteria.select(root.<Long>get("id"));
+        List<Predicate> restrictions = buildCartRestrictions(builder, root, names, statuses, dateCreatedMinThreshold,
+                isPreview, excludedIds);
+        applyKeysetRestrictions(builder, root, afterId, partitionCount, partitionIndex, restrictions);
+        criteria.where(restrictions.toArray(new Predicate[restrictions.size()]));
+        criteria.orderBy(builder.asc(root.get("id")));
+        TypedQuery<Long> query = em.createQuery(criteria);
+        query.setMaxResults(length);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<Long> findCustomerIds(Date dateCreatedMinThreshold, Boolean registered, Boolean deactivated, Boolean isPreview,
+            Long afterId, int length, List<Long> excludedIds, int partitionCount, int partitionIndex) {
+        CriteriaBuilder builder = em.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = builder.createQuery(Long.class);
+        Root<CustomerImpl> root = criteria.from(CustomerImpl.class);
+        criteria.select(root.<Long>get("id"));
+        List<Predicate> restrictions = buildCustomerRestrictions(builder, criteria, root, dateCreatedMinThreshold,
+                registered, deactivated, isPreview, excludedIds);
+        applyKeysetRestrictions(builder, root, afterId, partitionCount, partitionIndex, restrictions);
+        criteria.where(restrictions.toArray(new Predicate[restrictions.size()]));
+        criteria.orderBy(builder.asc(root.get("id")));
+        TypedQuery<Long> query = em.createQuery(criteria);
+        query.setMaxResults(length);
+        return query.getResultList();
+    }
+
+    /**
+     * Restrict the ids to those after the last id of the previous page, and to a single partition of the ids
+     */
+    protected <T> void applyKeysetRestrictions(CriteriaBuilder builder, Root<T> root, Long afterId, int partitionCount,
+            int partitionIndex, List<Predicate> restrictions) {
+        if (afterId != null) {
+            restrictions.add(builder.greaterThan(root.<Long>get("id"), afterId));
+        }
+        if (partitionCount > 1) {
+            restrictions.add(builder.equal(builder.mod(root.<Integer>get("id"), partitionCount), partitionIndex));
+        }
+    }
+
     protected <T> TypedQuery<T> buildCartQuery(String[] names, OrderStatus[] statuses, Date dateCreatedMinThreshold, Boolean isPreview, Class<T> returnType,
             List<Long> excludedIds) {
         CriteriaBuilder builder = em.getCriteriaBuilder();
@@ -168,6 +223,14 @@ public class ResourcePurgeDaoImpl implements ResourcePurgeDao {
         } else {
             criteria.select((Selection<? extends T>) root);
         }
+        List<Predicate> restrictions = buildCartRestrictions(builder, root, names, statuses, dateCreatedMinThreshold,
+                isPreview, excludedIds);
+        criteria.where(restrictions.toArray(new Predicate[restrictions.size()]));
+        return em.createQuery(criteria);
+    }
+
+    protected List<Predicate> buildCartRestrictions(CriteriaBuilder builder, Root<OrderImpl> root, String[] names,
+            OrderStatus[] statuses, Date dateCreatedMinThreshold, Boolean isPreview, List<Long> excludedIds) {
         List<Predicate> restrictions = new ArrayList<Predicate>();
         List<String> statusList = new ArrayList<String>();
         if (statuses != null) {
@@ -195,7 +258,6 @@ public class ResourcePurgeDaoImpl implements ResourcePurgeDao {
         if (excludedIds != null && excludedIds.size() > 0) {
             applyLimitedInClause(excludedIds, builder, root, restrictions);
         }
-        criteria.where(restrictions.toArray(new Predicate[restrictions.size()]));
-        return em.createQuery(criteria);
+        return restrictions;
     }
 }
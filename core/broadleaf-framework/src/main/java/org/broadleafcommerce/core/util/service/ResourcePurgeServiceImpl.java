@@ -19,11 +19,17 @@ package org.broadleafcommerce.core.util.service;
 
 import java.util.ArrayList;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.annotation.Resource;
 
@@ -32,6 +38,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.broadleafcommerce.common.time.SystemTime;
 import org.broadleafcommerce.common.util.TransactionUtils;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
 import org.broadleafcommerce.core.order.domain.Order;
 import org.broadleafcommerce.core.order.service.OrderService;
 import org.broadleafcommerce.core.order.service.type.OrderStatus;
@@ -77,6 +84,13 @@ import org.springframework.transaction.TransactionStatus;
  * <property name="repeatInterval" value="86400000" />
  * </bean>
  *}
+ * <p/>
+ * Qualifying entities are deleted {@code TRANSACTION_SIZE} at a time. If a transaction fails, its entities are retried
+ * one per transaction so that only the entities that actually fail are cached as errors. Large purges can be spread
+ * over several nodes with {@code PARTITION_COUNT} and {@code PARTITION_INDEX} and over several threads with
+ * {@code THREADS}, in which case the ids are read in ascending pages (by keyset) from each partition. Any purge can be
+ * throttled with {@code TARGET_RATE}. Only one cart purge and one customer purge run at a time on a node.
+ *
  * @author Jeff Fischer
  */
 @Service("blResourcePurgeService")
@@ -86,6 +100,8 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
 
     private static final Long BATCH_SIZE = 50L;
     private static final Long PURGE_ERROR_CACHE_RETRY_SECONDS = System.currentTimeMillis() - 172800; //48 HOURS
+    private static final int TRANSACTION_SIZE = 20;
+    private static final int ID_PAGE_SIZE = 500;
 
     protected PurgeErrorCache customerPurgeErrors = new PurgeErrorCache();
     protected PurgeErrorCache cartPurgeErrors = new PurgeErrorCache();
@@ -111,29 +127,45 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
             throw new IllegalArgumentException("Cannot purge carts since there was no configuration provided. " +
                     "In the absence of config params, all carts would be candidates for deletion.");
         }
-        CartPurgeParams purgeParams = new CartPurgeParams(config).invoke();
-        int processedCount = 0, batchCount = 0;
+        final CartPurgeParams purgeParams = new CartPurgeParams(config).invoke();
+        int[] counts;
         synchronized(cartPurgeErrors) {
-            Set<Long> failedCartIds = getCartsInErrorToIgnore(purgeParams);
-            batchCount = getCartsToPurgeLength(purgeParams, new ArrayList<Long>(failedCartIds)).intValue();
-            List<Order> carts = getCartsToPurge(purgeParams, 0, batchCount, new ArrayList<Long>(failedCartIds));
-            for (Order cart : carts) {
-                TransactionStatus status = TransactionUtils.createTransaction("Cart Purge",
-                        TransactionDefinition.PROPAGATION_REQUIRED, transactionManager, false);
-                try {
-                    deleteCart(cart);
-                    TransactionUtils.finalizeTransaction(status, transactionManager, false);
-                    processedCount++;
-                } catch (Exception e) {
-                    if (! status.isCompleted()) {
-                        TransactionUtils.finalizeTransaction(status, transactionManager, true);
+            final List<Long> failedCartIds = new ArrayList<Long>(getCartsInErrorToIgnore(purgeParams));
+            counts = purge(new PurgeOperation() {
+                @Override
+                public Long readLength() {
+                    return getCartsToPurgeLength(purgeParams, failedCartIds);
+                }
+
+                @Override
+                public List<Long> readIds(int length) {
+                    List<Long> ids = new ArrayList<Long>();
+                    for (Order cart : getCartsToPurge(purgeParams, 0, length, failedCartIds)) {
+                        ids.add(cart.getId());
                     }
-                    LOG.error(String.format("Not able to purge Cart ID: %d", cart.getId()), e);
-                    cartPurgeErrors.add(cart.getId());
+                    return ids;
                 }
-            }
+
+                @Override
+                public List<Long> readIds(Long afterId, int length, int partitionCount, int partitionIndex) {
+                    return getCartIdsToPurge(purgeParams, afterId, length, failedCartIds, partitionCount, partitionIndex);
+                }
+
+                @Override
+                public void delete(Long id) {
+                    Order cart = orderService.findOrderById(id);
+                    if (cart != null) {
+                        deleteCart(cart);
+                    }
+                }
+
+                @Override
+                public String getName() {
+                    return "Cart";
+                }
+            }, purgeParams, cartPurgeErrors);
         }
-        LOG.info(String.format("Cart purge batch processed.  Purged %d from total batch size of %d, %d failures cached", processedCount, batchCount, cartPurgeErrors.size()));
+        LOG.info(String.format("Cart purge batch processed.  Purged %d from total batch size of %d, %d failures cached", counts[0], counts[1], cartPurgeErrors.size()));
     }
 
     @Override
@@ -145,29 +177,236 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
             throw new IllegalArgumentException("Cannot purge customers since there was no configuration provided. " +
                     "In the absence of config params, all customers would be candidates for deletion.");
         }
-        CustomerPurgeParams purgeParams = new CustomerPurgeParams(config).invoke();
-        int processedCount = 0, batchCount = 0;
+        final CustomerPurgeParams purgeParams = new CustomerPurgeParams(config).invoke();
+        int[] counts;
         synchronized(customerPurgeErrors) {
-            Set<Long> failedCustomerIds = getCustomersInErrorToIgnore(purgeParams);
-            batchCount = getCustomersToPurgeLength(purgeParams, new ArrayList<Long>(failedCustomerIds)).intValue();
-            List<Customer> customers = getCustomersToPurge(purgeParams, 0, batchCount, new ArrayList<Long>(failedCustomerIds));
-            for (Customer customer : customers) {
-                TransactionStatus status = TransactionUtils.createTransaction("Customer Purge",
-                        TransactionDefinition.PROPAGATION_REQUIRED, transactionManager, false);
-                try {
-                    deleteCustomer(customer);
-                    TransactionUtils.finalizeTransaction(status, transactionManager, false);
-                    processedCount++;
-                } catch (Exception e) {
-                    if (! status.isCompleted()) {
-                        TransactionUtils.finalizeTransaction(status, transactionManager, true);
+            final List<Long> failedCustomerIds = new ArrayList<Long>(getCustomersInErrorToIgnore(purgeParams));
+            counts = purge(new PurgeOperation() {
+                @Override
+                public Long readLength() {
+                    return getCustomersToPurgeLength(purgeParams, failedCustomerIds);
+                }
+
+                @Override
+                public List<Long> readIds(int length) {
+                    List<Long> ids = new ArrayList<Long>();
+                    for (Customer customer : getCustomersToPurge(purgeParams, 0, length, failedCustomerIds)) {
+                        ids.add(customer.getId());
+                    }
+                    return ids;
+                }
+
+                @Override
+                public List<Long> readIds(Long afterId, int length, int partitionCount, int partitionIndex) {
+                    return getCustomerIdsToPurge(purgeParams, afterId, length, failedCustomerIds, partitionCount, partitionIndex);
+                }
+
+                @Override
+                public void delete(Long id) {
+                    Customer customer = customerService.readCustomerById(id);
+                    if (customer != null) {
+                        deleteCustomer(customer);
                     }
-                    LOG.error(String.format("Not able to purge Customer ID: %d", customer.getId()), e);
-                    customerPurgeErrors.add(customer.getId());
                 }
+
+                @Override
+                public String getName() {
+                    return "Customer";
+                }
+            }, purgeParams, customerPurgeErrors);
+        }
+        LOG.info(String.format("Customer purge batch processed.  Purged %d from total batch size of %d, %d failures cached", counts[0], counts[1], customerPurgeErrors.size()));
+    }
+
+    /**
+     * Purge the entities qualified by the operation, using the number of threads and the partition from the params.
+     * The number of entities attempted by a run is capped by {@link PurgeOperation#readLength()}. Without partitions
+     * or threads, the entities are read in a single page through {@link PurgeOperation#readIds(int)}, so overrides of
+     * {@link #getCartsToPurge(CartPurgeParams, int, int, List)} and
+     * {@link #getCustomersToPurge(CustomerPurgeParams, int, int, List)} are honored. Otherwise, each thread purges its
+     * own partition of the ids by keyset: the partition of the run is split further by thread, so the threads of a run
+     * never compete for the same entities, nor do runs using different partition indexes. Each worker thread runs with
+     * a lightweight copy of the caller's {@link BroadleafRequestContext}.
+     *
+     * @param operation reads the qualified ids and deletes the entities
+     * @param purgeParams configured parameters for the purge process
+     * @param errors the cache of ids that failed to purge
+     * @return the number of entities purged and the number of entities attempted
+     */
+    protected int[] purge(final PurgeOperation operation, final PurgeParams purgeParams, final PurgeErrorCache errors) {
+        final int threads = Math.max(1, purgeParams.getThreads());
+        int runPartitionCount = Math.max(1, purgeParams.getPartitionCount());
+        final int partitionCount = runPartitionCount * threads;
+        Long length = operation.readLength();
+        if (length == null || length <= 0) {
+            return new int[2];
+        }
+        if (partitionCount == 1) {
+            return purgeIds(operation, purgeParams, errors, operation.readIds(length.intValue()));
+        }
+        final long workerLimit = (length + threads - 1) / threads;
+        final BroadleafRequestContext callerContext = BroadleafRequestContext.getBroadleafRequestContext();
+        List<Callable<int[]>> workers = new ArrayList<Callable<int[]>>();
+        for (int i = 0; i < threads; i++) {
+            final int partitionIndex = purgeParams.getPartitionIndex() + i * runPartitionCount;
+            workers.add(new Callable<int[]>() {
+                @Override
+                public int[] call() throws Exception {
+                    if (threads == 1) {
+                        return purgePartition(operation, purgeParams, errors, partitionCount, partitionIndex, workerLimit);
+                    }
+                    BroadleafRequestContext previousContext = BroadleafRequestContext.getBroadleafRequestContext();
+                    BroadleafRequestContext.setBroadleafRequestContext(callerContext == null ?
+                            new BroadleafRequestContext() : callerContext.createLightWeightClone());
+                    try {
+                        return purgePartition(operation, purgeParams, errors, partitionCount, partitionIndex, workerLimit);
+                    } finally {
+                        BroadleafRequestContext.setBroadleafRequestContext(previousContext);
+                    }
+                }
+            });
+        }
+        int[] counts = new int[2];
+        if (threads == 1) {
+            try {
+                counts = workers.get(0).call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                for (Future<int[]> future : executor.invokeAll(workers)) {
+                    int[] workerCounts = future.get();
+                    counts[0] += workerCounts[0];
+                    counts[1] += workerCounts[1];
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Purge the given ids, {@code TRANSACTION_SIZE} at a time
+     *
+     * @return the number of entities purged and the number of entities attempted
+     */
+    protected int[] purgeIds(PurgeOperation operation, PurgeParams purgeParams, PurgeErrorCache errors, List<Long> ids) {
+        int processedCount = 0, attemptedCount = 0;
+        int transactionSize = Math.max(1, purgeParams.getTransactionSize());
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < ids.size() && !Thread.currentThread().isInterrupted(); i += transactionSize) {
+            List<Long> transactionIds = ids.subList(i, Math.min(i + transactionSize, ids.size()));
+            processedCount += deleteInTransaction(operation, transactionIds, errors);
+            attemptedCount += transactionIds.size();
+            throttle(purgeParams.getTargetRate(), attemptedCount, start);
+        }
+        return new int[] { processedCount, attemptedCount };
+    }
+
+    /**
+     * Purge up to limit entities from a single partition of the qualified ids
+     *
+     * @return the number of entities purged and the number of entities attempted
+     */
+    protected int[] purgePartition(PurgeOperation operation, PurgeParams purgeParams, PurgeErrorCache errors,
+            int partitionCount, int partitionIndex, long limit) {
+        int processedCount = 0, attemptedCount = 0;
+        int transactionSize = Math.max(1, purgeParams.getTransactionSize());
+        long start = System.currentTimeMillis();
+        Long afterId = null;
+        while (attemptedCount < limit && !Thread.currentThread().isInterrupted()) {
+            int length = (int) Math.min(limit - attemptedCount, ID_PAGE_SIZE);
+            List<Long> ids = operation.readIds(afterId, length, partitionCount, partitionIndex);
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            for (int i = 0; i < ids.size(); i += transactionSize) {
+                List<Long> transactionIds = ids.subList(i, Math.min(i + transactionSize, ids.size()));
+                processedCount += deleteInTransaction(operation, transactionIds, errors);
+                attemptedCount += transactionIds.size();
+                throttle(purgeParams.getTargetRate(), attemptedCount, start);
+            }
+            if (ids.size() < length) {
+                break;
+            }
+        }
+        return new int[] { processedCount, attemptedCount };
+    }
+
+    /**
+     * Delete the entities in a single transaction. If that fails, each entity is retried in its own transaction and
+     * the ones that still fail are added to the error cache.
+     *
+     * @return the number of entities deleted
+     */
+    protected int deleteInTransaction(PurgeOperation operation, List<Long> ids, PurgeErrorCache errors) {
+        if (ids.size() > 1) {
+            TransactionStatus status = TransactionUtils.createTransaction(operation.getName() + " Purge",
+                    TransactionDefinition.PROPAGATION_REQUIRED, transactionManager, false);
+            try {
+                for (Long id : ids) {
+                    operation.delete(id);
+                }
+                TransactionUtils.finalizeTransaction(status, transactionManager, false);
+                return ids.size();
+            } catch (Exception e) {
+                if (! status.isCompleted()) {
+                    TransactionUtils.finalizeTransaction(status, transactionManager, true);
+                }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(String.format("Not able to purge %d %s entities in one transaction, retrying them individually",
+                            ids.size(), operation.getName()), e);
+                }
+            }
+        }
+        int processedCount = 0;
+        for (Long id : ids) {
+            TransactionStatus status = TransactionUtils.createTransaction(operation.getName() + " Purge",
+                    TransactionDefinition.PROPAGATION_REQUIRED, transactionManager, false);
+            try {
+                operation.delete(id);
+                TransactionUtils.finalizeTransaction(status, transactionManager, false);
+                processedCount++;
+            } catch (Exception e) {
+                if (! status.isCompleted()) {
+                    TransactionUtils.finalizeTransaction(status, transactionManager, true);
+                }
+                LOG.error(String.format("Not able to purge %s ID: %d", operation.getName(), id), e);
+                errors.add(id);
+            }
+        }
+        return processedCount;
+    }
+
+    /**
+     * Sleep long enough to keep the number of entities attempted since the start at or below the target rate
+     *
+     * @param targetRate the max number of entities per second, or null for no limit
+     * @param attemptedCount
+     * @param start
+     */
+    protected void throttle(Long targetRate, int attemptedCount, long start) {
+        if (targetRate == null || targetRate <= 0) {
+            return;
+        }
+        long wait = (attemptedCount * 1000L / targetRate) - (System.currentTimeMillis() - start);
+        if (wait > 0) {
+            try {
+                Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
         }
-        LOG.info(String.format("Customer purge batch processed.  Purged %d from total batch size of %d, %d failures cached", processedCount, batchCount, customerPurgeErrors.size()));
     }
 
     /**
@@ -197,6 +436,24 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
         return resourcePurgeDao.findCarts(nameArray, statusArray, dateCreatedMinThreshold, isPreview, startPos, length, cartsInError);
     }
 
+    /**
+     * Get a page of the ids of carts to delete from the database. Subclasses may override for custom cart retrieval logic.
+     *
+     * @param purgeParams configured parameters for the Cart purge process
+     * @param afterId the last id of the previous page, or null for the first page
+     * @param length the max number of ids to return
+     * @param cartsInError list of cart ids to be ignored/excluded from the query
+     * @param partitionCount the number of partitions the ids are split into
+     * @param partitionIndex the partition to read ids from
+     * @return list of cart ids to delete, in ascending order
+     */
+    protected List<Long> getCartIdsToPurge(CartPurgeParams purgeParams, Long afterId, int length, List<Long> cartsInError,
+            int partitionCount, int partitionIndex) {
+        return resourcePurgeDao.findCartIds(purgeParams.getNameArray(), purgeParams.getStatusArray(),
+                purgeParams.getDateCreatedMinThreshold(), purgeParams.getIsPreview(), afterId, length, cartsInError,
+                partitionCount, partitionIndex);
+    }
+
     /**
      * Get the count of carts to delete from the database. Subclasses may override for custom cart retrieval logic.
      *
@@ -255,6 +512,25 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
         return resourcePurgeDao.findCustomers(dateCreatedMinThreshold, isRegistered, isDeactivated, isPreview, startPos, length, customersInError);
     }
 
+    /**
+     * Get a page of the ids of customers to delete from the database. Subclasses may override for custom customer
+     * retrieval logic.
+     *
+     * @param purgeParams configured parameters for the Customer purge process
+     * @param afterId the last id of the previous page, or null for the first page
+     * @param length the max number of ids to return
+     * @param customersInError list of customer ids to be ignored/excluded from the query
+     * @param partitionCount the number of partitions the ids are split into
+     * @param partitionIndex the partition to read ids from
+     * @return list of customer ids to delete, in ascending order
+     */
+    protected List<Long> getCustomerIdsToPurge(CustomerPurgeParams purgeParams, Long afterId, int length,
+            List<Long> customersInError, int partitionCount, int partitionIndex) {
+        return resourcePurgeDao.findCustomerIds(purgeParams.getDateCreatedMinThreshold(), purgeParams.getIsRegistered(),
+                purgeParams.getIsDeactivated(), purgeParams.getIsPreview(), afterId, length, customersInError,
+                partitionCount, partitionIndex);
+    }
+
     /**
      * Get the count of customers to delete from the database. Subclasses may override for custom customer retrieval logic.
      *
@@ -283,15 +559,73 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
         customerService.deleteCustomer(customer);
     }
 
-    private class CartPurgeParams {
+    /**
+     * Reads the qualified ids for a purge and deletes a single entity. The unpartitioned reads go through the
+     * {@code get*ToPurge} and {@code get*ToPurgeLength} methods, the partitioned reads through {@code get*IdsToPurge}.
+     */
+    protected interface PurgeOperation {
+
+        Long readLength();
+
+        List<Long> readIds(int length);
+
+        List<Long> readIds(Long afterId, int length, int partitionCount, int partitionIndex);
+
+        void delete(Long id);
+
+        String getName();
+
+    }
+
+    /**
+     * Configuration shared by cart and customer purges
+     */
+    protected class PurgeParams {
+
+        protected Long batchSize;
+        protected Long failedRetryTime;
+        protected int partitionCount = 1;
+        protected int partitionIndex = 0;
+        protected int threads = 1;
+        protected int transactionSize = ResourcePurgeServiceImpl.TRANSACTION_SIZE;
+        protected Long targetRate;
+
+        public Long getBatchSize() {
+            return batchSize;
+        }
+
+        public Long getFailedRetryTime() {
+            return failedRetryTime;
+        }
+
+        public int getPartitionCount() {
+            return partitionCount;
+        }
+
+        public int getPartitionIndex() {
+            return partitionIndex;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public int getTransactionSize() {
+            return transactionSize;
+        }
+
+        public Long getTargetRate() {
+            return targetRate;
+        }
+    }
+
+    protected class CartPurgeParams extends PurgeParams {
 
         private Map<String, String> config;
         private String[] nameArray;
         private OrderStatus[] statusArray;
         private Date dateCreatedMinThreshold;
         private Boolean isPreview;
-        private Long batchSize;
-        private Long failedRetryTime;
 
         public CartPurgeParams(Map<String, String> config) {
             this.config = config;
@@ -313,13 +647,6 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
             return isPreview;
         }
 
-        public Long getBatchSize() {
-            return batchSize;
-        }
-
-        public Long getFailedRetryTime() {
-            return failedRetryTime;
-        }
 
         public CartPurgeParams invoke() {
             nameArray = null;
@@ -356,20 +683,33 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
                 if (PurgeCartVariableNames.RETRY_FAILED_SECONDS.toString().equals(entry.getKey())) {
                     failedRetryTime = System.currentTimeMillis() - (Long.parseLong(entry.getValue()) * 1000);
                 }
+                if (PurgeCartVariableNames.PARTITION_COUNT.toString().equals(entry.getKey())) {
+                    partitionCount = Integer.parseInt(entry.getValue());
+                }
+                if (PurgeCartVariableNames.PARTITION_INDEX.toString().equals(entry.getKey())) {
+                    partitionIndex = Integer.parseInt(entry.getValue());
+                }
+                if (PurgeCartVariableNames.THREADS.toString().equals(entry.getKey())) {
+                    threads = Integer.parseInt(entry.getValue());
+                }
+                if (PurgeCartVariableNames.TRANSACTION_SIZE.toString().equals(entry.getKey())) {
+                    transactionSize = Integer.parseInt(entry.getValue());
+                }
+                if (PurgeCartVariableNames.TARGET_RATE.toString().equals(entry.getKey())) {
+                    targetRate = Long.parseLong(entry.getValue());
+                }
             }
             return this;
         }
     }
 
-    private class CustomerPurgeParams {
+    protected class CustomerPurgeParams extends PurgeParams {
 
         private Map<String, String> config;
         private Date dateCreatedMinThreshold;
         private Boolean isPreview;
         private Boolean isRegistered;
         private Boolean isDeactivated;
-        private Long batchSize;
-        private Long failedRetryTime;
 
         public CustomerPurgeParams(Map<String, String> config) {
             this.config = config;
@@ -391,13 +731,6 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
             return isDeactivated;
         }
         
-        public Long getBatchSize() {
-            return batchSize;
-        }
-
-        public Long getFailedRetryTime() {
-            return failedRetryTime;
-        }
 
         public CustomerPurgeParams invoke() {
             isRegistered = null;
@@ -427,20 +760,32 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
                 if (PurgeCustomerVariableNames.RETRY_FAILED_SECONDS.toString().equals(entry.getKey())) {
                     failedRetryTime = System.currentTimeMillis() - (Long.parseLong(entry.getValue()) * 1000);
                 }
+                if (PurgeCustomerVariableNames.PARTITION_COUNT.toString().equals(entry.getKey())) {
+                    partitionCount = Integer.parseInt(entry.getValue());
+                }
+                if (PurgeCustomerVariableNames.PARTITION_INDEX.toString().equals(entry.getKey())) {
+                    partitionIndex = Integer.parseInt(entry.getValue());
+                }
+                if (PurgeCustomerVariableNames.THREADS.toString().equals(entry.getKey())) {
+                    threads = Integer.parseInt(entry.getValue());
+                }
+                if (PurgeCustomerVariableNames.TRANSACTION_SIZE.toString().equals(entry.getKey())) {
+                    transactionSize = Integer.parseInt(entry.getValue());
+                }
+                if (PurgeCustomerVariableNames.TARGET_RATE.toString().equals(entry.getKey())) {
+                    targetRate = Long.parseLong(entry.getValue());
+                }
             }
             return this;
         }
     }
     
-    private class PurgeErrorCache {
+    protected class PurgeErrorCache {
 
-        private Map<Long, Long> cache = new HashMap<Long, Long>();
+        private Map<Long, Long> cache = new ConcurrentHashMap<Long, Long>();
         
         public Long add(Long entry) {
-            if (! cache.containsKey(entry)) {
-                return cache.put(entry, new Long(System.currentTimeMillis()));
-            }
-            return null;
+            return ((ConcurrentHashMap<Long, Long>) cache).putIfAbsent(entry, new Long(System.currentTimeMillis()));
         }
         
         public Set<Long> getEntriesSince(long expiredTime) {
@@ -450,7 +795,7 @@ public class ResourcePurgeServiceImpl implements ResourcePurgeService {
                   item.remove();
                 }
             }
-            return cache.keySet();
+            return new HashSet<Long>(cache.keySet());
         }
 
         public int size() {
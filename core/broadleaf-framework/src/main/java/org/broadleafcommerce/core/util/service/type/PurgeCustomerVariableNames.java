@@ -28,4 +28,9 @@ public enum PurgeCustomerVariableNames {
     ,SITE //looking for customers that belong to a particular site (generally only meaningful in an multi-tenant context)
     ,BATCH_SIZE //the max size of the purge batch (null results in the batch size matching the number of qualified customers to purge)
     ,RETRY_FAILED_SECONDS //the number of seconds that a failed purge should be ignored before being retrying
+    ,PARTITION_COUNT //split the qualified customers into this many partitions by id, so that several nodes can purge at once
+    ,PARTITION_INDEX //the partition purged by this run, from 0 to PARTITION_COUNT - 1
+    ,THREADS //the number of worker threads used by this run, each purging its own share of the partition
+    ,TRANSACTION_SIZE //the number of customers deleted in each transaction
+    ,TARGET_RATE //the max number of customers deleted per second by each worker thread (null or 0 is unthrottled)
 }
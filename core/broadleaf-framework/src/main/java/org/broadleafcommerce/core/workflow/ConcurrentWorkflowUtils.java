@@ -0,0 +1,179 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.workflow;
+
+import org.broadleafcommerce.common.util.TransactionUtils;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.broadleafcommerce.core.workflow.state.RollbackStateLocal;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.EmptyStackException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Runs independent pieces of workflow work concurrently on an {@link Executor}, while making the worker threads look
+ * like the calling workflow thread: each worker gets a lightweight clone of the {@link BroadleafRequestContext} and the
+ * current {@link RollbackStateLocal}, so that site/locale/currency resolution works and
+ * {@link org.broadleafcommerce.core.workflow.state.ActivityStateManager} registrations end up in the calling workflow's
+ * rollback state. When a transaction manager is given, each worker runs in its own transaction, which is committed or
+ * rolled back independently of the calling workflow's transaction.
+ * <p>
+ * The calling thread blocks until every task has completed, so the elapsed time is that of the slowest task rather than
+ * the sum of all of them. Tasks must not lazily initialize entity state, since the Hibernate session of the calling
+ * thread is not thread safe; initialize what is needed before submitting the tasks.
+ *
+ * @see ParallelActivity
+ */
+public class ConcurrentWorkflowUtils {
+
+    /**
+     * @param executor the executor configured for concurrent workflow work, may be null
+     * @return whether work handed to the executor would actually run concurrently
+     */
+    public static boolean isConcurrent(Executor executor) {
+        if (executor instanceof WorkflowTaskExecutor) {
+            return ((WorkflowTaskExecutor) executor).isEnabled();
+        }
+        return executor != null;
+    }
+
+    /**
+     * @see #invokeAll(Executor, PlatformTransactionManager, List)
+     */
+    public static <V> List<V> invokeAll(Executor executor, List<? extends Callable<V>> tasks) throws Exception {
+        return invokeAll(executor, null, tasks);
+    }
+
+    /**
+     * Execute all of the tasks and return their results in the same order. When the executor is not concurrent (see
+     * {@link #isConcurrent(Executor)}), or there is only a single task, the tasks are run on the calling thread.
+     *
+     * @param executor the executor used to run the tasks, may be null
+     * @param transactionManager the transaction manager used for the transaction of each worker, may be null
+     * @param tasks the independent tasks to run
+     * @return the results of the tasks, in task order
+     * @throws Exception the first failure (in task order) if any task failed. All tasks are allowed to complete first.
+     */
+    public static <V> List<V> invokeAll(Executor executor, PlatformTransactionManager transactionManager,
+            List<? extends Callable<V>> tasks) throws Exception {
+        List<V> results = new ArrayList<>(tasks.size());
+        if (!isConcurrent(executor) || tasks.size() < 2) {
+            for (Callable<V> task : tasks) {
+                results.add(task.call());
+            }
+            return results;
+        }
+
+        BroadleafRequestContext brc = BroadleafRequestContext.getBroadleafRequestContext();
+        RollbackStateLocal rollbackStateLocal = null;
+        try {
+            rollbackStateLocal = RollbackStateLocal.getRollbackStateLocal();
+        } catch (EmptyStackException e) {
+            // not running inside of a workflow, nothing to propagate
+        }
+        List<FutureTask<V>> futures = new ArrayList<>(tasks.size());
+        for (int j = 0; j < tasks.size() - 1; j++) {
+            FutureTask<V> future = new FutureTask<V>(new ContextPropagatingCallable<V>(tasks.get(j), brc, rollbackStateLocal,
+                    transactionManager));
+            futures.add(future);
+            executor.execute(future);
+        }
+        // the calling thread would otherwise sit idle, so it runs the last task itself, in its own context
+        FutureTask<V> last = new FutureTask<V>(tasks.get(tasks.size() - 1));
+        futures.add(last);
+        last.run();
+
+        Exception failure = null;
+        for (FutureTask<V> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                results.add(null);
+                if (failure == null) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    failure = cause instanceof Exception ? (Exception) cause : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    protected static class ContextPropagatingCallable<V> implements Callable<V> {
+
+        protected final Callable<V> delegate;
+        protected final BroadleafRequestContext brc;
+        protected final RollbackStateLocal rollbackStateLocal;
+        protected final PlatformTransactionManager transactionManager;
+
+        public ContextPropagatingCallable(Callable<V> delegate, BroadleafRequestContext brc, RollbackStateLocal rollbackStateLocal,
+                PlatformTransactionManager transactionManager) {
+            this.delegate = delegate;
+            this.brc = brc;
+            this.rollbackStateLocal = rollbackStateLocal;
+            this.transactionManager = transactionManager;
+        }
+
+        @Override
+        public V call() throws Exception {
+            BroadleafRequestContext previousBrc = BroadleafRequestContext.getBroadleafRequestContext();
+            BroadleafRequestContext.setBroadleafRequestContext(brc == null ? new BroadleafRequestContext() : brc.createLightWeightClone());
+            if (rollbackStateLocal != null) {
+                RollbackStateLocal.setRollbackStateLocal(rollbackStateLocal);
+            }
+            try {
+                return callInTransaction();
+            } finally {
+                if (rollbackStateLocal != null) {
+                    RollbackStateLocal.clearRollbackStateLocal();
+                }
+                BroadleafRequestContext.setBroadleafRequestContext(previousBrc);
+            }
+        }
+
+        protected V callInTransaction() throws Exception {
+            if (transactionManager == null) {
+                return delegate.call();
+            }
+            TransactionStatus status = TransactionUtils.createTransaction("workflowTask",
+                    TransactionDefinition.PROPAGATION_REQUIRED, transactionManager);
+            V response;
+            try {
+                response = delegate.call();
+            } catch (Throwable e) {
+                TransactionUtils.finalizeTransaction(status, transactionManager, true);
+                throw e;
+            }
+            TransactionUtils.finalizeTransaction(status, transactionManager, false);
+            return response;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.workflow;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.broadleafcommerce.core.workflow.state.ActivityStateManagerImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Resource;
+
+/**
+ * <p>
+ * Groups activities that are independent of each other so that they can run concurrently inside of a sequential
+ * workflow, similar to how {@link org.broadleafcommerce.core.pricing.service.workflow.CompositeActivity} groups a
+ * sub-workflow. For example, two activities that each call a remote system for a different part of the order can be
+ * declared as:
+ * <pre>
+ * {@code
+ * <bean id="myParallelActivity" class="org.broadleafcommerce.core.workflow.ParallelActivity">
+ *     <property name="activities">
+ *         <list>
+ *             <ref bean="myFirstRemoteActivity" />
+ *             <ref bean="mySecondRemoteActivity" />
+ *         </list>
+ *     </property>
+ * </bean>
+ * }
+ * </pre>
+ * </p>
+ * <p>
+ * The child activities share the same {@link ProcessContext}, so they must only modify state that no other child reads
+ * or writes. They run on the executor registered as "blWorkflowTaskExecutor" (see {@link WorkflowTaskExecutor}, enabled
+ * through the workflow.task.executor.threads property); while it is disabled, they run sequentially in list order. A
+ * child run on a worker thread runs in its own transaction, so children that persist changes should rely on their
+ * rollback handlers to undo them.
+ * </p>
+ * <p>
+ * Once every child has finished, the rollback handler of each child that completed successfully is registered on the
+ * workflow thread, in list order. This also happens when a sibling failed, so a failure of one child rolls back the side
+ * effects of the children that completed, just as it would for activities declared in sequence. If any child fails, the
+ * first failure is rethrown after that registration. As with {@link SequenceProcessor}, a child that leaves the process
+ * stopped does not register its rollback handler, and children that have not started yet are skipped once the process
+ * is stopped. Children that were already running at that point are not interrupted.
+ * </p>
+ *
+ * @see ConcurrentWorkflowUtils
+ */
+public class ParallelActivity<T extends ProcessContext<?>> extends BaseActivity<T> {
+
+    private static final Log LOG = LogFactory.getLog(ParallelActivity.class);
+
+    @Autowired(required = false)
+    @Qualifier("blWorkflowTaskExecutor")
+    protected Executor taskExecutor;
+
+    @Resource(name = "blTransactionManager")
+    protected PlatformTransactionManager transactionManager;
+
+    protected List<Activity<T>> activities = new ArrayList<>();
+
+    @Override
+    public T execute(final T context) throws Exception {
+        final List<Activity<T>> executed = new ArrayList<>();
+        final Set<Activity<T>> completed = Collections.newSetFromMap(new ConcurrentHashMap<Activity<T>, Boolean>());
+        List<Callable<T>> tasks = new ArrayList<>();
+        for (final Activity<T> activity : activities) {
+            if (activity.shouldExecute(context)) {
+                executed.add(activity);
+                tasks.add(new Callable<T>() {
+                    @Override
+                    public T call() throws Exception {
+                        if (context.isStopped()) {
+                            LOG.debug("Not executing parallel activity: " + activity.getBeanName() + " since the process was stopped");
+                            return context;
+                        }
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("running parallel activity:" + activity.getBeanName() + " using arguments:" + context);
+                        }
+                        T response = activity.execute(context);
+                        if (!processShouldStop(context, activity)) {
+                            completed.add(activity);
+                        }
+                        return response;
+                    }
+                });
+            }
+        }
+
+        try {
+            ConcurrentWorkflowUtils.invokeAll(taskExecutor, transactionManager, tasks);
+        } finally {
+            for (Activity<T> activity : executed) {
+                if (completed.contains(activity) && activity.getRollbackHandler() != null
+                        && activity.getAutomaticallyRegisterRollbackHandler()) {
+                    ActivityStateManagerImpl.getStateManager().registerState(activity, context, activity.getRollbackRegion(),
+                            activity.getRollbackHandler(), activity.getStateConfiguration());
+                }
+            }
+        }
+
+        return context;
+    }
+
+    /**
+     * Determine if the process was stopped by the given child activity
+     *
+     * @param context the shared process context
+     * @param activity the child activity that just completed
+     */
+    protected boolean processShouldStop(T context, Activity<T> activity) {
+        if (context == null || context.isStopped()) {
+            LOG.info("Interrupted parallel activity as requested by:" + activity.getBeanName());
+            return true;
+        }
+        return false;
+    }
+
+    public List<Activity<T>> getActivities() {
+        return activities;
+    }
+
+    public void setActivities(List<Activity<T>> activities) {
+        this.activities = activities;
+    }
+
+    public Executor getTaskExecutor() {
+        return taskExecutor;
+    }
+
+    public void setTaskExecutor(Executor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.workflow;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * The executor used by {@link ParallelActivity} and
+ * {@link org.broadleafcommerce.core.pricing.service.workflow.FulfillmentGroupPricingActivity} to run independent workflow
+ * work concurrently. Concurrent execution is disabled by default; set {@code workflow.task.executor.threads} to the
+ * number of worker threads to enable it. While disabled, that work runs sequentially on the workflow thread.
+ * <p>
+ * The worker threads are shared by every workflow on the node, so size the pool for the number of concurrent checkouts
+ * and repricings expected to use it. A task is queued when all of the workers are busy.
+ *
+ * @see ConcurrentWorkflowUtils
+ */
+@Component("blWorkflowTaskExecutor")
+public class WorkflowTaskExecutor implements Executor {
+
+    @Value("${workflow.task.executor.threads:0}")
+    protected int threads = 0;
+
+    protected volatile ExecutorService executor;
+
+    /**
+     * @return whether workflow work should be handed to this executor rather than run on the workflow thread
+     */
+    public boolean isEnabled() {
+        return threads > 0;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (!isEnabled()) {
+            command.run();
+            return;
+        }
+        getExecutor().execute(command);
+    }
+
+    protected ExecutorService getExecutor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("blWorkflowTask-");
+                    threadFactory.setDaemon(true);
+                    executor = Executors.newFixedThreadPool(threads, threadFactory);
+                }
+            }
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    public synchronized void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+}
@@ -21,14 +21,20 @@ import org.broadleafcommerce.core.workflow.Activity;
 import org.broadleafcommerce.core.workflow.ProcessContext;
 import org.springframework.stereotype.Service;
 
+import java.util.AbstractMap;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
 
 import javax.annotation.PostConstruct;
 
 /**
+ * Rollback state is held by the {@link RollbackStateLocal} of the current workflow execution rather than in a map shared
+ * by every workflow on the node, so registering state does not require any shared lock.
+ *
  * @author Jeff Fischer
  */
 @Service("blActivityStateManager")
@@ -40,7 +46,16 @@ public class ActivityStateManagerImpl<T extends ProcessContext<?>> implements Ac
         return ACTIVITY_STATE_MANAGER;
     }
 
-    protected Map<String, Stack<StateContainer>> stateMap = Collections.synchronizedMap(new HashMap<String, Stack<StateContainer>>());
+    /**
+     * Rollback state of the current thread's workflow execution, keyed by its thread id and workflow id
+     *
+     * @deprecated rollback state is held by the {@link RollbackStateLocal} of each workflow execution. This map is a read
+     * only view of the state of the workflow execution on the calling thread; each read returns a new stack, most
+     * recently registered state on top, so changes made to it are not consulted. Use
+     * {@link RollbackStateLocal#getRollbackStates()} instead.
+     */
+    @Deprecated
+    protected Map<String, Stack<StateContainer<?>>> stateMap = new RollbackStateMap();
 
     @PostConstruct
     public void init() {
@@ -50,20 +65,18 @@ public class ActivityStateManagerImpl<T extends ProcessContext<?>> implements Ac
     @Override
     public void clearAllState() {
         RollbackStateLocal rollbackStateLocal = getRollbackStateLocal();
-        stateMap.remove(rollbackStateLocal.getThreadId() + "_" + rollbackStateLocal.getWorkflowId());
+        rollbackStateLocal.getRollbackStates().clear();
         RollbackStateLocal.clearRollbackStateLocal();
     }
 
     @Override
     public void clearRegionState(String region) {
-        RollbackStateLocal rollbackStateLocal = getRollbackStateLocal();
-        Stack<StateContainer> containers = stateMap.get(rollbackStateLocal.getThreadId() + "_" + rollbackStateLocal.getWorkflowId());
-        if (containers != null) {
-            while (!containers.empty()) {
-                String myRegion = containers.pop().getRegion();
-                if ((region == null && myRegion == null) || (region != null && region.equals(myRegion))) {
-                    break;
-                }
+        Deque<StateContainer<?>> containers = getRollbackStateLocal().getRollbackStates();
+        StateContainer<T> stateContainer;
+        while ((stateContainer = pollState(containers)) != null) {
+            String myRegion = stateContainer.getRegion();
+            if ((region == null && myRegion == null) || (region != null && region.equals(myRegion))) {
+                break;
             }
         }
     }
@@ -81,48 +94,42 @@ public class ActivityStateManagerImpl<T extends ProcessContext<?>> implements Ac
     @Override
     public void registerState(Activity<T> activity, T processContext, String region, RollbackHandler<T> rollbackHandler, Map<String, Object> stateItems) {
         RollbackStateLocal rollbackStateLocal = getRollbackStateLocal();
-        Stack<StateContainer> containers = stateMap.get(rollbackStateLocal.getThreadId() + "_" + rollbackStateLocal.getWorkflowId());
-        if (containers == null) {
-            containers = new Stack<>();
-            stateMap.put(rollbackStateLocal.getThreadId() + "_" + rollbackStateLocal.getWorkflowId(), containers);
-        }
 
-        StateContainer stateContainer = new StateContainer();
+        StateContainer<T> stateContainer = new StateContainer<>();
         stateContainer.setRollbackHandler(rollbackHandler);
         stateContainer.setStateItems(stateItems);
         stateContainer.setRegion(region);
         stateContainer.setActivity(activity);
         stateContainer.setProcessContext(processContext);
 
-        containers.push(stateContainer);
+        rollbackStateLocal.getRollbackStates().addFirst(stateContainer);
     }
 
     @Override
     public void rollbackAllState() throws RollbackFailureException {
-        RollbackStateLocal rollbackStateLocal = getRollbackStateLocal();
-        Stack<StateContainer> containers = stateMap.get(rollbackStateLocal.getThreadId() + "_" + rollbackStateLocal.getWorkflowId());
-        if (containers != null) {
-            while (!containers.empty()) {
-                StateContainer stateContainer = containers.pop();
-                stateContainer.getRollbackHandler().rollbackState(stateContainer.getActivity(), stateContainer.getProcessContext(), stateContainer.getStateItems());
-            }
+        Deque<StateContainer<?>> containers = getRollbackStateLocal().getRollbackStates();
+        StateContainer<T> stateContainer;
+        while ((stateContainer = pollState(containers)) != null) {
+            stateContainer.getRollbackHandler().rollbackState(stateContainer.getActivity(), stateContainer.getProcessContext(), stateContainer.getStateItems());
         }
     }
 
     @Override
     public void rollbackRegionState(String region) throws RollbackFailureException {
-        RollbackStateLocal rollbackStateLocal = getRollbackStateLocal();
-        Stack<StateContainer> containers = stateMap.get(rollbackStateLocal.getThreadId() + "_" + rollbackStateLocal.getWorkflowId());
-        if (containers != null) {
-            while (!containers.empty()) {
-                StateContainer stateContainer = containers.pop();
-                if ((region == null && stateContainer.getRegion() == null) || (region != null && region.equals(stateContainer.getRegion()))) {
-                    stateContainer.getRollbackHandler().rollbackState(stateContainer.getActivity(), stateContainer.getProcessContext(), stateContainer.getStateItems());
-                }
+        Deque<StateContainer<?>> containers = getRollbackStateLocal().getRollbackStates();
+        StateContainer<T> stateContainer;
+        while ((stateContainer = pollState(containers)) != null) {
+            if ((region == null && stateContainer.getRegion() == null) || (region != null && region.equals(stateContainer.getRegion()))) {
+                stateContainer.getRollbackHandler().rollbackState(stateContainer.getActivity(), stateContainer.getProcessContext(), stateContainer.getStateItems());
             }
         }
     }
 
+    @SuppressWarnings("unchecked")
+    protected StateContainer<T> pollState(Deque<StateContainer<?>> containers) {
+        return (StateContainer<T>) containers.pollFirst();
+    }
+
     protected RollbackStateLocal getRollbackStateLocal() {
         RollbackStateLocal rollbackStateLocal = RollbackStateLocal.getRollbackStateLocal();
         if (rollbackStateLocal == null) {
@@ -131,7 +138,32 @@ public class ActivityStateManagerImpl<T extends ProcessContext<?>> implements Ac
         return rollbackStateLocal;
     }
 
-    private class StateContainer {
+    /**
+     * Backs the deprecated {@link ActivityStateManagerImpl#stateMap}
+     */
+    protected static class RollbackStateMap extends AbstractMap<String, Stack<StateContainer<?>>> {
+
+        @Override
+        public Set<Entry<String, Stack<StateContainer<?>>>> entrySet() {
+            RollbackStateLocal rollbackStateLocal = RollbackStateLocal.getRollbackStateLocal();
+            if (rollbackStateLocal == null) {
+                return Collections.emptySet();
+            }
+            Stack<StateContainer<?>> containers = new Stack<>();
+            Iterator<StateContainer<?>> oldestFirst = rollbackStateLocal.getRollbackStates().descendingIterator();
+            while (oldestFirst.hasNext()) {
+                containers.push(oldestFirst.next());
+            }
+            Entry<String, Stack<StateContainer<?>>> entry = new SimpleImmutableEntry<>(
+                    rollbackStateLocal.getThreadId() + "_" + rollbackStateLocal.getWorkflowId(), containers);
+            return Collections.singleton(entry);
+        }
+    }
+
+    /**
+     * A rollback handler and the state it was registered with
+     */
+    public static class StateContainer<T extends ProcessContext<?>> {
 
         private String region;
         private RollbackHandler<T> rollbackHandler;
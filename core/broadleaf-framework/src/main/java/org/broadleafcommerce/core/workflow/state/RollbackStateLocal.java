@@ -19,11 +19,18 @@ package org.broadleafcommerce.core.workflow.state;
 
 import org.broadleafcommerce.common.classloader.release.ThreadLocalManager;
 
+import java.util.Deque;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 /**
  * Handles the identification of the outermost workflow and the current thread so that the StateManager can
  * operate on the appropriate RollbackHandlers.
+ * <p>
+ * Each workflow execution gets its own instance, which also holds the rollback state registered during that execution.
+ * Since the state is confined to the execution, registering state does not contend with other workflows running on
+ * the node. The state is kept in a concurrent deque, because activities run through
+ * {@link org.broadleafcommerce.core.workflow.ParallelActivity} register state from more than one thread.
  *
  * @author Jeff Fischer
  */
@@ -47,6 +54,7 @@ public class RollbackStateLocal {
 
     private String threadId;
     private String workflowId;
+    private final Deque<ActivityStateManagerImpl.StateContainer<?>> rollbackStates = new ConcurrentLinkedDeque<>();
 
     public String getThreadId() {
         return threadId;
@@ -63,4 +71,12 @@ public class RollbackStateLocal {
     public void setWorkflowId(String workflowId) {
         this.workflowId = workflowId;
     }
+
+    /**
+     * The rollback state registered with the {@link ActivityStateManager} during this workflow execution, most recently
+     * registered first
+     */
+    public Deque<ActivityStateManagerImpl.StateContainer<?>> getRollbackStates() {
+        return rollbackStates;
+    }
 }
@@ -55,6 +55,7 @@ class RecordOfferUsageActivitySpec extends BaseCheckoutActivitySpec {
         OfferAuditService mockAuditService = Mock()
         mockAuditService.create() >> offerAudit
         mockAuditService.save(_) >> {OfferAudit audit -> audit}
+        mockAuditService.saveAll(_) >> {args -> args[0]}
 
         OfferService mockOfferService = Mock()
         mockOfferService.getUniqueOffersFromOrder(_) >> {Order order -> appliedOffers}
@@ -70,9 +71,9 @@ class RecordOfferUsageActivitySpec extends BaseCheckoutActivitySpec {
         context = activity.execute(context);
 
         then: "There should be one OfferAudit in the rollback state"
-        Stack<ActivityStateManagerImpl.StateContainer> containers = ActivityStateManagerImpl.stateManager.stateMap.get("SPOCK_THREAD_TEST")
+        Deque<ActivityStateManagerImpl.StateContainer> containers = RollbackStateLocal.getRollbackStateLocal().getRollbackStates()
         containers.size() == 1
-        Map<String, Object> stateItems = containers.pop().getStateItems()
+        Map<String, Object> stateItems = containers.pollFirst().getStateItems()
         List<OfferAudit> audits = stateItems.get(RecordOfferUsageActivity.SAVED_AUDITS)
         audits.size() == 1
         audits.get(0) == offerAudit
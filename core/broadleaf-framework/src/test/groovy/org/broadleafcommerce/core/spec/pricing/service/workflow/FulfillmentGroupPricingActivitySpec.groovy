@@ -26,6 +26,8 @@ import org.broadleafcommerce.core.order.domain.FulfillmentGroupImpl
 import org.broadleafcommerce.core.pricing.service.FulfillmentPricingService
 import org.broadleafcommerce.core.pricing.service.workflow.FulfillmentGroupPricingActivity
 
+import java.util.concurrent.Executor
+
 
 class FulfillmentGroupPricingActivitySpec extends BasePricingActivitySpec {
     /*
@@ -78,4 +80,25 @@ class FulfillmentGroupPricingActivitySpec extends BasePricingActivitySpec {
         1 * mockFulfillmentPricingService.calculateCostForFulfillmentGroup(_) >> fulfillmentGroup1
         context.seedData.totalFulfillmentCharges.amount == 2.00
     }
+
+    def "A single fulfillment group to price is priced on the workflow thread"() {
+        Executor executor = Mock()
+        FulfillmentGroup pricedGroup = new FulfillmentGroupImpl().with {
+            fulfillmentPrice = new Money('2.00')
+            it
+        }
+        activity = new FulfillmentGroupPricingActivity().with() {
+            fulfillmentPricingService = mockFulfillmentPricingService
+            taskExecutor = executor
+            it
+        }
+
+        when: "I execute FulfillmentGroupPricingActivity with an executor configured"
+        context = activity.execute(context)
+
+        then: "The group is priced without handing any work to the executor"
+        1 * mockFulfillmentPricingService.calculateCostForFulfillmentGroup(_) >> pricedGroup
+        0 * executor.execute(_)
+        context.seedData.totalFulfillmentCharges.amount == 3.00
+    }
 }
@@ -0,0 +1,193 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.spec.workflow
+
+import org.broadleafcommerce.common.web.BroadleafRequestContext
+import org.broadleafcommerce.core.workflow.BaseActivity
+import org.broadleafcommerce.core.workflow.DefaultProcessContextImpl
+import org.broadleafcommerce.core.workflow.ParallelActivity
+import org.broadleafcommerce.core.workflow.ProcessContext
+import org.broadleafcommerce.core.workflow.state.ActivityStateManagerImpl
+import org.broadleafcommerce.core.workflow.state.RollbackHandler
+import org.broadleafcommerce.core.workflow.state.RollbackStateLocal
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+import spock.lang.Specification
+
+class ParallelActivitySpec extends Specification {
+
+    ProcessContext<Object> context
+    RollbackStateLocal rollbackStateLocal
+    ExecutorService executor
+
+    def setup() {
+        rollbackStateLocal = new RollbackStateLocal()
+        rollbackStateLocal.setThreadId("SPOCK_THREAD")
+        rollbackStateLocal.setWorkflowId("TEST")
+        RollbackStateLocal.setRollbackStateLocal(rollbackStateLocal)
+
+        new ActivityStateManagerImpl().init()
+
+        context = new DefaultProcessContextImpl<Object>()
+        executor = Executors.newFixedThreadPool(2)
+    }
+
+    def cleanup() {
+        executor.shutdownNow()
+        RollbackStateLocal.clearRollbackStateLocal()
+        BroadleafRequestContext.setBroadleafRequestContext(null)
+    }
+
+    def "children that completed are rolled back when a sibling fails"() {
+        setup: "three concurrent children where the middle one fails"
+        RollbackHandler firstHandler = Mock()
+        RollbackHandler lastHandler = Mock()
+        RollbackHandler failingHandler = Mock()
+        def first = new TestActivity(beanName: "first", rollbackHandler: firstHandler)
+        def failing = new TestActivity(beanName: "failing", rollbackHandler: failingHandler, failure: new IllegalStateException("remote call failed"))
+        def last = new TestActivity(beanName: "last", rollbackHandler: lastHandler)
+        def activity = new ParallelActivity(activities: [first, failing, last], taskExecutor: executor)
+
+        when: "the parallel activity executes"
+        activity.execute(context)
+
+        then: "the failure is rethrown after every child ran"
+        IllegalStateException e = thrown()
+        e.message == "remote call failed"
+        first.executed
+        failing.executed
+        last.executed
+
+        and: "only the children that completed registered rollback state, in list order"
+        rollbackStateLocal.rollbackStates.size() == 2
+        rollbackStateLocal.rollbackStates.peekLast().activity == first
+        rollbackStateLocal.rollbackStates.peekFirst().activity == last
+
+        when: "the workflow rolls back"
+        ActivityStateManagerImpl.stateManager.rollbackAllState()
+
+        then: "the side effects of the completed children are undone"
+        1 * firstHandler.rollbackState(first, context, _)
+        1 * lastHandler.rollbackState(last, context, _)
+        0 * failingHandler.rollbackState(*_)
+        rollbackStateLocal.rollbackStates.isEmpty()
+    }
+
+    def "without an executor the children run in sequence and stop at the first failure"() {
+        setup:
+        RollbackHandler firstHandler = Mock()
+        def first = new TestActivity(beanName: "first", rollbackHandler: firstHandler)
+        def failing = new TestActivity(beanName: "failing", failure: new IllegalStateException("failed"))
+        def last = new TestActivity(beanName: "last", rollbackHandler: Mock(RollbackHandler))
+        def activity = new ParallelActivity(activities: [first, failing, last])
+
+        when:
+        activity.execute(context)
+
+        then:
+        thrown(IllegalStateException)
+        first.executed
+        !last.executed
+        rollbackStateLocal.rollbackStates.size() == 1
+        rollbackStateLocal.rollbackStates.peekFirst().activity == first
+    }
+
+    def "a child that stops the process does not register rollback state and later children are skipped"() {
+        setup:
+        def stopping = new TestActivity(beanName: "stopping", rollbackHandler: Mock(RollbackHandler), stopProcess: true)
+        def last = new TestActivity(beanName: "last", rollbackHandler: Mock(RollbackHandler))
+        def activity = new ParallelActivity(activities: [stopping, last])
+
+        when:
+        activity.execute(context)
+
+        then:
+        context.isStopped()
+        stopping.executed
+        !last.executed
+        rollbackStateLocal.rollbackStates.isEmpty()
+    }
+
+    def "all children register rollback state when they succeed"() {
+        setup:
+        def first = new TestActivity(beanName: "first", rollbackHandler: Mock(RollbackHandler))
+        def second = new TestActivity(beanName: "second", rollbackHandler: Mock(RollbackHandler))
+        def skipped = new TestActivity(beanName: "skipped", rollbackHandler: Mock(RollbackHandler), execute: false)
+        def activity = new ParallelActivity(activities: [first, second, skipped], taskExecutor: executor)
+
+        when:
+        activity.execute(context)
+
+        then:
+        first.executed
+        second.executed
+        !skipped.executed
+        rollbackStateLocal.rollbackStates*.activity == [second, first]
+    }
+
+    def "children on worker threads get their own copy of the request context"() {
+        setup:
+        BroadleafRequestContext brc = new BroadleafRequestContext()
+        brc.admin = true
+        BroadleafRequestContext.setBroadleafRequestContext(brc)
+        def worker = new TestActivity(beanName: "worker")
+        def caller = new TestActivity(beanName: "caller")
+        def activity = new ParallelActivity(activities: [worker, caller], taskExecutor: executor)
+
+        when:
+        activity.execute(context)
+
+        then:
+        worker.requestContext != null
+        !worker.requestContext.is(brc)
+        worker.requestContext.admin
+        caller.requestContext.is(brc)
+        BroadleafRequestContext.getBroadleafRequestContext().is(brc)
+    }
+
+    static class TestActivity extends BaseActivity<ProcessContext<Object>> {
+
+        boolean execute = true
+        boolean stopProcess = false
+        Exception failure
+        volatile boolean executed = false
+        volatile BroadleafRequestContext requestContext
+
+        TestActivity() {
+            automaticallyRegisterRollbackHandler = true
+        }
+
+        boolean shouldExecute(ProcessContext<Object> context) {
+            execute
+        }
+
+        ProcessContext<Object> execute(ProcessContext<Object> context) throws Exception {
+            executed = true
+            requestContext = BroadleafRequestContext.getBroadleafRequestContext()
+            if (failure != null) {
+                throw failure
+            }
+            if (stopProcess) {
+                context.stopProcess()
+            }
+            return context
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.dao;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.domain.ProductImpl;
+import org.broadleafcommerce.core.catalog.domain.Sku;
+import org.broadleafcommerce.core.catalog.domain.SkuImpl;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.metadata.CollectionMetadata;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnitUtil;
+
+public class CatalogBatchFetchDaoImplTest extends TestCase {
+
+    protected static final String CATEGORIES = "allParentCategoryXrefs";
+    protected static final String DEFAULT_SKU = "defaultSku";
+    protected static final String SKU_MEDIA = "skuMedia";
+
+    protected RecordingBatchFetchDao batchFetchDao;
+    protected Set<Object> loadedEntities;
+    protected Set<Serializable> cachedIds;
+    protected List<Product> products;
+
+    @Override
+    protected void setUp() throws Exception {
+        loadedEntities = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        cachedIds = new HashSet<Serializable>();
+
+        PersistenceUnitUtil persistenceUnitUtil = EasyMock.createNiceMock(PersistenceUnitUtil.class);
+        EasyMock.expect(persistenceUnitUtil.isLoaded(EasyMock.anyObject(), EasyMock.<String>anyObject()))
+                .andAnswer(new IAnswer<Boolean>() {
+                    @Override
+                    public Boolean answer() throws Throwable {
+                        return loadedEntities.contains(EasyMock.getCurrentArguments()[0]);
+                    }
+                }).anyTimes();
+        EntityManagerFactory entityManagerFactory = EasyMock.createNiceMock(EntityManagerFactory.class);
+        EasyMock.expect(entityManagerFactory.getPersistenceUnitUtil()).andReturn(persistenceUnitUtil).anyTimes();
+
+        Cache cache = EasyMock.createNiceMock(Cache.class);
+        EasyMock.expect(cache.containsCollection(EasyMock.<String>anyObject(), EasyMock.<Serializable>anyObject()))
+                .andAnswer(new IAnswer<Boolean>() {
+                    @Override
+                    public Boolean answer() throws Throwable {
+                        return cachedIds.contains(EasyMock.getCurrentArguments()[1]);
+                    }
+                }).anyTimes();
+        CollectionMetadata collectionMetadata = EasyMock.createNiceMock(CollectionMetadata.class);
+        SessionFactory sessionFactory = EasyMock.createNiceMock(SessionFactory.class);
+        EasyMock.expect(sessionFactory.getCache()).andReturn(cache).anyTimes();
+        // only the collection associations have collection metadata, defaultSku is a to-one association
+        EasyMock.expect(sessionFactory.getCollectionMetadata(ProductImpl.class.getName() + "." + CATEGORIES))
+                .andReturn(collectionMetadata).anyTimes();
+        EasyMock.expect(sessionFactory.getCollectionMetadata(SkuImpl.class.getName() + "." + SKU_MEDIA))
+                .andReturn(collectionMetadata).anyTimes();
+
+        Session session = EasyMock.createNiceMock(Session.class);
+        EasyMock.expect(session.getSessionFactory()).andReturn(sessionFactory).anyTimes();
+        EasyMock.expect(session.getEntityName(EasyMock.anyObject())).andAnswer(new IAnswer<String>() {
+            @Override
+            public String answer() throws Throwable {
+                return EasyMock.getCurrentArguments()[0].getClass().getName();
+            }
+        }).anyTimes();
+
+        EntityManager em = EasyMock.createNiceMock(EntityManager.class);
+        EasyMock.expect(em.getEntityManagerFactory()).andReturn(entityManagerFactory).anyTimes();
+        EasyMock.expect(em.unwrap(Session.class)).andReturn(session).anyTimes();
+        EasyMock.replay(persistenceUnitUtil, entityManagerFactory, cache, collectionMetadata, sessionFactory, session, em);
+
+        batchFetchDao = new RecordingBatchFetchDao();
+        batchFetchDao.em = em;
+
+        products = new ArrayList<Product>();
+        for (long id = 1; id <= 4; id++) {
+            Product product = new ProductImpl();
+            product.setId(id);
+            products.add(product);
+        }
+    }
+
+    public void testAlreadyCachedCollectionsAreNotFetched() {
+        cachedIds.addAll(Arrays.asList(1L, 2L, 3L, 4L));
+
+        batchFetchDao.fetchProductAssociations(products, Collections.singletonList(CATEGORIES));
+
+        assertEquals(Collections.<Long>emptyList(), batchFetchDao.getFetchedIds(CATEGORIES));
+    }
+
+    public void testOnlyTheUnloadedEntitiesAreFetched() {
+        loadedEntities.add(products.get(0));
+        loadedEntities.add(products.get(2));
+
+        batchFetchDao.fetchProductAssociations(products, Collections.singletonList(CATEGORIES));
+
+        assertEquals(Arrays.asList(2L, 4L), batchFetchDao.getFetchedIds(CATEGORIES));
+    }
+
+    public void testAllMissingEntitiesAreFetchedInOrder() {
+        batchFetchDao.fetchProductAssociations(products, Collections.singletonList(CATEGORIES));
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), batchFetchDao.getFetchedIds(CATEGORIES));
+    }
+
+    public void testCachedAndLoadedEntitiesAreBothSkipped() {
+        cachedIds.add(1L);
+        loadedEntities.add(products.get(1));
+
+        batchFetchDao.fetchProductAssociations(products, Collections.singletonList(CATEGORIES));
+
+        assertEquals(Arrays.asList(3L, 4L), batchFetchDao.getFetchedIds(CATEGORIES));
+    }
+
+    public void testAssociationsAreFilteredIndependently() {
+        cachedIds.addAll(Arrays.asList(1L, 2L));
+
+        batchFetchDao.fetchProductAssociations(products, Arrays.asList(CATEGORIES, DEFAULT_SKU));
+
+        assertEquals(Arrays.asList(3L, 4L), batchFetchDao.getFetchedIds(CATEGORIES));
+        // the collection cache says nothing about a to-one association
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), batchFetchDao.getFetchedIds(DEFAULT_SKU));
+    }
+
+    public void testUnsavedAndNullEntitiesAreSkipped() {
+        products.add(null);
+        products.add(new ProductImpl());
+
+        batchFetchDao.fetchProductAssociations(products, Collections.singletonList(CATEGORIES));
+
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L), batchFetchDao.getFetchedIds(CATEGORIES));
+    }
+
+    public void testSkuAssociationsAreFiltered() {
+        List<Sku> skus = new ArrayList<Sku>();
+        for (long id = 10; id <= 12; id++) {
+            Sku sku = new SkuImpl();
+            sku.setId(id);
+            skus.add(sku);
+        }
+        cachedIds.add(10L);
+        loadedEntities.add(skus.get(2));
+
+        batchFetchDao.fetchSkuAssociations(skus, Collections.singletonList(SKU_MEDIA));
+
+        assertEquals(Collections.singletonList(11L), batchFetchDao.getFetchedIds(SKU_MEDIA));
+    }
+
+    /**
+     * Records the ids each association would be fetched for instead of running the query
+     */
+    public static class RecordingBatchFetchDao extends CatalogBatchFetchDaoImpl {
+
+        protected final Map<String, List<Long>> fetchedIds = new LinkedHashMap<String, List<Long>>();
+
+        @Override
+        protected void fetchAssociation(Class<?> entityType, String association, Set<Long> ids) {
+            fetchedIds.put(association, new ArrayList<Long>(ids));
+        }
+
+        public List<Long> getFetchedIds(String association) {
+            return fetchedIds.get(association);
+        }
+    }
+
+}
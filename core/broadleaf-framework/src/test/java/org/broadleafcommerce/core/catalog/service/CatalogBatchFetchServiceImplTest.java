@@ -0,0 +1,107 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.core.catalog.dao.CatalogBatchFetchDao;
+import org.broadleafcommerce.core.catalog.domain.Product;
+import org.broadleafcommerce.core.catalog.domain.ProductImpl;
+import org.broadleafcommerce.core.catalog.domain.Sku;
+import org.broadleafcommerce.core.catalog.domain.SkuImpl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CatalogBatchFetchServiceImplTest extends TestCase {
+
+    protected CatalogBatchFetchServiceImpl batchFetchService;
+    protected RecordingBatchFetchDao batchFetchDao;
+    protected List<Product> products;
+
+    @Override
+    protected void setUp() throws Exception {
+        batchFetchDao = new RecordingBatchFetchDao();
+        batchFetchService = new CatalogBatchFetchServiceImpl();
+        batchFetchService.catalogBatchFetchDao = batchFetchDao;
+        batchFetchService.enabled = true;
+        batchFetchService.productAssociations = " defaultSku, allParentCategoryXrefs,,productOptions ";
+
+        products = new ArrayList<Product>();
+        for (long id = 1; id <= 3; id++) {
+            Product product = new ProductImpl();
+            product.setId(id);
+            if (id != 2) {
+                Sku sku = new SkuImpl();
+                sku.setId(id * 10);
+                product.setDefaultSku(sku);
+            }
+            products.add(product);
+        }
+    }
+
+    public void testNothingIsFetchedWhenDisabled() {
+        batchFetchService.enabled = false;
+
+        batchFetchService.batchFetchProducts(products);
+
+        assertNull(batchFetchDao.products);
+        assertNull(batchFetchDao.skus);
+    }
+
+    public void testProductsAndTheirDefaultSkusAreFetched() {
+        batchFetchService.batchFetchProducts(products);
+
+        assertSame(products, batchFetchDao.products);
+        assertEquals(Arrays.asList("defaultSku", "allParentCategoryXrefs", "productOptions"),
+                batchFetchDao.productAssociations);
+        assertEquals(2, batchFetchDao.skus.size());
+        assertSame(products.get(0).getDefaultSku(), batchFetchDao.skus.get(0));
+        assertSame(products.get(2).getDefaultSku(), batchFetchDao.skus.get(1));
+        assertEquals(Arrays.asList("skuMedia"), batchFetchDao.skuAssociations);
+    }
+
+    public void testEmptyListsAreNotFetched() {
+        batchFetchService.batchFetchProducts(new ArrayList<Product>());
+        batchFetchService.batchFetchSkus(null);
+
+        assertNull(batchFetchDao.products);
+        assertNull(batchFetchDao.skus);
+    }
+
+    public static class RecordingBatchFetchDao implements CatalogBatchFetchDao {
+
+        protected List<Product> products;
+        protected List<String> productAssociations;
+        protected List<Sku> skus;
+        protected List<String> skuAssociations;
+
+        @Override
+        public void fetchProductAssociations(List<Product> products, List<String> associations) {
+            this.products = products;
+            this.productAssociations = associations;
+        }
+
+        @Override
+        public void fetchSkuAssociations(List<Sku> skus, List<String> associations) {
+            this.skus = skus;
+            this.skuAssociations = associations;
+        }
+    }
+
+}
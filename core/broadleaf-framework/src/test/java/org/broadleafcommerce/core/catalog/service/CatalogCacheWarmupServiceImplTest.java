@@ -0,0 +1,120 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+public class CatalogCacheWarmupServiceImplTest extends TestCase {
+
+    protected List<String> events;
+    protected RecordingWarmupService warmupService;
+
+    @Override
+    protected void setUp() throws Exception {
+        events = Collections.synchronizedList(new ArrayList<String>());
+        warmupService = new RecordingWarmupService(events);
+        warmupService.hotListProvider = new CatalogCacheWarmupHotListProvider() {
+            @Override
+            public List<Long> getHotProductIds(int limit) {
+                return Arrays.asList(1L, 2L, 3L);
+            }
+        };
+    }
+
+    public void testHotProductsAreLoadedBeforeTheRemainder() throws Exception {
+        warmupService.warmUp();
+
+        assertEquals(5, events.size());
+        assertEquals("hot products started", events.get(0));
+        assertEquals("hot products finished", events.get(1));
+        assertEquals(new HashSet<String>(Arrays.asList("products", "categories", "skus")),
+                new HashSet<String>(events.subList(2, 5)));
+    }
+
+    public void testFailedHotProductsDoNotPreventTheRemainder() throws Exception {
+        warmupService.failHotProducts = true;
+
+        warmupService.warmUp();
+
+        assertEquals("hot products started", events.get(0));
+        assertEquals(new HashSet<String>(Arrays.asList("products", "categories", "skus")),
+                new HashSet<String>(events.subList(1, events.size())));
+    }
+
+    public void testRemainderIsLoadedWithoutAHotListProvider() throws Exception {
+        warmupService.hotListProvider = null;
+
+        warmupService.warmUp();
+
+        assertEquals(new HashSet<String>(Arrays.asList("products", "categories", "skus")), new HashSet<String>(events));
+    }
+
+    /**
+     * Records the order in which each kind of entity is loaded instead of reading from the database. The hot products
+     * take a while to load so that any task started alongside them would be recorded before they finish.
+     */
+    public static class RecordingWarmupService extends CatalogCacheWarmupServiceImpl {
+
+        protected final List<String> events;
+        protected boolean failHotProducts = false;
+
+        public RecordingWarmupService(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        protected int warmHotProducts() {
+            events.add("hot products started");
+            if (failHotProducts) {
+                throw new IllegalStateException("Unable to read the hot products");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add("hot products finished");
+            return 3;
+        }
+
+        @Override
+        protected int warmProducts() {
+            events.add("products");
+            return 1;
+        }
+
+        @Override
+        protected int warmCategories() {
+            events.add("categories");
+            return 1;
+        }
+
+        @Override
+        protected int warmSkus() {
+            events.add("skus");
+            return 1;
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.catalog.service;
+
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+public class CategoryTreeSnapshotTest extends TestCase {
+
+    protected static final long NOW = 1000000L;
+    protected static final Date PAST = new Date(NOW - 1000L);
+    protected static final Date FUTURE = new Date(NOW + 1000L);
+
+    protected CategoryTreeSnapshot snapshot;
+
+    @Override
+    protected void setUp() throws Exception {
+        List<Object[]> rows = new ArrayList<Object[]>();
+        // 1 -> 2, 3, 4 (4 ends in the past), 2 -> 5, 6 -> 5 (default parent of 5), 7 -> 3 (7 is archived)
+        rows.add(row(1L, "/", PAST, null, null, 3L, "/three", PAST, null, 'N', new BigDecimal(2), null));
+        rows.add(row(1L, "/", PAST, null, null, 2L, "/two", PAST, null, null, new BigDecimal(1), null));
+        rows.add(row(1L, "/", PAST, null, null, 4L, "/four", PAST, PAST, null, null, null));
+        rows.add(row(2L, "/two", PAST, null, null, 5L, "/five", PAST, FUTURE, null, new BigDecimal(1), null));
+        rows.add(row(6L, "/six", PAST, null, null, 5L, "/five", PAST, FUTURE, null, new BigDecimal(2), true));
+        rows.add(row(7L, "/seven", PAST, null, 'Y', 3L, "/three", PAST, null, 'N', new BigDecimal(1), true));
+        snapshot = new CategoryTreeSnapshot(rows, NOW);
+    }
+
+    protected Object[] row(Long parentId, String parentUrl, Date parentStart, Date parentEnd, Character parentArchived,
+            Long childId, String childUrl, Date childStart, Date childEnd, Character childArchived,
+            BigDecimal displayOrder, Boolean defaultReference) {
+        return new Object[] { parentId, parentUrl, parentStart, parentEnd, parentArchived, childId, childUrl,
+                childStart, childEnd, childArchived, displayOrder, defaultReference };
+    }
+
+    public void testChildrenInDisplayOrder() throws Exception {
+        assertEquals(Arrays.asList(2L, 3L), snapshot.getActiveChildCategoryIds(1L, NOW));
+        assertEquals(Arrays.asList(2L, 3L, 4L), snapshot.getAllChildCategoryIds(1L));
+        assertTrue(snapshot.getActiveChildCategoryIds(5L, NOW).isEmpty());
+        assertTrue(snapshot.getActiveChildCategoryIds(99L, NOW).isEmpty());
+    }
+
+    public void testActiveDates() throws Exception {
+        assertTrue(snapshot.isActive(5L, NOW));
+        assertFalse(snapshot.isActive(5L, FUTURE.getTime() + 1));
+        assertFalse(snapshot.isActive(4L, NOW));
+        assertFalse(snapshot.isActive(7L, NOW));
+    }
+
+    public void testParentPrefersActiveDefaultReference() throws Exception {
+        assertEquals(Long.valueOf(6L), snapshot.getParentCategoryId(5L, NOW));
+        // 7 is the default parent of 3, but is archived
+        assertEquals(Long.valueOf(1L), snapshot.getParentCategoryId(3L, NOW));
+        assertNull(snapshot.getParentCategoryId(1L, NOW));
+    }
+
+    public void testAncestors() throws Exception {
+        assertEquals(Arrays.asList(1L), snapshot.getAncestorCategoryIds(2L, NOW));
+        assertEquals(Arrays.asList(6L), snapshot.getAncestorCategoryIds(5L, NOW));
+        assertTrue(snapshot.getAncestorCategoryIds(1L, NOW).isEmpty());
+    }
+
+    public void testUrls() throws Exception {
+        assertEquals("/three", snapshot.getUrl(3L));
+        assertEquals(Long.valueOf(5L), snapshot.getCategoryIdByUrl("/five"));
+        assertNull(snapshot.getCategoryIdByUrl("/missing"));
+        assertEquals(7, snapshot.size());
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.checkout.service;
+
+import org.broadleafcommerce.core.checkout.service.exception.CheckoutException;
+import org.broadleafcommerce.core.checkout.service.exception.CheckoutInProgressException;
+import org.broadleafcommerce.core.checkout.service.workflow.CheckoutResponse;
+import org.broadleafcommerce.core.checkout.service.workflow.CheckoutSeed;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.order.domain.OrderImpl;
+import org.broadleafcommerce.core.order.service.type.OrderStatus;
+
+import java.util.HashMap;
+
+import junit.framework.TestCase;
+
+public class CheckoutAdmissionServiceImplTest extends TestCase {
+
+    protected CheckoutAdmissionServiceImpl service;
+
+    @Override
+    protected void setUp() throws Exception {
+        service = new CheckoutAdmissionServiceImpl();
+        service.duplicateWaitMillis = 1000L;
+    }
+
+    public void testConcurrentCheckoutIsRejected() throws Exception {
+        Order order = buildOrder(1L);
+        CheckoutAdmission admission = service.admit(order, "first");
+        assertFalse(admission.isDuplicate());
+        try {
+            service.admit(order, null);
+            fail("A second checkout of the same order should not be admitted");
+        } catch (CheckoutInProgressException e) {
+            // expected
+        }
+
+        service.complete(admission, null, null);
+        assertFalse(service.admit(order, null).isDuplicate());
+    }
+
+    public void testDuplicateSubmissionIsRejectedWithoutWaitingByDefault() throws Exception {
+        CheckoutAdmissionServiceImpl defaultService = new CheckoutAdmissionServiceImpl();
+        Order order = buildOrder(4L);
+        defaultService.admit(order, "token");
+
+        long start = System.currentTimeMillis();
+        try {
+            defaultService.admit(order, "token");
+            fail("A duplicate of an in flight checkout should be rejected");
+        } catch (CheckoutInProgressException e) {
+            // expected
+        }
+        assertTrue(System.currentTimeMillis() - start < 500L);
+    }
+
+    public void testDeprecatedLockMethodsDelegateToAdmissionService() throws Exception {
+        CheckoutServiceImpl checkoutService = new CheckoutServiceImpl();
+        checkoutService.checkoutAdmissionService = service;
+        Order order = buildOrder(5L);
+
+        assertNull(checkoutService.putLock(5L));
+        assertNotNull(checkoutService.putLock(5L));
+        try {
+            service.admit(order, null);
+            fail("An order locked through putLock should not be admitted");
+        } catch (CheckoutInProgressException e) {
+            // expected
+        }
+
+        checkoutService.removeLock(5L);
+        assertFalse(service.admit(order, null).isDuplicate());
+        assertFalse(checkoutService.hasOrderBeenCompleted(order));
+        order.setStatus(OrderStatus.SUBMITTED);
+        assertTrue(checkoutService.hasOrderBeenCompleted(order));
+    }
+
+    public void testDuplicateSubmissionReceivesInFlightResponse() throws Exception {
+        final Order order = buildOrder(2L);
+        final CheckoutAdmission admission = service.admit(order, "token");
+        final CheckoutResponse response = new CheckoutSeed(order, new HashMap<String, Object>());
+        Thread completer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50L);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                service.complete(admission, response, null);
+            }
+        };
+        completer.start();
+
+        CheckoutAdmission duplicate = service.admit(order, "token");
+        completer.join();
+
+        assertTrue(duplicate.isDuplicate());
+        assertSame(response, duplicate.getResponse());
+    }
+
+    public void testCompletedOrderAnswersSameSubmissionOnly() throws Exception {
+        Order order = buildOrder(3L);
+        CheckoutAdmission admission = service.admit(order, "token");
+        service.complete(admission, new CheckoutSeed(order, new HashMap<String, Object>()), null);
+        order.setStatus(OrderStatus.SUBMITTED);
+
+        CheckoutAdmission duplicate = service.admit(order, "token");
+        assertTrue(duplicate.isDuplicate());
+        assertSame(order, duplicate.getResponse().getOrder());
+        try {
+            service.admit(order, "other");
+            fail("A different submission of a submitted order should be rejected");
+        } catch (CheckoutException e) {
+            // expected
+        }
+    }
+
+    protected Order buildOrder(Long id) {
+        Order order = new OrderImpl();
+        order.setId(id);
+        order.setStatus(OrderStatus.IN_PROCESS);
+        return order;
+    }
+
+}
@@ -0,0 +1,310 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.offer.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.core.offer.dao.OfferAuditDao;
+import org.broadleafcommerce.core.offer.domain.Offer;
+import org.broadleafcommerce.core.offer.domain.OfferAudit;
+import org.broadleafcommerce.core.offer.domain.OfferAuditImpl;
+import org.broadleafcommerce.core.offer.domain.OfferCode;
+import org.broadleafcommerce.core.offer.domain.OfferCodeImpl;
+import org.broadleafcommerce.core.offer.domain.OfferImpl;
+import org.broadleafcommerce.core.offer.domain.OfferUsageCounter;
+import org.broadleafcommerce.core.offer.domain.OfferUsageCounterImpl;
+import org.broadleafcommerce.core.offer.service.exception.OfferMaxUseExceededException;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.order.domain.OrderImpl;
+import org.broadleafcommerce.profile.core.domain.Customer;
+import org.broadleafcommerce.profile.core.domain.CustomerImpl;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+public class OfferUsageLedgerServiceImplTest extends TestCase {
+
+    protected InMemoryOfferAuditDao offerAuditDao;
+    protected OfferUsageLedgerServiceImpl service;
+    protected Offer offer;
+    protected OfferCode offerCode;
+
+    @Override
+    protected void setUp() throws Exception {
+        PlatformTransactionManager transactionManager = EasyMock.createNiceMock(PlatformTransactionManager.class);
+        EasyMock.expect(transactionManager.getTransaction(EasyMock.isA(TransactionDefinition.class)))
+                .andAnswer(new IAnswer<TransactionStatus>() {
+                    @Override
+                    public TransactionStatus answer() {
+                        return new SimpleTransactionStatus();
+                    }
+                }).anyTimes();
+        EasyMock.replay(transactionManager);
+
+        offerAuditDao = new InMemoryOfferAuditDao();
+        service = new OfferUsageLedgerServiceImpl();
+        service.offerAuditDao = offerAuditDao;
+        service.transactionManager = transactionManager;
+
+        offer = new OfferImpl();
+        offer.setId(10L);
+        offer.setMaxUsesPerCustomer(2L);
+        offerCode = new OfferCodeImpl();
+        offerCode.setId(20L);
+        offerCode.setOfferCode("CODE");
+        offerCode.setMaxUses(1);
+    }
+
+    public void testCounterIsSeededFromAuditsAndMaxUsesEnforced() throws Exception {
+        recordAudit(100L, 1L, offer.getId(), null);
+
+        List<String> reserved = service.reserve(buildOrder(101L, 1L), offers(offer), Collections.<OfferCode>emptyList());
+        assertEquals(Collections.singletonList("CUSTOMER_OFFER:1:10"), reserved);
+        assertEquals(Long.valueOf(2L), offerAuditDao.getUseCount("CUSTOMER_OFFER:1:10"));
+
+        try {
+            service.reserve(buildOrder(102L, 1L), offers(offer), Collections.<OfferCode>emptyList());
+            fail("The customer has already used the offer the maximum number of times");
+        } catch (OfferMaxUseExceededException e) {
+            // expected
+        }
+        assertEquals(Long.valueOf(2L), offerAuditDao.getUseCount("CUSTOMER_OFFER:1:10"));
+
+        assertEquals(1, service.reserve(buildOrder(103L, 2L), offers(offer), Collections.<OfferCode>emptyList()).size());
+    }
+
+    public void testFailedReservationReleasesEarlierReservations() throws Exception {
+        recordAudit(100L, 2L, null, offerCode.getId());
+
+        try {
+            service.reserve(buildOrder(101L, 1L), offers(offer), Collections.singletonList(offerCode));
+            fail("The offer code has already been used the maximum number of times");
+        } catch (OfferMaxUseExceededException e) {
+            assertEquals("Offer code CODE with id 20 has been used more than the maximum allowed number of times.",
+                    e.getMessage());
+        }
+        assertEquals(Long.valueOf(0L), offerAuditDao.getUseCount("CUSTOMER_OFFER:1:10"));
+        assertEquals(Long.valueOf(1L), offerAuditDao.getUseCount("OFFER_CODE:20"));
+    }
+
+    public void testUsesRecordedForTheOrderAreNotReservedAgain() throws Exception {
+        recordAudit(101L, 1L, offer.getId(), offerCode.getId());
+
+        List<String> reserved = service.reserve(buildOrder(101L, 1L), offers(offer), Collections.singletonList(offerCode));
+        assertTrue(reserved.isEmpty());
+        assertNull(offerAuditDao.getUseCount("CUSTOMER_OFFER:1:10"));
+    }
+
+    public void testReleaseGivesBackReservedUses() throws Exception {
+        List<String> reserved = service.reserve(buildOrder(101L, 1L), offers(offer), Collections.singletonList(offerCode));
+        assertEquals(2, reserved.size());
+
+        service.release(reserved);
+        assertEquals(Long.valueOf(0L), offerAuditDao.getUseCount("CUSTOMER_OFFER:1:10"));
+        assertEquals(Long.valueOf(0L), offerAuditDao.getUseCount("OFFER_CODE:20"));
+    }
+
+    /**
+     * A reservation that is neither recorded as an audit nor released, e.g. because the node stopped mid checkout,
+     * leaves the counter above the recorded uses until it is reconciled
+     */
+    public void testReconcileResetsDriftedCounters() throws Exception {
+        service.reserve(buildOrder(101L, 1L), offers(offer), Collections.singletonList(offerCode));
+        recordAudit(101L, 1L, offer.getId(), null);
+        service.reserve(buildOrder(102L, 1L), offers(offer), Collections.<OfferCode>emptyList());
+        assertEquals(Long.valueOf(2L), offerAuditDao.getUseCount("CUSTOMER_OFFER:1:10"));
+        assertEquals(Long.valueOf(1L), offerAuditDao.getUseCount("OFFER_CODE:20"));
+
+        assertEquals(2, service.reconcileAll());
+        assertEquals(Long.valueOf(1L), offerAuditDao.getUseCount("CUSTOMER_OFFER:1:10"));
+        assertEquals(Long.valueOf(0L), offerAuditDao.getUseCount("OFFER_CODE:20"));
+        assertEquals(0, service.reconcileAll());
+
+        assertEquals(Long.valueOf(1L), service.reconcile("CUSTOMER_OFFER:1:10"));
+        assertNull(service.reconcile("CUSTOMER_OFFER:3:10"));
+    }
+
+    protected Order buildOrder(Long orderId, Long customerId) {
+        Customer customer = new CustomerImpl();
+        customer.setId(customerId);
+        Order order = new OrderImpl();
+        order.setId(orderId);
+        order.setCustomer(customer);
+        return order;
+    }
+
+    protected Set<Offer> offers(Offer... offers) {
+        Set<Offer> set = new HashSet<>();
+        Collections.addAll(set, offers);
+        return set;
+    }
+
+    protected void recordAudit(Long orderId, Long customerId, Long offerId, Long offerCodeId) {
+        OfferAudit audit = new OfferAuditImpl();
+        audit.setOrderId(orderId);
+        audit.setCustomerId(customerId);
+        audit.setOfferId(offerId);
+        audit.setOfferCodeId(offerCodeId);
+        offerAuditDao.save(audit);
+    }
+
+    /**
+     * Keeps the audits and usage counters in memory, applying the conditional updates the way the named queries do
+     */
+    protected static class InMemoryOfferAuditDao implements OfferAuditDao {
+
+        protected final List<OfferAudit> audits = new ArrayList<>();
+        protected final Map<String, Long> counters = new TreeMap<>();
+
+        public Long getUseCount(String counterKey) {
+            return counters.get(counterKey);
+        }
+
+        @Override
+        public OfferAudit readAuditById(Long offerAuditId) {
+            for (OfferAudit audit : audits) {
+                if (offerAuditId.equals(audit.getId())) {
+                    return audit;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public OfferAudit save(OfferAudit offerAudit) {
+            if (offerAudit.getId() == null) {
+                offerAudit.setId(Long.valueOf(audits.size() + 1));
+                audits.add(offerAudit);
+            }
+            return offerAudit;
+        }
+
+        @Override
+        public void delete(OfferAudit offerAudit) {
+            audits.remove(offerAudit);
+        }
+
+        @Override
+        public OfferAudit create() {
+            return new OfferAuditImpl();
+        }
+
+        @Override
+        public Long countUsesByCustomer(Order order, Long customerId, Long offerId) {
+            return count(order.getId(), customerId, offerId, null);
+        }
+
+        @Override
+        public Long countUsesByCustomer(Long customerId, Long offerId) {
+            return count(null, customerId, offerId, null);
+        }
+
+        @Override
+        public Long countOfferCodeUses(Order order, Long offerCodeId) {
+            return count(order.getId(), null, null, offerCodeId);
+        }
+
+        @Override
+        public Long countOfferCodeUses(Long offerCodeId) {
+            return count(null, null, null, offerCodeId);
+        }
+
+        protected Long count(Long excludedOrderId, Long customerId, Long offerId, Long offerCodeId) {
+            long count = 0;
+            for (OfferAudit audit : audits) {
+                if ((excludedOrderId == null || !excludedOrderId.equals(audit.getOrderId()))
+                        && (customerId == null || customerId.equals(audit.getCustomerId()))
+                        && (offerId == null || offerId.equals(audit.getOfferId()))
+                        && (offerCodeId == null || offerCodeId.equals(audit.getOfferCodeId()))) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public List<OfferAudit> readOfferAuditsByOrderId(Long orderId) {
+            List<OfferAudit> result = new ArrayList<>();
+            for (OfferAudit audit : audits) {
+                if (orderId.equals(audit.getOrderId())) {
+                    result.add(audit);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public OfferUsageCounter readUsageCounter(String counterKey) {
+            if (!counters.containsKey(counterKey)) {
+                return null;
+            }
+            OfferUsageCounter counter = new OfferUsageCounterImpl();
+            counter.setCounterKey(counterKey);
+            counter.setUseCount(counters.get(counterKey));
+            return counter;
+        }
+
+        @Override
+        public void createUsageCounter(String counterKey, Long useCount) {
+            counters.put(counterKey, useCount);
+        }
+
+        @Override
+        public boolean reserveUsage(String counterKey, Long maxUses) {
+            Long useCount = counters.get(counterKey);
+            if (useCount == null || useCount >= maxUses) {
+                return false;
+            }
+            counters.put(counterKey, useCount + 1);
+            return true;
+        }
+
+        @Override
+        public void releaseUsage(String counterKey) {
+            Long useCount = counters.get(counterKey);
+            if (useCount != null && useCount > 0) {
+                counters.put(counterKey, useCount - 1);
+            }
+        }
+
+        @Override
+        public boolean updateUsageCounter(String counterKey, Long useCount) {
+            if (!counters.containsKey(counterKey)) {
+                return false;
+            }
+            counters.put(counterKey, useCount);
+            return true;
+        }
+
+        @Override
+        public List<String> readUsageCounterKeys() {
+            return new ArrayList<>(counters.keySet());
+        }
+    }
+
+}
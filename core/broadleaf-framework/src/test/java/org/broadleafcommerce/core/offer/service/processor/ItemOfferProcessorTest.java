@@ -17,6 +17,8 @@
  */
 package org.broadleafcommerce.core.offer.service.processor;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.broadleafcommerce.common.money.Money;
 import org.broadleafcommerce.core.offer.dao.CustomerOfferDao;
 import org.broadleafcommerce.core.offer.dao.OfferCodeDao;
@@ -25,6 +27,7 @@ import org.broadleafcommerce.core.offer.domain.CandidateItemOffer;
 import org.broadleafcommerce.core.offer.domain.CandidateItemOfferImpl;
 import org.broadleafcommerce.core.offer.domain.Offer;
 import org.broadleafcommerce.core.offer.domain.OfferImpl;
+import org.broadleafcommerce.core.offer.domain.OfferItemCriteria;
 import org.broadleafcommerce.core.offer.domain.OfferQualifyingCriteriaXref;
 import org.broadleafcommerce.core.offer.domain.OfferTargetCriteriaXref;
 import org.broadleafcommerce.core.offer.domain.OrderItemAdjustment;
@@ -53,14 +56,19 @@ import org.broadleafcommerce.core.order.service.OrderItemService;
 import org.broadleafcommerce.core.order.service.OrderMultishipOptionService;
 import org.broadleafcommerce.core.order.service.OrderService;
 import org.broadleafcommerce.core.order.service.call.FulfillmentGroupItemRequest;
+import org.broadleafcommerce.core.pricing.service.PricingFingerprintServiceImpl;
+import org.broadleafcommerce.profile.core.domain.CustomerImpl;
 import org.easymock.EasyMock;
 import org.easymock.IAnswer;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 import junit.framework.TestCase;
+import net.sf.ehcache.CacheManager;
 
 /**
  * 
@@ -69,6 +77,11 @@ import junit.framework.TestCase;
  */
 public class ItemOfferProcessorTest extends TestCase {
 
+    private static final Log LOG = LogFactory.getLog(ItemOfferProcessorTest.class);
+
+    private static final int BENCHMARK_OFFERS = 20;
+    private static final int BENCHMARK_REPRICINGS = 200;
+
     protected OfferDao offerDaoMock;
     protected OrderItemDao orderItemDaoMock;
     protected OrderService orderServiceMock;
@@ -317,6 +330,141 @@ public class ItemOfferProcessorTest extends TestCase {
         verify();
     }
 
+    public void testCouldOrderItemMeetOfferRequirementIncrementally() throws Exception {
+        replay();
+
+        enableIncrementalItemCriteriaMatching();
+
+        PromotableOrder order = dataProvider.createBasicPromotableOrder();
+        List<Offer> offers = dataProvider.createItemBasedOfferWithItemCriteria(
+            "order.subTotal.getAmount()>20",
+            OfferDiscountType.PERCENT_OFF,
+            "([MVEL.eval(\"toUpperCase()\",\"test1\"), MVEL.eval(\"toUpperCase()\",\"test2\")] contains MVEL.eval(\"toUpperCase()\", discreteOrderItem.category.name))",
+            "([MVEL.eval(\"toUpperCase()\",\"test1\"), MVEL.eval(\"toUpperCase()\",\"test2\")] contains MVEL.eval(\"toUpperCase()\", discreteOrderItem.category.name))"
+        );
+
+        OfferItemCriteria criteria = offers.get(0).getQualifyingItemCriteriaXref().iterator().next().getOfferItemCriteria();
+        criteria.setId(1001L);
+        PromotableOrderItem item = order.getDiscountableOrderItems().get(0);
+        item.getOrderItem().setId(1001L);
+        assertTrue(itemProcessor.couldOrderItemMeetOfferRequirement(criteria, item));
+        assertEquals(1, itemProcessor.itemCriteriaMatchCache.getSize());
+
+        //test that the outcome is reused while the rule and the item are unchanged
+        assertTrue(itemProcessor.couldOrderItemMeetOfferRequirement(criteria, item));
+        assertEquals(1, itemProcessor.itemCriteriaMatchCache.getSize());
+
+        //test that the rule is evaluated again once the rule changes
+        criteria.setMatchRule("([MVEL.eval(\"toUpperCase()\",\"test5\")] contains MVEL.eval(\"toUpperCase()\", discreteOrderItem.category.name))");
+        assertFalse(itemProcessor.couldOrderItemMeetOfferRequirement(criteria, item));
+        assertEquals(2, itemProcessor.itemCriteriaMatchCache.getSize());
+
+        //test that the rule is evaluated again once the item changes
+        item.getOrderItem().getCategory().setName("test5");
+        item.getOrderItem().setQuantity(item.getOrderItem().getQuantity() + 1);
+        assertTrue(itemProcessor.couldOrderItemMeetOfferRequirement(criteria, item));
+        assertEquals(3, itemProcessor.itemCriteriaMatchCache.getSize());
+
+        verify();
+    }
+
+    public void testItemCriteriaMatchKeyFollowsTheRuleVariables() throws Exception {
+        replay();
+
+        enableIncrementalItemCriteriaMatching();
+
+        PromotableOrder order = dataProvider.createBasicPromotableOrder();
+        List<Offer> offers = dataProvider.createItemBasedOfferWithItemCriteria(
+            "order.subTotal.getAmount()>20",
+            OfferDiscountType.PERCENT_OFF,
+            "([MVEL.eval(\"toUpperCase()\",\"test1\"), MVEL.eval(\"toUpperCase()\",\"test2\")] contains MVEL.eval(\"toUpperCase()\", discreteOrderItem.category.name))",
+            "([MVEL.eval(\"toUpperCase()\",\"test1\"), MVEL.eval(\"toUpperCase()\",\"test2\")] contains MVEL.eval(\"toUpperCase()\", discreteOrderItem.category.name))"
+        );
+        OfferItemCriteria criteria = offers.get(0).getQualifyingItemCriteriaXref().iterator().next().getOfferItemCriteria();
+        criteria.setId(1002L);
+        PromotableOrderItem item = order.getDiscountableOrderItems().get(0);
+        item.getOrderItem().setId(1002L);
+
+        Map<String, Object> vars = new HashMap<String, Object>();
+        item.updateRuleVariables(vars);
+        String itemKey = itemProcessor.buildItemCriteriaMatchKey(criteria, item, vars);
+        assertEquals(itemKey, itemProcessor.buildItemCriteriaMatchKey(criteria, item, new HashMap<String, Object>(vars)));
+
+        //test that an additional variable, or a different value for it, changes the key
+        vars.put("customer", new CustomerImpl());
+        String customerKey = itemProcessor.buildItemCriteriaMatchKey(criteria, item, vars);
+        assertFalse(itemKey.equals(customerKey));
+        vars.put("customer", new CustomerImpl());
+        assertFalse(customerKey.equals(itemProcessor.buildItemCriteriaMatchKey(criteria, item, vars)));
+
+        verify();
+    }
+
+    public void testItemCriteriaMatchingBenchmark() throws Exception {
+        replay();
+
+        PromotableOrder order = dataProvider.createBasicPromotableOrder();
+        List<PromotableOrderItem> items = order.getDiscountableOrderItems();
+        for (int j = 0; j < items.size(); j++) {
+            items.get(j).getOrderItem().setId(2000L + j);
+        }
+        List<OfferItemCriteria> criteria = new ArrayList<OfferItemCriteria>();
+        for (int j = 0; j < BENCHMARK_OFFERS; j++) {
+            List<Offer> offers = dataProvider.createItemBasedOfferWithItemCriteria(
+                "order.subTotal.getAmount()>20",
+                OfferDiscountType.PERCENT_OFF,
+                "([MVEL.eval(\"toUpperCase()\",\"test1\"), MVEL.eval(\"toUpperCase()\",\"test2\")] contains MVEL.eval(\"toUpperCase()\", discreteOrderItem.category.name))",
+                "([MVEL.eval(\"toUpperCase()\",\"test1\"), MVEL.eval(\"toUpperCase()\",\"test2\")] contains MVEL.eval(\"toUpperCase()\", discreteOrderItem.category.name))"
+            );
+            OfferItemCriteria offerCriteria = offers.get(0).getQualifyingItemCriteriaXref().iterator().next().getOfferItemCriteria();
+            offerCriteria.setId(3000L + j);
+            criteria.add(offerCriteria);
+        }
+
+        // warm up the expression cache
+        int expected = matchAll(criteria, items);
+
+        long start = System.nanoTime();
+        for (int j = 0; j < BENCHMARK_REPRICINGS; j++) {
+            assertEquals(expected, matchAll(criteria, items));
+        }
+        long full = System.nanoTime() - start;
+
+        enableIncrementalItemCriteriaMatching();
+        start = System.nanoTime();
+        for (int j = 0; j < BENCHMARK_REPRICINGS; j++) {
+            assertEquals(expected, matchAll(criteria, items));
+        }
+        long incremental = System.nanoTime() - start;
+
+        LOG.info(String.format("Matched %d items against %d offers %d times: full %d ms, incremental %d ms",
+                items.size(), BENCHMARK_OFFERS, BENCHMARK_REPRICINGS, full / 1000000, incremental / 1000000));
+
+        verify();
+    }
+
+    protected int matchAll(List<OfferItemCriteria> criteria, List<PromotableOrderItem> items) {
+        int matches = 0;
+        for (OfferItemCriteria offerCriteria : criteria) {
+            for (PromotableOrderItem item : items) {
+                if (itemProcessor.couldOrderItemMeetOfferRequirement(offerCriteria, item)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    protected void enableIncrementalItemCriteriaMatching() {
+        PricingFingerprintServiceImpl fingerprintService = new PricingFingerprintServiceImpl();
+        fingerprintService.init();
+        itemProcessor.pricingFingerprintService = fingerprintService;
+        itemProcessor.incrementalItemCriteriaMatching = true;
+        CacheManager.getInstance().addCacheIfAbsent(AbstractBaseProcessor.ITEM_CRITERIA_MATCH_CACHE_NAME);
+        itemProcessor.itemCriteriaMatchCache = CacheManager.getInstance().getCache(AbstractBaseProcessor.ITEM_CRITERIA_MATCH_CACHE_NAME);
+        itemProcessor.itemCriteriaMatchCache.removeAll();
+    }
+
     public void testCouldOfferApplyToOrderItems() throws Exception {
         replay();
 
@@ -0,0 +1,249 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.pricing.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.money.Money;
+import org.broadleafcommerce.common.vendor.service.exception.FulfillmentPriceException;
+import org.broadleafcommerce.core.order.domain.FulfillmentGroup;
+import org.broadleafcommerce.core.order.domain.FulfillmentGroupImpl;
+import org.broadleafcommerce.core.order.domain.FulfillmentOption;
+import org.broadleafcommerce.core.order.domain.FulfillmentOptionImpl;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.order.domain.OrderImpl;
+import org.broadleafcommerce.core.pricing.service.fulfillment.provider.CacheableFulfillmentPricingProvider;
+import org.broadleafcommerce.core.pricing.service.fulfillment.provider.FulfillmentEstimationResponse;
+import org.broadleafcommerce.core.pricing.service.fulfillment.provider.FulfillmentPricingProvider;
+import org.broadleafcommerce.profile.core.domain.Address;
+import org.broadleafcommerce.profile.core.domain.AddressImpl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class FulfillmentPricingServiceImplTest extends TestCase {
+
+    protected FulfillmentPricingServiceImpl fulfillmentPricingService;
+    protected CountingProvider provider;
+    protected FulfillmentGroup fulfillmentGroup;
+    protected FulfillmentOption standard;
+    protected FulfillmentOption express;
+
+    @Override
+    protected void setUp() throws Exception {
+        PricingFingerprintServiceImpl fingerprintService = new PricingFingerprintServiceImpl();
+        fingerprintService.enabled = true;
+        fingerprintService.init();
+
+        provider = new CountingProvider("rates-a", 1);
+        fulfillmentPricingService = new FulfillmentPricingServiceImpl();
+        fulfillmentPricingService.pricingFingerprintService = fingerprintService;
+        fulfillmentPricingService.init();
+        List<FulfillmentPricingProvider> providers = new ArrayList<FulfillmentPricingProvider>();
+        providers.add(provider);
+        fulfillmentPricingService.setProviders(providers);
+
+        Order order = new OrderImpl();
+        order.setId(1L);
+        fulfillmentGroup = new FulfillmentGroupImpl();
+        fulfillmentGroup.setId(100L);
+        fulfillmentGroup.setOrder(order);
+        fulfillmentGroup.setAddress(buildAddress("10001"));
+        order.getFulfillmentGroups().add(fulfillmentGroup);
+
+        standard = buildOption(1L);
+        express = buildOption(2L);
+    }
+
+    public void testEstimateIsNotCachedByDefault() throws Exception {
+        FulfillmentPricingServiceImpl defaultService = new FulfillmentPricingServiceImpl();
+        defaultService.pricingFingerprintService = fulfillmentPricingService.pricingFingerprintService;
+        defaultService.init();
+        FulfillmentPricingProvider plainProvider = new PlainProvider();
+        List<FulfillmentPricingProvider> providers = new ArrayList<FulfillmentPricingProvider>();
+        providers.add(plainProvider);
+        defaultService.setProviders(providers);
+
+        defaultService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard));
+        defaultService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard));
+
+        assertEquals(2, ((PlainProvider) plainProvider).calls);
+    }
+
+    public void testEstimateIsReusedForTheSameInputs() throws Exception {
+        Money first = price(fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard)), standard);
+        Money second = price(fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard)), standard);
+
+        assertEquals(first, second);
+        assertEquals(1, provider.calls);
+    }
+
+    public void testDistinctOptionsDoNotCollide() throws Exception {
+        FulfillmentEstimationResponse standardOnly = fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard));
+        FulfillmentEstimationResponse expressOnly = fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(express));
+        FulfillmentEstimationResponse both = fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard, express));
+
+        assertEquals(3, provider.calls);
+        assertNull(price(standardOnly, express));
+        assertNull(price(expressOnly, standard));
+        assertEquals(provider.expectedPrice(standard, "10001"), price(standardOnly, standard));
+        assertEquals(provider.expectedPrice(express, "10001"), price(expressOnly, express));
+        assertEquals(2, both.getFulfillmentOptionPrices().size());
+    }
+
+    public void testDistinctAddressesDoNotCollide() throws Exception {
+        Money original = price(fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard)), standard);
+        fulfillmentGroup.setAddress(buildAddress("94105"));
+        Money moved = price(fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard)), standard);
+
+        assertEquals(2, provider.calls);
+        assertEquals(provider.expectedPrice(standard, "10001"), original);
+        assertEquals(provider.expectedPrice(standard, "94105"), moved);
+    }
+
+    public void testProvidersOfTheSameClassDoNotShareEstimates() throws Exception {
+        CountingProvider otherProvider = new CountingProvider("rates-b", 10);
+        List<FulfillmentPricingProvider> providers = new ArrayList<FulfillmentPricingProvider>();
+        providers.add(provider);
+        providers.add(otherProvider);
+        fulfillmentPricingService.setProviders(providers);
+
+        fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard));
+        fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard));
+
+        assertEquals(1, provider.calls);
+        assertEquals(1, otherProvider.calls);
+    }
+
+    public void testConfigurationChangeDropsEstimates() throws Exception {
+        fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard));
+        provider.configurationKey = "rates-c";
+        provider.multiplier = 3;
+        Money repriced = price(fulfillmentPricingService.estimateCostForFulfillmentGroup(fulfillmentGroup, options(standard)), standard);
+
+        assertEquals(2, provider.calls);
+        assertEquals(provider.expectedPrice(standard, "10001"), repriced);
+    }
+
+    protected Set<FulfillmentOption> options(FulfillmentOption... options) {
+        Set<FulfillmentOption> result = new HashSet<FulfillmentOption>();
+        for (FulfillmentOption option : options) {
+            result.add(option);
+        }
+        return result;
+    }
+
+    protected Money price(FulfillmentEstimationResponse response, FulfillmentOption option) {
+        return response.getFulfillmentOptionPrices().get(option);
+    }
+
+    protected FulfillmentOption buildOption(Long id) {
+        FulfillmentOption option = new FulfillmentOptionImpl();
+        option.setId(id);
+        option.setName("option" + id);
+        return option;
+    }
+
+    protected Address buildAddress(String postalCode) {
+        Address address = new AddressImpl();
+        address.setId(50L);
+        address.setPostalCode(postalCode);
+        return address;
+    }
+
+    /**
+     * Prices each option from its id, the postal code and the configured multiplier, so that a collision in the cache
+     * shows up as a wrong price
+     */
+    public static class CountingProvider implements CacheableFulfillmentPricingProvider {
+
+        protected String configurationKey;
+        protected int multiplier;
+        protected int calls = 0;
+
+        public CountingProvider(String configurationKey, int multiplier) {
+            this.configurationKey = configurationKey;
+            this.multiplier = multiplier;
+        }
+
+        public Money expectedPrice(FulfillmentOption option, String postalCode) {
+            return new Money((option.getId() * 100 + Integer.parseInt(postalCode) % 97) * multiplier);
+        }
+
+        @Override
+        public long getEstimateCacheTtlSeconds() {
+            return 60L;
+        }
+
+        @Override
+        public String getEstimateCacheKey() {
+            return configurationKey;
+        }
+
+        @Override
+        public FulfillmentGroup calculateCostForFulfillmentGroup(FulfillmentGroup fulfillmentGroup) throws FulfillmentPriceException {
+            return fulfillmentGroup;
+        }
+
+        @Override
+        public boolean canCalculateCostForFulfillmentGroup(FulfillmentGroup fulfillmentGroup, FulfillmentOption option) {
+            return true;
+        }
+
+        @Override
+        public FulfillmentEstimationResponse estimateCostForFulfillmentGroup(FulfillmentGroup fulfillmentGroup,
+                Set<FulfillmentOption> options) throws FulfillmentPriceException {
+            calls++;
+            Map<FulfillmentOption, Money> prices = new HashMap<FulfillmentOption, Money>();
+            for (FulfillmentOption option : options) {
+                prices.put(option, expectedPrice(option, fulfillmentGroup.getAddress().getPostalCode()));
+            }
+            FulfillmentEstimationResponse response = new FulfillmentEstimationResponse();
+            response.setFulfillmentOptionPrices(prices);
+            return response;
+        }
+    }
+
+    public static class PlainProvider implements FulfillmentPricingProvider {
+
+        protected int calls = 0;
+
+        @Override
+        public FulfillmentGroup calculateCostForFulfillmentGroup(FulfillmentGroup fulfillmentGroup) throws FulfillmentPriceException {
+            return fulfillmentGroup;
+        }
+
+        @Override
+        public boolean canCalculateCostForFulfillmentGroup(FulfillmentGroup fulfillmentGroup, FulfillmentOption option) {
+            return true;
+        }
+
+        @Override
+        public FulfillmentEstimationResponse estimateCostForFulfillmentGroup(FulfillmentGroup fulfillmentGroup,
+                Set<FulfillmentOption> options) throws FulfillmentPriceException {
+            calls++;
+            FulfillmentEstimationResponse response = new FulfillmentEstimationResponse();
+            response.setFulfillmentOptionPrices(new HashMap<FulfillmentOption, Money>());
+            return response;
+        }
+    }
+
+}
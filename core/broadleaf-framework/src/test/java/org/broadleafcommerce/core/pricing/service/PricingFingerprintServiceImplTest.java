@@ -0,0 +1,139 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.pricing.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.money.Money;
+import org.broadleafcommerce.core.offer.domain.OrderItemPriceDetailAdjustment;
+import org.broadleafcommerce.core.offer.domain.OrderItemPriceDetailAdjustmentImpl;
+import org.broadleafcommerce.core.order.domain.FulfillmentGroup;
+import org.broadleafcommerce.core.order.domain.FulfillmentGroupImpl;
+import org.broadleafcommerce.core.order.domain.FulfillmentGroupItem;
+import org.broadleafcommerce.core.order.domain.FulfillmentGroupItemImpl;
+import org.broadleafcommerce.core.order.domain.FulfillmentOption;
+import org.broadleafcommerce.core.order.domain.FulfillmentOptionImpl;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.order.domain.OrderImpl;
+import org.broadleafcommerce.core.order.domain.OrderItem;
+import org.broadleafcommerce.core.order.domain.OrderItemImpl;
+import org.broadleafcommerce.core.order.domain.OrderItemPriceDetail;
+import org.broadleafcommerce.core.order.domain.OrderItemPriceDetailImpl;
+
+public class PricingFingerprintServiceImplTest extends TestCase {
+
+    protected PricingFingerprintServiceImpl fingerprintService;
+    protected Order order;
+    protected OrderItem orderItem;
+    protected FulfillmentGroup fulfillmentGroup;
+    protected FulfillmentGroupItem fulfillmentGroupItem;
+
+    @Override
+    protected void setUp() throws Exception {
+        fingerprintService = new PricingFingerprintServiceImpl();
+        fingerprintService.enabled = true;
+        fingerprintService.init();
+
+        order = new OrderImpl();
+        order.setId(1L);
+        orderItem = new OrderItemImpl();
+        orderItem.setId(10L);
+        orderItem.setOrder(order);
+        orderItem.setQuantity(2);
+        orderItem.setRetailPrice(new Money(19.99D));
+        orderItem.setSalePrice(new Money(15.99D));
+        order.getOrderItems().add(orderItem);
+
+        fulfillmentGroup = new FulfillmentGroupImpl();
+        fulfillmentGroup.setId(100L);
+        fulfillmentGroup.setOrder(order);
+        fulfillmentGroupItem = new FulfillmentGroupItemImpl();
+        fulfillmentGroupItem.setFulfillmentGroup(fulfillmentGroup);
+        fulfillmentGroupItem.setOrderItem(orderItem);
+        fulfillmentGroupItem.setQuantity(2);
+        fulfillmentGroupItem.setTotalItemAmount(new Money(31.98D));
+        fulfillmentGroup.addFulfillmentGroupItem(fulfillmentGroupItem);
+        order.getFulfillmentGroups().add(fulfillmentGroup);
+    }
+
+    public void testFingerprintIsStable() throws Exception {
+        assertEquals(fingerprintService.buildFingerprint(order), fingerprintService.buildFingerprint(order));
+    }
+
+    public void testPricingCurrentUntilOrderChanges() throws Exception {
+        assertFalse(fingerprintService.isPricingCurrent(order));
+
+        fingerprintService.recordPricedOrder(order);
+        assertTrue(fingerprintService.isPricingCurrent(order));
+
+        orderItem.setQuantity(3);
+        assertFalse(fingerprintService.isPricingCurrent(order));
+
+        fingerprintService.recordPricedOrder(order);
+        orderItem.setSalePrice(new Money(14.99D));
+        assertFalse(fingerprintService.isPricingCurrent(order));
+    }
+
+    public void testInvalidateAndDisable() throws Exception {
+        fingerprintService.recordPricedOrder(order);
+        fingerprintService.invalidate(order);
+        assertFalse(fingerprintService.isPricingCurrent(order));
+
+        fingerprintService.recordPricedOrder(order);
+        fingerprintService.enabled = false;
+        assertFalse(fingerprintService.isPricingCurrent(order));
+    }
+
+    public void testFulfillmentGroupFingerprintIgnoresSelectedOption() throws Exception {
+        String fingerprint = fingerprintService.buildFulfillmentGroupFingerprint(fulfillmentGroup);
+
+        FulfillmentOption option = new FulfillmentOptionImpl();
+        option.setId(5L);
+        fulfillmentGroup.setFulfillmentOption(option);
+        assertEquals(fingerprint, fingerprintService.buildFulfillmentGroupFingerprint(fulfillmentGroup));
+
+        // the order level fingerprint still tracks the selected option
+        String orderFingerprint = fingerprintService.buildFingerprint(order);
+        FulfillmentOption otherOption = new FulfillmentOptionImpl();
+        otherOption.setId(6L);
+        fulfillmentGroup.setFulfillmentOption(otherOption);
+        assertFalse(orderFingerprint.equals(fingerprintService.buildFingerprint(order)));
+    }
+
+    public void testFulfillmentGroupFingerprintTracksAdjustedPrices() throws Exception {
+        String fingerprint = fingerprintService.buildFulfillmentGroupFingerprint(fulfillmentGroup);
+
+        OrderItemPriceDetail priceDetail = new OrderItemPriceDetailImpl();
+        priceDetail.setOrderItem(orderItem);
+        priceDetail.setQuantity(2);
+        priceDetail.setUseSalePrice(true);
+        orderItem.getOrderItemPriceDetails().add(priceDetail);
+        String unadjusted = fingerprintService.buildFulfillmentGroupFingerprint(fulfillmentGroup);
+
+        OrderItemPriceDetailAdjustment adjustment = new OrderItemPriceDetailAdjustmentImpl();
+        adjustment.setOrderItemPriceDetail(priceDetail);
+        adjustment.setValue(new Money(5D));
+        priceDetail.getOrderItemPriceDetailAdjustments().add(adjustment);
+        String adjusted = fingerprintService.buildFulfillmentGroupFingerprint(fulfillmentGroup);
+        assertFalse(unadjusted.equals(adjusted));
+
+        fulfillmentGroupItem.setTotalItemAmount(new Money(21.98D));
+        assertFalse(adjusted.equals(fingerprintService.buildFulfillmentGroupFingerprint(fulfillmentGroup)));
+        assertFalse(fingerprint.equals(fingerprintService.buildFulfillmentGroupFingerprint(fulfillmentGroup)));
+    }
+
+}
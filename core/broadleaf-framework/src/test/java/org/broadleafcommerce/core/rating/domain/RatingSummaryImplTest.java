@@ -0,0 +1,53 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.rating.domain;
+
+import junit.framework.TestCase;
+
+public class RatingSummaryImplTest extends TestCase {
+
+    public void testApplyRatingChange() throws Exception {
+        RatingSummaryImpl summary = new RatingSummaryImpl();
+        summary.resetRatingTotals(0, 0);
+        assertEquals(0d, summary.getAverageRating(), 0.000001d);
+
+        summary.applyRatingChange(null, 4d);
+        summary.applyRatingChange(null, 2d);
+        assertEquals(2, summary.getNumberOfRatings().intValue());
+        assertEquals(3d, summary.getAverageRating(), 0.000001d);
+
+        // a customer changing their rating does not add another rating
+        summary.applyRatingChange(2d, 5d);
+        assertEquals(2, summary.getNumberOfRatings().intValue());
+        assertEquals(9d, summary.getRatingTotal(), 0.000001d);
+        assertEquals(4.5d, summary.getAverageRating(), 0.000001d);
+    }
+
+    public void testUninitializedTotalsAreReset() throws Exception {
+        RatingSummaryImpl summary = new RatingSummaryImpl();
+        assertNull(summary.getRatingTotal());
+
+        RatingDetailImpl detail = new RatingDetailImpl();
+        detail.setRating(3d);
+        summary.getRatings().add(detail);
+        summary.applyRatingChange(null, 3d);
+        assertEquals(1, summary.getNumberOfRatings().intValue());
+        assertEquals(3d, summary.getAverageRating(), 0.000001d);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.rating.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.core.rating.dao.RatingSummaryDao;
+import org.broadleafcommerce.core.rating.domain.RatingSummary;
+import org.broadleafcommerce.core.rating.domain.RatingSummaryImpl;
+import org.broadleafcommerce.core.rating.service.type.RatingType;
+import org.easymock.EasyMock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import net.sf.ehcache.Cache;
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Element;
+
+public class RatingServiceImplTest extends TestCase {
+
+    protected static final String CACHE_NAME = "ratingServiceImplTest";
+
+    protected RatingServiceImpl ratingService;
+    protected RatingSummaryDao ratingSummaryDao;
+    protected RatingSummary ratingSummary;
+
+    @Override
+    protected void setUp() throws Exception {
+        ratingSummary = new RatingSummaryImpl();
+        ratingSummary.setId(5L);
+        ratingSummary.setItemId("rated");
+        ratingSummaryDao = EasyMock.createMock(RatingSummaryDao.class);
+
+        Cache cache = new Cache(CACHE_NAME, 1000, false, false, 3600, 3600);
+        CacheManager.getInstance().addCache(cache);
+        ratingService = new RatingServiceImpl();
+        ratingService.ratingSummaryDao = ratingSummaryDao;
+        ratingService.ratingSummaryIdCache = cache;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        CacheManager.getInstance().removeCache(CACHE_NAME);
+    }
+
+    public void testMissingSummaryIsCachedBriefly() throws Exception {
+        EasyMock.expect(ratingSummaryDao.readRatingSummaries(Arrays.asList("rated", "unrated"), RatingType.PRODUCT))
+                .andReturn(Collections.singletonList(ratingSummary)).once();
+        EasyMock.replay(ratingSummaryDao);
+
+        Map<String, RatingSummary> summaries = ratingService.readRatingSummaries(Arrays.asList("rated", "unrated"), RatingType.PRODUCT);
+        assertEquals(1, summaries.size());
+        assertSame(ratingSummary, summaries.get("rated"));
+        EasyMock.verify(ratingSummaryDao);
+
+        Element missing = ratingService.getRatingSummaryIdCache().get(ratingService.buildRatingSummaryIdKey("unrated", RatingType.PRODUCT));
+        assertEquals(RatingServiceImpl.NO_RATING_SUMMARY, missing.getObjectValue());
+        assertTrue(missing.isLifespanSet());
+        assertEquals(ratingService.missingSummaryCacheTtlSeconds, missing.getTimeToLive());
+
+        Element found = ratingService.getRatingSummaryIdCache().get(ratingService.buildRatingSummaryIdKey("rated", RatingType.PRODUCT));
+        assertEquals(ratingSummary.getId(), found.getObjectValue());
+        assertFalse(found.isLifespanSet());
+    }
+
+    public void testMissingSummaryIsNotQueriedAgainWhileCached() throws Exception {
+        EasyMock.expect(ratingSummaryDao.readRatingSummaries(Collections.singletonList("unrated"), RatingType.PRODUCT))
+                .andReturn(Collections.<RatingSummary>emptyList()).once();
+        EasyMock.replay(ratingSummaryDao);
+
+        assertTrue(ratingService.readRatingSummaries(Collections.singletonList("unrated"), RatingType.PRODUCT).isEmpty());
+        assertTrue(ratingService.readRatingSummaries(Collections.singletonList("unrated"), RatingType.PRODUCT).isEmpty());
+        EasyMock.verify(ratingSummaryDao);
+    }
+
+}
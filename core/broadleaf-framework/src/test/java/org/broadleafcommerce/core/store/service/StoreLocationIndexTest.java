@@ -0,0 +1,106 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.store.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.time.FixedTimeSource;
+import org.broadleafcommerce.common.time.SystemTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+public class StoreLocationIndexTest extends TestCase {
+
+    // Chicago, Milwaukee, Dallas, Austin, Fiji (east of the date line), Samoa (west of the date line)
+    protected static final long[] IDS = { 1L, 2L, 3L, 4L, 5L, 6L };
+    protected static final double[] LATITUDES = { 41.8781, 43.0389, 32.7767, 30.2672, -17.7134, -13.7590 };
+    protected static final double[] LONGITUDES = { -87.6298, -87.9065, -96.7970, -97.7431, 178.0650, -172.1046 };
+
+    protected StoreLocationIndex index;
+
+    @Override
+    protected void setUp() throws Exception {
+        index = new StoreLocationIndex(IDS, LATITUDES, LONGITUDES);
+    }
+
+    public void testDistance() throws Exception {
+        double distance = StoreLocationIndex.getDistance(41.8781, -87.6298, 32.7767, -96.7970);
+        assertTrue("Chicago to Dallas should be about 800 miles, was " + distance, distance > 795 && distance < 810);
+        assertEquals(0d, StoreLocationIndex.getDistance(10, 10, 10, 10), 0.0000001d);
+    }
+
+    public void testFindWithinDistance() throws Exception {
+        Map<Long, Double> matches = index.findWithinDistance(41.8781, -87.6298, 100);
+        assertEquals(Arrays.asList(1L, 2L), new ArrayList<Long>(matches.keySet()));
+        assertEquals(0d, matches.get(1L), 0.0000001d);
+
+        matches = index.findWithinDistance(32.7767, -96.7970, 1000);
+        assertEquals(Arrays.asList(3L, 4L, 1L, 2L), new ArrayList<Long>(matches.keySet()));
+
+        assertTrue(index.findWithinDistance(0, 0, 100).isEmpty());
+    }
+
+    public void testFindAcrossDateLine() throws Exception {
+        Map<Long, Double> matches = index.findWithinDistance(-17.7134, 179.9, 800);
+        assertEquals(Arrays.asList(5L, 6L), new ArrayList<Long>(matches.keySet()));
+    }
+
+    public void testFindNearest() throws Exception {
+        assertEquals(Arrays.asList(4L, 3L), new ArrayList<Long>(index.findNearest(30.2672, -97.7431, 2).keySet()));
+        assertEquals(6, index.findNearest(0, 0, 10).size());
+        assertTrue(index.findNearest(0, 0, 0).isEmpty());
+    }
+
+    public void testMatchesFullScan() throws Exception {
+        Random random = new Random(42);
+        int size = 2000;
+        long[] ids = new long[size];
+        double[] lats = new double[size];
+        double[] lngs = new double[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = i;
+            lats[i] = random.nextDouble() * 180 - 90;
+            lngs[i] = random.nextDouble() * 360 - 180;
+        }
+        StoreLocationIndex randomIndex = new StoreLocationIndex(ids, lats, lngs);
+        for (int query = 0; query < 200; query++) {
+            double lat = random.nextDouble() * 180 - 90;
+            double lng = random.nextDouble() * 360 - 180;
+            double distance = random.nextDouble() * 1500;
+            int expected = 0;
+            for (int i = 0; i < size; i++) {
+                if (StoreLocationIndex.getDistance(lat, lng, lats[i], lngs[i]) <= distance) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, randomIndex.findWithinDistance(lat, lng, distance).size());
+        }
+    }
+
+    public void testCreatedTimeUsesSystemTime() throws Exception {
+        SystemTime.setGlobalTimeSource(new FixedTimeSource(1000L));
+        try {
+            assertEquals(1000L, new StoreLocationIndex(IDS, LATITUDES, LONGITUDES).getCreatedTime());
+        } finally {
+            SystemTime.reset();
+        }
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * #%L
+ * BroadleafCommerce Framework
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.core.util.service;
+
+import junit.framework.TestCase;
+import org.broadleafcommerce.common.web.BroadleafRequestContext;
+import org.broadleafcommerce.core.order.domain.Order;
+import org.broadleafcommerce.core.order.domain.OrderImpl;
+import org.broadleafcommerce.core.order.service.OrderService;
+import org.broadleafcommerce.core.util.service.type.PurgeCartVariableNames;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ResourcePurgeServiceImplTest extends TestCase {
+
+    protected TestPurgeService purgeService;
+
+    @Override
+    protected void setUp() throws Exception {
+        PlatformTransactionManager transactionManager = EasyMock.createNiceMock(PlatformTransactionManager.class);
+        EasyMock.expect(transactionManager.getTransaction(EasyMock.isA(TransactionDefinition.class)))
+                .andAnswer(new IAnswer<TransactionStatus>() {
+                    @Override
+                    public TransactionStatus answer() throws Throwable {
+                        return new SimpleTransactionStatus();
+                    }
+                }).anyTimes();
+        OrderService orderService = EasyMock.createNiceMock(OrderService.class);
+        EasyMock.expect(orderService.findOrderById(EasyMock.anyLong())).andAnswer(new IAnswer<Order>() {
+            @Override
+            public Order answer() throws Throwable {
+                return buildCart((Long) EasyMock.getCurrentArguments()[0]);
+            }
+        }).anyTimes();
+        EasyMock.replay(transactionManager, orderService);
+
+        purgeService = new TestPurgeService();
+        purgeService.transactionManager = transactionManager;
+        purgeService.orderService = orderService;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        BroadleafRequestContext.setBroadleafRequestContext(null);
+    }
+
+    public void testUnpartitionedPurgeReadsThroughOverridableQueries() {
+        purgeService.cartIds = new ArrayList<Long>();
+        for (long id = 1; id <= 5; id++) {
+            purgeService.cartIds.add(id);
+        }
+        purgeService.length = 3L;
+
+        purgeService.purgeCarts(buildConfig());
+
+        assertEquals(Collections.singletonList(3), purgeService.requestedLengths);
+        assertEquals(3, purgeService.deletedIds.size());
+        assertTrue(purgeService.deletedIds.containsAll(purgeService.cartIds.subList(0, 3)));
+        assertTrue(purgeService.lengthReadUnderLock);
+        assertTrue(purgeService.partitionReads.isEmpty());
+    }
+
+    public void testFailedCartIsCachedAndExcludedFromTheNextRun() {
+        purgeService.cartIds = new ArrayList<Long>();
+        purgeService.cartIds.add(1L);
+        purgeService.cartIds.add(2L);
+        purgeService.cartIds.add(3L);
+        purgeService.length = 3L;
+        purgeService.failingId = 2L;
+
+        purgeService.purgeCarts(buildConfig());
+
+        assertEquals(Collections.singleton(2L), purgeService.cartPurgeErrors.getEntriesSince(0L));
+        assertFalse(purgeService.deletedIds.contains(2L));
+
+        purgeService.purgeCarts(buildConfig());
+
+        assertEquals(Collections.singletonList(2L), purgeService.cartsInError);
+    }
+
+    public void testPartitionedWorkersRunWithACopyOfTheRequestContext() {
+        BroadleafRequestContext callerContext = new BroadleafRequestContext();
+        callerContext.setAdminUserId(7L);
+        BroadleafRequestContext.setBroadleafRequestContext(callerContext);
+        purgeService.length = 4L;
+        Map<String, String> config = buildConfig();
+        config.put(PurgeCartVariableNames.THREADS.toString(), "2");
+
+        purgeService.purgeCarts(config);
+
+        assertEquals(new HashSet<Long>(Arrays.asList(1L, 2L, 3L, 4L)), new HashSet<Long>(purgeService.deletedIds));
+        assertEquals(2, purgeService.partitionReads.size());
+        for (BroadleafRequestContext workerContext : purgeService.partitionReads.values()) {
+            assertNotSame(callerContext, workerContext);
+            assertEquals(Long.valueOf(7L), workerContext.getAdminUserId());
+        }
+        assertSame(callerContext, BroadleafRequestContext.getBroadleafRequestContext());
+    }
+
+    protected Map<String, String> buildConfig() {
+        Map<String, String> config = new HashMap<String, String>();
+        config.put(PurgeCartVariableNames.SECONDS_OLD.toString(), "0");
+        config.put(PurgeCartVariableNames.TRANSACTION_SIZE.toString(), "2");
+        return config;
+    }
+
+    protected static Order buildCart(Long id) {
+        Order cart = new OrderImpl();
+        cart.setId(id);
+        return cart;
+    }
+
+    protected static class TestPurgeService extends ResourcePurgeServiceImpl {
+
+        protected List<Long> cartIds = new ArrayList<Long>();
+        protected Long length;
+        protected Long failingId;
+        protected List<Long> cartsInError;
+        protected boolean lengthReadUnderLock;
+        protected List<Integer> requestedLengths = new ArrayList<Integer>();
+        protected List<Long> deletedIds = Collections.synchronizedList(new ArrayList<Long>());
+        protected Map<Integer, BroadleafRequestContext> partitionReads = new ConcurrentHashMap<Integer, BroadleafRequestContext>();
+
+        @Override
+        protected Long getCartsToPurgeLength(CartPurgeParams purgeParams, List<Long> cartsInError) {
+            this.cartsInError = cartsInError;
+            lengthReadUnderLock = Thread.holdsLock(cartPurgeErrors);
+            return length;
+        }
+
+        @Override
+        protected List<Order> getCartsToPurge(CartPurgeParams purgeParams, int startPos, int length, List<Long> cartsInError) {
+            requestedLengths.add(length);
+            List<Order> carts = new ArrayList<Order>();
+            for (Long id : cartIds) {
+                if (carts.size() < length && !cartsInError.contains(id)) {
+                    carts.add(buildCart(id));
+                }
+            }
+            return carts;
+        }
+
+        @Override
+        protected List<Long> getCartIdsToPurge(CartPurgeParams purgeParams, Long afterId, int length,
+                List<Long> cartsInError, int partitionCount, int partitionIndex) {
+            List<Long> ids = new ArrayList<Long>();
+            if (afterId == null) {
+                partitionReads.put(partitionIndex, BroadleafRequestContext.getBroadleafRequestContext());
+                for (long id = 1; id <= 4; id++) {
+                    if (id % partitionCount == partitionIndex) {
+                        ids.add(id);
+                    }
+                }
+            }
+            return ids;
+        }
+
+        @Override
+        protected void deleteCart(Order cart) {
+            if (cart.getId().equals(failingId)) {
+                throw new IllegalStateException("Cannot delete cart " + cart.getId());
+            }
+            deletedIds.add(cart.getId());
+        }
+    }
+
+}
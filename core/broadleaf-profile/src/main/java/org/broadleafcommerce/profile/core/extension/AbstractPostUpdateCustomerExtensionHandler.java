@@ -19,6 +19,7 @@ package org.broadleafcommerce.profile.core.extension;
 
 import org.broadleafcommerce.common.extension.AbstractExtensionHandler;
 import org.broadleafcommerce.common.extension.ExtensionResultStatusType;
+import org.broadleafcommerce.common.extension.NotHandledByDefault;
 import org.broadleafcommerce.profile.core.domain.Customer;
 
 import java.util.List;
@@ -29,21 +30,25 @@ public abstract class AbstractPostUpdateCustomerExtensionHandler
     protected static final int DEFAULT_PRIORITY = 500;
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType postUpdate(long customerId) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType postUpdate(Customer customer) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType postUpdateAll(List<Customer> customers) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
 
     @Override
+    @NotHandledByDefault
     public ExtensionResultStatusType postUpdateAllByIds(List<Long> customerIds) {
         return ExtensionResultStatusType.NOT_HANDLED;
     }
@@ -27,6 +27,7 @@ import org.broadleafcommerce.profile.core.dto.CustomerRuleHolder;
 import org.broadleafcommerce.common.email.service.EmailService;
 import org.broadleafcommerce.common.email.service.info.EmailInfo;
 import org.broadleafcommerce.common.rule.MvelHelper;
+import org.broadleafcommerce.common.rule.RequestRuleResultCache;
 import org.broadleafcommerce.common.security.util.PasswordChange;
 import org.broadleafcommerce.common.security.util.PasswordReset;
 import org.broadleafcommerce.common.security.util.PasswordUtils;
@@ -180,6 +181,9 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     @Transactional(TransactionUtils.DEFAULT_TRANSACTION_MANAGER)
     public Customer saveCustomer(Customer customer, boolean register) {
+        // rules memoized earlier in the request may have been evaluated against the customer before this change
+        RequestRuleResultCache.clear();
+
         if (register && !customer.isRegistered()) {
             customer.setRegistered(true);
         }
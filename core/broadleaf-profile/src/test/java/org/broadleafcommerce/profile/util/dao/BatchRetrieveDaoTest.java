@@ -58,4 +58,21 @@ public class BatchRetrieveDaoTest extends TestCase {
         EasyMock.verify(queryMock);
     }
 
+    public void testFilterWithPartialLastBatch() throws Exception {
+        Query partialQueryMock = EasyMock.createMock(Query.class);
+        List<String> response = new ArrayList<String>();
+        response.add("test");
+        EasyMock.expect(partialQueryMock.getResultList()).andReturn(response).times(3);
+        EasyMock.expect(partialQueryMock.setParameter(EasyMock.eq("test"), EasyMock.isA(List.class))).andReturn(partialQueryMock).times(3);
+        EasyMock.replay(partialQueryMock);
+        dao.setInClauseBatchSize(BATCHSIZE);
+        List<Integer> keys = new ArrayList<Integer>();
+        for (int j = 0; j < 11; j++) {
+            keys.add(j);
+        }
+        List<Object> batchResponse = dao.batchExecuteReadQuery(partialQueryMock, keys, "test");
+        assertTrue(batchResponse.size() == 3);
+        EasyMock.verify(partialQueryMock);
+    }
+
 }
@@ -0,0 +1,91 @@
+/*
+ * #%L
+ * BroadleafCommerce Integration
+ * %%
+ * Copyright (C) 2009 - 2016 Broadleaf Commerce
+ * %%
+ * Licensed under the Broadleaf Fair Use License Agreement, Version 1.0
+ * (the "Fair Use License" located  at http://license.broadleafcommerce.org/fair_use_license-1.0.txt)
+ * unless the restrictions on use therein are violated and require payment to Broadleaf in which case
+ * the Broadleaf End User License Agreement (EULA), Version 1.1
+ * (the "Commercial License" located at http://license.broadleafcommerce.org/commercial_license-1.1.txt)
+ * shall apply.
+ * 
+ * Alternatively, the Commercial License may be replaced with a mutually agreed upon license (the "Custom License")
+ * between you and Broadleaf Commerce. You may not use this file except in compliance with the applicable license.
+ * #L%
+ */
+package org.broadleafcommerce.common.event;
+
+import org.broadleafcommerce.common.event.dao.ApplicationEventOutboxDao;
+import org.broadleafcommerce.common.event.domain.ApplicationEventOutboxEntry;
+import org.broadleafcommerce.common.event.service.type.ApplicationEventOutboxStatusType;
+import org.broadleafcommerce.test.TestNGSiteIntegrationSetup;
+import org.springframework.transaction.annotation.Transactional;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.annotation.Resource;
+
+public class ApplicationEventOutboxDaoTest extends TestNGSiteIntegrationSetup {
+
+    @Resource(name = "blApplicationEventOutboxDao")
+    protected ApplicationEventOutboxDao outboxDao;
+
+    @Test
+    @Transactional
+    public void testDueEntryIsReadBehindEntriesWaitingForRetry() {
+        Date now = new Date();
+        for (int i = 0; i < 5; i++) {
+            save("waiting" + i, new Date(now.getTime() + 60000L));
+        }
+        ApplicationEventOutboxEntry due = save("due", now);
+
+        List<ApplicationEventOutboxEntry> entries = outboxDao.readUndeliveredEntries(2, now);
+
+        Assert.assertEquals(entries.size(), 1);
+        Assert.assertEquals(entries.get(0).getId(), due.getId());
+    }
+
+    @Test
+    @Transactional
+    public void testEntriesAreReadByNextAttemptDate() {
+        Date now = new Date();
+        ApplicationEventOutboxEntry later = save("later", new Date(now.getTime() - 1000L));
+        ApplicationEventOutboxEntry earlier = save("earlier", new Date(now.getTime() - 2000L));
+
+        List<ApplicationEventOutboxEntry> entries = outboxDao.readUndeliveredEntries(10, now);
+
+        Assert.assertEquals(entries.size(), 2);
+        Assert.assertEquals(entries.get(0).getId(), earlier.getId());
+        Assert.assertEquals(entries.get(1).getId(), later.getId());
+    }
+
+    @Test
+    @Transactional
+    public void testEntryWaitsForEarlierEntryOfItsKey() {
+        Date now = new Date();
+        save("ordered", new Date(now.getTime() + 60000L));
+        save("ordered", now);
+
+        Assert.assertTrue(outboxDao.readUndeliveredEntries(10, now).isEmpty());
+    }
+
+    protected ApplicationEventOutboxEntry save(String aggregateKey, Date nextAttemptDate) {
+        ApplicationEventOutboxEntry entry = outboxDao.create();
+        entry.setEventType(OrderSubmittedEvent.class.getName());
+        entry.setListenerName(ApplicationEventOutboxDaoTest.class.getName());
+        entry.setAggregateKey(aggregateKey);
+        entry.setIdempotencyKey(aggregateKey + ":" + nextAttemptDate.getTime());
+        entry.setPayload("payload");
+        entry.setStatus(ApplicationEventOutboxStatusType.PENDING);
+        entry.setAttempts(0);
+        entry.setNextAttemptDate(nextAttemptDate);
+        entry.setDateCreated(new Date());
+        return outboxDao.save(entry);
+    }
+
+}